@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Writes the sources of a synthetic component for the benchmarks. The graph has {@code depth}
+ * layers of {@code width} {@code @Inject} classes. Each node depends on two nodes of the next
+ * layer, and the last layer depends on {@code @Singleton @Provides} leaves. The component exposes
+ * every node of the first layer, and {@code SyntheticEntryPoints} calls those entry points by
+ * index.
+ *
+ * <p>Usage: {@code SyntheticGraphGenerator <output directory> <width> <depth> [package]}, where
+ * the package defaults to {@code dagger.benchmarks.synthetic}. Writing the same graph to another
+ * package lets the build compile it a second time with different processor options.
+ */
+public final class SyntheticGraphGenerator {
+  private static final String DEFAULT_PACKAGE = "dagger.benchmarks.synthetic";
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3 && args.length != 4) {
+      throw new IllegalArgumentException(
+          "usage: SyntheticGraphGenerator <output directory> <width> <depth> [package]");
+    }
+    String packageName = args.length == 4 ? args[3] : DEFAULT_PACKAGE;
+    File packageDirectory = new File(args[0], packageName.replace('.', File.separatorChar));
+    int width = Integer.parseInt(args[1]);
+    int depth = Integer.parseInt(args[2]);
+    if (width < 1 || depth < 1) {
+      throw new IllegalArgumentException("width and depth must be positive");
+    }
+    if (!packageDirectory.isDirectory() && !packageDirectory.mkdirs()) {
+      throw new IOException("could not create " + packageDirectory);
+    }
+    new SyntheticGraphGenerator(packageName, packageDirectory, width, depth).generate();
+  }
+
+  private final String packageName;
+  private final File packageDirectory;
+  private final int width;
+  private final int depth;
+
+  private SyntheticGraphGenerator(
+      String packageName, File packageDirectory, int width, int depth) {
+    this.packageName = packageName;
+    this.packageDirectory = packageDirectory;
+    this.width = width;
+    this.depth = depth;
+  }
+
+  private void generate() throws IOException {
+    for (int i = 0; i < width; i++) {
+      PrintWriter leaf = open("Leaf" + i);
+      leaf.println("public final class Leaf" + i + " {}");
+      leaf.close();
+    }
+
+    for (int layer = 0; layer < depth; layer++) {
+      for (int i = 0; i < width; i++) {
+        String first = dependencyName(layer, i);
+        String second = dependencyName(layer, (i + 1) % width);
+        PrintWriter node = open(nodeName(layer, i));
+        node.println("import javax.inject.Inject;");
+        node.println();
+        node.println("public final class " + nodeName(layer, i) + " {");
+        node.println("  @Inject " + nodeName(layer, i) + "(" + first + " first, "
+            + second + " second) {}");
+        node.println("}");
+        node.close();
+      }
+    }
+
+    PrintWriter module = open("SyntheticModule");
+    module.println("import dagger.Module;");
+    module.println("import dagger.Provides;");
+    module.println("import javax.inject.Singleton;");
+    module.println();
+    module.println("@Module");
+    module.println("public final class SyntheticModule {");
+    for (int i = 0; i < width; i++) {
+      module.println("  @Provides @Singleton Leaf" + i + " provideLeaf" + i + "() {");
+      module.println("    return new Leaf" + i + "();");
+      module.println("  }");
+    }
+    module.println("}");
+    module.close();
+
+    PrintWriter component = open("SyntheticComponent");
+    component.println("import dagger.Component;");
+    component.println("import javax.inject.Singleton;");
+    component.println();
+    component.println("/** A component with " + width + " x " + depth + " nodes. */");
+    component.println("@Singleton");
+    component.println("@Component(modules = SyntheticModule.class)");
+    component.println("public interface SyntheticComponent {");
+    component.println("  int WIDTH = " + width + ";");
+    component.println("  int DEPTH = " + depth + ";");
+    component.println();
+    for (int i = 0; i < width; i++) {
+      component.println("  " + nodeName(0, i) + " node" + i + "();");
+    }
+    component.println("}");
+    component.close();
+
+    PrintWriter entryPoints = open("SyntheticEntryPoints");
+    entryPoints.println("/** Calls the entry points of {@link SyntheticComponent} by index. */");
+    entryPoints.println("public final class SyntheticEntryPoints {");
+    entryPoints.println(
+        "  public static Object request(SyntheticComponent component, int index) {");
+    entryPoints.println("    switch (index) {");
+    for (int i = 0; i < width; i++) {
+      entryPoints.println("      case " + i + ":");
+      entryPoints.println("        return component.node" + i + "();");
+    }
+    entryPoints.println("      default:");
+    entryPoints.println("        throw new IndexOutOfBoundsException(String.valueOf(index));");
+    entryPoints.println("    }");
+    entryPoints.println("  }");
+    entryPoints.println();
+    entryPoints.println("  private SyntheticEntryPoints() {}");
+    entryPoints.println("}");
+    entryPoints.close();
+  }
+
+  private String dependencyName(int layer, int index) {
+    return layer == depth - 1 ? "Leaf" + index : nodeName(layer + 1, index);
+  }
+
+  private static String nodeName(int layer, int index) {
+    return "Node" + layer + "_" + index;
+  }
+
+  private PrintWriter open(String className) throws IOException {
+    PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+        new FileOutputStream(new File(packageDirectory, className + ".java")), "UTF-8"));
+    writer.println("// Generated by " + SyntheticGraphGenerator.class.getName());
+    writer.println("package " + packageName + ";");
+    writer.println();
+    return writer;
+  }
+}
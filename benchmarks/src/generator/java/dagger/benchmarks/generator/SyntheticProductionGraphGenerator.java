@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Writes the sources of two synthetic production components for the benchmarks. Each graph has
+ * {@code depth} layers of {@code width} {@code @Produces} methods that return a {@code @Named}
+ * integer. Each node adds two nodes of the next layer, the last layer returns constants, and a
+ * root node adds the first layer. The graphs differ only in how their methods run:
+ * {@code ImmediateProductionComponent} lets them run on the thread that completes their inputs,
+ * and {@code ExecutorProductionComponent} annotates them all {@code @OnExecutor}.
+ *
+ * <p>A third graph, {@code CriticalPathProductionComponent}, is skewed to measure scheduling: its
+ * root depends on {@code width} fan-in nodes of {@code depth} leaves each, and on a chain of
+ * {@code 2 * depth} nodes. Every node runs on the executor and burns the same amount of CPU, and
+ * the root requests the leaves before the chain, so a FIFO executor runs every leaf before the
+ * chain, which then runs alone.
+ *
+ * <p>Usage: {@code SyntheticProductionGraphGenerator <output directory> <width> <depth>}
+ */
+public final class SyntheticProductionGraphGenerator {
+  private static final String PACKAGE = "dagger.benchmarks.synthetic";
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      throw new IllegalArgumentException(
+          "usage: SyntheticProductionGraphGenerator <output directory> <width> <depth>");
+    }
+    File packageDirectory = new File(args[0], PACKAGE.replace('.', File.separatorChar));
+    int width = Integer.parseInt(args[1]);
+    int depth = Integer.parseInt(args[2]);
+    if (width < 1 || depth < 1) {
+      throw new IllegalArgumentException("width and depth must be positive");
+    }
+    if (!packageDirectory.isDirectory() && !packageDirectory.mkdirs()) {
+      throw new IOException("could not create " + packageDirectory);
+    }
+    SyntheticProductionGraphGenerator generator =
+        new SyntheticProductionGraphGenerator(packageDirectory, width, depth);
+    generator.generate("Immediate", false);
+    generator.generate("Executor", true);
+    generator.generateCriticalPath();
+  }
+
+  private final File packageDirectory;
+  private final int width;
+  private final int depth;
+
+  private SyntheticProductionGraphGenerator(File packageDirectory, int width, int depth) {
+    this.packageDirectory = packageDirectory;
+    this.width = width;
+    this.depth = depth;
+  }
+
+  private void generate(String prefix, boolean onExecutor) throws IOException {
+    String annotations = onExecutor ? "@Produces @OnExecutor" : "@Produces";
+
+    PrintWriter module = open(prefix + "ProductionModule");
+    if (onExecutor) {
+      module.println("import dagger.producers.OnExecutor;");
+    }
+    module.println("import dagger.producers.ProducerModule;");
+    module.println("import dagger.producers.Produces;");
+    module.println("import javax.inject.Named;");
+    module.println();
+    module.println("@ProducerModule");
+    module.println("public final class " + prefix + "ProductionModule {");
+    for (int layer = 0; layer < depth; layer++) {
+      for (int i = 0; i < width; i++) {
+        module.print("  " + annotations + " @Named(\"" + nodeName(layer, i) + "\") Integer "
+            + nodeName(layer, i) + "(");
+        if (layer == depth - 1) {
+          module.println(") {");
+          module.println("    return " + i + ";");
+        } else {
+          module.println(namedParameter(layer + 1, i, "first") + ", "
+              + namedParameter(layer + 1, (i + 1) % width, "second") + ") {");
+          module.println("    return first + second;");
+        }
+        module.println("  }");
+        module.println();
+      }
+    }
+    module.println("  " + annotations + " Integer root(");
+    for (int i = 0; i < width; i++) {
+      module.println("      " + namedParameter(0, i, "n" + i) + (i == width - 1 ? ") {" : ","));
+    }
+    module.print("    return 0");
+    for (int i = 0; i < width; i++) {
+      module.print(" + n" + i);
+    }
+    module.println(";");
+    module.println("  }");
+    module.println("}");
+    module.close();
+
+    PrintWriter component = open(prefix + "ProductionComponent");
+    component.println("import com.google.common.util.concurrent.ListenableFuture;");
+    component.println("import dagger.producers.ProductionComponent;");
+    component.println();
+    component.println("/** A production component with " + (width * depth + 1) + " nodes. */");
+    component.println("@ProductionComponent(modules = " + prefix + "ProductionModule.class)");
+    component.println("public interface " + prefix + "ProductionComponent {");
+    component.println("  int NODES = " + (width * depth + 1) + ";");
+    component.println();
+    component.println("  ListenableFuture<Integer> root();");
+    component.println("}");
+    component.close();
+  }
+
+  private void generateCriticalPath() throws IOException {
+    int chainLength = 2 * depth;
+    String annotations = "@Produces @OnExecutor";
+
+    PrintWriter module = open("CriticalPathProductionModule");
+    module.println("import dagger.producers.OnExecutor;");
+    module.println("import dagger.producers.ProducerModule;");
+    module.println("import dagger.producers.Produces;");
+    module.println("import javax.inject.Named;");
+    module.println("import org.openjdk.jmh.infra.Blackhole;");
+    module.println();
+    module.println("@ProducerModule");
+    module.println("public final class CriticalPathProductionModule {");
+    module.println("  /** The CPU that each node burns, in JMH tokens. */");
+    module.println("  private static final long WORK = 1000;");
+    module.println();
+    for (int i = 0; i < width; i++) {
+      for (int j = 0; j < depth; j++) {
+        module.println("  " + annotations + " @Named(\"" + leafName(i, j) + "\") Integer "
+            + leafName(i, j) + "() {");
+        module.println("    Blackhole.consumeCPU(WORK);");
+        module.println("    return " + j + ";");
+        module.println("  }");
+        module.println();
+      }
+      module.println("  " + annotations + " @Named(\"fan" + i + "\") Integer fan" + i + "(");
+      for (int j = 0; j < depth; j++) {
+        module.println("      @Named(\"" + leafName(i, j) + "\") Integer n" + j
+            + (j == depth - 1 ? ") {" : ","));
+      }
+      module.println("    Blackhole.consumeCPU(WORK);");
+      module.print("    return 0");
+      for (int j = 0; j < depth; j++) {
+        module.print(" + n" + j);
+      }
+      module.println(";");
+      module.println("  }");
+      module.println();
+    }
+    for (int i = 0; i < chainLength; i++) {
+      module.print("  " + annotations + " @Named(\"chain" + i + "\") Integer chain" + i + "(");
+      if (i == chainLength - 1) {
+        module.println(") {");
+        module.println("    Blackhole.consumeCPU(WORK);");
+        module.println("    return 1;");
+      } else {
+        module.println("@Named(\"chain" + (i + 1) + "\") Integer next) {");
+        module.println("    Blackhole.consumeCPU(WORK);");
+        module.println("    return next + 1;");
+      }
+      module.println("  }");
+      module.println();
+    }
+    // the root requests its dependencies in parameter order, so the leaves are queued first
+    module.println("  " + annotations + " Integer root(");
+    for (int i = 0; i < width; i++) {
+      module.println("      @Named(\"fan" + i + "\") Integer n" + i + ",");
+    }
+    module.println("      @Named(\"chain0\") Integer chain) {");
+    module.print("    return chain");
+    for (int i = 0; i < width; i++) {
+      module.print(" + n" + i);
+    }
+    module.println(";");
+    module.println("  }");
+    module.println("}");
+    module.close();
+
+    int nodes = width * (depth + 1) + chainLength + 1;
+    PrintWriter component = open("CriticalPathProductionComponent");
+    component.println("import com.google.common.util.concurrent.ListenableFuture;");
+    component.println("import dagger.producers.ProductionComponent;");
+    component.println();
+    component.println("/** A production component with " + nodes + " nodes and a long chain. */");
+    component.println("@ProductionComponent(modules = CriticalPathProductionModule.class)");
+    component.println("public interface CriticalPathProductionComponent {");
+    component.println("  int NODES = " + nodes + ";");
+    component.println();
+    component.println("  ListenableFuture<Integer> root();");
+    component.println("}");
+    component.close();
+  }
+
+  private static String leafName(int fan, int index) {
+    return "leaf" + fan + "_" + index;
+  }
+
+  private static String namedParameter(int layer, int index, String name) {
+    return "@Named(\"" + nodeName(layer, index) + "\") Integer " + name;
+  }
+
+  private static String nodeName(int layer, int index) {
+    return "p" + layer + "_" + index;
+  }
+
+  private PrintWriter open(String className) throws IOException {
+    PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+        new FileOutputStream(new File(packageDirectory, className + ".java")), "UTF-8"));
+    writer.println("// Generated by " + SyntheticProductionGraphGenerator.class.getName());
+    writer.println("package " + PACKAGE + ";");
+    writer.println();
+    return writer;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package coffee;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the component generated for the coffee example. It lives in the example's package
+ * because the example's bindings are package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CoffeeComponentBenchmark {
+  private CoffeeApp.Coffee coffee;
+
+  @Setup public void setUp() {
+    coffee = Dagger_CoffeeApp_Coffee.builder().build();
+  }
+
+  @Benchmark public CoffeeApp.Coffee create() {
+    return Dagger_CoffeeApp_Coffee.builder().build();
+  }
+
+  // CoffeeMaker is package-private, so it can't be named by the generated benchmark classes
+  @Benchmark public Object maker() {
+    return coffee.maker();
+  }
+
+  @Benchmark @Threads(4) public Object makerContended() {
+    return coffee.maker();
+  }
+}
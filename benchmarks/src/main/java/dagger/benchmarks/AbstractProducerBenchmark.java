@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.internal.AbstractProducer;
+import dagger.producers.monitoring.ProducerMonitor;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time for {@code requesters} threads to concurrently make the first request to a
+ * fresh producer whose computation burns {@code computeTokens} of CPU, as the consumers of a node
+ * in a wide graph do. {@code CAS} is {@link AbstractProducer}; {@code SYNCHRONIZED} is the
+ * double-checked locking that it replaced, under which the requesters block on the producer's
+ * monitor until the computation is done.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AbstractProducerBenchmark {
+  public enum Memoization {
+    CAS {
+      @Override Producer<Object> create(final int computeTokens) {
+        return new AbstractProducer<Object>() {
+          @Override protected ListenableFuture<Object> compute(ProducerMonitor unusedMonitor) {
+            Blackhole.consumeCPU(computeTokens);
+            return Futures.<Object>immediateFuture(this);
+          }
+        };
+      }
+    },
+    SYNCHRONIZED {
+      @Override Producer<Object> create(final int computeTokens) {
+        return new SynchronizedProducer(computeTokens);
+      }
+    };
+
+    abstract Producer<Object> create(int computeTokens);
+  }
+
+  private static final class SynchronizedProducer implements Producer<Object> {
+    private final int computeTokens;
+    private volatile ListenableFuture<Object> instance;
+
+    SynchronizedProducer(int computeTokens) {
+      this.computeTokens = computeTokens;
+    }
+
+    @Override public ListenableFuture<Object> get() {
+      ListenableFuture<Object> result = instance;
+      if (result == null) {
+        synchronized (this) {
+          result = instance;
+          if (result == null) {
+            Blackhole.consumeCPU(computeTokens);
+            instance = result = Futures.<Object>immediateFuture(this);
+          }
+        }
+      }
+      return result;
+    }
+  }
+
+  @Param({"CAS", "SYNCHRONIZED"})
+  Memoization memoization;
+
+  @Param({"64"})
+  int requesters;
+
+  @Param({"0", "10000"})
+  int computeTokens;
+
+  private ExecutorService executor;
+
+  @Setup public void setUp() {
+    executor = Executors.newFixedThreadPool(requesters);
+  }
+
+  @TearDown public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark public void concurrentFirstRequests() throws InterruptedException {
+    final Producer<Object> producer = memoization.create(computeTokens);
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(requesters);
+    for (int i = 0; i < requesters; i++) {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            start.await();
+            producer.get();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        }
+      });
+    }
+    start.countDown();
+    done.await();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.benchmarks.synthetic.Dagger_CriticalPathProductionComponent;
+import dagger.producers.scheduling.PriorityExecutor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the end-to-end latency of a request to the synthetic critical-path production graph,
+ * whose root depends on many leaves and on one long chain, when its nodes run on a plain FIFO
+ * thread pool and on a {@link PriorityExecutor}, which runs the chain ahead of the leaves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CriticalPathSchedulingBenchmark {
+  public enum Scheduling {
+    FIFO,
+    PRIORITY,
+  }
+
+  @Param({"FIFO", "PRIORITY"})
+  Scheduling scheduling;
+
+  @Param({"4"})
+  int threads;
+
+  private ExecutorService executor;
+
+  @Setup public void setUp() {
+    switch (scheduling) {
+      case FIFO:
+        executor = Executors.newFixedThreadPool(threads);
+        break;
+      case PRIORITY:
+        executor = PriorityExecutor.create(threads);
+        break;
+      default:
+        throw new AssertionError(scheduling);
+    }
+  }
+
+  @TearDown public void tearDown() {
+    executor.shutdown();
+  }
+
+  /** Creates a component and waits for its root, as a server would for each request. */
+  @Benchmark public Integer request() throws InterruptedException, ExecutionException {
+    return Dagger_CriticalPathProductionComponent.builder()
+        .executor(executor)
+        .build()
+        .root()
+        .get();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.Factory;
+import dagger.Lazy;
+import dagger.internal.DoubleCheckLazy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Measures {@link DoubleCheckLazy#get}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DoubleCheckLazyBenchmark {
+  private static final Factory<Object> OBJECT_FACTORY = new Factory<Object>() {
+    @Override public Object get() {
+      return new Object();
+    }
+  };
+
+  private Lazy<Object> lazy;
+
+  @Setup public void setUp() {
+    lazy = DoubleCheckLazy.create(OBJECT_FACTORY);
+    lazy.get();
+  }
+
+  @Benchmark public Object get() {
+    return lazy.get();
+  }
+
+  @Benchmark @Threads(4) public Object getContended() {
+    return lazy.get();
+  }
+
+  /** Includes creating the lazy and the first, initializing, call to {@code get()}. */
+  @Benchmark public Object createAndGet() {
+    return DoubleCheckLazy.create(OBJECT_FACTORY).get();
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.Factory;
+import dagger.internal.MapFactory;
+import dagger.internal.MapProviderFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Measures {@link MapFactory#get} for a map binding with {@code size} entries. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapFactoryBenchmark {
+  @Param({"1", "10", "100"})
+  int size;
+
+  private Factory<Map<Integer, Object>> mapFactory;
+
+  @Setup public void setUp() {
+    MapProviderFactory.Builder<Integer, Object> builder = MapProviderFactory.builder(size);
+    for (int i = 0; i < size; i++) {
+      builder.put(i, new Factory<Object>() {
+        @Override public Object get() {
+          return new Object();
+        }
+      });
+    }
+    mapFactory = MapFactory.create(builder.build());
+  }
+
+  @Benchmark public Map<Integer, Object> get() {
+    return mapFactory.get();
+  }
+
+  @Benchmark @Threads(4) public Map<Integer, Object> getContended() {
+    return mapFactory.get();
+  }
+}
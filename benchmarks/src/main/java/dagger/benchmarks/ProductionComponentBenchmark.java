@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.benchmarks.synthetic.Dagger_ExecutorProductionComponent;
+import dagger.benchmarks.synthetic.Dagger_ImmediateProductionComponent;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the end-to-end latency of a request to the synthetic production graphs, whose size is
+ * set by the {@code synthetic.producers.width} and {@code synthetic.producers.depth} build
+ * properties. Every node of {@code IMMEDIATE} runs on the thread that completes its inputs; every
+ * node of {@code EXECUTOR} is annotated {@code @OnExecutor} and hops to the executor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductionComponentBenchmark {
+  public enum Execution {
+    IMMEDIATE,
+    EXECUTOR,
+  }
+
+  @Param({"IMMEDIATE", "EXECUTOR"})
+  Execution execution;
+
+  @Param({"4"})
+  int threads;
+
+  private ExecutorService executor;
+
+  @Setup public void setUp() {
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  @TearDown public void tearDown() {
+    executor.shutdown();
+  }
+
+  /** Creates a component and waits for its root, as a server would for each request. */
+  @Benchmark public Integer request() throws InterruptedException, ExecutionException {
+    switch (execution) {
+      case IMMEDIATE:
+        return Dagger_ImmediateProductionComponent.builder()
+            .executor(executor)
+            .build()
+            .root()
+            .get();
+      case EXECUTOR:
+        return Dagger_ExecutorProductionComponent.builder()
+            .executor(executor)
+            .build()
+            .root()
+            .get();
+      default:
+        throw new AssertionError(execution);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.Factory;
+import dagger.internal.ScopedProvider;
+import dagger.internal.SingleCheckProvider;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link Provider#get} on the providers that memoize scoped bindings, once the instance
+ * has been created.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScopedProviderBenchmark {
+  enum ProviderKind {
+    SCOPED {
+      @Override Provider<Object> create(Factory<Object> factory) {
+        return ScopedProvider.create(factory);
+      }
+    },
+    SINGLE_CHECK {
+      @Override Provider<Object> create(Factory<Object> factory) {
+        return SingleCheckProvider.create(factory);
+      }
+    };
+
+    abstract Provider<Object> create(Factory<Object> factory);
+  }
+
+  private static final Factory<Object> OBJECT_FACTORY = new Factory<Object>() {
+    @Override public Object get() {
+      return new Object();
+    }
+  };
+
+  @Param({"SCOPED", "SINGLE_CHECK"})
+  ProviderKind kind;
+
+  private Provider<Object> provider;
+
+  @Setup public void setUp() {
+    provider = kind.create(OBJECT_FACTORY);
+    provider.get();
+  }
+
+  @Benchmark public Object get() {
+    return provider.get();
+  }
+
+  @Benchmark @Threads(4) public Object getContended() {
+    return provider.get();
+  }
+
+  /** Includes creating the provider and the first, initializing, call to {@code get()}. */
+  @Benchmark public Object createAndGet() {
+    return kind.create(OBJECT_FACTORY).get();
+  }
+}
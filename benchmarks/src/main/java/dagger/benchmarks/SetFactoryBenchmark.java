@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.Factory;
+import dagger.internal.SetFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** Measures {@link SetFactory#get} for a set binding with {@code size} contributions. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SetFactoryBenchmark {
+  @Param({"1", "10", "100"})
+  int size;
+
+  private Factory<Set<Integer>> setFactory;
+
+  @Setup public void setUp() {
+    @SuppressWarnings("unchecked")
+    Provider<Set<Integer>>[] rest = new Provider[size - 1];
+    for (int i = 0; i < rest.length; i++) {
+      rest[i] = singletonSetFactory(i + 1);
+    }
+    setFactory = SetFactory.create(singletonSetFactory(0), rest);
+  }
+
+  private static Factory<Set<Integer>> singletonSetFactory(final int value) {
+    return new Factory<Set<Integer>>() {
+      @Override public Set<Integer> get() {
+        return Collections.singleton(value);
+      }
+    };
+  }
+
+  @Benchmark public Set<Integer> get() {
+    return setFactory.get();
+  }
+
+  @Benchmark @Threads(4) public Set<Integer> getContended() {
+    return setFactory.get();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.benchmarks.synthetic.Dagger_SyntheticComponent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cold start of the synthetic component: creating it and making its first request
+ * in a fresh JVM, which is dominated by loading and initializing the classes the component uses.
+ * {@code factories} is the component generated with a {@code Factory} class per binding;
+ * {@code switchingProviders} is the same graph generated with
+ * {@code -Adagger.switchingProviders}, which constructs its bindings in one nested class. Run
+ * with {@code -prof cl} to report the number of classes each variant loads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class SwitchingProvidersColdStartBenchmark {
+  @Benchmark public Object factories() {
+    return Dagger_SyntheticComponent.create().node0();
+  }
+
+  @Benchmark public Object switchingProviders() {
+    return dagger.benchmarks.synthetic.switching.Dagger_SyntheticComponent.create().node0();
+  }
+}
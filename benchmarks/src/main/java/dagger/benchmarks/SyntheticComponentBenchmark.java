@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.benchmarks;
+
+import dagger.benchmarks.synthetic.Dagger_SyntheticComponent;
+import dagger.benchmarks.synthetic.SyntheticComponent;
+import dagger.benchmarks.synthetic.SyntheticEntryPoints;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the component generated for the synthetic graph, whose size is set by the
+ * {@code synthetic.width} and {@code synthetic.depth} build properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SyntheticComponentBenchmark {
+  private SyntheticComponent component;
+
+  @Setup public void setUp() {
+    component = Dagger_SyntheticComponent.create();
+  }
+
+  @Benchmark public SyntheticComponent create() {
+    return Dagger_SyntheticComponent.create();
+  }
+
+  /** Includes creating the component and requesting the first node once. */
+  @Benchmark public Object createAndRequest() {
+    return Dagger_SyntheticComponent.create().node0();
+  }
+
+  @Benchmark public void requestAll(Blackhole blackhole) {
+    requestAll(component, blackhole);
+  }
+
+  @Benchmark @Threads(4) public void requestAllContended(Blackhole blackhole) {
+    requestAll(component, blackhole);
+  }
+
+  private static void requestAll(SyntheticComponent component, Blackhole blackhole) {
+    // each entry point constructs the DEPTH layers below it
+    for (int i = 0; i < SyntheticComponent.WIDTH; i++) {
+      blackhole.consume(SyntheticEntryPoints.request(component, i));
+    }
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+final class CoffeeMaker {
+  final Pump pump;
+  final Grinder grinder;
+  final Provider<Heater> heaterProvider;
+
+  @Inject CoffeeMaker(Pump pump, Grinder grinder, Provider<Heater> heaterProvider) {
+    this.pump = pump;
+    this.grinder = grinder;
+    this.heaterProvider = heaterProvider;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Tests components generated with {@code -Adagger.directInvocation}. */
+@RunWith(JUnit4.class)
+public class DirectInvocationTest {
+  @Test public void entryPointsConstructBindings() {
+    CoffeeComponent component = Dagger_CoffeeComponent.create();
+    CoffeeMaker maker = component.maker();
+    assertEquals(3, maker.grinder.setting);
+    assertSame(maker.pump.heater, maker.heaterProvider.get());
+    assertNotSame(maker, component.maker());
+    assertNotSame(maker.pump, component.lazyPump().get());
+    assertSame(maker.pump.heater, component.lazyPump().get().heater);
+    assertEquals(3, component.grindSetting());
+  }
+
+  @Test public void onlyRequestedFrameworkFieldsAreKept() {
+    Set<String> fieldNames = new HashSet<String>();
+    for (Field field : Dagger_CoffeeComponent.class.getDeclaredFields()) {
+      fieldNames.add(field.getName());
+    }
+    // requested as a Provider or Lazy, or scoped
+    assertTrue(fieldNames.contains("heaterProvider"));
+    assertTrue(fieldNames.contains("pumpProvider"));
+    // only ever invoked directly
+    assertFalse(fieldNames.contains("coffeeMakerProvider"));
+    assertFalse(fieldNames.contains("grinderProvider"));
+    assertFalse(fieldNames.contains("grindSettingProvider"));
+  }
+}
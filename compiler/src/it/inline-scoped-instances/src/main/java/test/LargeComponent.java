@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.Component;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+@Singleton
+@Component(modules = LargeModule.class)
+interface LargeComponent {
+  @Named("binding1") Object binding1();
+  @Named("binding2") Object binding2();
+  @Named("binding3") Object binding3();
+  @Named("binding4") Object binding4();
+  @Named("binding5") Object binding5();
+  @Named("binding6") Object binding6();
+  @Named("binding7") Object binding7();
+  @Named("binding8") Object binding8();
+  @Named("binding9") Object binding9();
+  @Named("binding10") Object binding10();
+  @Named("binding11") Object binding11();
+  @Named("binding12") Object binding12();
+  @Named("binding13") Object binding13();
+  @Named("binding14") Object binding14();
+  @Named("binding15") Object binding15();
+  @Named("binding16") Object binding16();
+  @Named("binding17") Object binding17();
+  @Named("binding18") Object binding18();
+  @Named("binding19") Object binding19();
+  @Named("binding20") Object binding20();
+  @Named("binding21") Object binding21();
+  @Named("binding22") Object binding22();
+  @Named("binding23") Object binding23();
+  @Named("binding24") Object binding24();
+  @Named("binding25") Object binding25();
+  @Named("binding26") Object binding26();
+  @Named("binding27") Object binding27();
+  @Named("binding28") Object binding28();
+  @Named("binding29") Object binding29();
+  @Named("binding30") Object binding30();
+  @Named("binding31") Object binding31();
+  @Named("binding32") Object binding32();
+  @Named("binding33") Object binding33();
+  @Named("binding34") Object binding34();
+  @Named("binding35") Object binding35();
+  @Named("binding36") Object binding36();
+  @Named("binding37") Object binding37();
+  @Named("binding38") Object binding38();
+  @Named("binding39") Object binding39();
+  @Named("binding40") Object binding40();
+  @Named("binding41") Object binding41();
+  @Named("binding42") Object binding42();
+  @Named("binding43") Object binding43();
+  @Named("binding44") Object binding44();
+  @Named("binding45") Object binding45();
+  @Named("binding46") Object binding46();
+  @Named("binding47") Object binding47();
+  @Named("binding48") Object binding48();
+  @Named("binding49") Object binding49();
+  @Named("binding50") Object binding50();
+  @Named("binding51") Object binding51();
+  @Named("binding52") Object binding52();
+  @Named("binding53") Object binding53();
+  @Named("binding54") Object binding54();
+  @Named("binding55") Object binding55();
+  @Named("binding56") Object binding56();
+  @Named("binding57") Object binding57();
+  @Named("binding58") Object binding58();
+  @Named("binding59") Object binding59();
+  @Named("binding60") Object binding60();
+  @Named("binding61") Object binding61();
+  @Named("binding62") Object binding62();
+  @Named("binding63") Object binding63();
+  @Named("binding64") Object binding64();
+  @Named("binding65") Object binding65();
+  @Named("binding66") Object binding66();
+  @Named("binding67") Object binding67();
+  @Named("binding68") Object binding68();
+  @Named("binding69") Object binding69();
+  @Named("binding70") Object binding70();
+  @Named("binding71") Object binding71();
+  @Named("binding72") Object binding72();
+  @Named("binding73") Object binding73();
+  @Named("binding74") Object binding74();
+  @Named("binding75") Object binding75();
+  @Named("binding76") Object binding76();
+  @Named("binding77") Object binding77();
+  @Named("binding78") Object binding78();
+  @Named("binding79") Object binding79();
+  @Named("binding80") Object binding80();
+  @Named("binding81") Object binding81();
+  @Named("binding82") Object binding82();
+  @Named("binding83") Object binding83();
+  @Named("binding84") Object binding84();
+  @Named("binding85") Object binding85();
+  @Named("binding86") Object binding86();
+  @Named("binding87") Object binding87();
+  @Named("binding88") Object binding88();
+  @Named("binding89") Object binding89();
+  @Named("binding90") Object binding90();
+  @Named("binding91") Object binding91();
+  @Named("binding92") Object binding92();
+  @Named("binding93") Object binding93();
+  @Named("binding94") Object binding94();
+  @Named("binding95") Object binding95();
+  @Named("binding96") Object binding96();
+  @Named("binding97") Object binding97();
+  @Named("binding98") Object binding98();
+  @Named("binding99") Object binding99();
+  @Named("binding100") Object binding100();
+}
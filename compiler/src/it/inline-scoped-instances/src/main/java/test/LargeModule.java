@@ -0,0 +1,529 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.Module;
+import dagger.Provides;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * A synthetic module with a chain of {@value #SIZE} scoped bindings, each depending on the
+ * previous one.
+ */
+@Module
+class LargeModule {
+  static final int SIZE = 100;
+
+  @Provides @Singleton @Named("binding1") Object binding1() {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding2")
+  Object binding2(@Named("binding1") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding3")
+  Object binding3(@Named("binding2") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding4")
+  Object binding4(@Named("binding3") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding5")
+  Object binding5(@Named("binding4") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding6")
+  Object binding6(@Named("binding5") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding7")
+  Object binding7(@Named("binding6") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding8")
+  Object binding8(@Named("binding7") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding9")
+  Object binding9(@Named("binding8") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding10")
+  Object binding10(@Named("binding9") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding11")
+  Object binding11(@Named("binding10") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding12")
+  Object binding12(@Named("binding11") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding13")
+  Object binding13(@Named("binding12") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding14")
+  Object binding14(@Named("binding13") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding15")
+  Object binding15(@Named("binding14") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding16")
+  Object binding16(@Named("binding15") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding17")
+  Object binding17(@Named("binding16") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding18")
+  Object binding18(@Named("binding17") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding19")
+  Object binding19(@Named("binding18") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding20")
+  Object binding20(@Named("binding19") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding21")
+  Object binding21(@Named("binding20") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding22")
+  Object binding22(@Named("binding21") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding23")
+  Object binding23(@Named("binding22") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding24")
+  Object binding24(@Named("binding23") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding25")
+  Object binding25(@Named("binding24") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding26")
+  Object binding26(@Named("binding25") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding27")
+  Object binding27(@Named("binding26") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding28")
+  Object binding28(@Named("binding27") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding29")
+  Object binding29(@Named("binding28") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding30")
+  Object binding30(@Named("binding29") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding31")
+  Object binding31(@Named("binding30") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding32")
+  Object binding32(@Named("binding31") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding33")
+  Object binding33(@Named("binding32") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding34")
+  Object binding34(@Named("binding33") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding35")
+  Object binding35(@Named("binding34") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding36")
+  Object binding36(@Named("binding35") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding37")
+  Object binding37(@Named("binding36") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding38")
+  Object binding38(@Named("binding37") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding39")
+  Object binding39(@Named("binding38") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding40")
+  Object binding40(@Named("binding39") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding41")
+  Object binding41(@Named("binding40") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding42")
+  Object binding42(@Named("binding41") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding43")
+  Object binding43(@Named("binding42") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding44")
+  Object binding44(@Named("binding43") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding45")
+  Object binding45(@Named("binding44") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding46")
+  Object binding46(@Named("binding45") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding47")
+  Object binding47(@Named("binding46") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding48")
+  Object binding48(@Named("binding47") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding49")
+  Object binding49(@Named("binding48") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding50")
+  Object binding50(@Named("binding49") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding51")
+  Object binding51(@Named("binding50") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding52")
+  Object binding52(@Named("binding51") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding53")
+  Object binding53(@Named("binding52") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding54")
+  Object binding54(@Named("binding53") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding55")
+  Object binding55(@Named("binding54") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding56")
+  Object binding56(@Named("binding55") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding57")
+  Object binding57(@Named("binding56") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding58")
+  Object binding58(@Named("binding57") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding59")
+  Object binding59(@Named("binding58") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding60")
+  Object binding60(@Named("binding59") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding61")
+  Object binding61(@Named("binding60") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding62")
+  Object binding62(@Named("binding61") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding63")
+  Object binding63(@Named("binding62") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding64")
+  Object binding64(@Named("binding63") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding65")
+  Object binding65(@Named("binding64") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding66")
+  Object binding66(@Named("binding65") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding67")
+  Object binding67(@Named("binding66") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding68")
+  Object binding68(@Named("binding67") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding69")
+  Object binding69(@Named("binding68") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding70")
+  Object binding70(@Named("binding69") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding71")
+  Object binding71(@Named("binding70") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding72")
+  Object binding72(@Named("binding71") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding73")
+  Object binding73(@Named("binding72") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding74")
+  Object binding74(@Named("binding73") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding75")
+  Object binding75(@Named("binding74") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding76")
+  Object binding76(@Named("binding75") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding77")
+  Object binding77(@Named("binding76") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding78")
+  Object binding78(@Named("binding77") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding79")
+  Object binding79(@Named("binding78") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding80")
+  Object binding80(@Named("binding79") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding81")
+  Object binding81(@Named("binding80") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding82")
+  Object binding82(@Named("binding81") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding83")
+  Object binding83(@Named("binding82") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding84")
+  Object binding84(@Named("binding83") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding85")
+  Object binding85(@Named("binding84") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding86")
+  Object binding86(@Named("binding85") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding87")
+  Object binding87(@Named("binding86") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding88")
+  Object binding88(@Named("binding87") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding89")
+  Object binding89(@Named("binding88") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding90")
+  Object binding90(@Named("binding89") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding91")
+  Object binding91(@Named("binding90") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding92")
+  Object binding92(@Named("binding91") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding93")
+  Object binding93(@Named("binding92") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding94")
+  Object binding94(@Named("binding93") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding95")
+  Object binding95(@Named("binding94") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding96")
+  Object binding96(@Named("binding95") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding97")
+  Object binding97(@Named("binding96") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding98")
+  Object binding98(@Named("binding97") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding99")
+  Object binding99(@Named("binding98") Object previous) {
+    return new Object();
+  }
+
+  @Provides @Singleton @Named("binding100")
+  Object binding100(@Named("binding99") Object previous) {
+    return new Object();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.collect.Sets;
+import dagger.Factory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the heap retained by a large component generated with
+ * {@code -Adagger.inlineScopedInstances} to the same component generated without it.
+ */
+@RunWith(JUnit4.class)
+public class HeapFootprintTest {
+  @Test public void inlinedComponentRetainsFewerObjects() throws Exception {
+    LargeModule module = new LargeModule();
+
+    LargeComponent baseline =
+        Dagger_BaselineLargeComponent.builder().largeModule(module).build();
+    initializeAll(baseline);
+    Set<Object> before = reachableObjects(baseline);
+
+    LargeComponent component = Dagger_LargeComponent.builder().largeModule(module).build();
+    initializeAll(component);
+    Set<Object> after = reachableObjects(component);
+
+    assertTrue(String.format("retained objects for %d scoped bindings: %d before, %d after",
+            LargeModule.SIZE, before.size(), after.size()),
+        after.size() < before.size());
+  }
+
+  @Test public void dependentsShareOneProviderClass() throws Exception {
+    LargeComponent component = Dagger_LargeComponent.create();
+    initializeAll(component);
+    Set<Class<?>> nestedClasses = Sets.newHashSet();
+    for (Object object : reachableObjects(component)) {
+      if (object.getClass().getEnclosingClass() == Dagger_LargeComponent.class) {
+        nestedClasses.add(object.getClass());
+      }
+    }
+    assertEquals(1, nestedClasses.size());
+  }
+
+  @Test public void initializedComponentDropsFactories() throws Exception {
+    LargeComponent component = Dagger_LargeComponent.create();
+    assertEquals(LargeModule.SIZE, countModuleFactories(reachableObjects(component)));
+    initializeAll(component);
+    assertEquals(0, countModuleFactories(reachableObjects(component)));
+  }
+
+  private static void initializeAll(LargeComponent component) throws Exception {
+    for (int i = 1; i <= LargeModule.SIZE; i++) {
+      assertThat(LargeComponent.class.getMethod("binding" + i).invoke(component)).isNotNull();
+    }
+  }
+
+  /** Counts the generated factories of {@link LargeModule}'s methods in {@code objects}. */
+  private static int countModuleFactories(Set<Object> objects) {
+    int count = 0;
+    for (Object object : objects) {
+      if (object instanceof Factory
+          && object.getClass().getName().startsWith(LargeModule.class.getName() + "$$")) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns every object reachable from {@code root} through instance fields and arrays. Objects
+   * from the JDK are counted but not traversed.
+   */
+  private static Set<Object> reachableObjects(Object root) throws IllegalAccessException {
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    Deque<Object> queue = new ArrayDeque<Object>();
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      Object object = queue.remove();
+      if (!visited.add(object)) {
+        continue;
+      }
+      Class<?> type = object.getClass();
+      if (type.isArray()) {
+        if (!type.getComponentType().isPrimitive()) {
+          for (int i = 0; i < Array.getLength(object); i++) {
+            Object element = Array.get(object, i);
+            if (element != null) {
+              queue.add(element);
+            }
+          }
+        }
+        continue;
+      }
+      for (; type != null && !type.getName().startsWith("java."); type = type.getSuperclass()) {
+        for (Field field : type.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+            continue;
+          }
+          field.setAccessible(true);
+          Object value = field.get(object);
+          if (value != null) {
+            queue.add(value);
+          }
+        }
+      }
+    }
+    return visited;
+  }
+}
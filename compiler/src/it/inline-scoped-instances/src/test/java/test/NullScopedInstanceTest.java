@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/** Tests scoped instances that are null and held directly by the component. */
+@RunWith(JUnit4.class)
+public class NullScopedInstanceTest {
+  @Test public void nullInstanceIsProvidedOnce() {
+    NullableModule module = new NullableModule();
+    NullableComponent component = Dagger_NullableComponent.builder()
+        .nullableModule(module)
+        .build();
+    assertNull(component.absent());
+    assertNull(component.absent());
+    assertEquals("null", component.described());
+    assertEquals(1, module.provisions.get());
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.ProvisionListener;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Tests components generated with {@code -Adagger.instrumentProvisions}. */
+@RunWith(JUnit4.class)
+public class InstrumentProvisionsTest {
+  private static final class RecordingListener implements ProvisionListener {
+    final List<String> provisions = new ArrayList<String>();
+
+    @Override public synchronized void onProvision(
+        String key, long durationNanos, boolean cached) {
+      assertTrue(durationNanos >= 0);
+      provisions.add(key + (cached ? " (cached)" : ""));
+    }
+  }
+
+  @Test public void reportsEveryProvision() {
+    RecordingListener listener = new RecordingListener();
+    ClockComponent component =
+        Dagger_ClockComponent.builder().provisionListener(listener).build();
+
+    Ticker ticker = component.ticker();
+    assertEquals(3, listener.provisions.size());
+    assertTrue(listener.provisions.contains("test.Clock"));
+    assertTrue(listener.provisions.contains("test.Gear"));
+    assertEquals("test.Ticker", listener.provisions.get(2));
+
+    listener.provisions.clear();
+    assertSame(ticker.clock, component.clockProvider().get());
+    assertEquals("test.Clock (cached)", listener.provisions.get(0));
+
+    listener.provisions.clear();
+    assertEquals("UTC", component.zone());
+    assertNotNull(component.box());
+    assertEquals(2, listener.provisions.size());
+    assertTrue(listener.provisions.get(0).contains("Named"));
+    assertTrue(listener.provisions.get(0).endsWith(" java.lang.String"));
+    assertEquals("test.Box<java.lang.String>", listener.provisions.get(1));
+  }
+
+  @Test public void listenerIsOptional() {
+    ClockComponent component = Dagger_ClockComponent.create();
+    assertSame(component.ticker().clock, component.clockProvider().get());
+  }
+}
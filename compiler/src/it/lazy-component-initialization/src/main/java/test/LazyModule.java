@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.Module;
+import dagger.Provides;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Singleton;
+
+import static dagger.Provides.Type.SET;
+
+@Module
+final class LazyModule {
+  final AtomicInteger provisions = new AtomicInteger();
+
+  @Provides String greeting() {
+    return "hello";
+  }
+
+  @Provides @Singleton Integer instanceNumber() {
+    return provisions.incrementAndGet();
+  }
+
+  @Provides(type = SET) String firstName() {
+    return "first";
+  }
+
+  @Provides(type = SET) String secondName() {
+    return "second";
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.collect.ImmutableSet;
+import dagger.MembersInjector;
+import java.lang.reflect.Field;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+
+/** Tests components generated with {@code -Adagger.lazyComponentInitialization}. */
+@RunWith(JUnit4.class)
+public class LazyComponentInitializationTest {
+  @Test public void constructorCreatesNoFrameworkFields() throws Exception {
+    LazyComponent component = Dagger_LazyComponent.create();
+    assertEquals(0, countInitializedFrameworkFields(component));
+  }
+
+  @Test public void entryPointCreatesOnlyWhatItNeeds() throws Exception {
+    LazyComponent component = Dagger_LazyComponent.create();
+    assertThat(component.greeting()).isEqualTo("hello");
+    assertEquals(1, countInitializedFrameworkFields(component));
+    assertThat(component.greeting()).isEqualTo("hello");
+    assertEquals(1, countInitializedFrameworkFields(component));
+  }
+
+  @Test public void bindingsBehaveAsWhenEagerlyInitialized() {
+    LazyModule module = new LazyModule();
+    LazyComponent component = Dagger_LazyComponent.builder().lazyModule(module).build();
+    assertThat(component.names().get()).isEqualTo(ImmutableSet.of("first", "second"));
+
+    Greeter greeter = component.greeter();
+    assertThat(greeter.greeting).isEqualTo("hello");
+    assertThat(greeter.instanceNumber).isEqualTo(1);
+    assertThat(component.instanceNumber()).isEqualTo(1);
+
+    Greeter injected = new Greeter("hi");
+    component.injectGreeter(injected);
+    assertThat(injected.instanceNumber).isEqualTo(1);
+    assertThat(module.provisions.get()).isEqualTo(1);
+  }
+
+  @Test public void concurrentFirstRequestsShareScopedInstance() throws Exception {
+    final LazyModule module = new LazyModule();
+    final LazyComponent component = Dagger_LazyComponent.builder().lazyModule(module).build();
+    int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      Future<?>[] results = new Future<?>[threads];
+      for (int i = 0; i < threads; i++) {
+        results[i] = executor.submit(new Callable<Integer>() {
+          @Override public Integer call() throws InterruptedException {
+            start.await();
+            return component.greeter().instanceNumber;
+          }
+        });
+      }
+      start.countDown();
+      for (Future<?> result : results) {
+        assertThat(result.get()).isEqualTo(1);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(module.provisions.get()).isEqualTo(1);
+  }
+
+  private static int countInitializedFrameworkFields(Object component)
+      throws IllegalAccessException {
+    int count = 0;
+    for (Field field : component.getClass().getDeclaredFields()) {
+      if (Provider.class.isAssignableFrom(field.getType())
+          || MembersInjector.class.isAssignableFrom(field.getType())) {
+        field.setAccessible(true);
+        if (field.get(component) != null) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
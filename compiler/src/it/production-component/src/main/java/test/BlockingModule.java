@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.producers.OnExecutor;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+
+/** Reads a row with blocking I/O, and checksums it on the component's executor. */
+@ProducerModule
+final class BlockingModule {
+  @Produces Integer id() {
+    return 42;
+  }
+
+  @Produces @OnExecutor(Blocking.class) String row(Integer id) {
+    return "row " + id;
+  }
+
+  @Produces @OnExecutor Long checksum(String row) {
+    return (long) row.hashCode();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.producers.Cached;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Looks up a per-tenant setting, counting the lookups. */
+@ProducerModule
+final class CachedModule {
+  private final int tenant;
+  private final AtomicInteger lookups;
+
+  CachedModule(int tenant, AtomicInteger lookups) {
+    this.tenant = tenant;
+    this.lookups = lookups;
+  }
+
+  @Produces Integer tenant() {
+    return tenant;
+  }
+
+  @Produces @Cached(ttl = 1, unit = TimeUnit.MINUTES) String setting(Integer tenant) {
+    return "setting" + tenant + "#" + lookups.incrementAndGet();
+  }
+}
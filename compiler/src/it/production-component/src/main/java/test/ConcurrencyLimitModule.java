@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.ConcurrencyLimit;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.util.List;
+import javax.inject.Named;
+
+/** A backend that serves one query at a time, and records the responses it owes. */
+@ProducerModule
+final class ConcurrencyLimitModule {
+  static final String GROUP = "test.ConcurrencyLimitModule.backend";
+
+  private final List<SettableFuture<String>> responses;
+
+  ConcurrencyLimitModule(List<SettableFuture<String>> responses) {
+    this.responses = responses;
+  }
+
+  @Produces String key() {
+    return "key";
+  }
+
+  @Produces @ConcurrencyLimit(value = 1, group = GROUP)
+  ListenableFuture<String> query(String key) {
+    SettableFuture<String> response = SettableFuture.create();
+    responses.add(response);
+    return response;
+  }
+
+  @Produces @ConcurrencyLimit(2) @Named("row") String row(String key) {
+    return "row for " + key;
+  }
+}
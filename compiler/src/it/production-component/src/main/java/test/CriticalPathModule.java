@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.producers.OnExecutor;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.inject.Named;
+
+/**
+ * A chain of three producers and two independent leaves that all feed {@code root}, recording the
+ * order in which they run. The component queues {@code chainStart} with priority 3,
+ * {@code chain2} with 2, {@code chain3} and both leaves with 1, and {@code root} with 0.
+ */
+@ProducerModule
+final class CriticalPathModule {
+  final List<String> order = new CopyOnWriteArrayList<String>();
+
+  @Produces @OnExecutor @Named("chainStart") String chainStart() {
+    return run("chainStart");
+  }
+
+  @Produces @OnExecutor @Named("chain2") String chain2(@Named("chainStart") String chainStart) {
+    return run("chain2");
+  }
+
+  @Produces @OnExecutor @Named("chain3") String chain3(@Named("chain2") String chain2) {
+    return run("chain3");
+  }
+
+  @Produces @OnExecutor @Named("fanLeaf1") String fanLeaf1() {
+    return run("fanLeaf1");
+  }
+
+  @Produces @OnExecutor @Named("fanLeaf2") String fanLeaf2() {
+    return run("fanLeaf2");
+  }
+
+  @Produces @OnExecutor @Named("root") String root(@Named("chain3") String chain3,
+      @Named("fanLeaf1") String fanLeaf1, @Named("fanLeaf2") String fanLeaf2) {
+    return run("root");
+  }
+
+  private String run(String name) {
+    order.add(name);
+    return name;
+  }
+}
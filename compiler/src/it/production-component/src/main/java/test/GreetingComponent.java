@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.ProductionComponent;
+import javax.inject.Named;
+
+@ProductionComponent(modules = {PrefixModule.class, GreetingModule.class})
+interface GreetingComponent {
+  ListenableFuture<String> greeting();
+  Producer<Integer> length();
+  @Named("prefix") ListenableFuture<String> prefix();
+  @Named("broken") ListenableFuture<String> broken();
+  @Named("shouted") ListenableFuture<String> shouted();
+  @Named("brokenFailure") ListenableFuture<String> brokenFailure();
+}
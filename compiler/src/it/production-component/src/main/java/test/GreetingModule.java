@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Produced;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Named;
+
+@ProducerModule
+final class GreetingModule {
+  final AtomicInteger greetings = new AtomicInteger();
+
+  @Produces @Named("name") ListenableFuture<String> name() {
+    return Futures.immediateFuture("World");
+  }
+
+  @Produces String greeting(@Named("prefix") String prefix, @Named("name") String name) {
+    greetings.incrementAndGet();
+    return prefix + name;
+  }
+
+  @Produces Integer length(Produced<String> greeting) throws ExecutionException {
+    return greeting.get().length();
+  }
+
+  @Produces @Named("shouted") String shouted(@Named("broken") String broken) {
+    return broken.toUpperCase();
+  }
+
+  @Produces @Named("brokenFailure") String brokenFailure(@Named("broken") Produced<String> broken) {
+    try {
+      return "succeeded with " + broken.get();
+    } catch (ExecutionException e) {
+      return "failed with " + e.getCause().getMessage();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Hedged;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A backend whose first call never answers, as if it had reached a slow replica. */
+@ProducerModule
+final class HedgedModule {
+  final AtomicInteger calls = new AtomicInteger();
+  final SettableFuture<String> slowReplica = SettableFuture.create();
+
+  @Produces @Hedged(10) ListenableFuture<String> lookUp() {
+    return calls.getAndIncrement() == 0
+        ? slowReplica
+        : Futures.immediateFuture("fast replica");
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Produced;
+import dagger.producers.Producer;
+import dagger.producers.ProductionComponent;
+import java.util.Map;
+import java.util.Set;
+
+@ProductionComponent(modules = ResponsesModule.class)
+interface ResponsesComponent {
+  ListenableFuture<Set<String>> responses();
+  ListenableFuture<Set<Integer>> numbers();
+  ListenableFuture<Set<Produced<Integer>>> producedNumbers();
+  ListenableFuture<Map<String, Integer>> lengths();
+  ListenableFuture<Map<String, Producer<Integer>>> lengthProducers();
+}
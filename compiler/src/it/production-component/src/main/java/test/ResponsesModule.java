@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.io.IOException;
+
+import static dagger.producers.Produces.Type.MAP;
+import static dagger.producers.Produces.Type.SET;
+
+@ProducerModule
+final class ResponsesModule {
+  @Produces(type = SET) String hello() {
+    return "hello";
+  }
+
+  @Produces(type = SET) ListenableFuture<String> hi() {
+    return Futures.immediateFuture("hi");
+  }
+
+  @Produces(type = SET) Integer one() {
+    return 1;
+  }
+
+  @Produces(type = SET) Integer broken() throws IOException {
+    throw new IOException("monkey");
+  }
+
+  @Produces(type = MAP) @StringKey("hello") Integer helloLength(String greeting) {
+    return greeting.length();
+  }
+
+  @Produces(type = MAP) @StringKey("hi") ListenableFuture<Integer> hiLength() {
+    return Futures.immediateFuture(2);
+  }
+
+  @Produces String greeting() {
+    return "hello";
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import dagger.producers.SingleFlight;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A backend whose calls only complete when the test says so. */
+@ProducerModule
+final class SingleFlightModule {
+  private final AtomicInteger calls;
+  private final SettableFuture<String> response;
+
+  SingleFlightModule(AtomicInteger calls, SettableFuture<String> response) {
+    this.calls = calls;
+    this.response = response;
+  }
+
+  @Produces String key() {
+    return "hot";
+  }
+
+  @Produces @SingleFlight ListenableFuture<String> lookUp(String key) {
+    calls.incrementAndGet();
+    return response;
+  }
+}
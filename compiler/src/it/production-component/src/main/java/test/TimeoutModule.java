@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Produced;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import dagger.producers.Timeout;
+import java.util.concurrent.ExecutionException;
+import javax.inject.Named;
+
+@ProducerModule
+final class TimeoutModule {
+  @Produces @Timeout(10) @Named("slow") ListenableFuture<String> slow() {
+    return SettableFuture.create();
+  }
+
+  @Produces @Named("never") ListenableFuture<String> never() {
+    return SettableFuture.create();
+  }
+
+  @Produces String withFallback(@Named("slow") Produced<String> slow) {
+    try {
+      return slow.get();
+    } catch (ExecutionException e) {
+      return "fallback";
+    }
+  }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Produced;
+import dagger.producers.caching.ProducerCache;
+import dagger.producers.monitoring.LatencyHistogramMonitor;
+import dagger.producers.monitoring.LatencyHistogramMonitor.NodeStatistics;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.scheduling.ConcurrencyLimiter;
+import dagger.producers.scheduling.PriorityExecutor;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** Tests generated production components. */
+@RunWith(JUnit4.class)
+public class ProductionComponentTest {
+  private static final Executor DIRECT_EXECUTOR = new Executor() {
+    @Override public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  @Test public void producesEntryPoints() throws Exception {
+    GreetingModule module = new GreetingModule();
+    GreetingComponent component = Dagger_GreetingComponent.builder()
+        .greetingModule(module)
+        .executor(DIRECT_EXECUTOR)
+        .build();
+    assertEquals("Hello, World", component.greeting().get());
+    assertEquals(12, component.length().get().get().intValue());
+    assertEquals("Hello, ", component.prefix().get());
+    // each producer runs at most once per component
+    assertEquals("Hello, World", component.greeting().get());
+    assertEquals(1, module.greetings.get());
+  }
+
+  @Test public void failedProvisionFailsFuture() throws Exception {
+    ListenableFuture<String> broken = Dagger_GreetingComponent.builder()
+        .greetingModule(new GreetingModule())
+        .executor(DIRECT_EXECUTOR)
+        .build()
+        .broken();
+    try {
+      broken.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test public void failedProvisionFailsDownstreamProducers() throws Exception {
+    GreetingComponent component = Dagger_GreetingComponent.builder()
+        .greetingModule(new GreetingModule())
+        .executor(DIRECT_EXECUTOR)
+        .build();
+    ListenableFuture<String> shouted = component.shouted();
+    try {
+      shouted.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof IllegalStateException);
+    }
+    assertEquals("failed with broken", component.brokenFailure().get());
+  }
+
+  @Test public void eachComponentProducesAgain() throws Exception {
+    GreetingModule module = new GreetingModule();
+    for (int i = 0; i < 2; i++) {
+      Dagger_GreetingComponent.builder()
+          .greetingModule(module)
+          .executor(DIRECT_EXECUTOR)
+          .build()
+          .greeting()
+          .get();
+    }
+    assertEquals(2, module.greetings.get());
+  }
+
+  @Test public void onlyFutureProducersUseTheExecutor() throws Exception {
+    final AtomicInteger executions = new AtomicInteger();
+    Executor countingExecutor = new Executor() {
+      @Override public void execute(Runnable command) {
+        executions.incrementAndGet();
+        command.run();
+      }
+    };
+    GreetingComponent component = Dagger_GreetingComponent.builder()
+        .greetingModule(new GreetingModule())
+        .executor(countingExecutor)
+        .build();
+    assertEquals(12, component.length().get().get().intValue());
+    // greeting and length return plain values, so only name is submitted to the executor
+    assertEquals(1, executions.get());
+  }
+
+  @Test public void monitorsEachProducer() throws Exception {
+    LatencyHistogramMonitor monitor = new LatencyHistogramMonitor();
+    for (int i = 0; i < 3; i++) {
+      Dagger_GreetingComponent.builder()
+          .greetingModule(new GreetingModule())
+          .executor(DIRECT_EXECUTOR)
+          .productionComponentMonitor(monitor)
+          .build()
+          .length()
+          .get()
+          .get();
+    }
+    assertEquals(3, monitor.statistics().size());
+    NodeStatistics greeting =
+        monitor.statisticsFor(ProducerToken.create(GreetingModule$$GreetingFactory.class));
+    assertEquals(3, greeting.successes());
+    assertEquals(0, greeting.failures());
+    assertEquals(3, greeting.queued().count());
+    assertEquals(3, greeting.running().count());
+    assertEquals(3, greeting.total().count());
+  }
+
+  @Test public void producesOnPriorityExecutor() throws Exception {
+    PriorityExecutor executor = PriorityExecutor.create(2);
+    try {
+      GreetingComponent component = Dagger_GreetingComponent.builder()
+          .greetingModule(new GreetingModule())
+          .executor(executor)
+          .build();
+      assertEquals(12, component.length().get().get().intValue());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test public void producersRunInCriticalPathOrder() throws Exception {
+    PriorityExecutor executor = PriorityExecutor.create(1);
+    try {
+      // hold the only thread so that the leaves are all queued before any of them runs
+      final CountDownLatch release = new CountDownLatch(1);
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+      CriticalPathModule module = new CriticalPathModule();
+      ListenableFuture<String> root = Dagger_CriticalPathComponent.builder()
+          .criticalPathModule(module)
+          .executor(executor)
+          .build()
+          .root();
+      release.countDown();
+      assertEquals("root", root.get());
+      // with plain FIFO order, both leaves would run before chain2
+      assertEquals(ImmutableList.of("chainStart", "chain2"), module.order.subList(0, 2));
+      assertEquals(ImmutableSet.of("chain3", "fanLeaf1", "fanLeaf2"),
+          ImmutableSet.copyOf(module.order.subList(2, 5)));
+      assertEquals("root", module.order.get(5));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test public void producesSetAndMapBindings() throws Exception {
+    ResponsesComponent component = Dagger_ResponsesComponent.builder()
+        .executor(DIRECT_EXECUTOR)
+        .build();
+    assertEquals(ImmutableSet.of("hello", "hi"), component.responses().get());
+    assertEquals(ImmutableMap.of("hello", 5, "hi", 2), component.lengths().get());
+    assertEquals(2, component.lengthProducers().get().get("hi").get().get().intValue());
+  }
+
+  @Test public void failedContributionFailsTheSet() throws Exception {
+    ResponsesComponent component = Dagger_ResponsesComponent.builder()
+        .executor(DIRECT_EXECUTOR)
+        .build();
+    try {
+      component.numbers().get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof IOException);
+    }
+  }
+
+  @Test public void setOfProducedReportsEachContribution() throws Exception {
+    ResponsesComponent component = Dagger_ResponsesComponent.builder()
+        .executor(DIRECT_EXECUTOR)
+        .build();
+    Set<Produced<Integer>> numbers = component.producedNumbers().get();
+    assertEquals(2, numbers.size());
+    int failures = 0;
+    for (Produced<Integer> number : numbers) {
+      try {
+        assertEquals(1, number.get().intValue());
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof IOException);
+        failures++;
+      }
+    }
+    assertEquals(1, failures);
+  }
+
+  @Test public void timedOutProducerFallsBack() throws Exception {
+    TimeoutComponent component = Dagger_TimeoutComponent.builder()
+        .executor(DIRECT_EXECUTOR)
+        .build();
+    assertEquals("fallback", component.withFallback().get(1, TimeUnit.MINUTES));
+  }
+
+  @Test public void componentDeadlineFailsEntryPoints() throws Exception {
+    TimeoutComponent component = Dagger_TimeoutComponent.builder()
+        .executor(DIRECT_EXECUTOR)
+        .deadline(10, TimeUnit.MILLISECONDS)
+        .build();
+    try {
+      component.never().get(1, TimeUnit.MINUTES);
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof TimeoutException);
+    }
+  }
+
+  @Test public void hedgedProducerTakesFasterAttempt() throws Exception {
+    HedgedModule module = new HedgedModule();
+    LatencyHistogramMonitor monitor = new LatencyHistogramMonitor();
+    HedgedComponent component = Dagger_HedgedComponent.builder()
+        .hedgedModule(module)
+        .executor(DIRECT_EXECUTOR)
+        .productionComponentMonitor(monitor)
+        .build();
+    assertEquals("fast replica", component.lookUp().get(1, TimeUnit.MINUTES));
+    assertEquals(2, module.calls.get());
+    assertTrue(module.slowReplica.isCancelled());
+    NodeStatistics lookUp =
+        monitor.statisticsFor(ProducerToken.create(HedgedModule$$LookUpFactory.class));
+    assertEquals(1, lookUp.hedges());
+    assertEquals(1, lookUp.hedgeWins());
+  }
+
+  @Test public void cachedProducerIsSharedAcrossComponents() throws Exception {
+    ProducerCache cache = ProducerCache.create(100);
+    AtomicInteger lookups = new AtomicInteger();
+    assertEquals("setting1#1", cachedSetting(cache, 1, lookups));
+    assertEquals("setting1#1", cachedSetting(cache, 1, lookups));
+    assertEquals("setting2#2", cachedSetting(cache, 2, lookups));
+    assertEquals(1, cache.hitCount());
+    assertEquals(2, cache.missCount());
+  }
+
+  @Test public void cachedProducerWithoutCacheRecomputes() throws Exception {
+    AtomicInteger lookups = new AtomicInteger();
+    for (int i = 0; i < 2; i++) {
+      Dagger_CachedComponent.builder()
+          .cachedModule(new CachedModule(1, lookups))
+          .executor(DIRECT_EXECUTOR)
+          .build()
+          .setting()
+          .get();
+    }
+    assertEquals(2, lookups.get());
+  }
+
+  private static String cachedSetting(ProducerCache cache, int tenant, AtomicInteger lookups)
+      throws Exception {
+    return Dagger_CachedComponent.builder()
+        .cachedModule(new CachedModule(tenant, lookups))
+        .executor(DIRECT_EXECUTOR)
+        .producerCache(cache)
+        .build()
+        .setting()
+        .get();
+  }
+
+  @Test public void singleFlightProducerSharesCallsInFlight() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    SettableFuture<String> response = SettableFuture.create();
+    ListenableFuture<String> first = singleFlightLookUp(calls, response);
+    ListenableFuture<String> second = singleFlightLookUp(calls, response);
+    assertEquals(1, calls.get());
+    response.set("value");
+    assertEquals("value", first.get());
+    assertEquals("value", second.get());
+    singleFlightLookUp(calls, response);
+    assertEquals(2, calls.get());
+  }
+
+  private static ListenableFuture<String> singleFlightLookUp(
+      AtomicInteger calls, SettableFuture<String> response) {
+    return Dagger_SingleFlightComponent.builder()
+        .singleFlightModule(new SingleFlightModule(calls, response))
+        .executor(DIRECT_EXECUTOR)
+        .build()
+        .lookUp();
+  }
+
+  @Test public void concurrencyLimitQueuesCallsBeyondLimit() throws Exception {
+    List<SettableFuture<String>> responses = new CopyOnWriteArrayList<SettableFuture<String>>();
+    ListenableFuture<String> first = limitedQuery(responses);
+    ListenableFuture<String> second = limitedQuery(responses);
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.limiters().get(ConcurrencyLimitModule.GROUP);
+    assertEquals(1, responses.size());
+    assertEquals(1, limiter.queueDepth());
+    responses.get(0).set("first");
+    assertEquals("first", first.get());
+    assertEquals(2, responses.size());
+    assertEquals(0, limiter.queueDepth());
+    responses.get(1).set("second");
+    assertEquals("second", second.get());
+    assertEquals(0, limiter.running());
+  }
+
+  @Test public void limitedPlainValueRunsOnTheExecutor() throws Exception {
+    final AtomicInteger executions = new AtomicInteger();
+    ConcurrencyLimitComponent component = Dagger_ConcurrencyLimitComponent.builder()
+        .concurrencyLimitModule(
+            new ConcurrencyLimitModule(new CopyOnWriteArrayList<SettableFuture<String>>()))
+        .executor(new Executor() {
+          @Override public void execute(Runnable command) {
+            executions.incrementAndGet();
+            command.run();
+          }
+        })
+        .build();
+    assertEquals("row for key", component.row().get());
+    // key runs immediately, but the limited row is submitted even though a permit is free
+    assertEquals(1, executions.get());
+  }
+
+  private static ListenableFuture<String> limitedQuery(List<SettableFuture<String>> responses) {
+    return Dagger_ConcurrencyLimitComponent.builder()
+        .concurrencyLimitModule(new ConcurrencyLimitModule(responses))
+        .executor(DIRECT_EXECUTOR)
+        .build()
+        .query();
+  }
+
+  @Test public void qualifiedProducersRunOnTheirExecutor() throws Exception {
+    final List<String> executions = new CopyOnWriteArrayList<String>();
+    BlockingComponent component = Dagger_BlockingComponent.builder()
+        .blockingModule(new BlockingModule())
+        .executor(new Executor() {
+          @Override public void execute(Runnable command) {
+            executions.add("cpu");
+            command.run();
+          }
+        })
+        .blockingExecutor(new Executor() {
+          @Override public void execute(Runnable command) {
+            executions.add("blocking");
+            command.run();
+          }
+        })
+        .build();
+    assertEquals(Long.valueOf("row 42".hashCode()), component.checksum().get());
+    assertEquals(ImmutableList.of("blocking", "cpu"), executions);
+  }
+
+  @Test public void qualifiedExecutorIsRequired() {
+    try {
+      Dagger_BlockingComponent.builder().executor(DIRECT_EXECUTOR).build();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test public void executorIsRequired() {
+    try {
+      Dagger_GreetingComponent.builder().build();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.Lazy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+final class Car {
+  final Engine engine;
+  final Lazy<Engine> lazyEngine;
+  final Provider<Box<String>> boxProvider;
+  final String name;
+
+  @Inject Car(Engine engine, Lazy<Engine> lazyEngine, Provider<Box<String>> boxProvider,
+      @Named("name") String name) {
+    this.engine = engine;
+    this.lazyEngine = lazyEngine;
+    this.boxProvider = boxProvider;
+    this.name = name;
+  }
+}
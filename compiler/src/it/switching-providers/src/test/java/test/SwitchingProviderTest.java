@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import java.lang.reflect.Field;
+import javax.inject.Provider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/** Tests components generated with {@code -Adagger.switchingProviders}. */
+@RunWith(JUnit4.class)
+public class SwitchingProviderTest {
+  private CarComponent component;
+
+  @Before public void setUp() {
+    component = Dagger_CarComponent.builder()
+        .ownerComponent(new OwnerComponent() {
+          @Override public String ownerName() {
+            return "alice";
+          }
+        })
+        .build();
+  }
+
+  @Test public void bindingsAreProvided() {
+    Car car = component.car();
+    assertThat(car.name).isEqualTo("alice's car");
+    assertEquals(6, car.engine.cylinders);
+    assertSame(car.engine, car.lazyEngine.get());
+    assertSame(car.engine, component.engine().get());
+    assertThat(car.boxProvider.get()).isNotNull();
+    assertThat(component.garage().car).isNotNull();
+  }
+
+  @Test public void componentUsesOneProviderClass() throws Exception {
+    Class<?> switchingProviderClass = null;
+    for (Class<?> nestedClass : Dagger_CarComponent.class.getDeclaredClasses()) {
+      if (nestedClass.getSimpleName().equals("SwitchingProvider")) {
+        switchingProviderClass = nestedClass;
+      }
+    }
+    assertThat(switchingProviderClass).isNotNull();
+
+    assertTrue(switchingProviderClass.isInstance(frameworkField("carProvider")));
+    // Engine is scoped, so its switching provider is wrapped in a ScopedProvider
+    assertFalse(switchingProviderClass.isInstance(frameworkField("engineProvider")));
+    assertTrue(switchingProviderClass.isInstance(frameworkField("cylindersProvider")));
+    assertTrue(switchingProviderClass.isInstance(frameworkField("nameProvider")));
+    assertTrue(switchingProviderClass.isInstance(frameworkField("ownerNameProvider")));
+    // bindings that inject members keep their factories
+    assertFalse(switchingProviderClass.isInstance(frameworkField("garageProvider")));
+  }
+
+  private Provider<?> frameworkField(String name) throws Exception {
+    Field field = Dagger_CarComponent.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return (Provider<?>) field.get(component);
+  }
+}
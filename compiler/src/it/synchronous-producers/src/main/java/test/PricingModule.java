@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.ProducerModule;
+import dagger.producers.Produces;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Named;
+
+@ProducerModule
+final class PricingModule {
+  final AtomicInteger totals = new AtomicInteger();
+  final AtomicInteger discounts = new AtomicInteger();
+
+  @Produces @Named("base") Integer basePrice() {
+    return 100;
+  }
+
+  @Produces @Named("tax") Integer tax(@Named("base") Integer base) {
+    return base / 10;
+  }
+
+  @Produces Integer total(@Named("base") Integer base, @Named("tax") Integer tax) {
+    totals.incrementAndGet();
+    return base + tax;
+  }
+
+  @Produces @Named("quote") ListenableFuture<String> quote(Integer total) {
+    return Futures.immediateFuture("$" + total);
+  }
+
+  @Produces @Named("coupon") Integer coupon() throws IOException {
+    throw new IOException("no coupon");
+  }
+
+  @Produces @Named("discounted") Integer discounted(
+      Integer total, @Named("coupon") Integer coupon) {
+    discounts.incrementAndGet();
+    return total - coupon;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.producers.internal.SynchronousNode;
+import dagger.producers.monitoring.LatencyHistogramMonitor;
+import dagger.producers.monitoring.LatencyHistogramMonitor.NodeStatistics;
+import dagger.producers.monitoring.ProducerToken;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** Tests production components generated with {@code -Adagger.synchronousProducers}. */
+@RunWith(JUnit4.class)
+public class SynchronousProducersTest {
+  private final AtomicInteger executions = new AtomicInteger();
+  private final Executor countingExecutor = new Executor() {
+    @Override public void execute(Runnable command) {
+      executions.incrementAndGet();
+      command.run();
+    }
+  };
+  private PricingModule module;
+  private LatencyHistogramMonitor monitor;
+  private PricingComponent component;
+
+  @Before public void setUp() {
+    module = new PricingModule();
+    monitor = new LatencyHistogramMonitor();
+    component = Dagger_PricingComponent.builder()
+        .pricingModule(module)
+        .executor(countingExecutor)
+        .productionComponentMonitor(monitor)
+        .build();
+  }
+
+  @Test public void immediateSubgraphIsEvaluatedOnTheRequestingThread() throws Exception {
+    assertTrue(component.total().isDone());
+    assertEquals(110, component.total().get().intValue());
+    assertEquals(0, executions.get());
+    assertEquals(1, module.totals.get());
+  }
+
+  @Test public void asynchronousProducersConsumeSynchronousNodes() throws Exception {
+    assertEquals("$110", component.quote().get());
+    assertEquals(110, component.total().get().intValue());
+    assertEquals(1, module.totals.get());
+  }
+
+  @Test public void onlyImmediateSubgraphsUseSynchronousNodes() throws Exception {
+    assertTrue(frameworkField("basePriceSynchronousNode") instanceof SynchronousNode);
+    assertTrue(frameworkField("taxSynchronousNode") instanceof SynchronousNode);
+    assertTrue(frameworkField("totalSynchronousNode") instanceof SynchronousNode);
+    assertFalse(frameworkField("quoteProducer") instanceof SynchronousNode);
+  }
+
+  @Test public void failedInputFailsConsumerWithoutInvokingIt() throws Exception {
+    try {
+      component.discounted().get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertThat(expected.getCause()).isInstanceOf(IOException.class);
+    }
+    assertEquals(0, module.discounts.get());
+    NodeStatistics discounted = monitor.statisticsFor(
+        ProducerToken.create(PricingModule$$DiscountedFactory.class));
+    assertEquals(0, discounted.successes());
+    assertEquals(1, discounted.failures());
+    assertEquals(0, discounted.running().count());
+  }
+
+  @Test public void monitorsEachNode() throws Exception {
+    component.total().get();
+    NodeStatistics total =
+        monitor.statisticsFor(ProducerToken.create(PricingModule$$TotalFactory.class));
+    assertEquals(1, total.successes());
+    assertEquals(0, total.failures());
+    assertEquals(1, total.running().count());
+    assertEquals(3, monitor.statistics().size());
+  }
+
+  private Object frameworkField(String name) throws Exception {
+    Field field = Dagger_PricingComponent.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(component);
+  }
+}
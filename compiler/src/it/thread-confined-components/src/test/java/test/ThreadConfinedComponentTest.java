@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test;
+
+import dagger.Lazy;
+import dagger.internal.DoubleCheckLazy;
+import dagger.internal.ThreadConfinedLazy;
+import dagger.internal.ThreadConfinedScopedProvider;
+import java.lang.reflect.Field;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** Tests components generated with {@code -Adagger.threadConfinedComponents}. */
+@RunWith(JUnit4.class)
+public class ThreadConfinedComponentTest {
+  private SessionComponent component;
+
+  @Before public void setUp() {
+    component = Dagger_SessionComponent.create();
+  }
+
+  @Test public void scopedBindingsAreMemoized() {
+    assertSame(component.counter(), component.counter());
+    assertSame(component.counter(), component.session().counter);
+    assertSame(component.counter(), component.lazyCounter().get());
+  }
+
+  @Test public void componentUsesThreadConfinedImplementations() throws Exception {
+    Field field = Dagger_SessionComponent.class.getDeclaredField("counterProvider");
+    field.setAccessible(true);
+    assertTrue(field.get(component) instanceof ThreadConfinedScopedProvider);
+    Lazy<Counter> lazyCounter = component.lazyCounter();
+    assertTrue(lazyCounter instanceof ThreadConfinedLazy);
+    assertEquals(1, lazyCounter.get().increment());
+    assertEquals(2, lazyCounter.get().increment());
+  }
+
+  @Test public void injectedLazyIsStillDoubleChecked() {
+    // factories are shared with components compiled without the option
+    assertTrue(component.session().lazyCounter instanceof DoubleCheckLazy);
+  }
+
+  @Test public void accessFromSecondThreadFails() throws Exception {
+    boolean assertionsEnabled = false;
+    assert assertionsEnabled = true;
+    if (!assertionsEnabled) {
+      return;
+    }
+    component.counter();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(new Callable<Counter>() {
+        @Override public Counter call() {
+          return component.counter();
+        }
+      }).get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof AssertionError);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -18,12 +18,15 @@ package dagger.internal.codegen;
 import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import dagger.Provides;
+import dagger.producers.Produces;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
@@ -88,23 +91,28 @@ abstract class BindingGraph {
     private final Key.Factory keyFactory;
     private final DependencyRequest.Factory dependencyRequestFactory;
     private final ProvisionBinding.Factory provisionBindingFactory;
+    private final ProductionBinding.Factory productionBindingFactory;
 
     Factory(Elements elements,
         Types types,
         InjectBindingRegistry injectBindingRegistry,
         Key.Factory keyFactory,
         DependencyRequest.Factory dependencyRequestFactory,
-        ProvisionBinding.Factory provisionBindingFactory) {
+        ProvisionBinding.Factory provisionBindingFactory,
+        ProductionBinding.Factory productionBindingFactory) {
       this.elements = elements;
       this.types = types;
       this.injectBindingRegistry = injectBindingRegistry;
       this.keyFactory = keyFactory;
       this.dependencyRequestFactory = dependencyRequestFactory;
       this.provisionBindingFactory = provisionBindingFactory;
+      this.productionBindingFactory = productionBindingFactory;
     }
 
     BindingGraph create(ComponentDescriptor componentDescriptor) {
-      ImmutableSet.Builder<ProvisionBinding> explicitBindingsBuilder = ImmutableSet.builder();
+      ImmutableSet.Builder<ContributionBinding> explicitBindingsBuilder = ImmutableSet.builder();
+      boolean isProductionComponent =
+          componentDescriptor.kind().equals(ComponentDescriptor.Kind.PRODUCTION_COMPONENT);
       AnnotationMirror componentAnnotation = componentDescriptor.componentAnnotation();
 
       // binding for the component itself
@@ -143,14 +151,21 @@ abstract class BindingGraph {
             } catch (IllegalArgumentException e) {
               // just ignore it
             }
+          } else if (isProductionComponent && isAnnotationPresent(moduleMethod, Produces.class)) {
+            try {
+              explicitBindingsBuilder.add(
+                  productionBindingFactory.forProducesMethod(moduleMethod));
+            } catch (IllegalArgumentException e) {
+              // just ignore it
+            }
           }
         }
       }
 
       RequestResolver requestResolver =
           new RequestResolver(explicitBindingsByKey(explicitBindingsBuilder.build()));
-      ImmutableSet<DependencyRequest> componentMethodRequests =
-          componentMethodRequests(componentDescriptor.componentDefinitionType());
+      ImmutableSet<DependencyRequest> componentMethodRequests = componentMethodRequests(
+          componentDescriptor.componentDefinitionType(), isProductionComponent);
       for (DependencyRequest componentMethodRequest :
           componentMethodRequests) {
         requestResolver.resolve(componentMethodRequest);
@@ -163,23 +178,26 @@ abstract class BindingGraph {
           ImmutableMap.copyOf(requestResolver.resolvedBindings));
     }
 
-    private ImmutableSetMultimap<Key, ProvisionBinding> explicitBindingsByKey(
-        Iterable<ProvisionBinding> bindings) {
+    private ImmutableSetMultimap<Key, ContributionBinding> explicitBindingsByKey(
+        Iterable<ContributionBinding> bindings) {
       // Multimaps.index() doesn't do ImmutableSetMultimaps.
-      ImmutableSetMultimap.Builder<Key, ProvisionBinding> builder = ImmutableSetMultimap.builder();
-      for (ProvisionBinding binding : bindings) {
+      ImmutableSetMultimap.Builder<Key, ContributionBinding> builder =
+          ImmutableSetMultimap.builder();
+      for (ContributionBinding binding : bindings) {
         builder.put(binding.key(), binding);
       }
       return builder.build();
     }
 
-    private ImmutableSet<DependencyRequest> componentMethodRequests(TypeElement componentType) {
+    private ImmutableSet<DependencyRequest> componentMethodRequests(
+        TypeElement componentType, boolean isProductionComponent) {
       ImmutableSet.Builder<DependencyRequest> interfaceRequestsBuilder = ImmutableSet.builder();
       for (ExecutableElement componentMethod : methodsIn(elements.getAllMembers(componentType))) {
         if (componentMethod.getModifiers().contains(Modifier.ABSTRACT)) { // Elide Object.*;
           if (ComponentDescriptor.isComponentProvisionMethod(elements, componentMethod)) {
-            interfaceRequestsBuilder.add(
-                dependencyRequestFactory.forComponentProvisionMethod(componentMethod));
+            interfaceRequestsBuilder.add(isProductionComponent
+                ? dependencyRequestFactory.forComponentProductionMethod(componentMethod)
+                : dependencyRequestFactory.forComponentProvisionMethod(componentMethod));
           } else if (isComponentMembersInjectionMethod(componentMethod)) {
             interfaceRequestsBuilder.add(
                 dependencyRequestFactory.forComponentMembersInjectionMethod(componentMethod));
@@ -200,11 +218,11 @@ abstract class BindingGraph {
     }
 
     private final class RequestResolver {
-      final ImmutableSetMultimap<Key, ProvisionBinding> explicitBindings;
+      final ImmutableSetMultimap<Key, ContributionBinding> explicitBindings;
       final Map<BindingKey, ResolvedBindings> resolvedBindings;
       final Deque<BindingKey> cycleStack = Queues.newArrayDeque();
 
-      RequestResolver(ImmutableSetMultimap<Key, ProvisionBinding> explicitBindings) {
+      RequestResolver(ImmutableSetMultimap<Key, ContributionBinding> explicitBindings) {
         assert explicitBindings != null;
         this.explicitBindings = explicitBindings;
         this.resolvedBindings = Maps.newLinkedHashMap();
@@ -215,14 +233,43 @@ abstract class BindingGraph {
         switch (bindingKey.kind()) {
           case CONTRIBUTION:
             // First, check for explicit keys (those from modules and components)
-            ImmutableSet<ProvisionBinding> explicitBindingsForKey =
+            ImmutableSet<ContributionBinding> explicitBindingsForKey =
                 explicitBindings.get(bindingKey.key());
             if (explicitBindingsForKey.isEmpty()) {
               // If the key is Map<K, V>, get its implicit binding key which is
               // Map<K, Provider<V>>
               Optional<Key> mapProviderKey =
                   keyFactory.implicitMapProviderKeyFrom(bindingKey.key());
-              if (mapProviderKey.isPresent()) {
+              // If the key is Map<K, V> and there are production map bindings, its implicit
+              // binding key is Map<K, Producer<V>>; likewise a Set<Produced<T>> is implicitly
+              // bound to the contributions to Set<T>
+              Optional<Key> mapProducerKey =
+                  keyFactory.implicitMapProducerKeyFrom(bindingKey.key());
+              Optional<Key> producedSetKey =
+                  keyFactory.implicitSetKeyFromProduced(bindingKey.key());
+              if (mapProducerKey.isPresent()
+                  && !explicitBindings.get(mapProducerKey.get()).isEmpty()) {
+                if (mapProviderKey.isPresent()
+                    && !explicitBindings.get(mapProviderKey.get()).isEmpty()) {
+                  // both @Provides and @Produces methods contribute to the map, which validation
+                  // reports against the contributions themselves
+                  return ImmutableSet.<ContributionBinding>builder()
+                      .addAll(explicitBindings.get(mapProviderKey.get()))
+                      .addAll(explicitBindings.get(mapProducerKey.get()))
+                      .build();
+                }
+                DependencyRequest implicitRequest = dependencyRequestFactory
+                    .forImplicitProductionBinding(request, mapProducerKey.get());
+                return ImmutableSet.of(productionBindingFactory.forImplicitMapBinding(
+                    request, implicitRequest));
+              } else if (producedSetKey.isPresent()
+                  && Iterables.any(explicitBindings.get(producedSetKey.get()),
+                      Predicates.instanceOf(ProductionBinding.class))) {
+                DependencyRequest implicitRequest = dependencyRequestFactory
+                    .forImplicitProductionBinding(request, producedSetKey.get());
+                return ImmutableSet.of(productionBindingFactory.forImplicitSetOfProducedBinding(
+                    request, implicitRequest));
+              } else if (mapProviderKey.isPresent()) {
                 DependencyRequest implicitRequest =
                     dependencyRequestFactory.forImplicitMapBinding(request, mapProviderKey.get());
                 return ImmutableSet.of(provisionBindingFactory.forImplicitMapBinding(
@@ -235,15 +282,24 @@ abstract class BindingGraph {
               }
             } else {
               // If this is an explicit Map<K, V> request then add in any map binding provision
-              // methods which are implied by and must collide with explicit Map<K, V> bindings.
+              // or production methods which are implied by and must collide with explicit
+              // Map<K, V> bindings.
               Optional<Key> underlyingMapKey =
                   keyFactory.implicitMapProviderKeyFrom(bindingKey.key());
+              Optional<Key> underlyingMapProducerKey =
+                  keyFactory.implicitMapProducerKeyFrom(bindingKey.key());
               if (underlyingMapKey.isPresent()) {
-                explicitBindingsForKey = ImmutableSet.<ProvisionBinding>builder()
+                explicitBindingsForKey = ImmutableSet.<ContributionBinding>builder()
                     .addAll(explicitBindingsForKey)
                     .addAll(explicitBindings.get(underlyingMapKey.get()))
                     .build();
               }
+              if (underlyingMapProducerKey.isPresent()) {
+                explicitBindingsForKey = ImmutableSet.<ContributionBinding>builder()
+                    .addAll(explicitBindingsForKey)
+                    .addAll(explicitBindings.get(underlyingMapProducerKey.get()))
+                    .build();
+              }
               return explicitBindingsForKey;
             }
           case MEMBERS_INJECTION:
@@ -23,6 +23,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
@@ -30,20 +31,24 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import dagger.Component;
 import dagger.internal.codegen.BindingGraph.ResolvedBindings;
 import dagger.internal.codegen.ContributionBinding.BindingType;
 import dagger.internal.codegen.ValidationReport.Builder;
 import dagger.internal.codegen.writer.TypeNames;
+import dagger.producers.ConcurrencyLimit;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Formatter;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 import javax.inject.Singleton;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
@@ -59,6 +64,7 @@ import static dagger.internal.codegen.ErrorMessages.REQUIRES_AT_INJECT_CONSTRUCT
 import static dagger.internal.codegen.ErrorMessages.REQUIRES_PROVIDER_FORMAT;
 import static dagger.internal.codegen.ErrorMessages.stripCommonTypePrefixes;
 import static dagger.internal.codegen.InjectionAnnotations.getScopeAnnotation;
+import static dagger.internal.codegen.SourceFiles.executorFieldName;
 
 public class BindingGraphValidator implements Validator<BindingGraph> {
 
@@ -83,6 +89,12 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
 
     validateComponentScope(subject, reportBuilder, resolvedBindings);
     validateDependencyScopes(subject, reportBuilder);
+    if (subject.componentDescriptor().kind()
+        .equals(ComponentDescriptor.Kind.PRODUCTION_COMPONENT)) {
+      validateProductionEntryPoints(subject, reportBuilder);
+      validateExecutorQualifiers(subject, reportBuilder);
+      validateConcurrencyLimitGroups(subject, reportBuilder);
+    }
 
     for (DependencyRequest entryPoint : subject.entryPoints()) {
       LinkedList<DependencyRequest> requestPath = Lists.newLinkedList();
@@ -104,7 +116,7 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
             return false;
           }
 
-          return validateResolvedBinding(requestPath, binding, reportBuilder);
+          return validateResolvedBinding(subject, requestPath, binding, reportBuilder);
         }
       });
     }
@@ -117,6 +129,7 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
    * returns true if the bindings are valid.
    */
   private boolean validateResolvedBinding(
+      BindingGraph graph,
       Deque<DependencyRequest> requestPath,
       ResolvedBindings resolvedBinding,
       Builder<BindingGraph> reportBuilder) {
@@ -148,17 +161,19 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
           throw new IllegalArgumentException(
               "contribution binding keys should never have members injection bindings");
         }
-        if (contributionBindings.size() <= 1) {
-          return true;
+        if (contributionBindings.size() > 1) {
+          ImmutableListMultimap<BindingType, ContributionBinding> bindingsByType =
+              ContributionBinding.bindingTypesFor(contributionBindings);
+          if (bindingsByType.keySet().size() > 1) {
+            reportMultipleBindingTypes(requestPath, resolvedBinding, reportBuilder);
+            return false;
+          } else if (getOnlyElement(bindingsByType.keySet()).equals(BindingType.UNIQUE)) {
+            reportDuplicateBindings(requestPath, resolvedBinding, reportBuilder);
+            return false;
+          }
         }
-        ImmutableListMultimap<BindingType, ContributionBinding> bindingsByType =
-            ContributionBinding.bindingTypesFor(contributionBindings);
-        if (bindingsByType.keySet().size() > 1) {
-          reportMultipleBindingTypes(requestPath, resolvedBinding, reportBuilder);
-          return false;
-        } else if (getOnlyElement(bindingsByType.keySet()).equals(BindingType.UNIQUE)) {
-          reportDuplicateBindings(requestPath, resolvedBinding, reportBuilder);
-          return false;
+        if (Iterables.any(contributionBindings, Predicates.instanceOf(ProductionBinding.class))) {
+          return validateProductionRequest(graph, requestPath, contributionBindings, reportBuilder);
         }
         break;
       case MEMBERS_INJECTION:
@@ -177,6 +192,133 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
     return true;
   }
 
+  /** Validates that every entry point of a production component returns a future or producer. */
+  private void validateProductionEntryPoints(
+      BindingGraph subject, Builder<BindingGraph> reportBuilder) {
+    for (DependencyRequest entryPoint : subject.entryPoints()) {
+      switch (entryPoint.kind()) {
+        case FUTURE:
+        case PRODUCER:
+        case MEMBERS_INJECTOR:
+          break;
+        default:
+          reportBuilder.addItem(ErrorMessages.PRODUCTION_COMPONENT_METHOD_RETURN_TYPE,
+              entryPoint.requestElement());
+      }
+    }
+  }
+
+  /**
+   * Validates that no two {@link dagger.producers.OnExecutor} qualifiers of a production
+   * component's bindings name the same executor builder method, as {@code @a.Blocking} and
+   * {@code @b.Blocking} would.
+   */
+  private void validateExecutorQualifiers(
+      BindingGraph subject, Builder<BindingGraph> reportBuilder) {
+    Map<String, TypeElement> qualifiersByName = Maps.newHashMap();
+    for (ResolvedBindings resolvedBindings : subject.resolvedBindings().values()) {
+      for (Binding binding : resolvedBindings.bindings()) {
+        if (!(binding instanceof ProductionBinding)) {
+          continue;
+        }
+        Optional<TypeElement> qualifier = ((ProductionBinding) binding).executorQualifier();
+        if (!qualifier.isPresent()) {
+          continue;
+        }
+        String name = executorFieldName(qualifier);
+        TypeElement previous = qualifiersByName.get(name);
+        if (previous == null) {
+          qualifiersByName.put(name, qualifier.get());
+        } else if (!previous.equals(qualifier.get())) {
+          reportBuilder.addItem(
+              String.format(ErrorMessages.PRODUCTION_EXECUTOR_NAME_CONFLICT_FORMAT,
+                  previous.getQualifiedName(), qualifier.get().getQualifiedName(), name),
+              binding.bindingElement());
+        }
+      }
+    }
+  }
+
+  /**
+   * Validates that the {@link ConcurrencyLimit} methods of a production component's bindings that
+   * share a {@link ConcurrencyLimit#group} all declare the same limit, which would otherwise only
+   * fail when the second of them is called.
+   */
+  private void validateConcurrencyLimitGroups(
+      BindingGraph subject, Builder<BindingGraph> reportBuilder) {
+    Map<String, Element> methodsByGroup = Maps.newHashMap();
+    for (ResolvedBindings resolvedBindings : subject.resolvedBindings().values()) {
+      for (Binding binding : resolvedBindings.bindings()) {
+        if (!(binding instanceof ProductionBinding)) {
+          continue;
+        }
+        ConcurrencyLimit limit = binding.bindingElement().getAnnotation(ConcurrencyLimit.class);
+        if (limit == null || limit.group().isEmpty()) {
+          continue;
+        }
+        Element previous = methodsByGroup.get(limit.group());
+        if (previous == null) {
+          methodsByGroup.put(limit.group(), binding.bindingElement());
+        } else {
+          int previousValue = previous.getAnnotation(ConcurrencyLimit.class).value();
+          if (previousValue != limit.value()) {
+            reportBuilder.addItem(
+                String.format(ErrorMessages.CONCURRENCY_LIMIT_GROUP_CONFLICT_FORMAT,
+                    limit.group(), previousValue, previous.getEnclosingElement() + "."
+                        + previous.getSimpleName(), limit.value()),
+                binding.bindingElement());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Validates that a binding that includes {@code @Produces} methods isn't also contributed to by
+   * {@code @Provides} methods, isn't requested as a {@link javax.inject.Provider} or
+   * {@link dagger.Lazy} and isn't a dependency of a provision or members injection binding.
+   * Returns true if it is valid.
+   */
+  private boolean validateProductionRequest(
+      BindingGraph graph,
+      Deque<DependencyRequest> requestPath,
+      ImmutableSet<ContributionBinding> contributionBindings,
+      Builder<BindingGraph> reportBuilder) {
+    DependencyRequest request = requestPath.peek();
+    String formattedKey = KeyFormatter.instance().format(request.key());
+    if (!Iterables.all(contributionBindings, Predicates.instanceOf(ProductionBinding.class))) {
+      reportBuilder.addItem(
+          String.format(ErrorMessages.PRODUCTION_MULTIBINDINGS_FORMAT, formattedKey),
+          requestPath.getLast().requestElement());
+      return false;
+    }
+    switch (request.kind()) {
+      case PROVIDER:
+      case LAZY:
+        reportBuilder.addItem(
+            String.format(ErrorMessages.PRODUCTION_REQUESTED_AS_PROVIDER_FORMAT, formattedKey),
+            requestPath.getLast().requestElement());
+        return false;
+      default:
+        break;
+    }
+    if (requestPath.size() > 1) {
+      DependencyRequest requesterRequest = Iterables.get(requestPath, 1);
+      ResolvedBindings requesterBindings =
+          graph.resolvedBindings().get(BindingKey.forDependencyRequest(requesterRequest));
+      for (Binding requester : requesterBindings.bindings()) {
+        if (!(requester instanceof ProductionBinding)) {
+          reportBuilder.addItem(
+              String.format(ErrorMessages.PROVISION_DEPENDS_ON_PRODUCTION_FORMAT,
+                  KeyFormatter.instance().format(requesterRequest.key())),
+              requestPath.getLast().requestElement());
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   /**
    * Validates that among the dependencies are at most one scoped dependency,
    * that there are no cycles within the scoping chain, and that singleton
@@ -329,11 +471,12 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
           if (contributionBinding instanceof ProvisionBinding) {
             ProvisionBinding provisionBinding = (ProvisionBinding) contributionBinding;
             if (provisionBinding.scope().isPresent()
+                && !provisionBinding.isReusable()
                 && !componentScope.equals(provisionBinding.wrappedScope())) {
               // Scoped components cannot reference bindings to @Provides methods or @Inject
               // types decorated by a different scope annotation. Unscoped components cannot
               // reference to scoped @Provides methods or @Inject types decorated by any
-              // scope annotation.
+              // scope annotation. @Reusable bindings are compatible with every component.
               switch (provisionBinding.bindingKind()) {
                 case PROVISION:
                   ExecutableElement provisionMethod =
@@ -411,9 +554,10 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
     StringBuilder builder = new StringBuilder();
     new Formatter(builder).format(ErrorMessages.DUPLICATE_BINDINGS_FOR_KEY_FORMAT,
         KeyFormatter.instance().format(requestPath.peek().key()));
-    for (Binding binding : Iterables.limit(resolvedBinding.bindings(), DUPLICATE_SIZE_LIMIT)) {
+    for (ContributionBinding binding :
+        Iterables.limit(resolvedBinding.contributionBindings(), DUPLICATE_SIZE_LIMIT)) {
       builder.append('\n').append(INDENT);
-      builder.append(ProvisionBindingFormatter.instance().format((ProvisionBinding) binding));
+      builder.append(formatContributionBinding(binding));
     }
     int numberOfOtherBindings = resolvedBinding.bindings().size() - DUPLICATE_SIZE_LIMIT;
     if (numberOfOtherBindings > 0) {
@@ -432,23 +576,30 @@ public class BindingGraphValidator implements Validator<BindingGraph> {
     StringBuilder builder = new StringBuilder();
     new Formatter(builder).format(ErrorMessages.MULTIPLE_BINDING_TYPES_FOR_KEY_FORMAT,
         KeyFormatter.instance().format(requestPath.peek().key()));
-    @SuppressWarnings("unchecked")
-    ImmutableListMultimap<BindingType, ProvisionBinding> bindingsByType =
-        ProvisionBinding.bindingTypesFor((Iterable<ProvisionBinding>) resolvedBinding.bindings());
+    ImmutableListMultimap<BindingType, ContributionBinding> bindingsByType =
+        ContributionBinding.bindingTypesFor(
+            ImmutableSet.<ContributionBinding>copyOf(resolvedBinding.contributionBindings()));
     for (BindingType type :
         Ordering.natural().immutableSortedCopy(bindingsByType.keySet())) {
       builder.append(INDENT);
       builder.append(formatBindingType(type));
       builder.append(" bindings:\n");
-      for (ProvisionBinding binding : bindingsByType.get(type)) {
+      for (ContributionBinding binding : bindingsByType.get(type)) {
         builder.append(INDENT).append(INDENT);
-        builder.append(ProvisionBindingFormatter.instance().format(binding));
+        builder.append(formatContributionBinding(binding));
         builder.append('\n');
       }
     }
     reportBuilder.addItem(builder.toString(), requestPath.getLast().requestElement());
   }
 
+  private static String formatContributionBinding(ContributionBinding binding) {
+    return binding instanceof ProvisionBinding
+        ? ProvisionBindingFormatter.instance().format((ProvisionBinding) binding)
+        : MethodSignatureFormatter.instance().format(
+            MoreElements.asExecutable(binding.bindingElement()));
+  }
+
   private String formatBindingType(BindingType type) {
     switch(type) {
       case MAP:
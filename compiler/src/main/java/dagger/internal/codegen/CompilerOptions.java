@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import javax.annotation.processing.ProcessingEnvironment;
+
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.WARNING;
+
+/**
+ * A value object that holds the processor options ({@code -A} flags) that affect the code
+ * generated for components or the reporting of the processor itself.
+ *
+ * @since 2.0
+ */
+@AutoValue
+abstract class CompilerOptions {
+  /**
+   * {@code -Adagger.threadConfinedComponents=true} declares that every generated component is
+   * only ever accessed from a single thread. Scoped bindings and {@link dagger.Lazy} entry points
+   * are then memoized without any synchronization or volatile reads. When assertions are enabled
+   * ({@code -ea}), access from a second thread fails with an {@link AssertionError}.
+   *
+   * <p>The option only changes the components themselves. A {@code Lazy<T>} that is injected into
+   * a constructor, method or field is still created by the generated factory or members injector
+   * as a {@link dagger.internal.DoubleCheckLazy}. Those classes are shared by every component that
+   * uses the binding, including components compiled without the option, and the objects they
+   * inject may hand their {@code Lazy} to other threads.
+   */
+  static final String THREAD_CONFINED_COMPONENTS_KEY = "dagger.threadConfinedComponents";
+
+  /**
+   * {@code -Adagger.inlineScopedInstances=true} stores the instances of scoped bindings directly
+   * in fields of the generated component rather than in a {@link dagger.internal.ScopedProvider}
+   * per binding. The double-check is inlined into a private accessor method and the reference to
+   * the binding's factory is dropped as soon as the instance has been created.
+   */
+  static final String INLINE_SCOPED_INSTANCES_KEY = "dagger.inlineScopedInstances";
+
+  /**
+   * {@code -Adagger.lazyComponentInitialization=true} optimizes generated components for startup.
+   * Instead of creating a {@link javax.inject.Provider} or {@link dagger.MembersInjector} for
+   * every binding in its constructor, the component creates each one the first time it is needed
+   * by an entry point or by another binding. Bindings that are accessed through a package proxy
+   * are still initialized by the constructor.
+   */
+  static final String LAZY_COMPONENT_INITIALIZATION_KEY = "dagger.lazyComponentInitialization";
+
+  /**
+   * {@code -Adagger.switchingProviders=true} reduces the number of classes loaded by a component.
+   * Rather than one factory class per {@code @Inject} constructor, {@code @Provides} method and
+   * component provision method, the component uses a single nested {@code SwitchingProvider}
+   * that constructs the binding selected by an integer id in a {@code switch} statement. Bindings
+   * that inject members or that aren't accessible from the component's package still use their
+   * factories.
+   */
+  static final String SWITCHING_PROVIDERS_KEY = "dagger.switchingProviders";
+
+  /**
+   * {@code -Adagger.directInvocation=true} lets entry points construct unscoped bindings by
+   * invoking their {@code @Inject} constructor or {@code @Provides} method directly, with any
+   * unscoped dependencies constructed the same way by private methods of the component, instead
+   * of calling {@link javax.inject.Provider#get} on a chain of factories. Framework fields are
+   * only kept for bindings that are requested as a {@link javax.inject.Provider},
+   * {@link dagger.Lazy} or {@link dagger.MembersInjector}, or that are needed by a factory.
+   */
+  static final String DIRECT_INVOCATION_KEY = "dagger.directInvocation";
+
+  /**
+   * {@code -Adagger.instrumentProvisions=true} reports every provision by a generated component to
+   * the {@link dagger.ProvisionListener} passed to its builder, with the binding's key, the time
+   * taken and whether a scoped instance was already cached. Because both bypass the providers
+   * that do the reporting, this disables {@link #INLINE_SCOPED_INSTANCES_KEY} and
+   * {@link #DIRECT_INVOCATION_KEY}. A scoped binding keeps its own caching provider, so
+   * {@linkplain dagger.Reusable reusable} bindings and {@link #THREAD_CONFINED_COMPONENTS_KEY}
+   * take no extra lock. When this option is off, the generated code is unchanged.
+   */
+  static final String INSTRUMENT_PROVISIONS_KEY = "dagger.instrumentProvisions";
+
+  /**
+   * {@code -Adagger.synchronousProducers=true} evaluates the subgraphs of production components
+   * whose {@code @Produces} methods all run immediately with plain method calls, on the requesting
+   * thread, instead of with a future, a combiner and callbacks per node. Each such method gets a
+   * {@link dagger.producers.internal.SynchronousNode}, which is only wrapped in a future when an
+   * entry point or an asynchronous producer requests it.
+   */
+  static final String SYNCHRONOUS_PRODUCERS_KEY = "dagger.synchronousProducers";
+
+  /**
+   * {@code -Adagger.printProcessingTimes=true} reports the time spent in each processing step and
+   * in building, validating and generating each component's binding graph as a note at the end of
+   * every round. It doesn't change the generated code.
+   */
+  static final String PRINT_PROCESSING_TIMES_KEY = "dagger.printProcessingTimes";
+
+  /** The keys of all options read by this class. */
+  static final ImmutableSet<String> SUPPORTED_OPTIONS = ImmutableSet.of(
+      THREAD_CONFINED_COMPONENTS_KEY,
+      INLINE_SCOPED_INSTANCES_KEY,
+      LAZY_COMPONENT_INITIALIZATION_KEY,
+      SWITCHING_PROVIDERS_KEY,
+      DIRECT_INVOCATION_KEY,
+      INSTRUMENT_PROVISIONS_KEY,
+      SYNCHRONOUS_PRODUCERS_KEY,
+      PRINT_PROCESSING_TIMES_KEY);
+
+  abstract boolean threadConfinedComponents();
+  abstract boolean inlineScopedInstances();
+  abstract boolean lazyComponentInitialization();
+  abstract boolean switchingProviders();
+  abstract boolean directInvocation();
+  abstract boolean instrumentProvisions();
+  abstract boolean synchronousProducers();
+  abstract boolean printProcessingTimes();
+
+  static CompilerOptions create(ProcessingEnvironment processingEnv) {
+    boolean instrumentProvisions = booleanOption(processingEnv, INSTRUMENT_PROVISIONS_KEY);
+    return new AutoValue_CompilerOptions(
+        booleanOption(processingEnv, THREAD_CONFINED_COMPONENTS_KEY),
+        instrumentProvisions
+            ? disabledByInstrumentation(processingEnv, INLINE_SCOPED_INSTANCES_KEY)
+            : booleanOption(processingEnv, INLINE_SCOPED_INSTANCES_KEY),
+        booleanOption(processingEnv, LAZY_COMPONENT_INITIALIZATION_KEY),
+        booleanOption(processingEnv, SWITCHING_PROVIDERS_KEY),
+        instrumentProvisions
+            ? disabledByInstrumentation(processingEnv, DIRECT_INVOCATION_KEY)
+            : booleanOption(processingEnv, DIRECT_INVOCATION_KEY),
+        instrumentProvisions,
+        booleanOption(processingEnv, SYNCHRONOUS_PRODUCERS_KEY),
+        booleanOption(processingEnv, PRINT_PROCESSING_TIMES_KEY));
+  }
+
+  /**
+   * Returns false for an option that is incompatible with {@link #INSTRUMENT_PROVISIONS_KEY},
+   * warning if it was enabled anyway.
+   */
+  private static boolean disabledByInstrumentation(
+      ProcessingEnvironment processingEnv, String key) {
+    if (booleanOption(processingEnv, key)) {
+      processingEnv.getMessager().printMessage(WARNING, "Processor option -A" + key
+          + " is ignored because -A" + INSTRUMENT_PROVISIONS_KEY + " is enabled");
+    }
+    return false;
+  }
+
+  /**
+   * Returns the options for generating production components, which are only ever accessed
+   * concurrently and don't support the options that optimize provisions.
+   */
+  CompilerOptions forProductionComponents() {
+    return new AutoValue_CompilerOptions(false, false, false, false, false,
+        instrumentProvisions(), synchronousProducers(), printProcessingTimes());
+  }
+
+  private static boolean booleanOption(ProcessingEnvironment processingEnv, String key) {
+    Map<String, String> options = processingEnv.getOptions();
+    if (!options.containsKey(key)) {
+      return false;
+    }
+    String value = options.get(key);
+    if (value == null || value.equalsIgnoreCase("true")) {
+      // a bare -Akey enables the option
+      return true;
+    } else if (value.equalsIgnoreCase("false")) {
+      return false;
+    }
+    processingEnv.getMessager().printMessage(ERROR, "Processor option -A" + key
+        + " may only have the values TRUE or FALSE (case insensitive) found: " + value);
+    return false;
+  }
+}
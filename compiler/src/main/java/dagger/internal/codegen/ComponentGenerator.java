@@ -24,6 +24,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -36,15 +37,22 @@ import dagger.Component;
 import dagger.Factory;
 import dagger.MapKey;
 import dagger.MembersInjector;
+import dagger.ProvisionListener;
 import dagger.internal.InstanceFactory;
+import dagger.internal.InstrumentedProvider;
+import dagger.internal.InstrumentedScopedProvider;
 import dagger.internal.MapFactory;
 import dagger.internal.MapProviderFactory;
 import dagger.internal.MembersInjectors;
 import dagger.internal.ScopedProvider;
 import dagger.internal.SetFactory;
+import dagger.internal.SingleCheckProvider;
+import dagger.internal.ThreadConfinedLazy;
+import dagger.internal.ThreadConfinedScopedProvider;
 import dagger.internal.codegen.BindingGraph.ResolvedBindings;
 import dagger.internal.codegen.ContributionBinding.BindingType;
 import dagger.internal.codegen.writer.ClassName;
+import dagger.internal.codegen.writer.BlockWriter;
 import dagger.internal.codegen.writer.ClassWriter;
 import dagger.internal.codegen.writer.ConstructorWriter;
 import dagger.internal.codegen.writer.FieldWriter;
@@ -57,6 +65,13 @@ import dagger.internal.codegen.writer.TypeName;
 import dagger.internal.codegen.writer.TypeNames;
 import dagger.internal.codegen.writer.TypeWriter;
 import dagger.internal.codegen.writer.VoidName;
+import dagger.producers.Producer;
+import dagger.producers.internal.MapOfProducerProducer;
+import dagger.producers.internal.MapProducer;
+import dagger.producers.internal.Producers;
+import dagger.producers.internal.SetOfProducedProducer;
+import dagger.producers.internal.SetProducer;
+import dagger.producers.internal.SynchronousNode;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
@@ -84,7 +99,13 @@ import static com.google.auto.common.MoreTypes.asDeclared;
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static dagger.internal.codegen.Binding.bindingPackageFor;
 import static dagger.internal.codegen.ConfigurationAnnotations.getMapKeys;
+import static dagger.internal.codegen.ProductionComponentWiring.criticalPathPriorities;
+import static dagger.internal.codegen.ProductionComponentWiring.initializeProducerForBinding;
+import static dagger.internal.codegen.ProductionComponentWiring.initializeSynchronousNode;
+import static dagger.internal.codegen.ProductionComponentWiring.isProductionKey;
+import static dagger.internal.codegen.ProductionComponentWiring.synchronousProductionKeys;
 import static dagger.internal.codegen.ProvisionBinding.FactoryCreationStrategy.ENUM_INSTANCE;
+import static dagger.internal.codegen.ProvisionBinding.Kind.INJECTION;
 import static dagger.internal.codegen.ProvisionBinding.Kind.PROVISION;
 import static dagger.internal.codegen.ProvisionBinding.Kind.SYNTHETIC_PROVISON;
 import static dagger.internal.codegen.SourceFiles.factoryNameForProvisionBinding;
@@ -95,6 +116,7 @@ import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.element.Modifier.VOLATILE;
 import static javax.lang.model.element.NestingKind.MEMBER;
 import static javax.lang.model.element.NestingKind.TOP_LEVEL;
 import static javax.lang.model.type.TypeKind.VOID;
@@ -106,8 +128,14 @@ import static javax.lang.model.type.TypeKind.VOID;
  * @since 2.0
  */
 final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
-  ComponentGenerator(Filer filer) {
+  /** The name of the sentinel held by the fields of scoped instances until they're initialized. */
+  private static final String UNINITIALIZED = "UNINITIALIZED";
+
+  private final CompilerOptions compilerOptions;
+
+  ComponentGenerator(Filer filer, CompilerOptions compilerOptions) {
     super(filer);
+    this.compilerOptions = compilerOptions;
   }
 
   @Override
@@ -139,6 +167,25 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     }
   }
 
+  /**
+   * The component members used to hold the instance of a scoped binding directly in the
+   * component, as opposed to in a {@link ScopedProvider}.
+   */
+  @AutoValue
+  static abstract class ScopedInstanceFields {
+    abstract TypeName instanceType();
+    abstract FieldWriter instanceField();
+    /** Absent if the factory is created on demand by a lazily initialized component. */
+    abstract Optional<FieldWriter> factoryField();
+    abstract MethodWriter accessorMethod();
+
+    static ScopedInstanceFields create(TypeName instanceType, FieldWriter instanceField,
+        Optional<FieldWriter> factoryField, MethodWriter accessorMethod) {
+      return new AutoValue_ComponentGenerator_ScopedInstanceFields(
+          instanceType, instanceField, factoryField, accessorMethod);
+    }
+  }
+
   @Override
   ImmutableSet<JavaWriter> write(ClassName componentName, BindingGraph input) {
     ClassName componentDefinitionTypeName =
@@ -183,6 +230,17 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
 
     boolean requiresBuilder = false;
 
+    if (compilerOptions.instrumentProvisions()) {
+      writeProvisionListenerFields(componentWriter, builderWriter, constructorWriter, buildMethod);
+    }
+
+    if (input.componentDescriptor().kind()
+        .equals(ComponentDescriptor.Kind.PRODUCTION_COMPONENT)) {
+      ProductionComponentWiring.writeFields(
+          componentWriter, builderWriter, constructorWriter, buildMethod, input);
+      requiresBuilder = true;
+    }
+
     Map<TypeElement, FieldWriter> componentContributionFields = Maps.newHashMap();
 
     for (Entry<TypeElement, String> entry : componentContributionNames.entrySet()) {
@@ -224,15 +282,45 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
 
     ImmutableMap.Builder<BindingKey, Snippet> memberSelectSnippetsBuilder =
         ImmutableMap.builder();
+    ImmutableMap.Builder<BindingKey, Snippet> fieldSelectSnippetsBuilder =
+        ImmutableMap.builder();
+    ImmutableMap.Builder<BindingKey, MethodWriter> lazyGettersBuilder = ImmutableMap.builder();
     ImmutableMap.Builder<ContributionBinding, Snippet> multibindingContributionSnippetsBuilder =
         ImmutableMap.builder();
     ImmutableSet.Builder<BindingKey> enumBindingKeysBuilder = ImmutableSet.builder();
+    ImmutableMap.Builder<BindingKey, Snippet> typedEnumFactorySnippetsBuilder =
+        ImmutableMap.builder();
+    ImmutableMap.Builder<BindingKey, ScopedInstanceFields> scopedInstanceFieldsBuilder =
+        ImmutableMap.builder();
+    Optional<FieldWriter> uninitializedField = Optional.absent();
 
     ImmutableSet.Builder<JavaWriter> proxyWriters = ImmutableSet.builder();
     Map<String, ProxyClassAndField> packageProxies = Maps.newHashMap();
 
+    Set<String> componentMethodNames = Sets.newHashSet();
+    for (DependencyRequest interfaceRequest : input.entryPoints()) {
+      componentMethodNames.add(interfaceRequest.requestElement().getSimpleName().toString());
+    }
+
+    DirectInvocations directInvocations = new DirectInvocations(
+        compilerOptions.directInvocation(),
+        componentWriter,
+        componentName.packageName(),
+        input,
+        componentContributionFields,
+        componentMethodNames);
+    ImmutableSet<BindingKey> fieldBindingKeys =
+        directInvocations.bindingKeysRequiringFields(compilerOptions.switchingProviders());
+    ImmutableSet<BindingKey> synchronousKeys = compilerOptions.synchronousProducers()
+        ? synchronousProductionKeys(input, componentName.packageName())
+        : ImmutableSet.<BindingKey>of();
+
     for (ResolvedBindings resolvedBindings : input.resolvedBindings().values()) {
       BindingKey bindingKey = resolvedBindings.bindingKey();
+      if (!fieldBindingKeys.contains(bindingKey)) {
+        // only ever invoked directly
+        continue;
+      }
 
       if (resolvedBindings.bindings().size() == 1
           && bindingKey.kind().equals(BindingKey.Kind.CONTRIBUTION)) {
@@ -241,11 +329,18 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
         if (contributionBinding instanceof ProvisionBinding) {
           ProvisionBinding provisionBinding = (ProvisionBinding) contributionBinding;
           if (provisionBinding.factoryCreationStrategy().equals(ENUM_INSTANCE)
-              && !provisionBinding.scope().isPresent()) {
+              && !provisionBinding.scope().isPresent()
+              && !compilerOptions.instrumentProvisions()) {
             enumBindingKeysBuilder.add(bindingKey);
             // skip keys whose factories are enum instances and aren't scoped
             memberSelectSnippetsBuilder.put(bindingKey, Snippet.format("%s.create()",
                     factoryNameForProvisionBinding(provisionBinding)));
+            if (!asDeclared(bindingKey.key().type()).getTypeArguments().isEmpty()) {
+              // switching providers call get() on the factory directly, so javac can't infer
+              // the type arguments of create()
+              typedEnumFactorySnippetsBuilder.put(bindingKey,
+                  typedEnumFactorySnippet(provisionBinding));
+            }
             continue;
           }
         }
@@ -318,7 +413,11 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
         }
       }
 
-      FrameworkField bindingField = frameworkFieldForResolvedBindings(resolvedBindings);
+      FrameworkField bindingField = synchronousKeys.contains(bindingKey)
+          ? FrameworkField.createWithTypeFromKey(SynchronousNode.class, bindingKey,
+              resolvedBindings.bindings().iterator().next().bindingElement().getSimpleName()
+                  .toString())
+          : frameworkFieldForResolvedBindings(resolvedBindings);
       FieldWriter frameworkField =
           classWithFields.addField(bindingField.frameworkType(), bindingField.name());
       frameworkField.addModifiers(fieldModifiers);
@@ -327,9 +426,37 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
           .addAll(proxySelector.asSet())
           .add(frameworkField.name())
           .build();
-      memberSelectSnippetsBuilder.put(bindingKey,
-          Snippet.memberSelectSnippet(memberSelectTokens));
+      Snippet fieldSelectSnippet = Snippet.memberSelectSnippet(memberSelectTokens);
+      fieldSelectSnippetsBuilder.put(bindingKey, fieldSelectSnippet);
+
+      if (compilerOptions.lazyComponentInitialization() && !proxySelector.isPresent()) {
+        // fields behind a package proxy are still initialized eagerly by the constructor
+        String getterName = "get" + CaseFormat.LOWER_CAMEL.to(
+            CaseFormat.UPPER_CAMEL, frameworkField.name());
+        while (componentMethodNames.contains(getterName)) {
+          getterName += "_";
+        }
+        componentMethodNames.add(getterName);
+        MethodWriter getter = componentWriter.addMethod(bindingField.frameworkType(), getterName);
+        getter.addModifiers(PRIVATE);
+        if (!compilerOptions.threadConfinedComponents()) {
+          frameworkField.addModifiers(VOLATILE);
+        }
+        lazyGettersBuilder.put(bindingKey, getter);
+        memberSelectSnippetsBuilder.put(bindingKey, Snippet.format("%s()", getter.name()));
+      } else {
+        memberSelectSnippetsBuilder.put(bindingKey, fieldSelectSnippet);
+      }
 
+      if (!proxySelector.isPresent() && isInlinedScopedBinding(resolvedBindings)) {
+        if (!uninitializedField.isPresent()) {
+          uninitializedField = Optional.of(componentWriter.addField(Object.class, UNINITIALIZED));
+          uninitializedField.get().addModifiers(PRIVATE, STATIC, FINAL);
+          uninitializedField.get().setInitializer("new Object()");
+        }
+        scopedInstanceFieldsBuilder.put(bindingKey,
+            writeScopedInstanceFields(componentWriter, bindingField));
+      }
     }
 
     buildMethod.body().addSnippet("return new %s(this);", componentWriter.name());
@@ -342,12 +469,195 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     }
 
     ImmutableMap<BindingKey, Snippet> memberSelectSnippets = memberSelectSnippetsBuilder.build();
+    ImmutableMap<BindingKey, Snippet> fieldSelectSnippets = fieldSelectSnippetsBuilder.build();
+    ImmutableMap<BindingKey, MethodWriter> lazyGetters = lazyGettersBuilder.build();
     ImmutableMap<ContributionBinding, Snippet> multibindingContributionSnippets =
         multibindingContributionSnippetsBuilder.build();
     ImmutableSet<BindingKey> enumBindingKeys = enumBindingKeysBuilder.build();
+    ImmutableMap<BindingKey, ScopedInstanceFields> scopedInstanceFields =
+        scopedInstanceFieldsBuilder.build();
+    Map<BindingKey, Snippet> inlineMemberSelectSnippets = Maps.newHashMap(memberSelectSnippets);
+    inlineMemberSelectSnippets.putAll(typedEnumFactorySnippetsBuilder.build());
+    ImmutableMap<BindingKey, Snippet> typedMemberSelectSnippets =
+        ImmutableMap.copyOf(inlineMemberSelectSnippets);
+    directInvocations.setMemberSelectSnippets(typedMemberSelectSnippets);
+    SwitchingProviders switchingProviders = new SwitchingProviders(
+        compilerOptions.switchingProviders(), componentWriter, directInvocations);
+
+    ImmutableMap<BindingKey, Integer> producerPriorities = criticalPathPriorities(input);
+
+    // the statements that initialize the framework fields, in dependency order
+    Map<BindingKey, List<Snippet>> eagerInitializations = Maps.newLinkedHashMap();
+    for (BindingKey bindingKey : input.resolvedBindings().keySet()) {
+      if (!fieldBindingKeys.contains(bindingKey)) {
+        continue;
+      }
+      Snippet fieldSelectSnippet = fieldSelectSnippets.get(bindingKey);
+      List<Snippet> statements = Lists.newArrayList();
+      switch (bindingKey.kind()) {
+        case CONTRIBUTION:
+          if (isProductionKey(input, bindingKey)) {
+            @SuppressWarnings("unchecked")  // provision contributions are rejected in validation
+            ImmutableSet<ProductionBinding> productionBindings =
+                (ImmutableSet<ProductionBinding>) input.resolvedBindings()
+                .get(bindingKey)
+                .contributionBindings();
+            int priority = producerPriorities.get(bindingKey);
+            BindingType productionBindingType =
+                ContributionBinding.bindingTypeFor(productionBindings);
+            if (productionBindingType.isMultibinding()) {
+              for (ProductionBinding productionBinding : productionBindings) {
+                statements.add(Snippet.format("this.%s = %s;",
+                    multibindingContributionSnippets.get(productionBinding),
+                    initializeProducerForBinding(productionBinding, input, priority,
+                        componentContributionFields, typedMemberSelectSnippets)));
+              }
+              statements.add(Snippet.format("this.%s = %s;",
+                  fieldSelectSnippet,
+                  productionBindingType.equals(BindingType.SET)
+                      ? Snippet.format("%s.create(%s)",
+                          ClassName.fromClass(SetProducer.class),
+                          Snippet.makeParametersSnippet(Iterables.transform(productionBindings,
+                              Functions.forMap(multibindingContributionSnippets))))
+                      : initializeMapProducerBinding(
+                          multibindingContributionSnippets, productionBindings)));
+              break;
+            }
+            ProductionBinding productionBinding = Iterables.getOnlyElement(productionBindings);
+            switch (productionBinding.bindingKind()) {
+              case SYNTHETIC_MAP:
+                statements.add(Snippet.format("this.%s = %s.create(%s);",
+                    fieldSelectSnippet,
+                    ClassName.fromClass(MapProducer.class),
+                    typedMemberSelectSnippets.get(BindingKey.forDependencyRequest(
+                        Iterables.getOnlyElement(productionBinding.dependencies())))));
+                break;
+              case SYNTHETIC_SET_OF_PRODUCED:
+                // a failed contribution fails only its own elements, so the set is built from the
+                // contributions to Set<T> rather than from its producer
+                BindingKey setKey = BindingKey.forDependencyRequest(
+                    Iterables.getOnlyElement(productionBinding.dependencies()));
+                if (lazyGetters.containsKey(setKey)) {
+                  statements.add(Snippet.format("%s();", lazyGetters.get(setKey).name()));
+                }
+                statements.add(Snippet.format("this.%s = %s.create(%s);",
+                    fieldSelectSnippet,
+                    ClassName.fromClass(SetOfProducedProducer.class),
+                    Snippet.makeParametersSnippet(Iterables.transform(
+                        input.resolvedBindings().get(setKey).contributionBindings(),
+                        Functions.forMap(multibindingContributionSnippets)))));
+                break;
+              default:
+                statements.add(Snippet.format("this.%s = %s;",
+                    fieldSelectSnippet,
+                    synchronousKeys.contains(bindingKey)
+                        ? initializeSynchronousNode(productionBinding, input,
+                            componentContributionFields, typedMemberSelectSnippets)
+                        : initializeProducerForBinding(productionBinding, input, priority,
+                            componentContributionFields, typedMemberSelectSnippets)));
+            }
+            break;
+          }
+          @SuppressWarnings("unchecked")  // checked during validation
+          ImmutableSet<ProvisionBinding> bindings =
+              (ImmutableSet<ProvisionBinding>) input.resolvedBindings()
+              .get(bindingKey)
+              .contributionBindings();
+
+          switch (ContributionBinding.bindingTypeFor(bindings)) {
+            case SET:
+              for (ProvisionBinding provisionBinding : bindings) {
+                statements.add(Snippet.format("this.%s = %s;",
+                    multibindingContributionSnippets.get(provisionBinding),
+                    initializeFactoryForBinding(provisionBinding,
+                        input.componentDescriptor().dependencyMethodIndex(),
+                        componentContributionFields,
+                        memberSelectSnippets,
+                        switchingProviders)));
+              }
+              Snippet initializeSetSnippet = Snippet.format("%s.create(%s)",
+                  ClassName.fromClass(SetFactory.class),
+                  Snippet.makeParametersSnippet(Iterables.transform(bindings,
+                      Functions.forMap(multibindingContributionSnippets))));
+              statements.add(Snippet.format("this.%s = %s;",
+                  fieldSelectSnippet, initializeSetSnippet));
+              break;
+            case MAP:
+              for (ProvisionBinding provisionBinding : bindings) {
+                if (!isNonProviderMap(provisionBinding)) {
+                  statements.add(Snippet.format("this.%s = %s;",
+                      multibindingContributionSnippets.get(provisionBinding),
+                      initializeFactoryForBinding(provisionBinding,
+                          input.componentDescriptor().dependencyMethodIndex(),
+                          componentContributionFields,
+                          memberSelectSnippets,
+                          switchingProviders)));
+                }
+              }
+              if (!bindings.isEmpty()) {
+                Snippet initializeMapSnippet = initializeMapBinding(
+                    memberSelectSnippets, multibindingContributionSnippets, bindings);
+                statements.add(Snippet.format("this.%s = %s;",
+                    fieldSelectSnippet, initializeMapSnippet));
+              }
+              break;
+            case UNIQUE:
+              ProvisionBinding binding = Iterables.getOnlyElement(bindings);
+              if (scopedInstanceFields.containsKey(bindingKey)) {
+                ScopedInstanceFields instanceFields = scopedInstanceFields.get(bindingKey);
+                Snippet factorySnippet = unscopedFactoryForBinding(binding,
+                    componentContributionFields, memberSelectSnippets, switchingProviders);
+                if (instanceFields.factoryField().isPresent()) {
+                  statements.add(Snippet.format("this.%s = %s;",
+                      instanceFields.factoryField().get().name(), factorySnippet));
+                  writeScopedInstanceAccessorBody(instanceFields,
+                      Snippet.format("%s.get()", instanceFields.factoryField().get().name()));
+                } else {
+                  writeScopedInstanceAccessorBody(instanceFields,
+                      Snippet.format("%s.get()", factorySnippet));
+                }
+                Snippet accessorSnippet =
+                    Snippet.format("%s()", instanceFields.accessorMethod().name());
+                // dependents share the switching provider class rather than a class per binding
+                statements.add(Snippet.format("this.%s = %s;",
+                    fieldSelectSnippet,
+                    switchingProviders.newSwitchingProvider(
+                        instanceFields.instanceType(), accessorSnippet)));
+              } else if (!binding.factoryCreationStrategy().equals(ENUM_INSTANCE)
+                  || binding.scope().isPresent()
+                  || compilerOptions.instrumentProvisions()) {
+                statements.add(Snippet.format("this.%s = %s;",
+                    fieldSelectSnippet,
+                    initializeFactoryForBinding(binding,
+                        input.componentDescriptor().dependencyMethodIndex(),
+                        componentContributionFields, memberSelectSnippets,
+                        switchingProviders)));
+              }
+              break;
+            default:
+              throw new IllegalStateException();
+          }
+          break;
+        case MEMBERS_INJECTION:
+          MembersInjectionBinding binding = Iterables.getOnlyElement(
+              input.resolvedBindings().get(bindingKey).membersInjectionBindings());
+          statements.add(Snippet.format("this.%s = %s;",
+              fieldSelectSnippet,
+              initializeMembersInjectorForBinding(binding, memberSelectSnippets)));
+          break;
+        default:
+          throw new AssertionError();
+      }
+
+      if (lazyGetters.containsKey(bindingKey)) {
+        writeLazyGetterBody(lazyGetters.get(bindingKey), fieldSelectSnippet, statements);
+      } else if (!compilerOptions.lazyComponentInitialization() || !statements.isEmpty()) {
+        eagerInitializations.put(bindingKey, statements);
+      }
+    }
 
     List<List<BindingKey>> partitions = Lists.partition(
-        input.resolvedBindings().keySet().asList(), 100);
+        ImmutableList.copyOf(eagerInitializations.keySet()), 100);
     for (int i = 0; i < partitions.size(); i++) {
       MethodWriter initializeMethod =
           componentWriter.addMethod(VoidName.VOID, "initialize" + ((i == 0) ? "" : i));
@@ -356,74 +666,8 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
       constructorWriter.body().addSnippet("%s();", initializeMethod.name());
 
       for (BindingKey bindingKey : partitions.get(i)) {
-        Snippet memberSelectSnippet = memberSelectSnippets.get(bindingKey);
-        switch (bindingKey.kind()) {
-          case CONTRIBUTION:
-            @SuppressWarnings("unchecked")  // checked during validation
-            ImmutableSet<ProvisionBinding> bindings =
-                (ImmutableSet<ProvisionBinding>) input.resolvedBindings()
-                .get(bindingKey)
-                .contributionBindings();
-
-            switch (ContributionBinding.bindingTypeFor(bindings)) {
-              case SET:
-                for (ProvisionBinding provisionBinding : bindings) {
-                  initializeMethod.body().addSnippet("this.%s = %s;",
-                      multibindingContributionSnippets.get(provisionBinding),
-                      initializeFactoryForBinding(provisionBinding,
-                          input.componentDescriptor().dependencyMethodIndex(),
-                          componentContributionFields,
-                          memberSelectSnippets));
-                }
-                Snippet initializeSetSnippet = Snippet.format("%s.create(%s)",
-                    ClassName.fromClass(SetFactory.class),
-                    Snippet.makeParametersSnippet(Iterables.transform(bindings,
-                        Functions.forMap(multibindingContributionSnippets))));
-                initializeMethod.body().addSnippet("this.%s = %s;",
-                    memberSelectSnippet, initializeSetSnippet);
-                break;
-              case MAP:
-                for (ProvisionBinding provisionBinding : bindings) {
-                  if (!isNonProviderMap(provisionBinding)) {
-                    initializeMethod.body().addSnippet("this.%s = %s;",
-                        multibindingContributionSnippets.get(provisionBinding),
-                        initializeFactoryForBinding(provisionBinding,
-                            input.componentDescriptor().dependencyMethodIndex(),
-                            componentContributionFields,
-                            memberSelectSnippets));
-                  }
-                }
-                if (!bindings.isEmpty()) {
-                  Snippet initializeMapSnippet = initializeMapBinding(
-                      memberSelectSnippets, multibindingContributionSnippets, bindings);
-                  initializeMethod.body().addSnippet("this.%s = %s;",
-                      memberSelectSnippet, initializeMapSnippet);
-                }
-                break;
-              case UNIQUE:
-                ProvisionBinding binding = Iterables.getOnlyElement(bindings);
-                if (!binding.factoryCreationStrategy().equals(ENUM_INSTANCE)
-                    || binding.scope().isPresent()) {
-                  initializeMethod.body().addSnippet("this.%s = %s;",
-                      memberSelectSnippet,
-                      initializeFactoryForBinding(binding,
-                          input.componentDescriptor().dependencyMethodIndex(),
-                          componentContributionFields, memberSelectSnippets));
-                }
-                break;
-              default:
-                throw new IllegalStateException();
-            }
-            break;
-          case MEMBERS_INJECTION:
-            MembersInjectionBinding binding = Iterables.getOnlyElement(
-                input.resolvedBindings().get(bindingKey).membersInjectionBindings());
-            initializeMethod.body().addSnippet("this.%s = %s;",
-                memberSelectSnippet,
-                initializeMembersInjectorForBinding(binding, memberSelectSnippets));
-            break;
-          default:
-            throw new AssertionError();
+        for (Snippet statement : eagerInitializations.get(bindingKey)) {
+          initializeMethod.body().addSnippet(statement);
         }
       }
     }
@@ -444,6 +688,23 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
             interfaceMethod.addModifiers(PUBLIC);
             BindingKey bindingKey = BindingKey.forDependencyRequest(interfaceRequest);
             switch(interfaceRequest.kind()) {
+              case FUTURE:
+              case PRODUCER:
+                Snippet frameworkSnippet = typedMemberSelectSnippets.get(bindingKey);
+                if (isProductionKey(input, bindingKey)) {
+                  interfaceMethod.body().addSnippet("return %s;",
+                      frameworkTypeUsageStatement(
+                          Snippet.format("%s.withDeadline(%s, startNanos, timeoutNanos, executor)",
+                              ClassName.fromClass(Producers.class), frameworkSnippet),
+                          interfaceRequest.kind()));
+                } else if (interfaceRequest.kind().equals(DependencyRequest.Kind.FUTURE)) {
+                  interfaceMethod.body().addSnippet("return %s.producerFromProvider(%s).get();",
+                      ClassName.fromClass(Producers.class), frameworkSnippet);
+                } else {
+                  interfaceMethod.body().addSnippet("return %s.producerFromProvider(%s);",
+                      ClassName.fromClass(Producers.class), frameworkSnippet);
+                }
+                break;
               case MEMBERS_INJECTOR:
                 Snippet membersInjectorName = memberSelectSnippets.get(bindingKey);
                 VariableElement parameter = Iterables.getOnlyElement(requestElement.getParameters());
@@ -457,6 +718,18 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
                 }
                 break;
               case INSTANCE:
+                if (directInvocations.canInvokeDirectly(bindingKey)) {
+                  ProvisionBinding binding = (ProvisionBinding) Iterables.getOnlyElement(
+                      input.resolvedBindings().get(bindingKey).contributionBindings());
+                  interfaceMethod.body().addSnippet("return %s;",
+                      directInvocations.provisionSnippet(binding));
+                  break;
+                }
+                if (scopedInstanceFields.containsKey(bindingKey)) {
+                  interfaceMethod.body().addSnippet("return %s();",
+                      scopedInstanceFields.get(bindingKey).accessorMethod().name());
+                  break;
+                }
                 if (enumBindingKeys.contains(bindingKey)
                     && !MoreTypes.asDeclared(bindingKey.key().type())
                             .getTypeArguments().isEmpty()) {
@@ -472,8 +745,15 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
                 }
                 // fall through in the else case.
               case LAZY:
+                if (interfaceRequest.kind().equals(DependencyRequest.Kind.LAZY)
+                    && compilerOptions.threadConfinedComponents()) {
+                  interfaceMethod.body().addSnippet("return %s.create(%s);",
+                      ClassName.fromClass(ThreadConfinedLazy.class),
+                      memberSelectSnippets.get(bindingKey));
+                  break;
+                }
+                // fall through if the component isn't thread-confined.
               case PRODUCED:
-              case PRODUCER:
               case PROVIDER:
                 interfaceMethod.body().addSnippet("return %s;",
                     frameworkTypeUsageStatement(memberSelectSnippets.get(bindingKey),
@@ -485,6 +765,8 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
       }
     }
 
+    switchingProviders.finish();
+
     return new ImmutableSet.Builder<JavaWriter>()
         .addAll(proxyWriters.build())
         .add(writer)
@@ -494,24 +776,26 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
   private static FrameworkField frameworkFieldForSyntheticProvisionBinding(BindingKey bindingKey,
       int contributionNumber, ContributionBinding contributionBinding) throws AssertionError {
     FrameworkField contributionBindingField;
+    Class<?> frameworkClass =
+        contributionBinding instanceof ProductionBinding ? Producer.class : Provider.class;
     switch (contributionBinding.bindingType()) {
       case MAP:
         contributionBindingField = FrameworkField.createForMapBindingContribution(
-            Provider.class,
+            frameworkClass,
             BindingKey.create(bindingKey.kind(), contributionBinding.key()),
             KeyVariableNamer.INSTANCE.apply(bindingKey.key())
                 + "Contribution" + contributionNumber);
         break;
       case SET:
         contributionBindingField = FrameworkField.createWithTypeFromKey(
-            Provider.class,
+            frameworkClass,
             bindingKey,
             KeyVariableNamer.INSTANCE.apply(bindingKey.key())
                 + "Contribution" + contributionNumber);
         break;
       case UNIQUE:
         contributionBindingField = FrameworkField.createWithTypeFromKey(
-            Provider.class,
+            frameworkClass,
             bindingKey,
             KeyVariableNamer.INSTANCE.apply(bindingKey.key())
                 + "Contribution" + contributionNumber);
@@ -522,6 +806,134 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     return contributionBindingField;
   }
 
+  /**
+   * Returns true if the instance of the binding in {@code resolvedBindings} should be held
+   * directly by the component rather than by a {@link ScopedProvider}.
+   */
+  private boolean isInlinedScopedBinding(ResolvedBindings resolvedBindings) {
+    if (!compilerOptions.inlineScopedInstances()
+        || !resolvedBindings.bindingKey().kind().equals(BindingKey.Kind.CONTRIBUTION)
+        || resolvedBindings.bindings().size() != 1) {
+      return false;
+    }
+    ContributionBinding binding =
+        Iterables.getOnlyElement(resolvedBindings.contributionBindings());
+    if (!(binding instanceof ProvisionBinding)
+        || !binding.bindingType().equals(BindingType.UNIQUE)) {
+      return false;
+    }
+    ProvisionBinding provisionBinding = (ProvisionBinding) binding;
+    switch (provisionBinding.bindingKind()) {
+      case INJECTION:
+      case PROVISION:
+        // @Reusable bindings already drop their factory once initialized.
+        return provisionBinding.scope().isPresent() && !provisionBinding.isReusable();
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Adds the instance field, the factory field and the double-checking accessor method for a
+   * scoped binding whose instance is held directly by the component.
+   */
+  private ScopedInstanceFields writeScopedInstanceFields(
+      ClassWriter componentWriter, FrameworkField bindingField) {
+    TypeName instanceType = TypeNames.forTypeMirror(bindingField.bindingKey().key().type());
+    String providerSuffix = Provider.class.getSimpleName();
+    String baseName = bindingField.name()
+        .substring(0, bindingField.name().length() - providerSuffix.length());
+
+    // an Object field, so that a binding that provides null isn't mistaken for an uninitialized one
+    FieldWriter instanceField = componentWriter.addField(Object.class, baseName + "Instance");
+    instanceField.addModifiers(PRIVATE);
+    instanceField.setInitializer(UNINITIALIZED);
+    if (!compilerOptions.threadConfinedComponents()) {
+      instanceField.addModifiers(VOLATILE);
+    }
+    Optional<FieldWriter> factoryField = Optional.absent();
+    if (!compilerOptions.lazyComponentInitialization()) {
+      factoryField = Optional.of(componentWriter.addField(
+          ParameterizedTypeName.create(ClassName.fromClass(Factory.class), instanceType),
+          baseName + "Factory"));
+      factoryField.get().addModifiers(PRIVATE);
+    }
+
+    MethodWriter accessorMethod = componentWriter.addMethod(instanceType, baseName + "Instance");
+    if (instanceType instanceof ParameterizedTypeName) {
+      accessorMethod.annotate(SuppressWarnings.class).setValue("unchecked");
+    }
+    accessorMethod.addModifiers(PRIVATE);
+    return ScopedInstanceFields.create(instanceType, instanceField, factoryField, accessorMethod);
+  }
+
+  /**
+   * Writes the body of the accessor for a scoped instance held by the component, where
+   * {@code provisionSnippet} creates a new instance.
+   */
+  private void writeScopedInstanceAccessorBody(
+      ScopedInstanceFields instanceFields, Snippet provisionSnippet) {
+    String instanceFieldName = instanceFields.instanceField().name();
+    List<Snippet> statements = Lists.newArrayList();
+    statements.add(Snippet.format("%s = instance = %s;", instanceFieldName, provisionSnippet));
+    if (instanceFields.factoryField().isPresent()) {
+      statements.add(Snippet.format("%s = null;", instanceFields.factoryField().get().name()));
+    }
+    BlockWriter body = instanceFields.accessorMethod().body();
+    writeCheckedInitialization(body, ClassName.fromClass(Object.class), "instance",
+        Snippet.format(instanceFieldName), Snippet.format(UNINITIALIZED), statements);
+    // the cast only happens when the instance comes from the factory
+    body.addSnippet("return (%s) instance;", instanceFields.instanceType());
+  }
+
+  /**
+   * Writes the body of the method that creates the framework field selected by
+   * {@code fieldSelectSnippet} the first time it is requested.
+   */
+  private void writeLazyGetterBody(
+      MethodWriter getter, Snippet fieldSelectSnippet, List<Snippet> statements) {
+    writeCheckedInitialization(getter.body(), getter.returnType(), "result",
+        fieldSelectSnippet, Snippet.format("null"), statements);
+    getter.body().addSnippet("return result;");
+  }
+
+  /**
+   * Writes a block that runs {@code initializationStatements} if the field selected by
+   * {@code fieldSelectSnippet} still holds {@code uninitializedSnippet}, leaving the value of the
+   * field in the local variable {@code localName}. Unless the component is thread-confined, the
+   * check is the double-check idiom from EJ2: Item 71.
+   */
+  private void writeCheckedInitialization(BlockWriter body, TypeName fieldType,
+      String localName, Snippet fieldSelectSnippet, Snippet uninitializedSnippet,
+      List<Snippet> initializationStatements) {
+    body.addSnippet("%s %s = %s;", fieldType, localName, fieldSelectSnippet);
+    if (compilerOptions.threadConfinedComponents()) {
+      body.addSnippet("if (%s == %s) {", localName, uninitializedSnippet);
+      for (Snippet statement : initializationStatements) {
+        body.addSnippet(indent(statement, "  "));
+      }
+      body.addSnippet("  %s = %s;", localName, fieldSelectSnippet)
+          .addSnippet("}");
+    } else {
+      body.addSnippet("if (%s == %s) {", localName, uninitializedSnippet)
+          .addSnippet("  synchronized (this) {")
+          .addSnippet("    %s = %s;", localName, fieldSelectSnippet)
+          .addSnippet("    if (%s == %s) {", localName, uninitializedSnippet);
+      for (Snippet statement : initializationStatements) {
+        body.addSnippet(indent(statement, "      "));
+      }
+      body.addSnippet("      %s = %s;", localName, fieldSelectSnippet)
+          .addSnippet("    }")
+          .addSnippet("  }")
+          .addSnippet("}");
+    }
+  }
+
+  private static Snippet indent(Snippet snippet, String indentation) {
+    return Snippet.format(indentation + snippet.format().replace("\n", "\n" + indentation),
+        snippet.args());
+  }
+
   private static boolean isSytheticProvisionBinding(ContributionBinding contributionBinding) {
     return !(contributionBinding instanceof ProvisionBinding
         && ((ProvisionBinding) contributionBinding)
@@ -535,17 +947,29 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
         ImmutableSet<? extends ContributionBinding> contributionBindings =
             resolvedBindings.contributionBindings();
         BindingType bindingsType = ProvisionBinding.bindingTypeFor(contributionBindings);
+        Class<?> frameworkClass =
+            Iterables.any(contributionBindings, Predicates.instanceOf(ProductionBinding.class))
+                ? Producer.class
+                : Provider.class;
         switch (bindingsType) {
           case SET:
           case MAP:
             return FrameworkField.createWithTypeFromKey(
-                Provider.class,
+                frameworkClass,
                 bindingKey,
                 KeyVariableNamer.INSTANCE.apply(bindingKey.key()));
           case UNIQUE:
             ContributionBinding binding = Iterables.getOnlyElement(contributionBindings);
+            if (binding instanceof ProductionBinding
+                && ((ProductionBinding) binding).isSynthetic()) {
+              // implicit bindings are named for their key, not for the element requesting them
+              return FrameworkField.createWithTypeFromKey(
+                  frameworkClass,
+                  bindingKey,
+                  KeyVariableNamer.INSTANCE.apply(bindingKey.key()));
+            }
             return FrameworkField.createWithTypeFromKey(
-                Provider.class,
+                frameworkClass,
                 bindingKey,
                 binding.bindingElement().accept(new ElementKindVisitor6<String, Void>() {
                   @Override
@@ -582,14 +1006,19 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
   private Snippet initializeFactoryForBinding(ProvisionBinding binding,
       ImmutableMap<ExecutableElement, TypeElement> dependencyMethodIndex,
       Map<TypeElement, FieldWriter> contributionFields,
-      ImmutableMap<BindingKey, Snippet> memberSelectSnippets) {
+      ImmutableMap<BindingKey, Snippet> memberSelectSnippets,
+      SwitchingProviders switchingProviders) {
     switch(binding.bindingKind()) {
       case COMPONENT:
         return Snippet.format("%s.<%s>create(this)",
             ClassName.fromClass(InstanceFactory.class),
             TypeNames.forTypeMirror(binding.key().type()));
       case COMPONENT_PROVISION:
-        return Snippet.format(Joiner.on('\n').join(
+        Optional<Snippet> switchingProvider = switchingProviders.forBinding(binding);
+        if (switchingProvider.isPresent()) {
+          return instrumentedFactory(binding, switchingProvider.get());
+        }
+        return instrumentedFactory(binding, Snippet.format(Joiner.on('\n').join(
           "new %s<%2$s>() {",
           "  @Override public %2$s get() {",
           "    return %3$s.%4$s();",
@@ -598,48 +1027,144 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
           ClassName.fromClass(Factory.class),
           TypeNames.forTypeMirror(binding.key().type()),
           contributionFields.get(dependencyMethodIndex.get(binding.bindingElement())).name(),
-          binding.bindingElement().getSimpleName().toString());
+          binding.bindingElement().getSimpleName().toString()));
       case INJECTION:
       case PROVISION:
-        List<Snippet> parameters =
-            Lists.newArrayListWithCapacity(binding.dependencies().size() + 1);
-        if (binding.bindingKind().equals(PROVISION)) {
-          parameters.add(
-              Snippet.format(contributionFields.get(binding.bindingTypeElement()).name()));
-        }
-        if (binding.memberInjectionRequest().isPresent()) {
-          parameters.add(memberSelectSnippets.get(
-              BindingKey.forDependencyRequest(binding.memberInjectionRequest().get())));
-        }
-        parameters.addAll(getDependencyParameters(binding.dependencies(), memberSelectSnippets));
-
-        if (binding.bindingKind().equals(PROVISION)) {
-          // Factories from @Provides methods don't have .create() methods.
-          return binding.scope().isPresent()
-              ? Snippet.format("%s.create(new %s(%s))",
-                  ClassName.fromClass(ScopedProvider.class),
-                  factoryNameForProvisionBinding(binding),
-                  Snippet.makeParametersSnippet(parameters))
-              : Snippet.format("new %s(%s)",
-                  factoryNameForProvisionBinding(binding),
-                  Snippet.makeParametersSnippet(parameters));
-        } else {
-          // Factories from @Inject classes have .create() methods.
-          return binding.scope().isPresent()
-              ? Snippet.format("%s.create(%s.create(%s))",
-                  ClassName.fromClass(ScopedProvider.class),
-                  factoryNameForProvisionBinding(binding),
-                  Snippet.makeParametersSnippet(parameters))
-              : Snippet.format("%s.create(%s)",
-                  factoryNameForProvisionBinding(binding),
-                  Snippet.makeParametersSnippet(parameters));
+        Snippet factorySnippet = unscopedFactoryForBinding(
+            binding, contributionFields, memberSelectSnippets, switchingProviders);
+        if (compilerOptions.instrumentProvisions()) {
+          if (binding.factoryCreationStrategy().equals(ENUM_INSTANCE)
+              && !asDeclared(binding.key().type()).getTypeArguments().isEmpty()) {
+            // the factory is an argument, so javac can't infer the type arguments of create()
+            factorySnippet = typedEnumFactorySnippet(binding);
+          }
+          return instrumentedFactory(binding, factorySnippet);
         }
+        return binding.scope().isPresent()
+            ? Snippet.format("%s.create(%s)", scopedProviderClassFor(binding), factorySnippet)
+            : factorySnippet;
 
       default:
         throw new AssertionError();
     }
   }
 
+  /**
+   * Adds the {@link ProvisionListener} that instrumented providers report to, which may be set on
+   * the builder and otherwise ignores every provision.
+   */
+  private static void writeProvisionListenerFields(ClassWriter componentWriter,
+      ClassWriter builderWriter, ConstructorWriter constructorWriter, MethodWriter buildMethod) {
+    ClassName listenerName = ClassName.fromClass(ProvisionListener.class);
+    FieldWriter listenerField = componentWriter.addField(listenerName, "provisionListener");
+    listenerField.addModifiers(PRIVATE, FINAL);
+    constructorWriter.body()
+        .addSnippet("this.%1$s = builder.%1$s;", listenerField.name());
+    FieldWriter builderField = builderWriter.addField(listenerName, listenerField.name());
+    builderField.addModifiers(PRIVATE);
+    MethodWriter builderMethod = builderWriter.addMethod(builderWriter, listenerField.name());
+    builderMethod.addModifiers(PUBLIC);
+    builderMethod.addParameter(listenerName, listenerField.name());
+    builderMethod.body()
+        .addSnippet("if (%s == null) {", listenerField.name())
+        .addSnippet("  throw new NullPointerException(%s);",
+            StringLiteral.forValue(listenerField.name()))
+        .addSnippet("}")
+        .addSnippet("this.%1$s = %1$s;", builderField.name())
+        .addSnippet("return this;");
+    buildMethod.body()
+        .addSnippet("if (%s == null) {", builderField.name())
+        .addSnippet("  this.%s = %s.noOpListener();",
+            builderField.name(), ClassName.fromClass(InstrumentedProvider.class))
+        .addSnippet("}");
+  }
+
+  /**
+   * Returns a snippet that wraps {@code factorySnippet} in a provider that reports to the
+   * component's {@link ProvisionListener}. A scoped binding keeps its own caching provider, created
+   * around a factory that records whether each call created the instance.
+   */
+  private Snippet instrumentedFactory(ProvisionBinding binding, Snippet factorySnippet) {
+    TypeName type = TypeNames.forTypeMirror(binding.key().type());
+    StringLiteral key = StringLiteral.forValue(KeyFormatter.instance().format(binding.key()));
+    if (!binding.scope().isPresent()) {
+      return Snippet.format("%s.<%s>create(%s, %s, provisionListener)",
+          ClassName.fromClass(InstrumentedProvider.class), type, factorySnippet, key);
+    }
+    return Snippet.format("%1$s.<%2$s>create(%3$s.create(%1$s.<%2$s>recordingCreations(%4$s)),"
+        + " %5$s, provisionListener)",
+        ClassName.fromClass(InstrumentedScopedProvider.class),
+        type,
+        scopedProviderClassFor(binding),
+        factorySnippet,
+        key);
+  }
+
+  /**
+   * Returns a snippet that calls the {@code create()} method of an enum factory for a generic
+   * type with explicit type arguments.
+   */
+  private static Snippet typedEnumFactorySnippet(ProvisionBinding binding) {
+    List<Snippet> typeArgumentSnippets = Lists.newArrayList();
+    for (TypeMirror typeArgument : asDeclared(binding.key().type()).getTypeArguments()) {
+      typeArgumentSnippets.add(Snippet.format("%s", TypeNames.forTypeMirror(typeArgument)));
+    }
+    return Snippet.format("%s.<%s>create()",
+        factoryNameForProvisionBinding(binding),
+        Snippet.makeParametersSnippet(typeArgumentSnippets));
+  }
+
+  /**
+   * Returns a snippet that creates the (unscoped) {@link Factory} for an {@code @Inject} or
+   * {@code @Provides} binding.
+   */
+  private static Snippet unscopedFactoryForBinding(ProvisionBinding binding,
+      Map<TypeElement, FieldWriter> contributionFields,
+      ImmutableMap<BindingKey, Snippet> memberSelectSnippets,
+      SwitchingProviders switchingProviders) {
+    Optional<Snippet> switchingProvider = switchingProviders.forBinding(binding);
+    if (switchingProvider.isPresent()) {
+      return switchingProvider.get();
+    }
+    List<Snippet> parameters =
+        Lists.newArrayListWithCapacity(binding.dependencies().size() + 1);
+    if (binding.bindingKind().equals(PROVISION)) {
+      parameters.add(
+          Snippet.format(contributionFields.get(binding.bindingTypeElement()).name()));
+    }
+    if (binding.memberInjectionRequest().isPresent()) {
+      parameters.add(memberSelectSnippets.get(
+          BindingKey.forDependencyRequest(binding.memberInjectionRequest().get())));
+    }
+    parameters.addAll(getDependencyParameters(binding.dependencies(), memberSelectSnippets));
+
+    if (binding.bindingKind().equals(PROVISION)) {
+      // Factories from @Provides methods don't have .create() methods.
+      return Snippet.format("new %s(%s)",
+          factoryNameForProvisionBinding(binding),
+          Snippet.makeParametersSnippet(parameters));
+    } else {
+      // Factories from @Inject classes have .create() methods.
+      return Snippet.format("%s.create(%s)",
+          factoryNameForProvisionBinding(binding),
+          Snippet.makeParametersSnippet(parameters));
+    }
+  }
+
+  /**
+   * Returns the {@link javax.inject.Provider} implementation used to memoize a scoped binding.
+   * {@link dagger.Reusable} bindings are cached without locking, and thread-confined components
+   * cache every scoped binding without any synchronization.
+   */
+  private ClassName scopedProviderClassFor(ProvisionBinding binding) {
+    if (compilerOptions.threadConfinedComponents()) {
+      return ClassName.fromClass(ThreadConfinedScopedProvider.class);
+    }
+    return binding.isReusable()
+        ? ClassName.fromClass(SingleCheckProvider.class)
+        : ClassName.fromClass(ScopedProvider.class);
+  }
+
   private static Snippet initializeMembersInjectorForBinding(
       MembersInjectionBinding binding,
       ImmutableMap<BindingKey, Snippet> memberSelectSnippets) {
@@ -712,6 +1237,27 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     }
   }
 
+  private Snippet initializeMapProducerBinding(
+      ImmutableMap<ContributionBinding, Snippet> multibindingContributionSnippets,
+      Set<ProductionBinding> bindings) {
+    DeclaredType mapType = asDeclared(Iterables.getFirst(bindings, null).key().type());
+    StringBuilder snippetFormatBuilder = new StringBuilder("%s.<%s, %s>builder()");
+    for (int i = 0; i < bindings.size(); i++) {
+      snippetFormatBuilder.append("\n    .put(%s, %s)");
+    }
+    snippetFormatBuilder.append("\n    .build()");
+
+    List<Object> argsBuilder = Lists.newArrayList();
+    argsBuilder.add(ClassName.fromClass(MapOfProducerProducer.class));
+    argsBuilder.add(TypeNames.forTypeMirror(Util.getKeyTypeOfMap(mapType)));
+    // V of Map<K, Producer<V>>
+    argsBuilder.add(TypeNames.forTypeMirror(Util.getProvidedValueTypeOfMap(mapType)));
+    for (ProductionBinding binding : bindings) {
+      writeEntry(argsBuilder, binding, multibindingContributionSnippets.get(binding));
+    }
+    return Snippet.format(snippetFormatBuilder.toString(), argsBuilder.toArray(new Object[0]));
+  }
+
   // add one map entry for map Provider in Constructor
   private void writeEntry(List<Object> argsBuilder, Binding binding,
       Snippet factory) {
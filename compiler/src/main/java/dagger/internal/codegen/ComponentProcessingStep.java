@@ -40,6 +40,7 @@ final class ComponentProcessingStep implements ProcessingStep {
   private final ComponentDescriptor.Factory componentDescriptorFactory;
   private final BindingGraph.Factory bindingGraphFactory;
   private final ComponentGenerator componentGenerator;
+  private final ProcessingTimings timings;
 
   ComponentProcessingStep(
       Messager messager,
@@ -47,13 +48,15 @@ final class ComponentProcessingStep implements ProcessingStep {
       BindingGraphValidator bindingGraphValidator,
       Factory componentDescriptorFactory,
       BindingGraph.Factory bindingGraphFactory,
-      ComponentGenerator componentGenerator) {
+      ComponentGenerator componentGenerator,
+      ProcessingTimings timings) {
     this.messager = messager;
     this.componentValidator = componentValidator;
     this.bindingGraphValidator = bindingGraphValidator;
     this.componentDescriptorFactory = componentDescriptorFactory;
     this.bindingGraphFactory = bindingGraphFactory;
     this.componentGenerator = componentGenerator;
+    this.timings = timings;
   }
 
   @Override
@@ -73,15 +76,22 @@ final class ComponentProcessingStep implements ProcessingStep {
       if (componentReport.isClean()) {
         ComponentDescriptor componentDescriptor =
             componentDescriptorFactory.forComponent(componentTypeElement);
+        long start = timings.start();
         BindingGraph bindingGraph = bindingGraphFactory.create(componentDescriptor);
+        timings.stop("BindingGraph.Factory.create", start);
+        start = timings.start();
         ValidationReport<BindingGraph> graphReport =
             bindingGraphValidator.validate(bindingGraph);
+        timings.stop("BindingGraphValidator.validate", start);
         graphReport.printMessagesTo(messager);
         if (graphReport.isClean()) {
+          start = timings.start();
           try {
             componentGenerator.generate(bindingGraph);
           } catch (SourceFileGenerationException e) {
             e.printMessageTo(messager);
+          } finally {
+            timings.stop("ComponentGenerator.generate", start);
           }
         }
       }
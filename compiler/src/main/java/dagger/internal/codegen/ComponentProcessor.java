@@ -48,6 +48,7 @@ import static javax.tools.Diagnostic.Kind.ERROR;
 @AutoService(Processor.class)
 public final class ComponentProcessor extends BasicAnnotationProcessor {
   private InjectBindingRegistry injectBindingRegistry;
+  private ProcessingTimings timings;
 
   @Override
   public SourceVersion getSupportedSourceVersion() {
@@ -56,7 +57,10 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
 
   @Override
   public Set<String> getSupportedOptions() {
-    return ImmutableSet.of(DISABLE_INTER_COMPONENT_SCOPE_VALIDATION_KEY);
+    return ImmutableSet.<String>builder()
+        .add(DISABLE_INTER_COMPONENT_SCOPE_VALIDATION_KEY)
+        .addAll(CompilerOptions.SUPPORTED_OPTIONS)
+        .build();
   }
 
   @Override
@@ -65,6 +69,8 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
     Types types = processingEnv.getTypeUtils();
     Elements elements = processingEnv.getElementUtils();
     Filer filer = processingEnv.getFiler();
+    CompilerOptions compilerOptions = CompilerOptions.create(processingEnv);
+    this.timings = new ProcessingTimings(compilerOptions.printProcessingTimes());
 
     InjectConstructorValidator injectConstructorValidator = new InjectConstructorValidator();
     InjectFieldValidator injectFieldValidator = new InjectFieldValidator();
@@ -84,7 +90,9 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
         new FactoryGenerator(filer, DependencyRequestMapper.FOR_PROVIDER);
     MembersInjectorGenerator membersInjectorGenerator =
         new MembersInjectorGenerator(filer, elements, types, DependencyRequestMapper.FOR_PROVIDER);
-    ComponentGenerator componentGenerator = new ComponentGenerator(filer);
+    ComponentGenerator componentGenerator = new ComponentGenerator(filer, compilerOptions);
+    ComponentGenerator productionComponentGenerator =
+        new ComponentGenerator(filer, compilerOptions.forProductionComponents());
     ProducerFactoryGenerator producerFactoryGenerator =
         new ProducerFactoryGenerator(filer, DependencyRequestMapper.FOR_PRODUCER);
 
@@ -106,7 +114,7 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
 
     BindingGraph.Factory bindingGraphFactory = new BindingGraph.Factory(
         elements, types, injectBindingRegistry, keyFactory,
-        dependencyRequestFactory, provisionBindingFactory);
+        dependencyRequestFactory, provisionBindingFactory, productionBindingFactory);
 
     MapKeyGenerator mapKeyGenerator = new MapKeyGenerator(filer);
     BindingGraphValidator bindingGraphValidator = new BindingGraphValidator(
@@ -114,7 +122,7 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
         injectBindingRegistry,
         disableInterComponentScopeValidation(processingEnv));
 
-    return ImmutableList.<ProcessingStep>of(
+    ImmutableList<ProcessingStep> steps = ImmutableList.<ProcessingStep>of(
         new MapKeyProcessingStep(
             messager,
             mapKeyValidator,
@@ -139,7 +147,8 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             bindingGraphValidator,
             componentDescriptorFactory,
             bindingGraphFactory,
-            componentGenerator),
+            componentGenerator,
+            timings),
         new ProducerModuleProcessingStep(
             messager,
             producerModuleValidator,
@@ -149,16 +158,29 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
         new ProductionComponentProcessingStep(
             messager,
             productionComponentValidator,
-            componentDescriptorFactory));
+            bindingGraphValidator,
+            componentDescriptorFactory,
+            bindingGraphFactory,
+            productionComponentGenerator,
+            timings));
+    ImmutableList.Builder<ProcessingStep> timedSteps = ImmutableList.builder();
+    for (ProcessingStep step : steps) {
+      timedSteps.add(timings.time(step));
+    }
+    return timedSteps.build();
   }
 
   @Override
   protected void postProcess() {
+    long start = timings.start();
     try {
       injectBindingRegistry.generateSourcesForRequiredBindings();
     } catch (SourceFileGenerationException e) {
       e.printMessageTo(processingEnv.getMessager());
+    } finally {
+      timings.stop("InjectBindingRegistry.generateSourcesForRequiredBindings", start);
     }
+    timings.printTo(processingEnv.getMessager());
   }
 
   private static final String DISABLE_INTER_COMPONENT_SCOPE_VALIDATION_KEY =
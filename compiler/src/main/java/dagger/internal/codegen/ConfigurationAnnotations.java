@@ -16,6 +16,7 @@
 package dagger.internal.codegen;
 
 import com.google.auto.common.AnnotationMirrors;
+import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -28,6 +29,8 @@ import com.google.common.collect.Queues;
 import dagger.Component;
 import dagger.MapKey;
 import dagger.Module;
+import dagger.producers.OnExecutor;
+import dagger.producers.ProducerModule;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -80,6 +83,23 @@ final class ConfigurationAnnotations {
     return AnnotationMirrors.getAnnotatedAnnotations(element, MapKey.class);
   }
 
+  /**
+   * Returns the qualifier of the executor that a {@code @Produces} method is
+   * {@linkplain OnExecutor#value annotated} to run on, or absent if it runs on the component's
+   * executor.
+   */
+  static Optional<TypeElement> getExecutorQualifier(Element producesMethod) {
+    Optional<AnnotationMirror> onExecutor = getAnnotationMirror(producesMethod, OnExecutor.class);
+    if (!onExecutor.isPresent()) {
+      return Optional.absent();
+    }
+    TypeElement qualifier = MoreElements.asType(MoreTypes.asDeclared(
+        (TypeMirror) getAnnotationValue(onExecutor.get(), "value").getValue()).asElement());
+    return qualifier.getQualifiedName().contentEquals(OnExecutor.Default.class.getCanonicalName())
+        ? Optional.<TypeElement>absent()
+        : Optional.of(qualifier);
+  }
+
   static ImmutableList<TypeMirror> convertClassArrayToListOfTypes(
       AnnotationMirror annotationMirror, final String elementName) {
     @SuppressWarnings("unchecked") // that's the whole point of this method
@@ -104,7 +124,8 @@ final class ConfigurationAnnotations {
     for (TypeElement moduleElement = moduleQueue.poll();
         moduleElement != null;
         moduleElement = moduleQueue.poll()) {
-      Optional<AnnotationMirror> moduleMirror = getAnnotationMirror(moduleElement, Module.class);
+      Optional<AnnotationMirror> moduleMirror = getAnnotationMirror(moduleElement, Module.class)
+          .or(getAnnotationMirror(moduleElement, ProducerModule.class));
       if (moduleMirror.isPresent()) {
         ImmutableSet<TypeElement> moduleDependencies =
             MoreTypes.asTypeElements(types, getModuleIncludes(moduleMirror.get()));
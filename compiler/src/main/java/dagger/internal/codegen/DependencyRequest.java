@@ -21,6 +21,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 import dagger.Lazy;
 import dagger.MembersInjector;
 import dagger.Provides;
@@ -65,6 +66,11 @@ abstract class DependencyRequest {
     PRODUCER,
     /** A request for a {@link Produced}.  E.g.: {@code Produced<Blah>} */
     PRODUCED,
+    /**
+     * A request for a {@link ListenableFuture}.  E.g.: {@code ListenableFuture<Blah>}
+     * These can only be requested by production component methods.
+     */
+    FUTURE,
   }
 
   abstract Kind kind();
@@ -110,6 +116,17 @@ abstract class DependencyRequest {
           delegatingRequest.requestElement());
     }
 
+    /**
+     * Creates a DependencyRequest for an implicit production binding of {@code Map<K, V>} or
+     * {@code Set<Produced<T>>}, whose key will be {@code Map<K, Producer<V>>} or {@code Set<T>}.
+     */
+    DependencyRequest forImplicitProductionBinding(DependencyRequest delegatingRequest,
+        Key delegateKey) {
+      checkNotNull(delegatingRequest);
+      return new AutoValue_DependencyRequest(Kind.PRODUCER, delegateKey,
+          delegatingRequest.requestElement());
+    }
+
     DependencyRequest forRequiredVariable(VariableElement variableElement) {
       checkNotNull(variableElement);
       TypeMirror type = variableElement.asType();
@@ -134,6 +151,22 @@ abstract class DependencyRequest {
       return newDependencyRequest(provisionMethod, type, qualifier);
     }
 
+    DependencyRequest forComponentProductionMethod(ExecutableElement productionMethod) {
+      checkNotNull(productionMethod);
+      checkArgument(productionMethod.getParameters().isEmpty(),
+          "Component production methods must be empty: %s", productionMethod);
+      TypeMirror type = productionMethod.getReturnType();
+      Optional<AnnotationMirror> qualifier = InjectionAnnotations.getQualifier(productionMethod);
+      if (isTypeOf(ListenableFuture.class, type)) {
+        return new AutoValue_DependencyRequest(Kind.FUTURE,
+            keyFactory.forQualifiedType(qualifier,
+                Iterables.getOnlyElement(((DeclaredType) type).getTypeArguments())),
+            productionMethod);
+      } else {
+        return newDependencyRequest(productionMethod, type, qualifier);
+      }
+    }
+
     DependencyRequest forComponentMembersInjectionMethod(ExecutableElement membersInjectionMethod) {
       checkNotNull(membersInjectionMethod);
       Optional<AnnotationMirror> qualifier =
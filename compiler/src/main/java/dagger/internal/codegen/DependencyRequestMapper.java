@@ -40,6 +40,7 @@ abstract class DependencyRequestMapper {
           return MembersInjector.class;
         case PRODUCED:
         case PRODUCER:
+        case FUTURE:
           throw new IllegalArgumentException();
         default:
           throw new AssertionError();
@@ -55,6 +56,7 @@ abstract class DependencyRequestMapper {
         case INSTANCE:
         case PRODUCED:
         case PRODUCER:
+        case FUTURE:
           return Producer.class;
         case PROVIDER:
         case LAZY:
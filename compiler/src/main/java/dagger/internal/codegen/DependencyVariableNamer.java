@@ -57,6 +57,10 @@ final class DependencyVariableNamer implements Function<DependencyRequest, Strin
         return variableName.endsWith("Producer") && !variableName.equals("Producer")
             ? variableName.substring(0, variableName.length() - 8)
             : variableName;
+      case FUTURE:
+        return variableName.endsWith("Future") && !variableName.equals("Future")
+            ? variableName.substring(0, variableName.length() - 6)
+            : variableName;
       default:
         throw new AssertionError();
     }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.auto.common.MoreElements;
+import com.google.common.base.CaseFormat;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import dagger.internal.codegen.BindingGraph.ResolvedBindings;
+import dagger.internal.codegen.ContributionBinding.BindingType;
+import dagger.internal.codegen.writer.ClassWriter;
+import dagger.internal.codegen.writer.FieldWriter;
+import dagger.internal.codegen.writer.MethodWriter;
+import dagger.internal.codegen.writer.Snippet;
+import dagger.internal.codegen.writer.TypeNames;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.inject.Provider;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import static dagger.internal.codegen.SourceFiles.frameworkTypeUsageStatement;
+import static javax.lang.model.element.ElementKind.PACKAGE;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+/**
+ * Writes the expressions that invoke the {@code @Inject} constructor, {@code @Provides} method
+ * or component provision method of a binding from the component itself. With
+ * {@code -Adagger.directInvocation}, entry points construct unscoped bindings this way, as do
+ * the private methods that provide them to other direct invocations and switching providers,
+ * rather than calling {@link Provider#get} through a chain of factories.
+ *
+ * @since 2.0
+ */
+final class DirectInvocations {
+  private final boolean enabled;
+  private final ClassWriter componentWriter;
+  private final String componentPackage;
+  private final BindingGraph graph;
+  private final Map<TypeElement, FieldWriter> contributionFields;
+  private final Set<String> componentMethodNames;
+  private final Map<BindingKey, MethodWriter> provisionMethods = Maps.newHashMap();
+  private ImmutableMap<BindingKey, Snippet> memberSelectSnippets = ImmutableMap.of();
+
+  DirectInvocations(boolean enabled,
+      ClassWriter componentWriter,
+      String componentPackage,
+      BindingGraph graph,
+      Map<TypeElement, FieldWriter> contributionFields,
+      Set<String> componentMethodNames) {
+    this.enabled = enabled;
+    this.componentWriter = componentWriter;
+    this.componentPackage = componentPackage;
+    this.graph = graph;
+    this.contributionFields = contributionFields;
+    this.componentMethodNames = componentMethodNames;
+  }
+
+  /**
+   * Sets the snippets that select the framework fields once they have been added to the
+   * component.
+   */
+  void setMemberSelectSnippets(ImmutableMap<BindingKey, Snippet> memberSelectSnippets) {
+    this.memberSelectSnippets = memberSelectSnippets;
+  }
+
+  /**
+   * Returns true if the binding for {@code bindingKey} is unscoped and is constructed directly by
+   * the component whenever an instance of it is requested.
+   */
+  boolean canInvokeDirectly(BindingKey bindingKey) {
+    if (!enabled || !bindingKey.kind().equals(BindingKey.Kind.CONTRIBUTION)) {
+      return false;
+    }
+    ResolvedBindings resolvedBindings = graph.resolvedBindings().get(bindingKey);
+    if (resolvedBindings.bindings().size() != 1) {
+      return false;
+    }
+    ContributionBinding binding =
+        Iterables.getOnlyElement(resolvedBindings.contributionBindings());
+    return binding instanceof ProvisionBinding
+        && !((ProvisionBinding) binding).scope().isPresent()
+        && canConstructInline((ProvisionBinding) binding);
+  }
+
+  /**
+   * Returns true if the component can construct {@code binding} itself: it is a unique binding
+   * that doesn't inject members, and its constructor or method can be invoked from the
+   * component's package.
+   */
+  boolean canConstructInline(ProvisionBinding binding) {
+    if (!binding.bindingType().equals(BindingType.UNIQUE)
+        || binding.memberInjectionRequest().isPresent()
+        || (binding.bindingPackage().isPresent()
+            && !binding.bindingPackage().get().equals(componentPackage))) {
+      return false;
+    }
+    switch (binding.bindingKind()) {
+      case INJECTION:
+      case PROVISION:
+        return isInvocableFrom(binding, componentPackage);
+      case COMPONENT_PROVISION:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the keys of the bindings that need a framework field: those that are requested as a
+   * {@link Provider}, {@link dagger.Lazy} or {@link dagger.MembersInjector}, that can't be
+   * invoked directly, or that are dependencies of a binding that uses its factory.
+   */
+  ImmutableSet<BindingKey> bindingKeysRequiringFields(boolean switchingProviders) {
+    if (!enabled) {
+      return graph.resolvedBindings().keySet();
+    }
+    Set<BindingKey> fieldKeys = Sets.newLinkedHashSet();
+    Set<BindingKey> directKeys = Sets.newHashSet();
+    for (DependencyRequest entryPoint : graph.entryPoints()) {
+      require(BindingKey.forDependencyRequest(entryPoint),
+          entryPoint.kind().equals(DependencyRequest.Kind.INSTANCE),
+          switchingProviders, fieldKeys, directKeys);
+    }
+    return ImmutableSet.copyOf(fieldKeys);
+  }
+
+  /**
+   * Records how the binding for {@code bindingKey} is requested: as an instance that may be
+   * invoked directly, or through its framework field.
+   */
+  private void require(BindingKey bindingKey, boolean instanceRequest,
+      boolean switchingProviders, Set<BindingKey> fieldKeys, Set<BindingKey> directKeys) {
+    if (instanceRequest && canInvokeDirectly(bindingKey)) {
+      if (directKeys.add(bindingKey)) {
+        for (Binding binding : graph.resolvedBindings().get(bindingKey).bindings()) {
+          for (DependencyRequest dependency : binding.dependencies()) {
+            require(BindingKey.forDependencyRequest(dependency),
+                dependency.kind().equals(DependencyRequest.Kind.INSTANCE),
+                switchingProviders, fieldKeys, directKeys);
+          }
+        }
+      }
+    } else if (fieldKeys.add(bindingKey)) {
+      for (Binding binding : graph.resolvedBindings().get(bindingKey).bindings()) {
+        // factories take a framework type for every dependency
+        boolean usesSwitchingProvider = switchingProviders
+            && binding instanceof ProvisionBinding
+            && canConstructInline((ProvisionBinding) binding);
+        for (DependencyRequest dependency : binding.implicitDependencies()) {
+          require(BindingKey.forDependencyRequest(dependency),
+              usesSwitchingProvider
+                  && dependency.kind().equals(DependencyRequest.Kind.INSTANCE),
+              switchingProviders, fieldKeys, directKeys);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a snippet that invokes the constructor or method of {@code binding}, which must be
+   * {@linkplain #canConstructInline constructible inline}.
+   */
+  Snippet provisionSnippet(ProvisionBinding binding) {
+    List<Snippet> parameters = Lists.newArrayList();
+    for (DependencyRequest dependency : binding.dependencies()) {
+      parameters.add(dependencySnippet(dependency));
+    }
+    switch (binding.bindingKind()) {
+      case INJECTION:
+        return Snippet.format("new %s(%s)",
+            TypeNames.forTypeMirror(binding.key().type()),
+            Snippet.makeParametersSnippet(parameters));
+      case PROVISION:
+        return Snippet.format("%s.%s(%s)",
+            contributionFields.get(binding.bindingTypeElement()).name(),
+            binding.bindingElement().getSimpleName(),
+            Snippet.makeParametersSnippet(parameters));
+      case COMPONENT_PROVISION:
+        return Snippet.format("%s.%s()",
+            contributionFields.get(graph.componentDescriptor().dependencyMethodIndex()
+                .get(binding.bindingElement())).name(),
+            binding.bindingElement().getSimpleName());
+      default:
+        throw new AssertionError();
+    }
+  }
+
+  /** Returns a snippet that satisfies {@code request} from within the component. */
+  Snippet dependencySnippet(DependencyRequest request) {
+    BindingKey bindingKey = BindingKey.forDependencyRequest(request);
+    if (request.kind().equals(DependencyRequest.Kind.INSTANCE)
+        && canInvokeDirectly(bindingKey)) {
+      return Snippet.format("%s()", provisionMethodFor(bindingKey).name());
+    }
+    return frameworkTypeUsageStatement(memberSelectSnippets.get(bindingKey), request.kind());
+  }
+
+  /**
+   * Returns the private method that provides the binding for {@code bindingKey} to other
+   * direct invocations, adding it the first time it is needed.
+   */
+  private MethodWriter provisionMethodFor(BindingKey bindingKey) {
+    MethodWriter provisionMethod = provisionMethods.get(bindingKey);
+    if (provisionMethod == null) {
+      ProvisionBinding binding = (ProvisionBinding) Iterables.getOnlyElement(
+          graph.resolvedBindings().get(bindingKey).contributionBindings());
+      String methodName = "get" + CaseFormat.LOWER_CAMEL.to(
+          CaseFormat.UPPER_CAMEL, KeyVariableNamer.INSTANCE.apply(bindingKey.key()));
+      while (componentMethodNames.contains(methodName)) {
+        methodName += "_";
+      }
+      componentMethodNames.add(methodName);
+      provisionMethod = componentWriter.addMethod(
+          TypeNames.forTypeMirror(bindingKey.key().type()), methodName);
+      provisionMethod.addModifiers(PRIVATE);
+      provisionMethods.put(bindingKey, provisionMethod);
+      provisionMethod.body().addSnippet("return %s;", provisionSnippet(binding));
+    }
+    return provisionMethod;
+  }
+
+  /**
+   * Returns true if the component can invoke the method or constructor of {@code binding} from
+   * {@code packageName}: it is declared in that package, or it and every type enclosing it are
+   * public.
+   */
+  static boolean isInvocableFrom(Binding binding, String packageName) {
+    if (MoreElements.getPackage(binding.bindingTypeElement())
+        .getQualifiedName().contentEquals(packageName)) {
+      return true;
+    }
+    for (Element element = binding.bindingElement();
+        !element.getKind().equals(PACKAGE);
+        element = element.getEnclosingElement()) {
+      if (!element.getModifiers().contains(PUBLIC)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
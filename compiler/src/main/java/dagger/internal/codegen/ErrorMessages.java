@@ -104,6 +104,41 @@ final class ErrorMessages {
   static final String PRODUCES_METHOD_RAW_FUTURE =
       "@Produces methods cannot return a raw ListenableFuture.";
 
+  static final String PRODUCES_METHOD_TIMEOUT_NOT_POSITIVE =
+      "@Timeout values must be positive.";
+
+  static final String PRODUCES_METHOD_CACHED_NOT_UNIQUE =
+      "Only @Produces methods of type UNIQUE can be @Cached.";
+
+  static final String PRODUCES_METHOD_CACHED_TTL =
+      "@Cached ttl values must be positive, and failureTtl values must not be negative.";
+
+  static final String PRODUCES_METHOD_CACHED_FRAMEWORK_PARAMETER =
+      "@Cached methods can only depend on plain and Produced values, which key the cache; they"
+      + " cannot depend on a Producer, Provider, Lazy or MembersInjector.";
+
+  static final String PRODUCES_METHOD_SINGLE_FLIGHT_NOT_UNIQUE =
+      "Only @Produces methods of type UNIQUE can be @SingleFlight.";
+
+  static final String PRODUCES_METHOD_SINGLE_FLIGHT_FRAMEWORK_PARAMETER =
+      "@SingleFlight methods can only depend on plain and Produced values, which key their calls;"
+      + " they cannot depend on a Producer, Provider, Lazy or MembersInjector.";
+
+  static final String PRODUCES_METHOD_EXECUTOR_NOT_QUALIFIER =
+      "@OnExecutor values must be @Qualifier annotations.";
+
+  static final String PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_UNIQUE =
+      "Only @Produces methods of type UNIQUE can have a @ConcurrencyLimit.";
+
+  static final String PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_POSITIVE =
+      "@ConcurrencyLimit values must be positive.";
+
+  static final String PRODUCES_METHOD_HEDGED_NOT_FUTURE =
+      "@Hedged methods must return a ListenableFuture.";
+
+  static final String PRODUCES_METHOD_HEDGE_DELAY_NOT_POSITIVE =
+      "@Hedged delays must be positive.";
+
   static final String BINDING_METHOD_SET_VALUES_RAW_SET =
       "@%s methods of type set values cannot return a raw Set";
 
@@ -157,6 +192,25 @@ final class ErrorMessages {
   static final String REQUIRES_PROVIDER_FORMAT =
       "%s cannot be provided without an @Provides-annotated method.";
 
+  /* production binding errors */
+  static final String PRODUCTION_COMPONENT_METHOD_RETURN_TYPE =
+      "Production component methods must return a ListenableFuture or a Producer.";
+
+  static final String PROVISION_DEPENDS_ON_PRODUCTION_FORMAT =
+      "%s is a provision, which cannot depend on a production.";
+
+  static final String PRODUCTION_REQUESTED_AS_PROVIDER_FORMAT =
+      "%s is a production, which cannot be requested as a Provider or Lazy.";
+
+  static final String CONCURRENCY_LIMIT_GROUP_CONFLICT_FORMAT =
+      "@ConcurrencyLimit group \"%s\" is declared with a limit of %s by %s, and of %s here.";
+
+  static final String PRODUCTION_EXECUTOR_NAME_CONFLICT_FORMAT =
+      "@OnExecutor qualifiers %s and %s both name the component's %s; rename one of them.";
+
+  static final String PRODUCTION_MULTIBINDINGS_FORMAT =
+      "%s is contributed to by both @Provides and @Produces methods, which isn't supported.";
+
   static final String MEMBERS_INJECTION_DOES_NOT_IMPLY_PROVISION =
       "This type supports members injection but cannot be implicitly provided.";
 
@@ -26,6 +26,8 @@ import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.MapKey;
 import dagger.Provides;
+import dagger.producers.Produced;
+import dagger.producers.Producer;
 import dagger.producers.Produces;
 import java.util.Map;
 import java.util.Set;
@@ -172,6 +174,10 @@ abstract class Key {
       return elements.getTypeElement(Provider.class.getCanonicalName());
     }
 
+    private TypeElement getProducerElement() {
+      return elements.getTypeElement(Producer.class.getCanonicalName());
+    }
+
     Key forComponentMethod(ExecutableElement componentMethod) {
       checkNotNull(componentMethod);
       checkArgument(componentMethod.getKind().equals(METHOD));
@@ -251,7 +257,7 @@ abstract class Key {
           TypeElement keyTypeElement =
               mapKey.unwrapValue() ? Util.getKeyTypeElement(mapKeyAnnotation, elements)
                   : (TypeElement) mapKeyAnnotation.getAnnotationType().asElement();
-          TypeMirror valueType = types.getDeclaredType(getProviderElement(), keyType);
+          TypeMirror valueType = types.getDeclaredType(getProducerElement(), keyType);
           TypeMirror mapType =
               types.getDeclaredType(getMapElement(), keyTypeElement.asType(), valueType);
           return new AutoValue_Key(
@@ -313,5 +319,49 @@ abstract class Key {
       }
       return Optional.absent();
     }
+
+    /**
+     * Optionally extract a {@link Key} for the underlying production binding(s) if such a
+     * valid key can be inferred from the given key.  Specifically, if the key represents a
+     * {@link Map}{@code <K, V>}, a key of {@code Map<K, Producer<V>>} will be returned.
+     */
+    Optional<Key> implicitMapProducerKeyFrom(Key possibleMapKey) {
+      if (MoreTypes.isTypeOf(Map.class, possibleMapKey.type())) {
+        DeclaredType declaredMapType = MoreTypes.asDeclared(possibleMapKey.type());
+        TypeMirror mapValueType = Util.getValueTypeOfMap(declaredMapType);
+        if (!MoreTypes.isTypeOf(Provider.class, mapValueType)
+            && !MoreTypes.isTypeOf(Producer.class, mapValueType)) {
+          DeclaredType keyType = Util.getKeyTypeOfMap(declaredMapType);
+          DeclaredType producerType = types.getDeclaredType(getProducerElement(), mapValueType);
+          TypeMirror mapType = types.getDeclaredType(getMapElement(), keyType, producerType);
+          return Optional.<Key>of(new AutoValue_Key(
+              possibleMapKey.wrappedQualifier(),
+              MoreTypes.equivalence().wrap(mapType)));
+        }
+      }
+      return Optional.absent();
+    }
+
+    /**
+     * Optionally extract a {@link Key} for the underlying set binding(s) if such a valid key can
+     * be inferred from the given key.  Specifically, if the key represents a
+     * {@link Set}{@code <Produced<T>>}, a key of {@code Set<T>} will be returned.
+     */
+    Optional<Key> implicitSetKeyFromProduced(Key possibleSetOfProducedKey) {
+      if (MoreTypes.isTypeOf(Set.class, possibleSetOfProducedKey.type())) {
+        TypeMirror elementType = Iterables.getOnlyElement(
+            MoreTypes.asDeclared(possibleSetOfProducedKey.type()).getTypeArguments());
+        if (elementType.getKind().equals(DECLARED)
+            && MoreTypes.isTypeOf(Produced.class, elementType)) {
+          TypeMirror producedType = Iterables.getOnlyElement(
+              MoreTypes.asDeclared(elementType).getTypeArguments());
+          TypeMirror setType = types.getDeclaredType(getSetElement(), producedType);
+          return Optional.<Key>of(new AutoValue_Key(
+              possibleSetOfProducedKey.wrappedQualifier(),
+              MoreTypes.equivalence().wrap(setType)));
+        }
+      }
+      return Optional.absent();
+    }
   }
 }
@@ -31,7 +31,7 @@ final class KeyFormatter extends Formatter<Key> {
   @Override public String format(Key request) {
     StringBuilder builder = new StringBuilder();
     if (request.qualifier().isPresent()) {
-      builder.append(request.qualifier()); // TODO(user): Use AnnotationMirrorFormatter.
+      builder.append(request.qualifier().get()); // TODO(user): Use AnnotationMirrorFormatter.
       builder.append(' ');
     }
     builder.append(request.type()); // TODO(user): Use TypeMirrorFormatter.
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+/**
+ * Accumulates the time that the {@link ComponentProcessor} spends in each of its phases when
+ * {@code -Adagger.printProcessingTimes} is set, and reports it as a note after every round.
+ *
+ * @since 2.0
+ */
+final class ProcessingTimings {
+  /** The first line of the note printed by {@link #printTo}. */
+  static final String HEADER = "Dagger processing times (microseconds):";
+
+  private final boolean enabled;
+  private final Map<String, Long> nanosByPhase = Maps.newLinkedHashMap();
+
+  ProcessingTimings(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Returns a start time to pass to {@link #stop}. */
+  long start() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /** Adds the time since {@code startNanos} to the total for {@code phase}. */
+  void stop(String phase, long startNanos) {
+    if (enabled) {
+      long elapsedNanos = System.nanoTime() - startNanos;
+      Long totalNanos = nanosByPhase.get(phase);
+      nanosByPhase.put(phase, totalNanos == null ? elapsedNanos : totalNanos + elapsedNanos);
+    }
+  }
+
+  /** Returns a step that records the time spent in {@code step} under its simple name. */
+  ProcessingStep time(final ProcessingStep step) {
+    if (!enabled) {
+      return step;
+    }
+    return new ProcessingStep() {
+      @Override
+      public Set<? extends Class<? extends Annotation>> annotations() {
+        return step.annotations();
+      }
+
+      @Override
+      public void process(
+          SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+        long start = start();
+        try {
+          step.process(elementsByAnnotation);
+        } finally {
+          stop(step.getClass().getSimpleName(), start);
+        }
+      }
+    };
+  }
+
+  /** Prints and then clears the times recorded since the last call. */
+  void printTo(Messager messager) {
+    if (nanosByPhase.isEmpty()) {
+      return;
+    }
+    StringBuilder message = new StringBuilder(HEADER);
+    for (Entry<String, Long> entry : nanosByPhase.entrySet()) {
+      message.append("\n  ").append(entry.getKey()).append(' ')
+          .append(TimeUnit.NANOSECONDS.toMicros(entry.getValue()));
+    }
+    messager.printMessage(NOTE, message);
+    nanosByPhase.clear();
+  }
+}
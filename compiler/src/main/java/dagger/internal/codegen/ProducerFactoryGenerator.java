@@ -15,6 +15,7 @@
  */
 package dagger.internal.codegen;
 
+import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
@@ -24,10 +25,9 @@ import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
-import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import dagger.Provides.Type;
 import dagger.internal.codegen.writer.ClassName;
 import dagger.internal.codegen.writer.ClassWriter;
@@ -37,16 +37,28 @@ import dagger.internal.codegen.writer.JavaWriter;
 import dagger.internal.codegen.writer.MethodWriter;
 import dagger.internal.codegen.writer.ParameterizedTypeName;
 import dagger.internal.codegen.writer.Snippet;
+import dagger.internal.codegen.writer.StringLiteral;
 import dagger.internal.codegen.writer.TypeName;
 import dagger.internal.codegen.writer.TypeNames;
+import dagger.producers.Cached;
+import dagger.producers.ConcurrencyLimit;
+import dagger.producers.Hedged;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import dagger.producers.Produces;
+import dagger.producers.SingleFlight;
+import dagger.producers.Timeout;
+import dagger.producers.caching.ProducerCache;
 import dagger.producers.internal.AbstractProducer;
 import dagger.producers.internal.Producers;
+import dagger.producers.scheduling.ConcurrencyLimiter;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Generated;
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.Element;
@@ -102,6 +114,9 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     ClassWriter factoryWriter = writer.addClass(generatedTypeName.simpleName());
     ConstructorWriter constructorWriter = factoryWriter.addConstructor();
     constructorWriter.addModifiers(PUBLIC);
+    constructorWriter.body().addSnippet("super(componentMonitor, %s.create(%s.class));",
+        ClassName.fromClass(ProducerToken.class),
+        generatedTypeName);
 
     factoryWriter.addField(binding.bindingTypeElement(), "module")
         .addModifiers(PRIVATE, FINAL);
@@ -117,6 +132,18 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
         .addSnippet("assert executor != null;")
         .addSnippet("this.executor = executor;");
 
+    constructorWriter.addParameter(ProductionComponentMonitor.class, "componentMonitor");
+
+    Cached cached = binding.bindingElement().getAnnotation(Cached.class);
+    if (cached != null) {
+      factoryWriter.addField(ProducerCache.class, "producerCache")
+          .addModifiers(PRIVATE, FINAL);
+      constructorWriter.addParameter(ProducerCache.class, "producerCache");
+      constructorWriter.body()
+          .addSnippet("assert producerCache != null;")
+          .addSnippet("this.producerCache = producerCache;");
+    }
+
     factoryWriter.annotate(Generated.class).setValue(ComponentProcessor.class.getName());
     factoryWriter.addModifiers(PUBLIC);
     factoryWriter.addModifiers(FINAL);
@@ -126,6 +153,7 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     MethodWriter getMethodWriter = factoryWriter.addMethod(futureTypeName, "compute");
     getMethodWriter.annotate(Override.class);
     getMethodWriter.addModifiers(PROTECTED);
+    getMethodWriter.addParameter(ProducerMonitor.class, "monitor").addModifiers(FINAL);
 
     final ImmutableMap<BindingKey, FrameworkField> fields =
         SourceFiles.generateBindingFieldsForDependencies(
@@ -142,6 +170,10 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     }
 
     boolean returnsFuture = binding.bindingKind().equals(ProductionBinding.Kind.FUTURE_PRODUCTION);
+    boolean invocationReturnsFuture = invocationReturnsFuture(binding);
+    // the limiter of a limited method reports the call itself, once it has a permit
+    boolean monitorsInvocation =
+        binding.bindingElement().getAnnotation(ConcurrencyLimit.class) == null;
     ImmutableList<DependencyRequest> asyncDependencies = FluentIterable
         .from(binding.dependencies())
         .filter(new Predicate<DependencyRequest>() {
@@ -157,7 +189,8 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
           asyncDependencyType(dependency));
       String name = fields.get(BindingKey.forDependencyRequest(dependency)).name();
       Snippet futureAccess = Snippet.format("%s.get()", name);
-      getMethodWriter.body().addSnippet("%s %sFuture = %s;",
+      // the combiner reads the inputs from an anonymous class
+      getMethodWriter.body().addSnippet("final %s %sFuture = %s;",
           futureType,
           name,
           dependency.kind().equals(DependencyRequest.Kind.PRODUCED)
@@ -174,111 +207,101 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
             dependency.kind()));
       }
       final boolean wrapWithFuture = false;  // since submitToExecutor will create the future
-      Snippet invocationSnippet = getInvocationSnippet(wrapWithFuture, binding,
+      Snippet invocationSnippet = getInvocationSnippet(generatedTypeName, wrapWithFuture, binding,
           parameterSnippets.build());
-      TypeName callableReturnType = returnsFuture ? futureTypeName : providedTypeName;
-      Snippet throwsClause = getThrowsClause(binding.thrownTypes());
-      Snippet callableSnippet = Snippet.format(Joiner.on('\n').join(
-          "new %1$s<%2$s>() {",
-          "  @Override public %2$s call() %3$s{",
-          "    return %4$s;",
-          "  }",
-          "}"),
-          ClassName.fromClass(Callable.class),
-          callableReturnType,
-          throwsClause,
-          invocationSnippet);
-      getMethodWriter.body().addSnippet("%s future = %s.submitToExecutor(%s, executor);",
-          ParameterizedTypeName.create(
-              ClassName.fromClass(ListenableFuture.class),
-              callableReturnType),
-          ClassName.fromClass(Producers.class),
-          callableSnippet);
-      getMethodWriter.body().addSnippet("return %s;",
-          returnsFuture
-              ? Snippet.format("%s.dereference(future)", ClassName.fromClass(Futures.class))
-              : "future");
-    } else {
-      final Snippet futureSnippet;
-      final Snippet transformSnippet;
-      if (asyncDependencies.size() == 1) {
-        DependencyRequest asyncDependency = Iterables.getOnlyElement(asyncDependencies);
-        futureSnippet = Snippet.format("%s",
-            fields.get(BindingKey.forDependencyRequest(asyncDependency)).name() + "Future");
-        String argName = asyncDependency.requestElement().getSimpleName().toString();
-        ImmutableList.Builder<Snippet> parameterSnippets = ImmutableList.builder();
-        for (DependencyRequest dependency : binding.dependencies()) {
-          // We really want to compare instances here, because asyncDependency is an element in the
-          // set binding.dependencies().
-          if (dependency == asyncDependency) {
-            parameterSnippets.add(Snippet.format("%s", argName));
-          } else {
-            parameterSnippets.add(frameworkTypeUsageStatement(
-                Snippet.format(fields.get(BindingKey.forDependencyRequest(dependency)).name()),
-                dependency.kind()));
-          }
-        }
-        boolean wrapWithFuture = !returnsFuture;  // only wrap if we don't already have a future
-        Snippet invocationSnippet = getInvocationSnippet(wrapWithFuture, binding,
-            parameterSnippets.build());
-        Snippet throwsClause = getThrowsClause(binding.thrownTypes());
-        transformSnippet = Snippet.format(Joiner.on('\n').join(
-            "new %1$s<%2$s, %3$s>() {",
-            "  @Override public %4$s apply(%2$s %5$s) %6$s{",
-            "    return %7$s;",
-            "  }",
+      if (binding.runsImmediately()) {
+        // there is nothing to wait for, so skip the executor and run on the requesting thread
+        getMethodWriter.body().addSnippet(Joiner.on('\n').join(
+            "monitor.methodStarting();",
+            "try {",
+            "  return %2$s;",
+            "} catch (%3$s t) {",
+            "  return %1$s.<%4$s>immediateFailedFuture(t);",
+            "} finally {",
+            "  monitor.methodFinished();",
             "}"),
-            ClassName.fromClass(AsyncFunction.class),
-            asyncDependencyType(asyncDependency),
-            providedTypeName,
-            futureTypeName,
-            argName,
-            throwsClause,
-            invocationSnippet);
-      } else {
-        futureSnippet = Snippet.format("%s.<%s>allAsList(%s)",
             ClassName.fromClass(Futures.class),
-            ClassName.fromClass(Object.class),
-            Joiner.on(",").join(FluentIterable
-                .from(asyncDependencies)
-                .transform(new Function<DependencyRequest, String>() {
-                  @Override public String apply(DependencyRequest dependency) {
-                    return fields.get(BindingKey.forDependencyRequest(dependency)).name()
-                        + "Future";
-                  }
-                })));
-        ImmutableList<Snippet> parameterSnippets = getParameterSnippets(binding, fields, "args");
-        boolean wrapWithFuture = !returnsFuture;  // only wrap if we don't already have a future
-        Snippet invocationSnippet = getInvocationSnippet(wrapWithFuture, binding,
-            parameterSnippets);
-        ParameterizedTypeName listOfObject = ParameterizedTypeName.create(
-            ClassName.fromClass(List.class), ClassName.fromClass(Object.class));
+            invocationReturnsFuture
+                ? invocationSnippet
+                : Snippet.format("%s.immediateFuture(%s)",
+                    ClassName.fromClass(Futures.class), invocationSnippet),
+            ClassName.fromClass(Throwable.class),
+            providedTypeName);
+      } else {
+        TypeName callableReturnType =
+            invocationReturnsFuture ? futureTypeName : providedTypeName;
         Snippet throwsClause = getThrowsClause(binding.thrownTypes());
-        transformSnippet = Snippet.format(Joiner.on('\n').join(
-            "new %1$s<%2$s, %3$s>() {",
-            "  @SuppressWarnings(\"unchecked\")  // safe by specification",
-            "  @Override public %4$s apply(%2$s args) %5$s{",
-            "    return %6$s;",
-            "  }",
-            "}"),
-            ClassName.fromClass(AsyncFunction.class),
-            listOfObject,
-            providedTypeName,
-            futureTypeName,
+        Snippet callableSnippet = Snippet.format(callableFormat(monitorsInvocation),
+            ClassName.fromClass(Callable.class),
+            callableReturnType,
             throwsClause,
             invocationSnippet);
+        getMethodWriter.body().addSnippet("%s future = %s.submitToExecutor(%s, executor);",
+            ParameterizedTypeName.create(
+                ClassName.fromClass(ListenableFuture.class),
+                callableReturnType),
+            ClassName.fromClass(Producers.class),
+            callableSnippet);
+        getMethodWriter.body().addSnippet("return %s;",
+            withTimeout(binding, invocationReturnsFuture
+                ? Snippet.format("%s.dereference(future)", ClassName.fromClass(Futures.class))
+                : Snippet.format("future")));
       }
-      getMethodWriter.body().addSnippet("return %s.%s(%s, %s, executor);",
-          ClassName.fromClass(Futures.class),
-          "transform",
-          futureSnippet,
-          transformSnippet);
+    } else {
+      // a method that runs immediately is applied by the thread that completes its inputs
+      Snippet executorSnippet = binding.runsImmediately()
+          ? Snippet.format("%s.directExecutor()", ClassName.fromClass(MoreExecutors.class))
+          : Snippet.format("executor");
+      ImmutableList<Snippet> parameterSnippets = getParameterSnippets(binding, fields);
+      // only wrap if we don't already have a future
+      boolean wrapWithFuture = !invocationReturnsFuture;
+      Snippet invocationSnippet = getInvocationSnippet(generatedTypeName, wrapWithFuture, binding,
+          parameterSnippets);
+      Snippet throwsClause = getThrowsClause(binding.thrownTypes());
+      Snippet combinerSnippet = Snippet.format(callableFormat(monitorsInvocation),
+          ClassName.fromClass(Callable.class),
+          futureTypeName,
+          throwsClause,
+          invocationSnippet);
+      // unlike Futures.transform, the combiner is skipped if the node is cancelled while queued
+      getMethodWriter.body().addSnippet("return %s;", withTimeout(binding, Snippet.format(
+          "%s.combineAsync(%s, %s, %s)",
+          ClassName.fromClass(Producers.class),
+          combinerSnippet,
+          executorSnippet,
+          Joiner.on(", ").join(FluentIterable
+              .from(asyncDependencies)
+              .transform(new Function<DependencyRequest, String>() {
+                @Override public String apply(DependencyRequest dependency) {
+                  return fields.get(BindingKey.forDependencyRequest(dependency)).name()
+                      + "Future";
+                }
+              })))));
     }
 
     // TODO(gak): write a sensible toString
     return ImmutableSet.of(writer);
   }
 
+  /**
+   * Wraps the future produced by {@code compute()} so that it fails once the method's
+   * {@link Timeout} expires, if it has one. Methods with a timeout never run immediately, so every
+   * other path returns a future that is already done. The timeout fails the future on the
+   * producer's executor.
+   */
+  private Snippet withTimeout(ProductionBinding binding, Snippet futureSnippet) {
+    Timeout timeout = binding.bindingElement().getAnnotation(Timeout.class);
+    if (timeout == null) {
+      return futureSnippet;
+    }
+    return Snippet.format("%s.withTimeout(%s, %sL, %s.%s, executor)",
+        ClassName.fromClass(Producers.class),
+        futureSnippet,
+        timeout.value(),
+        ClassName.fromClass(TimeUnit.class),
+        timeout.unit().name());
+  }
+
   private boolean isAsyncDependency(DependencyRequest dependency) {
     switch (dependency.kind()) {
       case INSTANCE:
@@ -302,22 +325,15 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
   }
 
   private ImmutableList<Snippet> getParameterSnippets(ProductionBinding binding,
-      ImmutableMap<BindingKey, FrameworkField> fields,
-      String listArgName) {
-    int argIndex = 0;
+      ImmutableMap<BindingKey, FrameworkField> fields) {
     ImmutableList.Builder<Snippet> snippets = ImmutableList.builder();
     for (DependencyRequest dependency : binding.dependencies()) {
+      String name = fields.get(BindingKey.forDependencyRequest(dependency)).name();
       if (isAsyncDependency(dependency)) {
-        snippets.add(Snippet.format(
-            "(%s) %s.get(%s)",
-            asyncDependencyType(dependency),
-            listArgName,
-            argIndex));
-        argIndex++;
+        snippets.add(Snippet.format("%s.getDone(%sFuture)",
+            ClassName.fromClass(Producers.class), name));
       } else {
-        snippets.add(frameworkTypeUsageStatement(
-            Snippet.format(fields.get(BindingKey.forDependencyRequest(dependency)).name()),
-            dependency.kind()));
+        snippets.add(frameworkTypeUsageStatement(Snippet.format(name), dependency.kind()));
       }
     }
     return snippets.build();
@@ -326,16 +342,35 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
   /**
    * Creates a Snippet for the invocation of the producer method from the module.
    *
+   * @param generatedTypeName The name of the factory, whose token keys cached values.
    * @param wrapWithFuture If true, wraps the result of the call to the producer method
    *        in an immediate future.
    * @param binding The binding to generate the invocation snippet for.
    * @param parameterSnippets The snippets for all the parameters to the producer method.
    */
-  private Snippet getInvocationSnippet(boolean wrapWithFuture, ProductionBinding binding,
-      ImmutableList<Snippet> parameterSnippets) {
+  private Snippet getInvocationSnippet(ClassName generatedTypeName, boolean wrapWithFuture,
+      ProductionBinding binding, ImmutableList<Snippet> parameterSnippets) {
     Snippet moduleSnippet = Snippet.format("module.%s(%s)",
         binding.bindingElement().getSimpleName(),
         makeParametersSnippet(parameterSnippets));
+    // each wrapper may turn a plain value into a future, which the outer ones must know about
+    boolean isFuture = binding.bindingKind().equals(ProductionBinding.Kind.FUTURE_PRODUCTION);
+    ConcurrencyLimit limit = binding.bindingElement().getAnnotation(ConcurrencyLimit.class);
+    if (limit != null) {
+      moduleSnippet = withConcurrencyLimit(binding, limit, moduleSnippet, isFuture);
+      isFuture = true;
+    }
+    moduleSnippet = withHedging(binding, moduleSnippet);
+    if (binding.bindingElement().getAnnotation(SingleFlight.class) != null) {
+      moduleSnippet = withSingleFlight(
+          generatedTypeName, binding, moduleSnippet, isFuture, parameterSnippets);
+      isFuture = true;
+    }
+    Cached cached = binding.bindingElement().getAnnotation(Cached.class);
+    if (cached != null) {
+      moduleSnippet = withCaching(
+          generatedTypeName, binding, cached, moduleSnippet, isFuture, parameterSnippets);
+    }
     if (wrapWithFuture) {
       moduleSnippet = Snippet.format("%s.immediateFuture(%s)",
           ClassName.fromClass(Futures.class),
@@ -356,6 +391,161 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     }
   }
 
+  /**
+   * Wraps the invocation of a {@link ConcurrencyLimit} method so that it is made through the
+   * {@link ConcurrencyLimiter} of its group, which calls it on the executor once a permit is free
+   * if the limit has been reached. The monitor is told when the method itself starts and finishes,
+   * not when the call is queued.
+   */
+  private Snippet withConcurrencyLimit(ProductionBinding binding, ConcurrencyLimit limit,
+      Snippet moduleSnippet, boolean isFuture) {
+    String name = limit.group().isEmpty()
+        ? binding.bindingTypeElement().getQualifiedName() + "."
+            + binding.bindingElement().getSimpleName()
+        : limit.group();
+    return Snippet.format("%s.named(%s, %s).submit(%s, executor)",
+        ClassName.fromClass(ConcurrencyLimiter.class),
+        StringLiteral.forValue(name),
+        limit.value(),
+        futureCallableSnippet(binding, moduleSnippet, isFuture, true));
+  }
+
+  /**
+   * Wraps the invocation of a {@link Hedged} method so that it is invoked again, on the executor,
+   * if the future it returns isn't done within the method's delay. Only methods that return a
+   * future may be hedged, so the invocation is never wrapped with an immediate future.
+   */
+  private Snippet withHedging(ProductionBinding binding, Snippet moduleSnippet) {
+    Hedged hedged = binding.bindingElement().getAnnotation(Hedged.class);
+    if (hedged == null) {
+      return moduleSnippet;
+    }
+    TypeName returnTypeName = TypeNames.forTypeMirror(
+        MoreElements.asExecutable(binding.bindingElement()).getReturnType());
+    return Snippet.format(Joiner.on('\n').join(
+        "%1$s.hedge(new %2$s<%3$s>() {",
+        "  @Override public %3$s call() %4$s{",
+        "    return %5$s;",
+        "  }",
+        "}, %6$sL, %7$s.%8$s, executor, monitor)"),
+        ClassName.fromClass(Producers.class),
+        ClassName.fromClass(Callable.class),
+        returnTypeName,
+        getThrowsClause(binding.thrownTypes()),
+        moduleSnippet,
+        hedged.value(),
+        ClassName.fromClass(TimeUnit.class),
+        hedged.unit().name());
+  }
+
+  /**
+   * Returns true if the invocation snippet of {@code binding} evaluates to a future: the method
+   * returns one, or its calls are limited by a {@link ConcurrencyLimit} or shared through
+   * {@link SingleFlight} or {@link Cached}, which wrap a plain value in an immediate future.
+   */
+  static boolean invocationReturnsFuture(ProductionBinding binding) {
+    Element method = binding.bindingElement();
+    return binding.bindingKind().equals(ProductionBinding.Kind.FUTURE_PRODUCTION)
+        || method.getAnnotation(ConcurrencyLimit.class) != null
+        || method.getAnnotation(SingleFlight.class) != null
+        || method.getAnnotation(Cached.class) != null;
+  }
+
+  /**
+   * Wraps the invocation of a {@link SingleFlight} method so that concurrent calls with equal
+   * arguments, from any component, share one in-flight future.
+   */
+  private Snippet withSingleFlight(ClassName generatedTypeName, ProductionBinding binding,
+      Snippet moduleSnippet, boolean isFuture, ImmutableList<Snippet> parameterSnippets) {
+    ImmutableList.Builder<Snippet> arguments = ImmutableList.builder();
+    arguments.add(
+        tokenSnippet(generatedTypeName),
+        futureCallableSnippet(binding, moduleSnippet, isFuture));
+    arguments.addAll(parameterSnippets);
+    return Snippet.format("%s.singleFlight(%s)",
+        ClassName.fromClass(Producers.class),
+        makeParametersSnippet(arguments.build()));
+  }
+
+  /**
+   * Wraps the invocation of a {@link Cached} method so that its future comes from the component's
+   * {@link ProducerCache}, keyed on the factory and the method's arguments. The method is only
+   * invoked on a miss.
+   */
+  private Snippet withCaching(ClassName generatedTypeName, ProductionBinding binding,
+      Cached cached, Snippet moduleSnippet, boolean isFuture,
+      ImmutableList<Snippet> parameterSnippets) {
+    ImmutableList.Builder<Snippet> arguments = ImmutableList.builder();
+    arguments.add(
+        tokenSnippet(generatedTypeName),
+        Snippet.format("%sL", cached.ttl()),
+        Snippet.format("%sL", cached.failureTtl()),
+        Snippet.format("%s.%s", ClassName.fromClass(TimeUnit.class), cached.unit().name()),
+        futureCallableSnippet(binding, moduleSnippet, isFuture));
+    arguments.addAll(parameterSnippets);
+    return Snippet.format("producerCache.get(%s)", makeParametersSnippet(arguments.build()));
+  }
+
+  private static Snippet tokenSnippet(ClassName generatedTypeName) {
+    return Snippet.format("%s.create(%s.class)",
+        ClassName.fromClass(ProducerToken.class), generatedTypeName);
+  }
+
+  /**
+   * Returns a {@link Callable} that returns {@code invocationSnippet}, wrapped in an immediate
+   * future unless it is one already.
+   */
+  private Snippet futureCallableSnippet(ProductionBinding binding, Snippet invocationSnippet,
+      boolean isFuture) {
+    return futureCallableSnippet(binding, invocationSnippet, isFuture, false);
+  }
+
+  /**
+   * Returns a {@link Callable} that returns {@code invocationSnippet}, wrapped in an immediate
+   * future unless it is one already, and that reports the call to the monitor if
+   * {@code monitored}.
+   */
+  private Snippet futureCallableSnippet(ProductionBinding binding, Snippet invocationSnippet,
+      boolean isFuture, boolean monitored) {
+    TypeName futureTypeName = ParameterizedTypeName.create(
+        ClassName.fromClass(ListenableFuture.class),
+        TypeNames.forTypeMirror(binding.key().type()));
+    return Snippet.format(callableFormat(monitored),
+        ClassName.fromClass(Callable.class),
+        futureTypeName,
+        getThrowsClause(binding.thrownTypes()),
+        isFuture
+            ? invocationSnippet
+            : Snippet.format("%s.immediateFuture(%s)",
+                ClassName.fromClass(Futures.class), invocationSnippet));
+  }
+
+  /**
+   * Returns the format of an anonymous {@link Callable}, with arguments for the {@code Callable}
+   * class, the returned type, the throws clause and the returned expression. If {@code monitored},
+   * the monitor is told when the expression starts and finishes being evaluated.
+   */
+  private static String callableFormat(boolean monitored) {
+    return monitored
+        ? Joiner.on('\n').join(
+            "new %1$s<%2$s>() {",
+            "  @Override public %2$s call() %3$s{",
+            "    monitor.methodStarting();",
+            "    try {",
+            "      return %4$s;",
+            "    } finally {",
+            "      monitor.methodFinished();",
+            "    }",
+            "  }",
+            "}")
+        : Joiner.on('\n').join(
+            "new %1$s<%2$s>() {",
+            "  @Override public %2$s call() %3$s{",
+            "    return %4$s;",
+            "  }",
+            "}");
+  }
+
   /**
    * Creates a Snippet for the throws clause.
    *
@@ -16,17 +16,29 @@
 package dagger.internal.codegen;
 
 import com.google.auto.common.MoreTypes;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
+import dagger.Lazy;
+import dagger.MembersInjector;
+import dagger.producers.Cached;
+import dagger.producers.ConcurrencyLimit;
+import dagger.producers.Hedged;
+import dagger.producers.Producer;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
+import dagger.producers.SingleFlight;
+import dagger.producers.Timeout;
 import java.util.Set;
+import javax.inject.Provider;
+import javax.inject.Qualifier;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -35,6 +47,7 @@ import javax.lang.model.util.Elements;
 import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static dagger.internal.codegen.ConfigurationAnnotations.getExecutorQualifier;
 import static dagger.internal.codegen.ConfigurationAnnotations.getMapKeys;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_ABSTRACT;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_MUST_RETURN_A_VALUE;
@@ -46,9 +59,20 @@ import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_STATIC;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_TYPE_PARAMETER;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_MULTIPLE_MAP_KEY;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_NO_MAP_KEY;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CACHED_FRAMEWORK_PARAMETER;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CACHED_NOT_UNIQUE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CACHED_TTL;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_POSITIVE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_UNIQUE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_EXECUTOR_NOT_QUALIFIER;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_HEDGED_NOT_FUTURE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_HEDGE_DELAY_NOT_POSITIVE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RAW_FUTURE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RETURN_TYPE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SET_VALUES_RETURN_SET;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SINGLE_FLIGHT_FRAMEWORK_PARAMETER;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SINGLE_FLIGHT_NOT_UNIQUE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_TIMEOUT_NOT_POSITIVE;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.STATIC;
@@ -158,9 +182,83 @@ final class ProducesMethodValidator implements Validator<ExecutableElement> {
         throw new AssertionError();
     }
 
+    Optional<TypeElement> executorQualifier = getExecutorQualifier(producesMethodElement);
+    if (executorQualifier.isPresent()
+        && !isAnnotationPresent(executorQualifier.get(), Qualifier.class)) {
+      builder.addItem(PRODUCES_METHOD_EXECUTOR_NOT_QUALIFIER, producesMethodElement);
+    }
+
+    Timeout timeout = producesMethodElement.getAnnotation(Timeout.class);
+    if (timeout != null && timeout.value() <= 0) {
+      builder.addItem(PRODUCES_METHOD_TIMEOUT_NOT_POSITIVE, producesMethodElement);
+    }
+
+    ConcurrencyLimit limit = producesMethodElement.getAnnotation(ConcurrencyLimit.class);
+    if (limit != null) {
+      if (!producesAnnotation.type().equals(Produces.Type.UNIQUE)) {
+        builder.addItem(PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_UNIQUE, producesMethodElement);
+      }
+      if (limit.value() <= 0) {
+        builder.addItem(PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_POSITIVE, producesMethodElement);
+      }
+    }
+
+    Hedged hedged = producesMethodElement.getAnnotation(Hedged.class);
+    if (hedged != null) {
+      if (!returnTypeKind.equals(DECLARED)
+          || !MoreTypes.isTypeOf(ListenableFuture.class, returnType)) {
+        builder.addItem(PRODUCES_METHOD_HEDGED_NOT_FUTURE, producesMethodElement);
+      }
+      if (hedged.value() <= 0) {
+        builder.addItem(PRODUCES_METHOD_HEDGE_DELAY_NOT_POSITIVE, producesMethodElement);
+      }
+    }
+
+    Cached cached = producesMethodElement.getAnnotation(Cached.class);
+    if (cached != null) {
+      if (!producesAnnotation.type().equals(Produces.Type.UNIQUE)) {
+        builder.addItem(PRODUCES_METHOD_CACHED_NOT_UNIQUE, producesMethodElement);
+      }
+      if (cached.ttl() <= 0 || cached.failureTtl() < 0) {
+        builder.addItem(PRODUCES_METHOD_CACHED_TTL, producesMethodElement);
+      }
+      validateKeyParameters(builder, producesMethodElement,
+          PRODUCES_METHOD_CACHED_FRAMEWORK_PARAMETER);
+    }
+
+    if (producesMethodElement.getAnnotation(SingleFlight.class) != null) {
+      if (!producesAnnotation.type().equals(Produces.Type.UNIQUE)) {
+        builder.addItem(PRODUCES_METHOD_SINGLE_FLIGHT_NOT_UNIQUE, producesMethodElement);
+      }
+      validateKeyParameters(builder, producesMethodElement,
+          PRODUCES_METHOD_SINGLE_FLIGHT_FRAMEWORK_PARAMETER);
+    }
+
     return builder.build();
   }
 
+  /**
+   * Reports each parameter of a method whose arguments key a cache or a call, and so must be
+   * compared by value, that is a framework type.
+   */
+  private void validateKeyParameters(ValidationReport.Builder<ExecutableElement> builder,
+      ExecutableElement producesMethodElement, String errorMessage) {
+    for (VariableElement parameter : producesMethodElement.getParameters()) {
+      if (isFrameworkType(parameter.asType())) {
+        builder.addItem(errorMessage, parameter);
+      }
+    }
+  }
+
+  /** Returns true if {@code type} is a framework type, whose instances don't identify a value. */
+  private static boolean isFrameworkType(TypeMirror type) {
+    return type.getKind().equals(DECLARED)
+        && (MoreTypes.isTypeOf(Producer.class, type)
+            || MoreTypes.isTypeOf(Provider.class, type)
+            || MoreTypes.isTypeOf(Lazy.class, type)
+            || MoreTypes.isTypeOf(MembersInjector.class, type));
+  }
+
   private String formatErrorMessage(String msg) {
     return String.format(msg, Produces.class.getSimpleName());
   }
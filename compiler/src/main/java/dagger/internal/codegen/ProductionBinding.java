@@ -17,15 +17,21 @@ package dagger.internal.codegen;
 
 import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.ConcurrencyLimit;
+import dagger.producers.OnExecutor;
 import dagger.producers.Produces;
+import dagger.producers.Timeout;
 import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static dagger.internal.codegen.ConfigurationAnnotations.getExecutorQualifier;
 import static javax.lang.model.element.ElementKind.METHOD;
 
 /**
@@ -47,6 +53,16 @@ abstract class ProductionBinding extends ContributionBinding {
     IMMEDIATE,
     /** Represents a binding configured by {@link Produces} that returns a future. */
     FUTURE_PRODUCTION,
+    /**
+     * Represents the implicit binding of {@code Map<K, V>} to the values of a production map
+     * binding of {@code Map<K, Producer<V>>}.
+     */
+    SYNTHETIC_MAP,
+    /**
+     * Represents the implicit binding of {@code Set<Produced<T>>} to the contributions of a
+     * production set binding of {@code Set<T>}.
+     */
+    SYNTHETIC_SET_OF_PRODUCED,
   }
 
   /**
@@ -55,12 +71,34 @@ abstract class ProductionBinding extends ContributionBinding {
    */
   abstract Kind bindingKind();
 
+  /**
+   * Returns true if this is an implicit binding that aggregates the contributions to a production
+   * multibinding rather than invoking a {@link Produces} method.
+   */
+  boolean isSynthetic() {
+    return bindingKind().equals(Kind.SYNTHETIC_MAP)
+        || bindingKind().equals(Kind.SYNTHETIC_SET_OF_PRODUCED);
+  }
+
   /** Returns provision type that was used to bind the key. */
   abstract Produces.Type productionType();
 
   /** Returns the list of types in the throws clause of the method. */
   abstract ImmutableList<? extends TypeMirror> thrownTypes();
 
+  /**
+   * Returns true if the method may run on the thread that completes its inputs instead of being
+   * submitted to the executor: it doesn't return a future and isn't annotated {@link OnExecutor},
+   * {@link Timeout} or {@link ConcurrencyLimit}.
+   */
+  abstract boolean runsImmediately();
+
+  /**
+   * Returns the qualifier of the executor the method runs on, as named by {@link OnExecutor}, or
+   * absent if it uses the component's executor.
+   */
+  abstract Optional<TypeElement> executorQualifier();
+
   @Override
   BindingType bindingType() {
     switch (productionType()) {
@@ -103,7 +141,38 @@ abstract class ProductionBinding extends ContributionBinding {
           findBindingPackage(key),
           kind,
           producesAnnotation.type(),
-          ImmutableList.copyOf(producesMethod.getThrownTypes()));
+          ImmutableList.copyOf(producesMethod.getThrownTypes()),
+          kind.equals(Kind.IMMEDIATE)
+              && producesMethod.getAnnotation(OnExecutor.class) == null
+              && producesMethod.getAnnotation(Timeout.class) == null
+              && producesMethod.getAnnotation(ConcurrencyLimit.class) == null,
+          getExecutorQualifier(producesMethod));
+    }
+
+    ProductionBinding forImplicitMapBinding(DependencyRequest explicitRequest,
+        DependencyRequest implicitRequest) {
+      return forImplicitBinding(Kind.SYNTHETIC_MAP, explicitRequest, implicitRequest);
+    }
+
+    ProductionBinding forImplicitSetOfProducedBinding(DependencyRequest explicitRequest,
+        DependencyRequest implicitRequest) {
+      return forImplicitBinding(Kind.SYNTHETIC_SET_OF_PRODUCED, explicitRequest, implicitRequest);
+    }
+
+    private ProductionBinding forImplicitBinding(Kind kind, DependencyRequest explicitRequest,
+        DependencyRequest implicitRequest) {
+      checkNotNull(explicitRequest);
+      checkNotNull(implicitRequest);
+      return new AutoValue_ProductionBinding(
+          explicitRequest.key(),
+          implicitRequest.requestElement(),
+          ImmutableSet.of(implicitRequest),
+          findBindingPackage(explicitRequest.key()),
+          kind,
+          Produces.Type.UNIQUE,
+          ImmutableList.<TypeMirror>of(),
+          true /* aggregates on the thread that completes the contributions */,
+          Optional.<TypeElement>absent());
     }
   }
 }
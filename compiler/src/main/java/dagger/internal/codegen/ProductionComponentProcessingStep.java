@@ -35,15 +35,27 @@ import javax.lang.model.element.TypeElement;
 final class ProductionComponentProcessingStep implements ProcessingStep {
   private final Messager messager;
   private final ProductionComponentValidator componentValidator;
+  private final BindingGraphValidator bindingGraphValidator;
   private final ComponentDescriptor.Factory componentDescriptorFactory;
+  private final BindingGraph.Factory bindingGraphFactory;
+  private final ComponentGenerator componentGenerator;
+  private final ProcessingTimings timings;
 
   ProductionComponentProcessingStep(
       Messager messager,
       ProductionComponentValidator componentValidator,
-      ComponentDescriptor.Factory componentDescriptorFactory) {
+      BindingGraphValidator bindingGraphValidator,
+      ComponentDescriptor.Factory componentDescriptorFactory,
+      BindingGraph.Factory bindingGraphFactory,
+      ComponentGenerator componentGenerator,
+      ProcessingTimings timings) {
     this.messager = messager;
     this.componentValidator = componentValidator;
+    this.bindingGraphValidator = bindingGraphValidator;
     this.componentDescriptorFactory = componentDescriptorFactory;
+    this.bindingGraphFactory = bindingGraphFactory;
+    this.componentGenerator = componentGenerator;
+    this.timings = timings;
   }
 
   @Override
@@ -61,7 +73,26 @@ final class ProductionComponentProcessingStep implements ProcessingStep {
           componentValidator.validate(componentTypeElement);
       componentReport.printMessagesTo(messager);
       if (componentReport.isClean()) {
-        componentDescriptorFactory.forProductionComponent(componentTypeElement);
+        ComponentDescriptor componentDescriptor =
+            componentDescriptorFactory.forProductionComponent(componentTypeElement);
+        long start = timings.start();
+        BindingGraph bindingGraph = bindingGraphFactory.create(componentDescriptor);
+        timings.stop("BindingGraph.Factory.create", start);
+        start = timings.start();
+        ValidationReport<BindingGraph> graphReport =
+            bindingGraphValidator.validate(bindingGraph);
+        timings.stop("BindingGraphValidator.validate", start);
+        graphReport.printMessagesTo(messager);
+        if (graphReport.isClean()) {
+          start = timings.start();
+          try {
+            componentGenerator.generate(bindingGraph);
+          } catch (SourceFileGenerationException e) {
+            e.printMessageTo(messager);
+          } finally {
+            timings.stop("ComponentGenerator.generate", start);
+          }
+        }
       }
     }
   }
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import dagger.internal.codegen.BindingGraph.ResolvedBindings;
+import dagger.internal.codegen.writer.ClassName;
+import dagger.internal.codegen.writer.ClassWriter;
+import dagger.internal.codegen.writer.ConstructorWriter;
+import dagger.internal.codegen.writer.FieldWriter;
+import dagger.internal.codegen.writer.MethodWriter;
+import dagger.internal.codegen.writer.PrimitiveName;
+import dagger.internal.codegen.writer.Snippet;
+import dagger.internal.codegen.writer.StringLiteral;
+import dagger.internal.codegen.writer.TypeNames;
+import dagger.producers.Cached;
+import dagger.producers.OnExecutor;
+import dagger.producers.Producer;
+import dagger.producers.Produces;
+import dagger.producers.caching.ProducerCache;
+import dagger.producers.internal.Producers;
+import dagger.producers.internal.SynchronousNode;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+import static dagger.internal.codegen.SourceFiles.executorFieldName;
+import static dagger.internal.codegen.SourceFiles.factoryNameForProductionBinding;
+import static dagger.internal.codegen.SourceFiles.frameworkTypeUsageStatement;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+/**
+ * Writes the parts of a generated component that only production components have: the members
+ * passed to every producer, the producers themselves and the {@link SynchronousNode}s that replace
+ * them with {@code -Adagger.synchronousProducers}.
+ *
+ * @since 2.0
+ */
+final class ProductionComponentWiring {
+  /** The requests for provision bindings that a {@link SynchronousNode} can satisfy inline. */
+  private static final ImmutableSet<DependencyRequest.Kind> SYNCHRONOUS_PROVISION_REQUEST_KINDS =
+      Sets.immutableEnumSet(DependencyRequest.Kind.INSTANCE, DependencyRequest.Kind.PROVIDER,
+          DependencyRequest.Kind.LAZY, DependencyRequest.Kind.MEMBERS_INJECTOR);
+
+  /**
+   * Adds the members that every production component passes to its producers, each of which is
+   * set on the builder: the executors, the {@link ProductionComponentMonitor}, the
+   * {@link ProducerCache} and the deadline.
+   */
+  static void writeFields(ClassWriter componentWriter, ClassWriter builderWriter,
+      ConstructorWriter constructorWriter, MethodWriter buildMethod, BindingGraph graph) {
+    writeExecutorFields(componentWriter, builderWriter, constructorWriter, buildMethod, graph);
+    writeProductionComponentMonitorFields(
+        componentWriter, builderWriter, constructorWriter, buildMethod);
+    writeProducerCacheFields(componentWriter, builderWriter, constructorWriter, buildMethod);
+    writeDeadlineFields(componentWriter, builderWriter, constructorWriter);
+  }
+
+  /**
+   * Adds the {@link Executor}s that a production component passes to its producers: its own, and
+   * one for each qualifier that an {@link OnExecutor} method in the graph names. Each must be set
+   * on the builder.
+   */
+  private static void writeExecutorFields(ClassWriter componentWriter,
+      ClassWriter builderWriter, ConstructorWriter constructorWriter, MethodWriter buildMethod,
+      BindingGraph graph) {
+    Set<String> names = Sets.newLinkedHashSet();
+    names.add(executorFieldName(Optional.<TypeElement>absent()));
+    for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
+      for (Binding binding : resolvedBindings.bindings()) {
+        if (binding instanceof ProductionBinding) {
+          names.add(executorFieldName(((ProductionBinding) binding).executorQualifier()));
+        }
+      }
+    }
+    for (String name : names) {
+      writeExecutorField(componentWriter, builderWriter, constructorWriter, buildMethod, name);
+    }
+  }
+
+  private static void writeExecutorField(ClassWriter componentWriter,
+      ClassWriter builderWriter, ConstructorWriter constructorWriter, MethodWriter buildMethod,
+      String name) {
+    ClassName executorName = ClassName.fromClass(Executor.class);
+    FieldWriter executorField = componentWriter.addField(executorName, name);
+    executorField.addModifiers(PRIVATE, FINAL);
+    constructorWriter.body()
+        .addSnippet("this.%1$s = builder.%1$s;", executorField.name());
+    FieldWriter builderField = builderWriter.addField(executorName, executorField.name());
+    builderField.addModifiers(PRIVATE);
+    MethodWriter builderMethod = builderWriter.addMethod(builderWriter, executorField.name());
+    builderMethod.addModifiers(PUBLIC);
+    builderMethod.addParameter(executorName, executorField.name());
+    builderMethod.body()
+        .addSnippet("if (%s == null) {", executorField.name())
+        .addSnippet("  throw new NullPointerException(%s);",
+            StringLiteral.forValue(executorField.name()))
+        .addSnippet("}")
+        .addSnippet("this.%1$s = %1$s;", builderField.name())
+        .addSnippet("return this;");
+    buildMethod.body()
+        .addSnippet("if (%s == null) {", builderField.name())
+        .addSnippet("  throw new IllegalStateException(\"%s must be set\");", builderField.name())
+        .addSnippet("}");
+  }
+
+  /**
+   * Adds the {@link ProductionComponentMonitor} that every producer reports to, which may be set on
+   * the builder and otherwise ignores every event.
+   */
+  private static void writeProductionComponentMonitorFields(ClassWriter componentWriter,
+      ClassWriter builderWriter, ConstructorWriter constructorWriter, MethodWriter buildMethod) {
+    ClassName monitorName = ClassName.fromClass(ProductionComponentMonitor.class);
+    FieldWriter monitorField =
+        componentWriter.addField(monitorName, "productionComponentMonitor");
+    monitorField.addModifiers(PRIVATE, FINAL);
+    constructorWriter.body()
+        .addSnippet("this.%1$s = builder.%1$s;", monitorField.name());
+    FieldWriter builderField = builderWriter.addField(monitorName, monitorField.name());
+    builderField.addModifiers(PRIVATE);
+    MethodWriter builderMethod = builderWriter.addMethod(builderWriter, monitorField.name());
+    builderMethod.addModifiers(PUBLIC);
+    builderMethod.addParameter(monitorName, monitorField.name());
+    builderMethod.body()
+        .addSnippet("if (%s == null) {", monitorField.name())
+        .addSnippet("  throw new NullPointerException(%s);",
+            StringLiteral.forValue(monitorField.name()))
+        .addSnippet("}")
+        .addSnippet("this.%1$s = %1$s;", builderField.name())
+        .addSnippet("return this;");
+    buildMethod.body()
+        .addSnippet("if (%s == null) {", builderField.name())
+        .addSnippet("  this.%s = %s.noOpProductionComponentMonitor();",
+            builderField.name(), ClassName.fromClass(Producers.class))
+        .addSnippet("}");
+  }
+
+  /**
+   * Adds the {@link ProducerCache} that holds the values of {@link Cached} methods across
+   * components, which may be set on the builder and otherwise caches nothing.
+   */
+  private static void writeProducerCacheFields(ClassWriter componentWriter,
+      ClassWriter builderWriter, ConstructorWriter constructorWriter, MethodWriter buildMethod) {
+    ClassName cacheName = ClassName.fromClass(ProducerCache.class);
+    FieldWriter cacheField = componentWriter.addField(cacheName, "producerCache");
+    cacheField.addModifiers(PRIVATE, FINAL);
+    constructorWriter.body()
+        .addSnippet("this.%1$s = builder.%1$s;", cacheField.name());
+    FieldWriter builderField = builderWriter.addField(cacheName, cacheField.name());
+    builderField.addModifiers(PRIVATE);
+    MethodWriter builderMethod = builderWriter.addMethod(builderWriter, cacheField.name());
+    builderMethod.addModifiers(PUBLIC);
+    builderMethod.addParameter(cacheName, cacheField.name());
+    builderMethod.body()
+        .addSnippet("if (%s == null) {", cacheField.name())
+        .addSnippet("  throw new NullPointerException(%s);",
+            StringLiteral.forValue(cacheField.name()))
+        .addSnippet("}")
+        .addSnippet("this.%1$s = %1$s;", builderField.name())
+        .addSnippet("return this;");
+    buildMethod.body()
+        .addSnippet("if (%s == null) {", builderField.name())
+        .addSnippet("  this.%s = %s.create(0);", builderField.name(), cacheName)
+        .addSnippet("}");
+  }
+
+  /**
+   * Adds the deadline of a production component, which may be set on the builder as a timeout that
+   * starts when the component is built. Every entry point fails once it passes.
+   */
+  private static void writeDeadlineFields(ClassWriter componentWriter,
+      ClassWriter builderWriter, ConstructorWriter constructorWriter) {
+    FieldWriter startField = componentWriter.addField(PrimitiveName.LONG, "startNanos");
+    startField.addModifiers(PRIVATE, FINAL);
+    FieldWriter timeoutField = componentWriter.addField(PrimitiveName.LONG, "timeoutNanos");
+    timeoutField.addModifiers(PRIVATE, FINAL);
+    constructorWriter.body()
+        .addSnippet("this.%s = %s.nanoTime();",
+            startField.name(), ClassName.fromClass(System.class))
+        .addSnippet("this.%1$s = builder.%1$s;", timeoutField.name());
+    FieldWriter builderField = builderWriter.addField(PrimitiveName.LONG, timeoutField.name());
+    builderField.addModifiers(PRIVATE);
+    builderField.setInitializer("%s.NO_TIMEOUT", ClassName.fromClass(Producers.class));
+    MethodWriter builderMethod = builderWriter.addMethod(builderWriter, "deadline");
+    builderMethod.addModifiers(PUBLIC);
+    builderMethod.addParameter(PrimitiveName.LONG, "timeout");
+    builderMethod.addParameter(ClassName.fromClass(TimeUnit.class), "unit");
+    builderMethod.body()
+        .addSnippet("if (unit == null) {")
+        .addSnippet("  throw new NullPointerException(\"unit\");")
+        .addSnippet("}")
+        .addSnippet("if (timeout <= 0) {")
+        .addSnippet("  throw new IllegalArgumentException(\"timeout must be positive\");")
+        .addSnippet("}")
+        .addSnippet("this.%s = unit.toNanos(timeout);", builderField.name())
+        .addSnippet("return this;");
+  }
+
+  /** Returns true if {@code bindingKey} is bound by {@code @Produces} methods. */
+  static boolean isProductionKey(BindingGraph graph, BindingKey bindingKey) {
+    return bindingKey.kind().equals(BindingKey.Kind.CONTRIBUTION)
+        && Iterables.any(graph.resolvedBindings().get(bindingKey).contributionBindings(),
+            Predicates.instanceOf(ProductionBinding.class));
+  }
+
+  /**
+   * Returns the keys of the production bindings that the component evaluates as
+   * {@link SynchronousNode}s: unique {@code @Produces} methods that run immediately, whose calls
+   * aren't shared or limited, that the component can invoke itself, and whose producer inputs are
+   * all requested as instances of synchronous nodes.
+   */
+  static ImmutableSet<BindingKey> synchronousProductionKeys(BindingGraph graph,
+      String componentPackage) {
+    Map<BindingKey, Boolean> synchronous = Maps.newLinkedHashMap();
+    for (BindingKey bindingKey : graph.resolvedBindings().keySet()) {
+      if (isProductionKey(graph, bindingKey)) {
+        isSynchronous(bindingKey, graph, componentPackage, synchronous);
+      }
+    }
+    return ImmutableSet.copyOf(
+        Maps.filterValues(synchronous, Predicates.equalTo(true)).keySet());
+  }
+
+  private static boolean isSynchronous(BindingKey bindingKey, BindingGraph graph,
+      String componentPackage, Map<BindingKey, Boolean> synchronous) {
+    Boolean known = synchronous.get(bindingKey);
+    if (known != null) {
+      return known;
+    }
+    synchronous.put(bindingKey, false);  // ends the recursion on cycles, which validation reports
+    ImmutableSet<? extends ContributionBinding> bindings =
+        graph.resolvedBindings().get(bindingKey).contributionBindings();
+    if (bindings.size() != 1 || !(bindings.iterator().next() instanceof ProductionBinding)) {
+      return false;
+    }
+    ProductionBinding binding = (ProductionBinding) bindings.iterator().next();
+    if (!binding.bindingKind().equals(ProductionBinding.Kind.IMMEDIATE)
+        || !binding.runsImmediately()
+        || !binding.productionType().equals(Produces.Type.UNIQUE)
+        || ProducerFactoryGenerator.invocationReturnsFuture(binding)
+        || (binding.bindingPackage().isPresent()
+            && !binding.bindingPackage().get().equals(componentPackage))
+        || !DirectInvocations.isInvocableFrom(binding, componentPackage)) {
+      return false;
+    }
+    for (DependencyRequest dependency : binding.dependencies()) {
+      BindingKey dependencyKey = BindingKey.forDependencyRequest(dependency);
+      boolean supported = isProductionKey(graph, dependencyKey)
+          ? dependency.kind().equals(DependencyRequest.Kind.INSTANCE)
+              && isSynchronous(dependencyKey, graph, componentPackage, synchronous)
+          : SYNCHRONOUS_PROVISION_REQUEST_KINDS.contains(dependency.kind());
+      if (!supported) {
+        return false;
+      }
+    }
+    synchronous.put(bindingKey, true);
+    return true;
+  }
+
+  /**
+   * Returns a snippet that creates the {@link SynchronousNode} for a {@code @Produces} method,
+   * which invokes the method on the module with the values of its input nodes and its provision
+   * dependencies.
+   */
+  static Snippet initializeSynchronousNode(ProductionBinding binding,
+      BindingGraph graph,
+      Map<TypeElement, FieldWriter> contributionFields,
+      ImmutableMap<BindingKey, Snippet> memberSelectSnippets) {
+    List<Snippet> inputs = Lists.newArrayList();
+    List<Snippet> arguments = Lists.newArrayList();
+    for (DependencyRequest dependency : binding.dependencies()) {
+      BindingKey dependencyKey = BindingKey.forDependencyRequest(dependency);
+      Snippet memberSelectSnippet = memberSelectSnippets.get(dependencyKey);
+      if (isProductionKey(graph, dependencyKey)) {
+        inputs.add(memberSelectSnippet);
+        arguments.add(Snippet.format("%s.value()", memberSelectSnippet));
+      } else {
+        arguments.add(frameworkTypeUsageStatement(memberSelectSnippet, dependency.kind()));
+      }
+    }
+    List<Snippet> constructorArguments = Lists.newArrayList();
+    constructorArguments.add(Snippet.format("productionComponentMonitor"));
+    constructorArguments.add(Snippet.format("%s.create(%s.class)",
+        ClassName.fromClass(ProducerToken.class), factoryNameForProductionBinding(binding)));
+    constructorArguments.addAll(inputs);
+    List<Snippet> thrownTypes = Lists.newArrayList();
+    for (TypeMirror thrownType : binding.thrownTypes()) {
+      thrownTypes.add(Snippet.format("%s", TypeNames.forTypeMirror(thrownType)));
+    }
+    return Snippet.format(Joiner.on('\n').join(
+        "new %s<%2$s>(%3$s) {",
+        "  @Override protected %2$s compute()%4$s {",
+        "    return %5$s.%6$s(%7$s);",
+        "  }",
+        "}"),
+        ClassName.fromClass(SynchronousNode.class),
+        TypeNames.forTypeMirror(binding.key().type()),
+        Snippet.makeParametersSnippet(constructorArguments),
+        thrownTypes.isEmpty()
+            ? Snippet.format("")
+            : Snippet.format(" throws %s", Snippet.makeParametersSnippet(thrownTypes)),
+        contributionFields.get(binding.bindingTypeElement()).name(),
+        binding.bindingElement().getSimpleName().toString(),
+        Snippet.makeParametersSnippet(arguments));
+  }
+
+  /**
+   * Returns the scheduling priority of each production binding: the length of the longest chain of
+   * producers that depends on it, so that a node that must be followed by many more steps before
+   * an entry point completes runs before a node with slack. (A node's depth in the other direction
+   * doesn't matter; by the time its work is queued, everything upstream of it has finished.)
+   */
+  static ImmutableMap<BindingKey, Integer> criticalPathPriorities(BindingGraph graph) {
+    SetMultimap<BindingKey, BindingKey> consumers = LinkedHashMultimap.create();
+    for (BindingKey bindingKey : graph.resolvedBindings().keySet()) {
+      if (!isProductionKey(graph, bindingKey)) {
+        continue;
+      }
+      for (ContributionBinding binding :
+          graph.resolvedBindings().get(bindingKey).contributionBindings()) {
+        for (DependencyRequest dependency : binding.dependencies()) {
+          BindingKey dependencyKey = BindingKey.forDependencyRequest(dependency);
+          if (isProductionKey(graph, dependencyKey)) {
+            consumers.put(dependencyKey, bindingKey);
+          }
+        }
+      }
+    }
+    Map<BindingKey, Integer> priorities = Maps.newLinkedHashMap();
+    for (BindingKey bindingKey : graph.resolvedBindings().keySet()) {
+      if (isProductionKey(graph, bindingKey)) {
+        criticalPathPriority(bindingKey, consumers, priorities);
+      }
+    }
+    return ImmutableMap.copyOf(priorities);
+  }
+
+  private static int criticalPathPriority(BindingKey bindingKey,
+      SetMultimap<BindingKey, BindingKey> consumers, Map<BindingKey, Integer> priorities) {
+    Integer known = priorities.get(bindingKey);
+    if (known != null) {
+      return known;
+    }
+    priorities.put(bindingKey, 0);  // ends the recursion on cycles, which validation reports
+    int priority = 0;
+    for (BindingKey consumer : consumers.get(bindingKey)) {
+      priority = Math.max(priority, criticalPathPriority(consumer, consumers, priorities) + 1);
+    }
+    priorities.put(bindingKey, priority);
+    return priority;
+  }
+
+  /**
+   * Returns a snippet that creates the producer for a {@code @Produces} method. Its provision
+   * dependencies are adapted to producers, and the producer memoizes its own future, so the
+   * method runs at most once per component instance.
+   */
+  static Snippet initializeProducerForBinding(ProductionBinding binding,
+      BindingGraph graph,
+      int priority,
+      Map<TypeElement, FieldWriter> contributionFields,
+      ImmutableMap<BindingKey, Snippet> memberSelectSnippets) {
+    List<Snippet> parameters = Lists.newArrayList();
+    parameters.add(Snippet.format(contributionFields.get(binding.bindingTypeElement()).name()));
+    parameters.add(Snippet.format("%s.prioritized(%s, %s)",
+        ClassName.fromClass(Producers.class),
+        executorFieldName(binding.executorQualifier()),
+        priority));
+    parameters.add(Snippet.format("productionComponentMonitor"));
+    if (binding.bindingElement().getAnnotation(Cached.class) != null) {
+      parameters.add(Snippet.format("producerCache"));
+    }
+    for (FrameworkField field : SourceFiles.generateBindingFieldsForDependencies(
+        DependencyRequestMapper.FOR_PRODUCER, binding.dependencies()).values()) {
+      Snippet memberSelectSnippet = memberSelectSnippets.get(field.bindingKey());
+      if (field.frameworkClass().equals(Producer.class)
+          && !isProductionKey(graph, field.bindingKey())) {
+        parameters.add(Snippet.format("%s.producerFromProvider(%s)",
+            ClassName.fromClass(Producers.class), memberSelectSnippet));
+      } else {
+        parameters.add(memberSelectSnippet);
+      }
+    }
+    return Snippet.format("new %s(%s)",
+        factoryNameForProductionBinding(binding),
+        Snippet.makeParametersSnippet(parameters));
+  }
+
+  private ProductionComponentWiring() {}
+}
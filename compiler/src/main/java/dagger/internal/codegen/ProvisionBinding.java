@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import dagger.Component;
 import dagger.Provides;
+import dagger.Reusable;
 import javax.inject.Inject;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -97,6 +98,12 @@ abstract class ProvisionBinding extends ContributionBinding implements Resolvabl
     return unwrapOptionalEquivalence(wrappedScope());
   }
 
+  /** Returns true if the binding is scoped with {@link Reusable}. */
+  boolean isReusable() {
+    return scope().isPresent()
+        && MoreTypes.isTypeOf(Reusable.class, scope().get().getAnnotationType());
+  }
+
   /**
    * An optional annotation constraining the scope of this component wrapped in an
    * {@link com.google.common.base.Equivalence.Wrapper} to preserve comparison semantics of
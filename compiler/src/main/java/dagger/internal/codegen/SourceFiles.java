@@ -14,6 +14,7 @@
 package dagger.internal.codegen;
 
 import com.google.common.base.CaseFormat;
+import com.google.common.base.Optional;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableMap;
@@ -37,6 +38,7 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
 
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -178,6 +180,7 @@ class SourceFiles {
         return Snippet.format("%s.create(%s)", ClassName.fromClass(DoubleCheckLazy.class),
             frameworkTypeMemberSelect);
       case INSTANCE:
+      case FUTURE:
         return Snippet.format("%s.get()", frameworkTypeMemberSelect);
       case PROVIDER:
       case PRODUCER:
@@ -223,6 +226,18 @@ class SourceFiles {
     return factoryName;
   }
 
+  /**
+   * Returns the name of a production component's field, and builder method, for the executor with
+   * the given qualifier: {@code executor} for the component's own, and e.g.
+   * {@code blockingExecutor} for {@code @Blocking}. Qualifiers with the same simple name map to the
+   * same name, which {@link BindingGraphValidator} reports.
+   */
+  static String executorFieldName(Optional<TypeElement> qualifier) {
+    return qualifier.isPresent()
+        ? UPPER_CAMEL.to(LOWER_CAMEL, qualifier.get().getSimpleName().toString()) + "Executor"
+        : "executor";
+  }
+
   static ClassName factoryNameForProductionBinding(ProductionBinding binding) {
     TypeElement enclosingTypeElement = binding.bindingTypeElement();
     ClassName enclosingClassName = ClassName.fromTypeElement(enclosingTypeElement);
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.auto.common.MoreElements;
+import com.google.common.base.Optional;
+import dagger.Factory;
+import dagger.internal.codegen.writer.ClassName;
+import dagger.internal.codegen.writer.BlockWriter;
+import dagger.internal.codegen.writer.ClassWriter;
+import dagger.internal.codegen.writer.ConstructorWriter;
+import dagger.internal.codegen.writer.FieldWriter;
+import dagger.internal.codegen.writer.MethodWriter;
+import dagger.internal.codegen.writer.ParameterizedTypeName;
+import dagger.internal.codegen.writer.PrimitiveName;
+import dagger.internal.codegen.writer.Snippet;
+import dagger.internal.codegen.writer.TypeName;
+import dagger.internal.codegen.writer.TypeNames;
+import dagger.internal.codegen.writer.TypeVariableName;
+
+import static dagger.internal.codegen.ProvisionBinding.Kind.INJECTION;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+/**
+ * Writes the {@code SwitchingProvider} nested in a component generated with
+ * {@code -Adagger.switchingProviders}. It is the one {@link Factory} implementation used for
+ * every binding that the component can construct itself: each instance is created with an id
+ * and {@link Factory#get} constructs the binding for that id in a case of a {@code switch}.
+ * Whether or not that option is set, it also provides the scoped instances held directly by a
+ * component generated with {@code -Adagger.inlineScopedInstances} to their dependents.
+ *
+ * @since 2.0
+ */
+final class SwitchingProviders {
+  private final boolean enabled;
+  private final ClassWriter componentWriter;
+  private final DirectInvocations directInvocations;
+  private Optional<ClassWriter> switchingProviderWriter = Optional.absent();
+  private Optional<BlockWriter> switchBody = Optional.absent();
+  private int nextId;
+
+  SwitchingProviders(
+      boolean enabled, ClassWriter componentWriter, DirectInvocations directInvocations) {
+    this.enabled = enabled;
+    this.componentWriter = componentWriter;
+    this.directInvocations = directInvocations;
+  }
+
+  /**
+   * Returns a snippet that creates a switching provider for {@code binding}, or absent if the
+   * binding still needs its own factory.
+   */
+  Optional<Snippet> forBinding(ProvisionBinding binding) {
+    if (!enabled || !directInvocations.canConstructInline(binding)) {
+      return Optional.absent();
+    }
+    TypeName providedType = TypeNames.forTypeMirror(binding.key().type());
+    Snippet provisionSnippet = directInvocations.provisionSnippet(binding);
+    if (binding.bindingKind().equals(INJECTION)
+        || !MoreElements.asExecutable(binding.bindingElement())
+            .getReturnType().getKind().isPrimitive()) {
+      return Optional.of(newSwitchingProvider(providedType, provisionSnippet));
+    }
+    // box primitives before the unchecked cast to T
+    return Optional.of(newSwitchingProvider(providedType,
+        Snippet.format("(%s) %s", providedType, provisionSnippet)));
+  }
+
+  /**
+   * Adds a case that returns {@code provisionSnippet} to the switching provider and returns a
+   * snippet that creates a switching provider for it.
+   */
+  Snippet newSwitchingProvider(TypeName providedType, Snippet provisionSnippet) {
+    if (!switchingProviderWriter.isPresent()) {
+      TypeVariableName typeVariable = TypeVariableName.named("T");
+      ClassWriter classWriter = componentWriter.addNestedClass("SwitchingProvider");
+      classWriter.addModifiers(PRIVATE, FINAL);
+      classWriter.addTypeParameter(typeVariable);
+      classWriter.addImplementedType(
+          ParameterizedTypeName.create(ClassName.fromClass(Factory.class), typeVariable));
+      FieldWriter idField = classWriter.addField(PrimitiveName.INT, "id");
+      idField.addModifiers(PRIVATE, FINAL);
+      ConstructorWriter constructorWriter = classWriter.addConstructor();
+      constructorWriter.addParameter(PrimitiveName.INT, "id");
+      constructorWriter.body().addSnippet("this.id = id;");
+      MethodWriter getMethod = classWriter.addMethod(typeVariable, "get");
+      getMethod.annotate(SuppressWarnings.class).setValue("unchecked");
+      getMethod.annotate(Override.class);
+      getMethod.addModifiers(PUBLIC);
+      getMethod.body().addSnippet("switch (id) {");
+      switchingProviderWriter = Optional.of(classWriter);
+      switchBody = Optional.of(getMethod.body());
+    }
+    int id = nextId++;
+    switchBody.get()
+        .addSnippet("  case %d:", id)
+        .addSnippet("    return (T) %s;", provisionSnippet);
+    return Snippet.format("new %s<%s>(%d)",
+        switchingProviderWriter.get().name(), providedType, id);
+  }
+
+  /** Closes the {@code switch} once every binding has been added. */
+  void finish() {
+    if (switchBody.isPresent()) {
+      switchBody.get()
+          .addSnippet("  default:")
+          .addSnippet("    throw new AssertionError(id);")
+          .addSnippet("}");
+    }
+  }
+}
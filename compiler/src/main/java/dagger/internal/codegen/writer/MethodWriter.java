@@ -48,6 +48,10 @@ public final class MethodWriter extends Modifiable implements HasClassReferences
   public String name() {
     return name;
   }
+
+  public TypeName returnType() {
+    return returnType;
+  }
   
   public void addTypeParameter(TypeVariableName typeVariableName) {
     this.typeParameters.add(typeVariableName);
@@ -87,7 +87,7 @@ public final class TypeVariableName implements TypeName {
     return Objects.hashCode(name, extendsBounds);
   }
 
-  static TypeVariableName named(CharSequence name) {
+  public static TypeVariableName named(CharSequence name) {
     return new TypeVariableName(name, ImmutableList.<TypeName>of());
   }
   
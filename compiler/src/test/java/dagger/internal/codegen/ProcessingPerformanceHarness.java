@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import static com.google.common.base.Preconditions.checkState;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+/**
+ * Measures the wall time, peak heap and per-phase times of running the {@link ComponentProcessor}
+ * over {@link SyntheticBindingGraph synthetic binding graphs}.
+ *
+ * <p>The per-phase times are the ones reported by {@code -Adagger.printProcessingTimes}. Because
+ * compile-testing can't pass processor options, the harness invokes the system Java compiler
+ * directly, with the test class path, and writes the generated files to a temporary directory.
+ *
+ * <p>Run {@link #main} from the test class path to sweep graph sizes up to 50,000 bindings:
+ * <pre><code>
+ *   java -Xmx4g -cp ... dagger.internal.codegen.ProcessingPerformanceHarness [depth] [fanOut]
+ * </code></pre>
+ */
+final class ProcessingPerformanceHarness {
+  private static final int[] SIZES = {1000, 5000, 10000, 25000, 50000};
+
+  /** The outcome of compiling a single graph. */
+  static final class Result {
+    final boolean success;
+    final long wallNanos;
+    final long peakHeapBytes;
+    final ImmutableMap<String, Long> microsByPhase;
+    final ImmutableList<Diagnostic<? extends JavaFileObject>> errors;
+
+    Result(boolean success, long wallNanos, long peakHeapBytes,
+        ImmutableMap<String, Long> microsByPhase,
+        ImmutableList<Diagnostic<? extends JavaFileObject>> errors) {
+      this.success = success;
+      this.wallNanos = wallNanos;
+      this.peakHeapBytes = peakHeapBytes;
+      this.microsByPhase = microsByPhase;
+      this.errors = errors;
+    }
+  }
+
+  /** Compiles {@code graph} with the {@link ComponentProcessor} and the given {@code -A} flags. */
+  static Result compile(SyntheticBindingGraph graph, String... processorOptions)
+      throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    checkState(compiler != null, "no system Java compiler; run with a JDK");
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+    StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(diagnostics, Locale.getDefault(), null);
+    File outputDirectory = Files.createTempDir();
+    try {
+      fileManager.setLocation(
+          StandardLocation.CLASS_OUTPUT, ImmutableList.of(outputDirectory));
+      fileManager.setLocation(
+          StandardLocation.SOURCE_OUTPUT, ImmutableList.of(outputDirectory));
+      List<String> options = Lists.newArrayList();
+      for (String processorOption : processorOptions) {
+        options.add("-A" + processorOption);
+      }
+      JavaCompiler.CompilationTask task = compiler.getTask(
+          null, fileManager, diagnostics, options, null, graph.sources());
+      task.setProcessors(ImmutableList.of(new ComponentProcessor()));
+
+      List<MemoryPoolMXBean> heapPools = heapPools();
+      System.gc();
+      for (MemoryPoolMXBean pool : heapPools) {
+        pool.resetPeakUsage();
+      }
+      long start = System.nanoTime();
+      boolean success = task.call();
+      long wallNanos = System.nanoTime() - start;
+      long peakHeapBytes = 0;
+      for (MemoryPoolMXBean pool : heapPools) {
+        peakHeapBytes += pool.getPeakUsage().getUsed();
+      }
+
+      ImmutableList.Builder<Diagnostic<? extends JavaFileObject>> errors =
+          ImmutableList.builder();
+      Map<String, Long> microsByPhase = Maps.newLinkedHashMap();
+      for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+        if (diagnostic.getKind().equals(ERROR)) {
+          errors.add(diagnostic);
+        } else if (diagnostic.getKind().equals(NOTE)) {
+          addPhaseTimes(diagnostic.getMessage(Locale.getDefault()), microsByPhase);
+        }
+      }
+      return new Result(success, wallNanos, peakHeapBytes,
+          ImmutableMap.copyOf(microsByPhase), errors.build());
+    } finally {
+      fileManager.close();
+      deleteRecursively(outputDirectory);
+    }
+  }
+
+  /** Adds the times of a note printed by {@link ProcessingTimings} to {@code totals}. */
+  private static void addPhaseTimes(String note, Map<String, Long> totals) {
+    List<String> lines = Splitter.on('\n').trimResults().omitEmptyStrings().splitToList(note);
+    if (lines.isEmpty() || !lines.get(0).equals(ProcessingTimings.HEADER)) {
+      return;
+    }
+    for (String line : lines.subList(1, lines.size())) {
+      int space = line.lastIndexOf(' ');
+      String phase = line.substring(0, space);
+      long micros = Long.parseLong(line.substring(space + 1));
+      Long total = totals.get(phase);
+      totals.put(phase, total == null ? micros : total + micros);
+    }
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    List<MemoryPoolMXBean> heapPools = Lists.newArrayList();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType().equals(MemoryType.HEAP) && pool.isValid()) {
+        heapPools.add(pool);
+      }
+    }
+    return heapPools;
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    file.delete();
+  }
+
+  public static void main(String[] args) throws IOException {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    int fanOut = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+    // warm up the compiler and the processor before measuring
+    compile(SyntheticBindingGraph.withBindings(SIZES[0], depth, fanOut),
+        CompilerOptions.PRINT_PROCESSING_TIMES_KEY);
+    for (int size : SIZES) {
+      SyntheticBindingGraph graph = SyntheticBindingGraph.withBindings(size, depth, fanOut);
+      Result result = compile(graph, CompilerOptions.PRINT_PROCESSING_TIMES_KEY);
+      System.out.println(graph);
+      if (!result.success) {
+        System.out.println("  compilation failed: " + result.errors);
+        continue;
+      }
+      System.out.printf("  wall time: %d ms%n", result.wallNanos / 1000000);
+      System.out.printf("  peak heap: %d MB%n", result.peakHeapBytes / (1024 * 1024));
+      for (Map.Entry<String, Long> phase : result.microsByPhase.entrySet()) {
+        System.out.printf("  %s: %d ms%n", phase.getKey(), phase.getValue() / 1000);
+      }
+    }
+  }
+
+  private ProcessingPerformanceHarness() {}
+}
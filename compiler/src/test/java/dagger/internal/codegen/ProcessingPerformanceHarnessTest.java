@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import dagger.internal.codegen.ProcessingPerformanceHarness.Result;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static dagger.internal.codegen.ProcessingPerformanceHarness.compile;
+
+@RunWith(JUnit4.class)
+public class ProcessingPerformanceHarnessTest {
+  private static final SyntheticBindingGraph GRAPH = new SyntheticBindingGraph(20, 5, 3);
+
+  @Test public void reportsProcessingTimes() throws Exception {
+    Result result = compile(GRAPH, CompilerOptions.PRINT_PROCESSING_TIMES_KEY);
+    assertThat(result.errors).isEmpty();
+    assertThat(result.success).isTrue();
+    assertThat(result.microsByPhase.keySet()).containsAllOf(
+        "ComponentProcessingStep",
+        "BindingGraph.Factory.create",
+        "BindingGraphValidator.validate",
+        "ComponentGenerator.generate",
+        "InjectBindingRegistry.generateSourcesForRequiredBindings");
+  }
+
+  @Test public void noTimesWithoutOption() throws Exception {
+    Result result = compile(GRAPH);
+    assertThat(result.success).isTrue();
+    assertThat(result.microsByPhase).isEmpty();
+  }
+}
@@ -33,9 +33,18 @@ import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_SET_VALUES_RA
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_STATIC;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_TYPE_PARAMETER;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_SAME_NAME;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CACHED_FRAMEWORK_PARAMETER;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CACHED_NOT_UNIQUE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_POSITIVE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_UNIQUE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_EXECUTOR_NOT_QUALIFIER;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_HEDGED_NOT_FUTURE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_HEDGE_DELAY_NOT_POSITIVE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RAW_FUTURE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RETURN_TYPE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SET_VALUES_RETURN_SET;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SINGLE_FLIGHT_NOT_UNIQUE;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_TIMEOUT_NOT_POSITIVE;
 
 @RunWith(JUnit4.class)
 public class ProducerModuleFactoryGeneratorTest {
@@ -136,6 +145,196 @@ public class ProducerModuleFactoryGeneratorTest {
         .withErrorContaining(formatErrorMessage(BINDING_METHOD_MUST_RETURN_A_VALUE));
   }
 
+  @Test public void producesMethodOnExecutorNotQualifier() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.OnExecutor;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @interface NotAQualifier {}",
+        "",
+        "  @Produces @OnExecutor(NotAQualifier.class) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_EXECUTOR_NOT_QUALIFIER);
+  }
+
+  @Test public void producesMethodTimeoutNotPositive() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import dagger.producers.Timeout;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Timeout(0) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_TIMEOUT_NOT_POSITIVE);
+  }
+
+  @Test public void producesMethodHedgedNotFuture() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.Hedged;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Hedged(50) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_HEDGED_NOT_FUTURE);
+  }
+
+  @Test public void producesMethodHedgeDelayNotPositive() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.Hedged;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Hedged(0) ListenableFuture<String> produceString() {",
+        "    return null;",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_HEDGE_DELAY_NOT_POSITIVE);
+  }
+
+  @Test public void producesMethodCachedNotUnique() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.Cached;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "import static dagger.producers.Produces.Type.SET;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces(type = SET) @Cached(ttl = 10) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_CACHED_NOT_UNIQUE);
+  }
+
+  @Test public void producesMethodCachedFrameworkParameter() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.Cached;",
+        "import dagger.producers.Producer;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Cached(ttl = 10) String produceString(Producer<Integer> a) {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_CACHED_FRAMEWORK_PARAMETER);
+  }
+
+  @Test public void producesMethodSingleFlightNotUnique() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import dagger.producers.SingleFlight;",
+        "",
+        "import static dagger.producers.Produces.Type.SET;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces(type = SET) @SingleFlight String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_SINGLE_FLIGHT_NOT_UNIQUE);
+  }
+
+  @Test public void producesMethodConcurrencyLimitNotUnique() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ConcurrencyLimit;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "import static dagger.producers.Produces.Type.SET;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces(type = SET) @ConcurrencyLimit(2) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_UNIQUE);
+  }
+
+  @Test public void producesMethodConcurrencyLimitNotPositive() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ConcurrencyLimit;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @ConcurrencyLimit(0) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_CONCURRENCY_LIMIT_NOT_POSITIVE);
+  }
+
   @Test public void producesMethodReturnRawFuture() {
     JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
         "package test;",
@@ -466,6 +665,9 @@ public class ProducerModuleFactoryGeneratorTest {
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
@@ -475,18 +677,26 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
         "    this.executor = executor;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
         "    ListenableFuture<ListenableFuture<String>> future = Producers.submitToExecutor(",
         "      new Callable<ListenableFuture<String>>() {",
         "        @Override public ListenableFuture<String> call() {",
-        "          return module.produceString();",
+        "          monitor.methodStarting();",
+        "          try {",
+        "            return module.produceString();",
+        "          } finally {",
+        "            monitor.methodFinished();",
+        "          }",
         "        }",
         "      }, executor);",
         "    return Futures.dereference(future);",
@@ -520,6 +730,9 @@ public class ProducerModuleFactoryGeneratorTest {
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.util.Set;",
         "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
@@ -531,7 +744,10 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {  ",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,  ",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -539,11 +755,16 @@ public class ProducerModuleFactoryGeneratorTest {
         "  }",
         "",
         "  @Override",
-        "  protected ListenableFuture<Set<String>> compute() {  ",
+        "  protected ListenableFuture<Set<String>> compute(final ProducerMonitor monitor) {  ",
         "    ListenableFuture<ListenableFuture<Set<String>>> future =",
         "        Producers.submitToExecutor(new Callable<ListenableFuture<Set<String>>>() {",
         "      @Override public ListenableFuture<Set<String>> call() {",
-        "        return Producers.createFutureSingletonSet(module.produceString());",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return Producers.createFutureSingletonSet(module.produceString());",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
         "      }",
         "    }, executor);",
         "    return Futures.dereference(future);",
@@ -568,12 +789,73 @@ public class ProducerModuleFactoryGeneratorTest {
         "    return \"\";",
         "  }",
         "}");
+    JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.Futures;",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Executor;",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class TestModule$$ProduceStringFactory extends AbstractProducer<String> {",
+        "  private final TestModule module;",
+        "  private final Executor executor;",
+        "",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
+        "    assert module != null;",
+        "    this.module = module;",
+        "    assert executor != null;",
+        "    this.executor = executor;",
+        "  }",
+        "",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    monitor.methodStarting();",
+        "    try {",
+        "      return Futures.immediateFuture(module.produceString());",
+        "    } catch (Throwable t) {",
+        "      return Futures.<String>immediateFailedFuture(t);",
+        "    } finally {",
+        "      monitor.methodFinished();",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodNoArgsNoFutureOnExecutor() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.OnExecutor;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @OnExecutor String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
     JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
         "package test;",
         "",
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
@@ -583,18 +865,26 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
         "    this.executor = executor;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
         "    ListenableFuture<String> future = Producers.submitToExecutor(",
         "      new Callable<String>() {",
         "        @Override public String call() {",
-        "          return module.produceString();",
+        "          monitor.methodStarting();",
+        "          try {",
+        "            return module.produceString();",
+        "          } finally {",
+        "            monitor.methodFinished();",
+        "          }",
         "        }",
         "      }, executor);",
         "    return future;",
@@ -606,6 +896,146 @@ public class ProducerModuleFactoryGeneratorTest {
         .and().generatesSources(factoryFile);
   }
 
+  @Test public void singleProducesMethodNoArgsFutureTimeout() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import dagger.producers.Timeout;",
+        "import java.util.concurrent.TimeUnit;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Timeout(value = 2, unit = TimeUnit.SECONDS)",
+        "  ListenableFuture<String> produceString() {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.Futures;",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
+        "import java.util.concurrent.Executor;",
+        "import java.util.concurrent.TimeUnit;",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class TestModule$$ProduceStringFactory extends AbstractProducer<String> {",
+        "  private final TestModule module;",
+        "  private final Executor executor;",
+        "",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
+        "    assert module != null;",
+        "    this.module = module;",
+        "    assert executor != null;",
+        "    this.executor = executor;",
+        "  }",
+        "",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    ListenableFuture<ListenableFuture<String>> future = Producers.submitToExecutor(",
+        "      new Callable<ListenableFuture<String>>() {",
+        "        @Override public ListenableFuture<String> call() {",
+        "          monitor.methodStarting();",
+        "          try {",
+        "            return module.produceString();",
+        "          } finally {",
+        "            monitor.methodFinished();",
+        "          }",
+        "        }",
+        "      }, executor);",
+        "    return Producers.withTimeout(",
+        "        Futures.dereference(future), 2L, TimeUnit.SECONDS, executor);",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodNoArgsFutureHedged() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.Hedged;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Hedged(50)",
+        "  ListenableFuture<String> produceString() {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.Futures;",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
+        "import java.util.concurrent.Executor;",
+        "import java.util.concurrent.TimeUnit;",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class TestModule$$ProduceStringFactory extends AbstractProducer<String> {",
+        "  private final TestModule module;",
+        "  private final Executor executor;",
+        "",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
+        "    assert module != null;",
+        "    this.module = module;",
+        "    assert executor != null;",
+        "    this.executor = executor;",
+        "  }",
+        "",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    ListenableFuture<ListenableFuture<String>> future = Producers.submitToExecutor(",
+        "      new Callable<ListenableFuture<String>>() {",
+        "        @Override public ListenableFuture<String> call() {",
+        "          monitor.methodStarting();",
+        "          try {",
+        "            return Producers.hedge(new Callable<ListenableFuture<String>>() {",
+        "              @Override public ListenableFuture<String> call() {",
+        "                return module.produceString();",
+        "              }",
+        "            }, 50L, TimeUnit.MILLISECONDS, executor, monitor);",
+        "          } finally {",
+        "            monitor.methodFinished();",
+        "          }",
+        "        }",
+        "      }, executor);",
+        "    return Futures.dereference(future);",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(factoryFile);
+  }
+
   @Test public void singleProducesMethodNoArgsNoFutureSet() {
     JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
         "package test;",
@@ -624,11 +1054,13 @@ public class ProducerModuleFactoryGeneratorTest {
         "package test;",
         "",
         "import com.google.common.collect.ImmutableSet;",
+        "import com.google.common.util.concurrent.Futures;",
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
-        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.util.Set;",
-        "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
         "",
@@ -638,7 +1070,10 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {  ",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,  ",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -646,14 +1081,15 @@ public class ProducerModuleFactoryGeneratorTest {
         "  }",
         "",
         "  @Override",
-        "  protected ListenableFuture<Set<String>> compute() {  ",
-        "    ListenableFuture<Set<String>> future =",
-        "        Producers.submitToExecutor(new Callable<Set<String>>() {",
-        "      @Override public Set<String> call() {",
-        "        return ImmutableSet.of(module.produceString());",
-        "      }",
-        "    }, executor);",
-        "    return future;",
+        "  protected ListenableFuture<Set<String>> compute(final ProducerMonitor monitor) {",
+        "    monitor.methodStarting();",
+        "    try {",
+        "      return Futures.immediateFuture(ImmutableSet.of(module.produceString()));",
+        "    } catch (Throwable t) {",
+        "      return Futures.<Set<String>>immediateFailedFuture(t);",
+        "    } finally {",
+        "      monitor.methodFinished();",
+        "    }",
         "  }",
         "}");
     assertAbout(javaSource()).that(moduleFile)
@@ -683,14 +1119,15 @@ public class ProducerModuleFactoryGeneratorTest {
     JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
         "package test;",
         "",
-        "import com.google.common.util.concurrent.AsyncFunction;",
-        "import com.google.common.util.concurrent.Futures;",
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.Produced;",
         "import dagger.producers.Producer;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
-        "import java.util.List;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
@@ -707,10 +1144,13 @@ public class ProducerModuleFactoryGeneratorTest {
         "  public TestModule$$ProduceStringFactory(",
         "      TestModule module,",
         "      Executor executor,",
+        "      ProductionComponentMonitor componentMonitor,",
         "      Producer<Integer> aProducer,",
         "      Producer<Double> bProducer,",
         "      Producer<Object> cProducer,",
         "      Provider<Boolean> dProvider) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -725,22 +1165,24 @@ public class ProducerModuleFactoryGeneratorTest {
         "    this.dProvider = dProvider;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
-        "    ListenableFuture<Integer> aProducerFuture = aProducer.get();",
-        "    ListenableFuture<Produced<Double>> bProducerFuture =",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    final ListenableFuture<Integer> aProducerFuture = aProducer.get();",
+        "    final ListenableFuture<Produced<Double>> bProducerFuture =",
         "        Producers.createFutureProduced(bProducer.get());",
-        "    return Futures.transform(",
-        "        Futures.<Object>allAsList(aProducerFuture, bProducerFuture),",
-        "        new AsyncFunction<List<Object>, String>() {",
-        "          @SuppressWarnings(\"unchecked\")  // safe by specification",
-        "          @Override public ListenableFuture<String> apply(List<Object> args) {",
-        "            return module.produceString(",
-        "                (Integer) args.get(0),",
-        "                (Produced<Double>) args.get(1),",
-        "                cProducer,",
-        "                dProvider);",
-        "          }",
-        "        }, executor);",
+        "    return Producers.combineAsync(new Callable<ListenableFuture<String>>() {",
+        "      @Override public ListenableFuture<String> call() {",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return module.produceString(",
+        "              Producers.getDone(aProducerFuture),",
+        "              Producers.getDone(bProducerFuture),",
+        "              cProducer,",
+        "              dProvider);",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
+        "      }",
+        "    }, executor, aProducerFuture, bProducerFuture);",
         "  }",
         "}");
     assertAbout(javaSource()).that(moduleFile)
@@ -769,14 +1211,17 @@ public class ProducerModuleFactoryGeneratorTest {
     JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
         "package test;",
         "",
-        "import com.google.common.util.concurrent.AsyncFunction;",
         "import com.google.common.util.concurrent.Futures;",
         "import com.google.common.util.concurrent.ListenableFuture;",
+        "import com.google.common.util.concurrent.MoreExecutors;",
         "import dagger.producers.Produced;",
         "import dagger.producers.Producer;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
-        "import java.util.List;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
@@ -793,10 +1238,13 @@ public class ProducerModuleFactoryGeneratorTest {
         "  public TestModule$$ProduceStringFactory(",
         "      TestModule module,",
         "      Executor executor,",
+        "      ProductionComponentMonitor componentMonitor,",
         "      Producer<Integer> aProducer,",
         "      Producer<Double> bProducer,",
         "      Producer<Object> cProducer,",
         "      Provider<Boolean> dProvider) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -811,22 +1259,24 @@ public class ProducerModuleFactoryGeneratorTest {
         "    this.dProvider = dProvider;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
-        "    ListenableFuture<Integer> aProducerFuture = aProducer.get();",
-        "    ListenableFuture<Produced<Double>> bProducerFuture =",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    final ListenableFuture<Integer> aProducerFuture = aProducer.get();",
+        "    final ListenableFuture<Produced<Double>> bProducerFuture =",
         "        Producers.createFutureProduced(bProducer.get());",
-        "    return Futures.transform(",
-        "        Futures.<Object>allAsList(aProducerFuture, bProducerFuture),",
-        "        new AsyncFunction<List<Object>, String>() {",
-        "          @SuppressWarnings(\"unchecked\")  // safe by specification",
-        "          @Override public ListenableFuture<String> apply(List<Object> args) {",
-        "            return Futures.immediateFuture(module.produceString(",
-        "                (Integer) args.get(0),",
-        "                (Produced<Double>) args.get(1),",
-        "                cProducer,",
-        "                dProvider));",
-        "          }",
-        "        }, executor);",
+        "    return Producers.combineAsync(new Callable<ListenableFuture<String>>() {",
+        "      @Override public ListenableFuture<String> call() {",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return Futures.immediateFuture(module.produceString(",
+        "              Producers.getDone(aProducerFuture),",
+        "              Producers.getDone(bProducerFuture),",
+        "              cProducer,",
+        "              dProvider));",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
+        "      }",
+        "    }, MoreExecutors.directExecutor(), aProducerFuture, bProducerFuture);",
         "  }",
         "}");
     assertAbout(javaSource()).that(moduleFile)
@@ -852,11 +1302,173 @@ public class ProducerModuleFactoryGeneratorTest {
     JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
         "package test;",
         "",
-        "import com.google.common.util.concurrent.AsyncFunction;",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.Producer;",
+        "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
+        "import java.util.concurrent.Executor;",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class TestModule$$ProduceStringFactory extends AbstractProducer<String> {",
+        "  private final TestModule module;",
+        "  private final Executor executor;",
+        "  private final Producer<Integer> aProducer;",
+        "",
+        "  public TestModule$$ProduceStringFactory(",
+        "      TestModule module,",
+        "      Executor executor,",
+        "      ProductionComponentMonitor componentMonitor,",
+        "      Producer<Integer> aProducer) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
+        "    assert module != null;",
+        "    this.module = module;",
+        "    assert executor != null;",
+        "    this.executor = executor;",
+        "    assert aProducer != null;",
+        "    this.aProducer = aProducer;",
+        "  }",
+        "",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    final ListenableFuture<Integer> aProducerFuture = aProducer.get();",
+        "    return Producers.combineAsync(new Callable<ListenableFuture<String>>() {",
+        "      @Override public ListenableFuture<String> call() {",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return module.produceString(Producers.getDone(aProducerFuture));",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
+        "      }",
+        "    }, executor, aProducerFuture);",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodSingleArgNoFutureCached() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.Cached;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import java.util.concurrent.TimeUnit;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @Cached(ttl = 5, unit = TimeUnit.MINUTES) String produceString(int a) {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
+        "package test;",
+        "",
         "import com.google.common.util.concurrent.Futures;",
         "import com.google.common.util.concurrent.ListenableFuture;",
+        "import com.google.common.util.concurrent.MoreExecutors;",
+        "import dagger.producers.Producer;",
+        "import dagger.producers.caching.ProducerCache;",
+        "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
+        "import java.util.concurrent.Executor;",
+        "import java.util.concurrent.TimeUnit;",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class TestModule$$ProduceStringFactory extends AbstractProducer<String> {",
+        "  private final TestModule module;",
+        "  private final Executor executor;",
+        "  private final ProducerCache producerCache;",
+        "  private final Producer<Integer> aProducer;",
+        "",
+        "  public TestModule$$ProduceStringFactory(",
+        "      TestModule module,",
+        "      Executor executor,",
+        "      ProductionComponentMonitor componentMonitor,",
+        "      ProducerCache producerCache,",
+        "      Producer<Integer> aProducer) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
+        "    assert module != null;",
+        "    this.module = module;",
+        "    assert executor != null;",
+        "    this.executor = executor;",
+        "    assert producerCache != null;",
+        "    this.producerCache = producerCache;",
+        "    assert aProducer != null;",
+        "    this.aProducer = aProducer;",
+        "  }",
+        "",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    final ListenableFuture<Integer> aProducerFuture = aProducer.get();",
+        "    return Producers.combineAsync(new Callable<ListenableFuture<String>>() {",
+        "      @Override public ListenableFuture<String> call() {",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return producerCache.get(",
+        "              ProducerToken.create(TestModule$$ProduceStringFactory.class),",
+        "              5L,",
+        "              0L,",
+        "              TimeUnit.MINUTES,",
+        "              new Callable<ListenableFuture<String>>() {",
+        "                @Override public ListenableFuture<String> call() {",
+        "                  return Futures.immediateFuture(",
+        "                      module.produceString(Producers.getDone(aProducerFuture)));",
+        "                }",
+        "              },",
+        "              Producers.getDone(aProducerFuture));",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
+        "      }",
+        "    }, MoreExecutors.directExecutor(), aProducerFuture);",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodSingleArgFutureSingleFlight() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import dagger.producers.SingleFlight;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @SingleFlight ListenableFuture<String> produceString(int a) {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.Producer;",
         "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
         "",
@@ -869,7 +1481,10 @@ public class ProducerModuleFactoryGeneratorTest {
         "  public TestModule$$ProduceStringFactory(",
         "      TestModule module,",
         "      Executor executor,",
+        "      ProductionComponentMonitor componentMonitor,",
         "      Producer<Integer> aProducer) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -878,14 +1493,95 @@ public class ProducerModuleFactoryGeneratorTest {
         "    this.aProducer = aProducer;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
-        "    ListenableFuture<Integer> aProducerFuture = aProducer.get();",
-        "    return Futures.transform(aProducerFuture,",
-        "        new AsyncFunction<Integer, String>() {",
-        "          @Override public ListenableFuture<String> apply(Integer a) {",
-        "            return module.produceString(a);",
-        "          }",
-        "        }, executor);",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    final ListenableFuture<Integer> aProducerFuture = aProducer.get();",
+        "    return Producers.combineAsync(new Callable<ListenableFuture<String>>() {",
+        "      @Override public ListenableFuture<String> call() {",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return Producers.singleFlight(",
+        "              ProducerToken.create(TestModule$$ProduceStringFactory.class),",
+        "              new Callable<ListenableFuture<String>>() {",
+        "                @Override public ListenableFuture<String> call() {",
+        "                  return module.produceString(Producers.getDone(aProducerFuture));",
+        "                }",
+        "              },",
+        "              Producers.getDone(aProducerFuture));",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
+        "      }",
+        "    }, executor, aProducerFuture);",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodNoArgsNoFutureConcurrencyLimit() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ConcurrencyLimit;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @ConcurrencyLimit(value = 20, group = \"db\") String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.Futures;",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.internal.AbstractProducer;",
+        "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
+        "import dagger.producers.scheduling.ConcurrencyLimiter;",
+        "import java.util.concurrent.Callable;",
+        "import java.util.concurrent.Executor;",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class TestModule$$ProduceStringFactory extends AbstractProducer<String> {",
+        "  private final TestModule module;",
+        "  private final Executor executor;",
+        "",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
+        "    assert module != null;",
+        "    this.module = module;",
+        "    assert executor != null;",
+        "    this.executor = executor;",
+        "  }",
+        "",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    ListenableFuture<ListenableFuture<String>> future = Producers.submitToExecutor(",
+        "      new Callable<ListenableFuture<String>>() {",
+        "        @Override public ListenableFuture<String> call() {",
+        "          return ConcurrencyLimiter.named(\"db\", 20).submit(",
+        "              new Callable<ListenableFuture<String>>() {",
+        "                @Override public ListenableFuture<String> call() {",
+        "                  monitor.methodStarting();",
+        "                  try {",
+        "                    return Futures.immediateFuture(module.produceString());",
+        "                  } finally {",
+        "                    monitor.methodFinished();",
+        "                  }",
+        "                }",
+        "              }, executor);",
+        "        }",
+        "      }, executor);",
+        "    return Futures.dereference(future);",
         "  }",
         "}");
     assertAbout(javaSource()).that(moduleFile)
@@ -917,6 +1613,9 @@ public class ProducerModuleFactoryGeneratorTest {
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.io.IOException;",
         "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
@@ -927,19 +1626,27 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
         "    this.executor = executor;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
         "    ListenableFuture<ListenableFuture<String>> future = Producers.submitToExecutor(",
         "      new Callable<ListenableFuture<String>>() {",
         "        @Override public ListenableFuture<String> call()",
         "            throws InterruptedException, IOException {",
-        "          return module.produceString();",
+        "          monitor.methodStarting();",
+        "          try {",
+        "            return module.produceString();",
+        "          } finally {",
+        "            monitor.methodFinished();",
+        "          }",
         "        }",
         "      }, executor);",
         "    return Futures.dereference(future);",
@@ -968,11 +1675,12 @@ public class ProducerModuleFactoryGeneratorTest {
     JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
         "package test;",
         "",
+        "import com.google.common.util.concurrent.Futures;",
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
-        "import dagger.producers.internal.Producers;",
-        "import java.io.IOException;",
-        "import java.util.concurrent.Callable;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
         "",
@@ -981,21 +1689,25 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
         "    this.executor = executor;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
-        "    ListenableFuture<String> future = Producers.submitToExecutor(",
-        "      new Callable<String>() {",
-        "        @Override public String call() throws IOException {",
-        "          return module.produceString();",
-        "        }",
-        "      }, executor);",
-        "    return future;",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    monitor.methodStarting();",
+        "    try {",
+        "      return Futures.immediateFuture(module.produceString());",
+        "    } catch (Throwable t) {",
+        "      return Futures.<String>immediateFailedFuture(t);",
+        "    } finally {",
+        "      monitor.methodFinished();",
+        "    }",
         "  }",
         "}");
     assertAbout(javaSource()).that(moduleFile)
@@ -1027,15 +1739,16 @@ public class ProducerModuleFactoryGeneratorTest {
     JavaFileObject factoryFile = JavaFileObjects.forSourceLines("TestModule$$ProduceStringFactory",
         "package test;",
         "",
-        "import com.google.common.util.concurrent.AsyncFunction;",
-        "import com.google.common.util.concurrent.Futures;",
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.Produced;",
         "import dagger.producers.Producer;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.io.IOException;",
-        "import java.util.List;",
+        "import java.util.concurrent.Callable;",
         "import java.util.concurrent.Executor;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
@@ -1052,10 +1765,13 @@ public class ProducerModuleFactoryGeneratorTest {
         "  public TestModule$$ProduceStringFactory(",
         "      TestModule module,",
         "      Executor executor,",
+        "      ProductionComponentMonitor componentMonitor,",
         "      Producer<Integer> aProducer,",
         "      Producer<Double> bProducer,",
         "      Producer<Object> cProducer,",
         "      Provider<Boolean> dProvider) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -1070,23 +1786,24 @@ public class ProducerModuleFactoryGeneratorTest {
         "    this.dProvider = dProvider;",
         "  }",
         "",
-        "  @Override protected ListenableFuture<String> compute() {",
-        "    ListenableFuture<Integer> aProducerFuture = aProducer.get();",
-        "    ListenableFuture<Produced<Double>> bProducerFuture =",
+        "  @Override protected ListenableFuture<String> compute(final ProducerMonitor monitor) {",
+        "    final ListenableFuture<Integer> aProducerFuture = aProducer.get();",
+        "    final ListenableFuture<Produced<Double>> bProducerFuture =",
         "        Producers.createFutureProduced(bProducer.get());",
-        "    return Futures.transform(",
-        "        Futures.<Object>allAsList(aProducerFuture, bProducerFuture),",
-        "        new AsyncFunction<List<Object>, String>() {",
-        "          @SuppressWarnings(\"unchecked\")  // safe by specification",
-        "          @Override public ListenableFuture<String> apply(List<Object> args)",
-        "              throws IOException {",
-        "            return module.produceString(",
-        "                (Integer) args.get(0),",
-        "                (Produced<Double>) args.get(1),",
-        "                cProducer,",
-        "                dProvider);",
-        "          }",
-        "        }, executor);",
+        "    return Producers.combineAsync(new Callable<ListenableFuture<String>>() {",
+        "      @Override public ListenableFuture<String> call() throws IOException {",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return module.produceString(",
+        "              Producers.getDone(aProducerFuture),",
+        "              Producers.getDone(bProducerFuture),",
+        "              cProducer,",
+        "              dProvider);",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
+        "      }",
+        "    }, executor, aProducerFuture, bProducerFuture);",
         "  }",
         "}");
     assertAbout(javaSource()).that(moduleFile)
@@ -1118,6 +1835,9 @@ public class ProducerModuleFactoryGeneratorTest {
         "import com.google.common.util.concurrent.ListenableFuture;",
         "import dagger.producers.internal.AbstractProducer;",
         "import dagger.producers.internal.Producers;",
+        "import dagger.producers.monitoring.ProducerMonitor;",
+        "import dagger.producers.monitoring.ProducerToken;",
+        "import dagger.producers.monitoring.ProductionComponentMonitor;",
         "import java.io.IOException;",
         "import java.util.Set;",
         "import java.util.concurrent.Callable;",
@@ -1130,7 +1850,10 @@ public class ProducerModuleFactoryGeneratorTest {
         "  private final TestModule module;",
         "  private final Executor executor;",
         "",
-        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor) {  ",
+        "  public TestModule$$ProduceStringFactory(TestModule module, Executor executor,  ",
+        "      ProductionComponentMonitor componentMonitor) {",
+        "    super(componentMonitor,",
+        "        ProducerToken.create(TestModule$$ProduceStringFactory.class));",
         "    assert module != null;",
         "    this.module = module;",
         "    assert executor != null;",
@@ -1138,11 +1861,16 @@ public class ProducerModuleFactoryGeneratorTest {
         "  }",
         "",
         "  @Override",
-        "  protected ListenableFuture<Set<String>> compute() {  ",
+        "  protected ListenableFuture<Set<String>> compute(final ProducerMonitor monitor) {  ",
         "    ListenableFuture<ListenableFuture<Set<String>>> future =",
         "        Producers.submitToExecutor(new Callable<ListenableFuture<Set<String>>>() {",
         "      @Override public ListenableFuture<Set<String>> call() throws IOException {",
-        "        return Producers.createFutureSingletonSet(module.produceString());",
+        "        monitor.methodStarting();",
+        "        try {",
+        "          return Producers.createFutureSingletonSet(module.produceString());",
+        "        } finally {",
+        "          monitor.methodFinished();",
+        "        }",
         "      }",
         "    }, executor);",
         "    return Futures.dereference(future);",
@@ -15,6 +15,7 @@
  */
 package dagger.internal.codegen;
 
+import com.google.common.collect.ImmutableList;
 import com.google.testing.compile.JavaFileObjects;
 import javax.tools.JavaFileObject;
 import org.junit.Test;
@@ -23,6 +24,7 @@ import org.junit.runners.JUnit4;
 
 import static com.google.common.truth.Truth.assertAbout;
 import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 
 @RunWith(JUnit4.class)
 public class ProductionComponentProcessorTest {
@@ -83,4 +85,190 @@ public class ProductionComponentProcessorTest {
         .failsToCompile()
         .withErrorContaining("is not annotated with @Module or @ProducerModule");
   }
+
+  @Test public void entryPointMustReturnFutureOrProducer() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces String string() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.producers.ProductionComponent;",
+        "",
+        "@ProductionComponent(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  String string();",
+        "}");
+    assertAbout(javaSources()).that(ImmutableList.of(moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(ErrorMessages.PRODUCTION_COMPONENT_METHOD_RETURN_TYPE)
+            .in(componentFile).onLine(7);
+  }
+
+  @Test public void provisionDependsOnProduction() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class A {",
+        "  @Inject A(String string) {}",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces String string() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProductionComponent;",
+        "",
+        "@ProductionComponent(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  ListenableFuture<A> a();",
+        "}");
+    assertAbout(javaSources()).that(ImmutableList.of(aFile, moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(
+            String.format(ErrorMessages.PROVISION_DEPENDS_ON_PRODUCTION_FORMAT, "test.A"))
+            .in(componentFile).onLine(8);
+  }
+
+  @Test public void executorQualifiersWithSameSimpleName() {
+    JavaFileObject firstQualifierFile = JavaFileObjects.forSourceLines("test.a.Blocking",
+        "package test.a;",
+        "",
+        "import javax.inject.Qualifier;",
+        "",
+        "@Qualifier",
+        "public @interface Blocking {}");
+    JavaFileObject secondQualifierFile = JavaFileObjects.forSourceLines("test.b.Blocking",
+        "package test.b;",
+        "",
+        "import javax.inject.Qualifier;",
+        "",
+        "@Qualifier",
+        "public @interface Blocking {}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.OnExecutor;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @OnExecutor(test.a.Blocking.class) String string(Integer i) {",
+        "    return i.toString();",
+        "  }",
+        "",
+        "  @Produces @OnExecutor(test.b.Blocking.class) Integer integer() {",
+        "    return 42;",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProductionComponent;",
+        "",
+        "@ProductionComponent(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  ListenableFuture<String> string();",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(
+            firstQualifierFile, secondQualifierFile, moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining("both name the component's blockingExecutor").in(moduleFile);
+  }
+
+  @Test public void concurrencyLimitGroupWithDifferentValues() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ConcurrencyLimit;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces @ConcurrencyLimit(value = 2, group = \"db\") String string(Integer i) {",
+        "    return i.toString();",
+        "  }",
+        "",
+        "  @Produces @ConcurrencyLimit(value = 3, group = \"db\") Integer integer() {",
+        "    return 42;",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProductionComponent;",
+        "",
+        "@ProductionComponent(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  ListenableFuture<String> string();",
+        "}");
+    assertAbout(javaSources()).that(ImmutableList.of(moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining("group \"db\" is declared with a limit of").in(moduleFile);
+  }
+
+  @Test public void simpleComponent() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces String string(Integer i) {",
+        "    return i.toString();",
+        "  }",
+        "",
+        "  @Produces Integer integer() {",
+        "    return 42;",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.Producer;",
+        "import dagger.producers.ProductionComponent;",
+        "",
+        "@ProductionComponent(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  ListenableFuture<String> string();",
+        "  Producer<Integer> integer();",
+        "}");
+    assertAbout(javaSources()).that(ImmutableList.of(moduleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError();
+  }
 }
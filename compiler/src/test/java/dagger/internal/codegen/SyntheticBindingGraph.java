@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Generates the sources of a component with a large, layered binding graph for measuring the
+ * {@link ComponentProcessor}.
+ *
+ * <p>The graph has {@code depth} layers of {@code width} nodes. Layer {@code k} is a single file
+ * of nested classes {@code test.Layer<k>.N<i>}. Every node above the last layer has an
+ * {@code @Inject} constructor that depends on {@code fanOut} nodes of the next layer, and the nodes
+ * of the last layer are provided by {@code @Singleton @Provides} methods of
+ * {@code test.SyntheticModule}. The component {@code test.SyntheticComponent} has one provision
+ * method for every node of the first layer.
+ */
+final class SyntheticBindingGraph {
+  private final int width;
+  private final int depth;
+  private final int fanOut;
+
+  /**
+   * Creates a graph with roughly {@code bindings} nodes split evenly across {@code depth} layers.
+   */
+  static SyntheticBindingGraph withBindings(int bindings, int depth, int fanOut) {
+    checkArgument(depth > 0, "depth must be positive: %s", depth);
+    return new SyntheticBindingGraph(Math.max(1, bindings / depth), depth, fanOut);
+  }
+
+  SyntheticBindingGraph(int width, int depth, int fanOut) {
+    checkArgument(width > 0, "width must be positive: %s", width);
+    checkArgument(depth > 0, "depth must be positive: %s", depth);
+    checkArgument(fanOut >= 0 && fanOut <= width,
+        "fanOut must be between 0 and the width (%s): %s", width, fanOut);
+    this.width = width;
+    this.depth = depth;
+    this.fanOut = fanOut;
+  }
+
+  /** Returns the number of bindings in the graph, not counting the component itself. */
+  int bindingCount() {
+    return width * depth;
+  }
+
+  ImmutableList<JavaFileObject> sources() {
+    ImmutableList.Builder<JavaFileObject> sources = ImmutableList.builder();
+    for (int layer = 0; layer < depth; layer++) {
+      sources.add(layerSource(layer));
+    }
+    sources.add(moduleSource());
+    sources.add(componentSource());
+    return sources.build();
+  }
+
+  private JavaFileObject layerSource(int layer) {
+    boolean last = layer == depth - 1;
+    StringBuilder source = new StringBuilder()
+        .append("package test;\n\n")
+        .append("import javax.inject.Inject;\n\n")
+        .append("final class Layer").append(layer).append(" {\n");
+    for (int i = 0; i < width; i++) {
+      source.append("  static final class N").append(i).append(" {\n");
+      if (!last) {
+        source.append("    @Inject N").append(i).append("(");
+        for (int j = 0; j < fanOut; j++) {
+          if (j > 0) {
+            source.append(", ");
+          }
+          source.append(nodeName(layer + 1, (i + j) % width)).append(" dep").append(j);
+        }
+        source.append(") {}\n");
+      }
+      source.append("  }\n");
+    }
+    source.append("}\n");
+    return JavaFileObjects.forSourceString("test.Layer" + layer, source);
+  }
+
+  private JavaFileObject moduleSource() {
+    int last = depth - 1;
+    StringBuilder source = new StringBuilder()
+        .append("package test;\n\n")
+        .append("import dagger.Module;\n")
+        .append("import dagger.Provides;\n")
+        .append("import javax.inject.Singleton;\n\n")
+        .append("@Module\n")
+        .append("final class SyntheticModule {\n");
+    for (int i = 0; i < width; i++) {
+      source.append("  @Provides @Singleton ").append(nodeName(last, i))
+          .append(" provideN").append(i).append("() {\n")
+          .append("    return new ").append(nodeName(last, i)).append("();\n")
+          .append("  }\n");
+    }
+    source.append("}\n");
+    return JavaFileObjects.forSourceString("test.SyntheticModule", source);
+  }
+
+  private JavaFileObject componentSource() {
+    StringBuilder source = new StringBuilder()
+        .append("package test;\n\n")
+        .append("import dagger.Component;\n")
+        .append("import javax.inject.Singleton;\n\n")
+        .append("@Singleton\n")
+        .append("@Component(modules = SyntheticModule.class)\n")
+        .append("interface SyntheticComponent {\n");
+    for (int i = 0; i < width; i++) {
+      source.append("  ").append(nodeName(0, i)).append(" n").append(i).append("();\n");
+    }
+    source.append("}\n");
+    return JavaFileObjects.forSourceString("test.SyntheticComponent", source);
+  }
+
+  private static String nodeName(int layer, int index) {
+    return "Layer" + layer + ".N" + index;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d bindings (width %d, depth %d, fan-out %d)",
+        bindingCount(), width, depth, fanOut);
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger;
+
+/**
+ * Receives a callback for every provision by a component that was generated with
+ * {@code -Adagger.instrumentProvisions}. A listener is passed to the builder of such a component
+ * with its {@code provisionListener} method.
+ *
+ * <p>Listeners are called on the thread that requested the instance, after it has been provided,
+ * so they must be thread-safe and should return quickly. An exception thrown by a listener is
+ * propagated to the caller.
+ *
+ * @since 2.0
+ */
+public interface ProvisionListener {
+  /**
+   * Called after the binding for {@code key} provided an instance.
+   *
+   * @param key the binding's key, formatted as its qualifier (if any) followed by its type
+   * @param durationNanos the time taken to provide the instance, including its dependencies
+   * @param cached true if the instance of a scoped binding had already been created, and false
+   *     if a new instance was created
+   */
+  void onProvision(String key, long durationNanos, boolean cached);
+}
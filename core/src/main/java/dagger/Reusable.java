@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import javax.inject.Scope;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * A scope that indicates that the object returned by a binding may be (but might not be) reused.
+ *
+ * <p>{@code @Reusable} is useful when you want to limit the number of provisions of a type, but
+ * there is no specific lifetime over which there must be only one instance. Unlike other scopes,
+ * reusable bindings may be used from any component, scoped or unscoped, and are cached without
+ * any locking. Under contention the binding may be provisioned more than once, so it should only
+ * be applied to types for which any instance is as good as any other, such as stateless helpers.
+ *
+ * <p>A request for a reusable binding reads the cached instance once, without synchronization. If
+ * no instance has been cached yet, the binding is provisioned and the result is cached, so threads
+ * that race on the first request may each receive a different instance. Once those requests have
+ * returned, every later request returns the same instance.
+ *
+ * @since 2.0
+ */
+@Documented
+@Scope
+@Retention(RUNTIME)
+public @interface Reusable {}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.ProvisionListener;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that reports every call to an unscoped {@link Provider} to a
+ * {@link ProvisionListener}.
+ *
+ * @since 2.0
+ */
+public final class InstrumentedProvider<T> implements Provider<T> {
+  private static final ProvisionListener NO_OP_LISTENER = new ProvisionListener() {
+    @Override public void onProvision(String key, long durationNanos, boolean cached) {}
+  };
+
+  private final Provider<T> delegate;
+  private final String key;
+  private final ProvisionListener listener;
+
+  private InstrumentedProvider(Provider<T> delegate, String key, ProvisionListener listener) {
+    assert delegate != null;
+    assert key != null;
+    assert listener != null;
+    this.delegate = delegate;
+    this.key = key;
+    this.listener = listener;
+  }
+
+  @Override
+  public T get() {
+    long start = System.nanoTime();
+    T instance = delegate.get();
+    listener.onProvision(key, System.nanoTime() - start, false);
+    return instance;
+  }
+
+  /** Returns a provider that reports each call to {@code delegate} to {@code listener}. */
+  public static <T> Provider<T> create(
+      Provider<T> delegate, String key, ProvisionListener listener) {
+    if (delegate == null || key == null || listener == null) {
+      throw new NullPointerException();
+    }
+    return new InstrumentedProvider<T>(delegate, key, listener);
+  }
+
+  /** Returns a listener that ignores every provision. */
+  public static ProvisionListener noOpListener() {
+    return NO_OP_LISTENER;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Factory;
+import dagger.ProvisionListener;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} that reports every call to a scoped binding's own caching provider to a
+ * {@link ProvisionListener}. The caching provider keeps its semantics, whether it is a
+ * {@link ScopedProvider}, a {@link SingleCheckProvider} or a
+ * {@link ThreadConfinedScopedProvider}; it must be created around the factory returned by
+ * {@link #recordingCreations}, so that a call is reported as cached exactly when it did not run
+ * that factory on the calling thread.
+ *
+ * @since 2.0
+ */
+public final class InstrumentedScopedProvider<T> implements Provider<T> {
+  /** The number of instances created by recording factories on each thread. */
+  private static final ThreadLocal<int[]> CREATIONS = new ThreadLocal<int[]>() {
+    @Override protected int[] initialValue() {
+      return new int[1];
+    }
+  };
+
+  private final Provider<T> delegate;
+  private final String key;
+  private final ProvisionListener listener;
+
+  private InstrumentedScopedProvider(Provider<T> delegate, String key, ProvisionListener listener) {
+    assert delegate != null;
+    assert key != null;
+    assert listener != null;
+    this.delegate = delegate;
+    this.key = key;
+    this.listener = listener;
+  }
+
+  @Override
+  public T get() {
+    int[] creations = CREATIONS.get();
+    int before = creations[0];
+    long start = System.nanoTime();
+    T result = delegate.get();
+    listener.onProvision(key, System.nanoTime() - start, creations[0] == before);
+    return result;
+  }
+
+  /**
+   * Returns a factory that delegates to {@code factory} and records each instance it creates, for
+   * the caching provider that is passed to {@link #create}.
+   */
+  public static <T> Factory<T> recordingCreations(final Factory<T> factory) {
+    if (factory == null) {
+      throw new NullPointerException();
+    }
+    return new Factory<T>() {
+      @Override public T get() {
+        T instance = factory.get();
+        CREATIONS.get()[0]++;
+        return instance;
+      }
+    };
+  }
+
+  /**
+   * Returns a new instrumented provider for {@code scopedProvider}, a caching provider created
+   * around a factory returned by {@link #recordingCreations}.
+   */
+  public static <T> Provider<T> create(
+      Provider<T> scopedProvider, String key, ProvisionListener listener) {
+    if (scopedProvider == null || key == null || listener == null) {
+      throw new NullPointerException();
+    }
+    return new InstrumentedScopedProvider<T>(scopedProvider, key, listener);
+  }
+}
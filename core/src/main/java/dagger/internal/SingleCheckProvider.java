@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Factory;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that memoizes the result of a {@link Factory} instance using
+ * the racy single-check idiom described in Effective Java 2: Item 71. Unlike
+ * {@link ScopedProvider}, no lock is ever taken, so concurrent callers may each invoke the factory
+ * before one of the results is published. This is only appropriate for
+ * {@linkplain dagger.Reusable reusable} bindings.
+ *
+ * @since 2.0
+ */
+public final class SingleCheckProvider<T> implements Provider<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  private volatile Factory<T> factory;
+  private volatile Object instance = UNINITIALIZED;
+
+  private SingleCheckProvider(Factory<T> factory) {
+    assert factory != null;
+    this.factory = factory;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the factory
+  @Override
+  public T get() {
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      Factory<T> factoryReference = factory;
+      if (factoryReference == null) {
+        // another thread published the instance between the two reads
+        result = instance;
+      } else {
+        instance = result = factoryReference.get();
+        // the factory is no longer needed, so don't hold on to it (or its dependencies)
+        factory = null;
+      }
+    }
+    return (T) result;
+  }
+
+  /** Returns a new single-check provider for the given factory. */
+  public static <T> Provider<T> create(Factory<T> factory) {
+    if (factory == null) {
+      throw new NullPointerException();
+    }
+    return new SingleCheckProvider<T>(factory);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Lazy;
+import javax.inject.Provider;
+
+/**
+ * A {@link Lazy} implementation that memoizes the value returned from a {@link Provider} for
+ * components that are only ever accessed from a single thread. Unlike {@link DoubleCheckLazy}, no
+ * locks are taken and no volatile reads are performed. When assertions are enabled, a call to
+ * {@link #get} from any thread other than the first one to call it fails with an
+ * {@link AssertionError}.
+ *
+ * @since 2.0
+ */
+public final class ThreadConfinedLazy<T> implements Lazy<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  private final Provider<T> provider;
+  private Object instance = UNINITIALIZED;
+  // only written when assertions are enabled
+  private Thread confiningThread;
+
+  private ThreadConfinedLazy(Provider<T> provider) {
+    assert provider != null;
+    this.provider = provider;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the provider
+  @Override
+  public T get() {
+    assert (confiningThread = ThreadConfinement.checkConfined(confiningThread)) != null;
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      instance = result = provider.get();
+    }
+    return (T) result;
+  }
+
+  public static <T> Lazy<T> create(Provider<T> provider) {
+    if (provider == null) {
+      throw new NullPointerException();
+    }
+    return new ThreadConfinedLazy<T>(provider);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Factory;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that memoizes the result of a {@link Factory} instance for
+ * components that are only ever accessed from a single thread. No locks are taken and no volatile
+ * reads are performed. When assertions are enabled, a call to {@link #get} from any thread other
+ * than the first one to call it fails with an {@link AssertionError}.
+ *
+ * @since 2.0
+ */
+public final class ThreadConfinedScopedProvider<T> implements Provider<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  private final Factory<T> factory;
+  private Object instance = UNINITIALIZED;
+  // only written when assertions are enabled
+  private Thread confiningThread;
+
+  private ThreadConfinedScopedProvider(Factory<T> factory) {
+    assert factory != null;
+    this.factory = factory;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the factory
+  @Override
+  public T get() {
+    assert (confiningThread = ThreadConfinement.checkConfined(confiningThread)) != null;
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      instance = result = factory.get();
+    }
+    return (T) result;
+  }
+
+  /** Returns a new thread-confined scoped provider for the given factory. */
+  public static <T> Provider<T> create(Factory<T> factory) {
+    if (factory == null) {
+      throw new NullPointerException();
+    }
+    return new ThreadConfinedScopedProvider<T>(factory);
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+/**
+ * The owner-thread check of the thread-confined implementations, {@link ThreadConfinedLazy} and
+ * {@link ThreadConfinedScopedProvider}. Each keeps the thread it is confined to in a field that is
+ * only written from an assertion:
+ * <pre>   {@code
+ *
+ *   assert (confiningThread = ThreadConfinement.checkConfined(confiningThread)) != null;}</pre>
+ *
+ * @since 2.0
+ */
+final class ThreadConfinement {
+  /**
+   * Returns the thread that an object is confined to: {@code confiningThread}, or the current
+   * thread if the object hasn't been accessed before.
+   *
+   * @throws AssertionError if the object is confined to a thread other than the current one
+   */
+  static Thread checkConfined(Thread confiningThread) {
+    Thread currentThread = Thread.currentThread();
+    if (confiningThread == null) {
+      return currentThread;
+    }
+    if (confiningThread != currentThread) {
+      throw new AssertionError(
+          "accessed from " + currentThread + " but confined to " + confiningThread);
+    }
+    return confiningThread;
+  }
+
+  private ThreadConfinement() {}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.ProvisionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link InstrumentedProvider}.
+ */
+@RunWith(JUnit4.class)
+public class InstrumentedProviderTest {
+  private final List<String> provisions = new ArrayList<String>();
+  private final ProvisionListener listener = new ProvisionListener() {
+    @Override public void onProvision(String key, long durationNanos, boolean cached) {
+      assert_().that(cached).isFalse();
+      provisions.add(key);
+    }
+  };
+
+  @Test public void create_nullPointerException() {
+    try {
+      InstrumentedProvider.create(null, "key", listener);
+      fail();
+    } catch (NullPointerException expected) { }
+  }
+
+  @Test public void get() {
+    Provider<Integer> provider = InstrumentedProvider.create(new Provider<Integer>() {
+      int i = 0;
+
+      @Override public Integer get() {
+        return i++;
+      }
+    }, "key", listener);
+    assert_().that(provider.get()).is(0);
+    assert_().that(provider.get()).is(1);
+    assert_().that(provisions).isEqualTo(Arrays.asList("key", "key"));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Factory;
+import dagger.ProvisionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link InstrumentedScopedProvider}.
+ */
+@RunWith(JUnit4.class)
+public class InstrumentedScopedProviderTest {
+  private final List<Boolean> cached = new ArrayList<Boolean>();
+  private final ProvisionListener listener = new ProvisionListener() {
+    @Override public void onProvision(String key, long durationNanos, boolean wasCached) {
+      assert_().that(key).isEqualTo("key");
+      assert_().that(durationNanos >= 0).isTrue();
+      cached.add(wasCached);
+    }
+  };
+
+  @Test public void create_nullPointerException() {
+    try {
+      InstrumentedScopedProvider.create(null, "key", listener);
+      fail();
+    } catch (NullPointerException expected) { }
+  }
+
+  @Test public void get() {
+    Provider<Integer> provider = InstrumentedScopedProvider.create(
+        ScopedProvider.create(InstrumentedScopedProvider.recordingCreations(counter())),
+        "key", listener);
+    assert_().that(provider.get()).is(0);
+    assert_().that(provider.get()).is(0);
+    assert_().that(provider.get()).is(0);
+    assert_().that(cached).isEqualTo(Arrays.asList(false, true, true));
+  }
+
+  @Test public void get_instanceCreatedOnAnotherThreadIsCached() throws Exception {
+    final Provider<Integer> provider = InstrumentedScopedProvider.create(
+        SingleCheckProvider.create(InstrumentedScopedProvider.recordingCreations(counter())),
+        "key", listener);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assert_().that(executor.submit(new Callable<Integer>() {
+        @Override public Integer call() {
+          return provider.get();
+        }
+      }).get()).is(0);
+    } finally {
+      executor.shutdown();
+    }
+    assert_().that(provider.get()).is(0);
+    assert_().that(cached).isEqualTo(Arrays.asList(false, true));
+  }
+
+  @Test public void get_reportsANestedCreationOnlyForItsOwnBinding() {
+    final Provider<Integer> inner = InstrumentedScopedProvider.create(
+        ScopedProvider.create(InstrumentedScopedProvider.recordingCreations(counter())),
+        "key", listener);
+    Provider<Integer> outer = InstrumentedScopedProvider.create(
+        SingleCheckProvider.create(
+            InstrumentedScopedProvider.recordingCreations(new Factory<Integer>() {
+              @Override public Integer get() {
+                return inner.get() + 10;
+              }
+            })),
+        "key", listener);
+    assert_().that(outer.get()).is(10);
+    assert_().that(inner.get()).is(0);
+    assert_().that(outer.get()).is(10);
+    assert_().that(cached).isEqualTo(Arrays.asList(false, false, true, true));
+  }
+
+  private static Factory<Integer> counter() {
+    return new Factory<Integer>() {
+      int i = 0;
+
+      @Override public Integer get() {
+        return i++;
+      }
+    };
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Factory;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link SingleCheckProvider}.
+ */
+@RunWith(JUnit4.class)
+public class SingleCheckProviderTest {
+  @Test public void create_nullPointerException() {
+    try {
+      SingleCheckProvider.create(null);
+      fail();
+    } catch (NullPointerException expected) { }
+  }
+
+  @Test public void get() {
+    Provider<Integer> provider = SingleCheckProvider.create(new Factory<Integer>() {
+      int i = 0;
+
+      @Override public Integer get() {
+        return i++;
+      }
+    });
+    assert_().that(provider.get()).is(0);
+    assert_().that(provider.get()).is(0);
+    assert_().that(provider.get()).is(0);
+  }
+}
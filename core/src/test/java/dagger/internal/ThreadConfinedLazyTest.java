@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Lazy;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ThreadConfinedLazy}.
+ */
+@RunWith(JUnit4.class)
+public class ThreadConfinedLazyTest {
+  @Test public void create_nullPointerException() {
+    try {
+      ThreadConfinedLazy.create(null);
+      fail();
+    } catch (NullPointerException expected) {}
+  }
+
+  @Test public void get() {
+    Lazy<Integer> lazy = ThreadConfinedLazy.create(new Provider<Integer>() {
+      int i = 0;
+
+      @Override public Integer get() {
+        return i++;
+      }
+    });
+    assert_().that(lazy.get()).is(0);
+    assert_().that(lazy.get()).is(0);
+  }
+
+  @Test public void get_fromSecondThread() throws Exception {
+    boolean assertionsEnabled = false;
+    assert assertionsEnabled = true;
+    if (!assertionsEnabled) {
+      return;
+    }
+    final Lazy<Object> lazy = ThreadConfinedLazy.create(new Provider<Object>() {
+      @Override public Object get() {
+        return new Object();
+      }
+    });
+    lazy.get();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(new Callable<Object>() {
+        @Override public Object call() {
+          return lazy.get();
+        }
+      }).get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof AssertionError);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
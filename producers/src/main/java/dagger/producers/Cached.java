@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Annotates a {@link Produces} method whose values may be reused across component instances, for
+ * inputs such as feature flags or per-tenant configuration that rarely change. The value is kept
+ * in the {@link dagger.producers.caching.ProducerCache} passed to the component's builder, keyed on
+ * the method and the values of its arguments, and is reused by every component that shares the
+ * cache until its time to live has passed. A component that wasn't given a cache computes the
+ * value itself, as for any other method.
+ *
+ * <p>The arguments are compared with {@link Object#equals}, so a cached method may only depend on
+ * plain values and {@link Produced} values, not on a {@link Producer} or a
+ * {@link javax.inject.Provider}. The module instance is not part of the key, so the method's value
+ * must not depend on the module's state. Only {@link Produces.Type#UNIQUE} methods can be cached.
+ *
+ * <p>A failure is cached for {@link #failureTtl}, which by default is zero: the failure is then
+ * only shared by the components that asked for the value while it was being computed, and the next
+ * request computes it afresh. A short failure time to live keeps a failing backend from being
+ * called by every request.
+ *
+ * @since 2.0
+ */
+@Documented @Target(METHOD)
+public @interface Cached {
+  /** How long a value is reused once it has been produced; must be positive. */
+  long ttl();
+
+  /** How long a failure is reused once the method has failed; must not be negative. */
+  long failureTtl() default 0;
+
+  /** The unit of {@link #ttl} and {@link #failureTtl}. */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
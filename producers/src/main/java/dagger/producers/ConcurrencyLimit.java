@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Annotates a {@link Produces} method whose calls may only run a limited number at a time, across
+ * every component in the process. This protects a scarce resource behind the method, such as a
+ * database connection pool, from the parallelism of the component's executor. A call beyond the
+ * limit waits in a queue held by the producers runtime, without occupying an executor thread, and
+ * is submitted to the executor once an earlier call completes. A call that returns a
+ * {@link com.google.common.util.concurrent.ListenableFuture} counts against the limit until its
+ * future completes.
+ *
+ * <p>Methods that share a resource can share a limit by naming the same {@link #group}; all of
+ * them must then declare the same {@link #value}, which is checked for the methods of each
+ * component when it is compiled. The current load, queue depth and wait times of each limit are
+ * reported by its {@link dagger.producers.scheduling.ConcurrencyLimiter}. Only
+ * {@link Produces.Type#UNIQUE} methods can be limited.
+ *
+ * @since 2.0
+ */
+@Documented @Target(METHOD)
+public @interface ConcurrencyLimit {
+  /** The maximum number of calls that may run at once; must be positive. */
+  int value();
+
+  /**
+   * The name of the limit shared by every method that declares it. By default, the method has a
+   * limit of its own, named after the module and the method (e.g.,
+   * {@code "com.foo.DbModule.rows"}).
+   */
+  String group() default "";
+}
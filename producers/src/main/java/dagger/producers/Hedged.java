@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Annotates an idempotent {@link Produces} method that returns a
+ * {@link com.google.common.util.concurrent.ListenableFuture}, asking for its call to be hedged: if
+ * the future returned by the method hasn't completed within the given delay, the method is invoked
+ * a second time, on the component's executor and with the same arguments. Whichever attempt
+ * succeeds first provides the node's value, and the other attempt's future is cancelled. This cuts
+ * the tail latency caused by an occasional slow backend replica, at the cost of a second call for
+ * the requests that were slow anyway; pick a delay around the latency percentile beyond which a
+ * second call is worth making (e.g., the 95th).
+ *
+ * <p>Only slowness is hedged, not failure: if the first attempt fails before the delay, the node
+ * fails without a second attempt. Once both attempts are running, the node fails only when both
+ * have failed, with the last failure.
+ *
+ * <p>The method must be safe to call twice, and to have either call cancelled. How often a second
+ * attempt was made, and how often it won, is reported to the component's
+ * {@link dagger.producers.monitoring.ProducerMonitor}s.
+ *
+ * @since 2.0
+ */
+@Documented @Target(METHOD)
+public @interface Hedged {
+  /** How long the first attempt may run before a second one is made; must be positive. */
+  long value();
+
+  /** The unit of {@link #value}. */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
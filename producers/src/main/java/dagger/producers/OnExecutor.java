@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Annotates a {@link Produces} method that must always run on an executor: the component's
+ * executor, or the one named by {@link #value}.
+ *
+ * <p>By default, a {@code @Produces} method that returns a plain value, rather than a
+ * {@link com.google.common.util.concurrent.ListenableFuture}, is assumed to be cheap: it runs
+ * directly on the thread that completes its last asynchronous input, or on the requesting thread
+ * if its inputs are already complete, which saves a hop to the executor. Methods that do
+ * CPU-heavy or blocking work should carry this annotation so that they never run on a caller's
+ * thread. Methods that return a future always start on the executor.
+ *
+ * <p>Blocking work can be kept off the executor that runs CPU-bound methods by naming a separate
+ * executor with a {@link javax.inject.Qualifier}: <pre>   {@code
+ *
+ *   @Qualifier @interface Blocking {}
+ *
+ *   @Produces @OnExecutor(Blocking.class) Row readRow(Key key) { ... }}</pre>
+ *
+ * <p>A component with such methods has a builder method for each qualifier, named after it, that
+ * must be called with the executor it stands for: <pre>   {@code
+ *
+ *   MyComponent component = Dagger_MyComponent.builder()
+ *       .executor(cpuExecutor)
+ *       .blockingExecutor(ioExecutor)
+ *       .build();}</pre>
+ *
+ * @since 2.0
+ */
+@Documented @Target(METHOD)
+public @interface OnExecutor {
+  /**
+   * The qualifier of the executor that runs the method. By default, the method runs on the
+   * component's executor.
+   */
+  Class<? extends Annotation> value() default Default.class;
+
+  /** The default {@link OnExecutor#value}, which stands for the component's executor. */
+  @interface Default {}
+}
@@ -42,7 +42,9 @@ public @interface Produces {
     /**
      * The method's resulting type forms the generic type argument of a {@code Set<T>}, and the
      * returned value or future is contributed to the set. The {@code Set<T>} produced from the
-     * accumulation of values will be immutable.
+     * accumulation of values will be immutable, and fails if any contribution fails. Requesting
+     * {@code Set<Produced<T>>} instead yields a set that reports each failed contribution as a
+     * failed {@link dagger.producers.Produced} element.
      */
     SET,
 
@@ -58,7 +60,8 @@ public @interface Produces {
      * The method's return type forms the type argument for the value of a
      * {@code Map<K, Producer<V>>}, and the combination of the annotated key and the returned value
      * is contributed to the map as a key/value pair. The {@code Map<K, Producer<V>>} produced from
-     * the accumulation of values will be immutable.
+     * the accumulation of values will be immutable. Requesting {@code Map<K, V>} instead produces
+     * every value concurrently.
      */
     MAP;
   }
@@ -50,6 +50,53 @@ import static java.lang.annotation.ElementType.TYPE;
  *   Producer<Set<SomeType>> getSomeTypes();
  *   @Response ListenableFuture<Html> getResponse();}</pre>
  *
+ * <h2>Executor</h2>
+ *
+ * <p>The generated component's builder has an {@code executor} method that must be called with
+ * the {@link java.util.concurrent.Executor} on which {@link Produces} methods are run. Methods
+ * that return a plain value, rather than a future, skip the executor and run on the thread that
+ * completes their inputs, unless they are annotated {@link OnExecutor}. For example:
+ * <pre>   {@code
+ *
+ *   MyComponent component = Dagger_MyComponent.builder()
+ *       .executor(executor)
+ *       .build();}</pre>
+ *
+ * <p>If the executor is a {@link dagger.producers.scheduling.PriorityExecutor}, each producer's
+ * work is queued with the length of the longest chain of producers that depends on it, so the
+ * critical path of the graph runs first.
+ *
+ * <p>A method annotated {@link OnExecutor} with a {@link Qualifier} runs on another executor,
+ * which is set through a builder method named after the qualifier (e.g.,
+ * {@code blockingExecutor} for {@code @Blocking}). Blocking calls can then use a large pool while
+ * CPU-bound methods use one sized to the number of cores.
+ *
+ * <p>The executor may run many calls of a method at once. A method in front of a scarce resource,
+ * such as a connection pool, can cap that with a {@link ConcurrencyLimit}; calls beyond the limit
+ * wait in a queue without occupying the executor's threads. A limited method always runs on the
+ * executor, even if it returns a plain value.
+ *
+ * <p>When compiled with {@code -Adagger.synchronousProducers}, a component evaluates each
+ * subgraph of plain-value methods, whose producer inputs are all plain-value methods too, with
+ * direct calls on the requesting thread, allocating a future only for the result that leaves the
+ * subgraph. Monitoring and failure propagation are unchanged.
+ *
+ * <h2>Monitoring</h2>
+ *
+ * <p>The builder also has an optional {@code productionComponentMonitor} method, which takes a
+ * {@link dagger.producers.monitoring.ProductionComponentMonitor} that is told when each producer
+ * is requested, when its method starts and finishes running, and whether it succeeded.
+ * {@link dagger.producers.monitoring.LatencyHistogramMonitor} aggregates these events into
+ * per-producer latency histograms.
+ *
+ * <h2>Caching</h2>
+ *
+ * <p>The builder's optional {@code producerCache} method takes a
+ * {@link dagger.producers.caching.ProducerCache} that holds the values of {@link Cached} methods,
+ * so that components sharing it reuse those values instead of each calling the method again.
+ * {@link SingleFlight} methods need no cache: concurrent calls with equal arguments share one call
+ * across every component in the process, and nothing is kept once it completes.
+ *
  * <h2>Exceptions</h2>
  *
  * <p>When a producer throws an exception, the exception will be propagated to its downstream
@@ -63,6 +110,30 @@ import static java.lang.annotation.ElementType.TYPE;
  * {@link com.google.common.util.concurrent.Futures#transform}.
  * TODO(user): Explain this more thoroughly, and possibly update the javadocs of those utilities.
  *
+ * <h2>Cancellation</h2>
+ *
+ * <p>Cancelling a future returned by a component method cancels the producers it depends on,
+ * except those that are still needed by another consumer that hasn't cancelled. Producer methods
+ * that haven't started are then never run, and their tasks are removed from the executor's queue
+ * if it is a {@link java.util.concurrent.ThreadPoolExecutor}.
+ *
+ * <h2>Timeouts and deadlines</h2>
+ *
+ * <p>A {@link Produces} method annotated {@link Timeout} fails with a
+ * {@link java.util.concurrent.TimeoutException} if it hasn't produced its value in time, which
+ * consumers of a {@code Produced<T>} can handle like any other failure. The builder also has an
+ * optional {@code deadline} method that bounds the whole component: once the given time has passed
+ * since the component was built, every component method fails with a {@code TimeoutException} and
+ * cancels the work it was waiting for. For example: <pre>   {@code
+ *
+ *   MyComponent component = Dagger_MyComponent.builder()
+ *       .executor(executor)
+ *       .deadline(200, TimeUnit.MILLISECONDS)
+ *       .build();}</pre>
+ *
+ * <p>A {@link Timeout} bounds a slow method; a {@link Hedged} one instead races a second call to
+ * an idempotent method against the first, which cuts tail latency without failing the request.
+ *
  * @author Jesse Beder
  */
 @Documented @Target(TYPE)
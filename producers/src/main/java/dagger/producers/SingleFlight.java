@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Annotates a {@link Produces} method whose concurrent calls with equal arguments are coalesced
+ * across every component in the process. While a call is in flight, a component that would call
+ * the method with equal arguments shares its future instead, so a spike of requests for one hot
+ * key sends one call to the backend rather than hundreds. The call is forgotten as soon as it
+ * completes: nothing is cached, and the next call after that invokes the method again. To also
+ * reuse completed values, use {@link Cached}.
+ *
+ * <p>The arguments are compared with {@link Object#equals}, so the method may only depend on plain
+ * values and {@link Produced} values, not on a {@link Producer} or a
+ * {@link javax.inject.Provider}. The module instance is not part of the key, so the method's value
+ * must not depend on the module's state. Only {@link Produces.Type#UNIQUE} methods can be
+ * coalesced.
+ *
+ * <p>Cancelling a component's future releases only that component; the shared call is cancelled
+ * once every component waiting on it has cancelled.
+ *
+ * @since 2.0
+ */
+@Documented @Target(METHOD)
+public @interface SingleFlight {}
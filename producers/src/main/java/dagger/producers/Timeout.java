@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.annotation.ElementType.METHOD;
+
+/**
+ * Annotates a {@link Produces} method whose value must be produced within the given time, counted
+ * from when the value is first requested. If the time runs out first, the producer fails with a
+ * {@link java.util.concurrent.TimeoutException} and the method's future is cancelled (interrupting
+ * the method if it is running), so one slow backend doesn't hold up the rest of the graph.
+ * Consumers that take a {@link Produced} see the timeout as a failed {@code Produced} and can fall
+ * back to a default; other consumers fail like they do for any other failure.
+ *
+ * <p>A method with a timeout always starts on the component's executor, as if it were annotated
+ * {@link OnExecutor}, so that a blocking method can't hold the requesting thread past its timeout.
+ * Every timer in the process runs on one shared daemon thread, which hands each timeout to the
+ * method's executor; the consumers of a method that timed out run there too.
+ *
+ * <p>To bound the whole graph rather than one method, set a deadline on the component's builder;
+ * see {@link ProductionComponent}.
+ *
+ * @since 2.0
+ */
+@Documented @Target(METHOD)
+public @interface Timeout {
+  /** The time the method has to produce its value; must be positive. */
+  long value();
+
+  /** The unit of {@link #value}. */
+  TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
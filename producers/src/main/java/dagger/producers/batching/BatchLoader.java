@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.batching;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the values for a batch of keys in a single call, typically a single request to a backend.
+ * A {@link Batcher} coalesces the keys requested by many nodes, and many component instances, into
+ * one call to {@link #load}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 2.0
+ */
+public interface BatchLoader<K, V> {
+  /**
+   * Returns a future for the values of the given keys. The map must contain every key in
+   * {@code keys}; the future of a key that is missing from the map fails with an
+   * {@link IllegalStateException}. If this method throws, or the returned future fails, the future
+   * of every key in the batch fails with the same cause.
+   */
+  ListenableFuture<Map<K, V>> load(Set<K> keys) throws Exception;
+}
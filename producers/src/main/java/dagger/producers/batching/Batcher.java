@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.batching;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * Coalesces requests for single keys into batches for a {@link BatchLoader}. A batch is dispatched
+ * when it reaches the maximum batch size, or when the batching window has elapsed since its first
+ * key was requested, whichever comes first. Requests for a key that is already in the pending batch
+ * share its load. Each request gets its own future, so a requester that cancels, such as a
+ * component whose entry point was cancelled, doesn't fail the key for the others.
+ *
+ * <p>A batcher is meant to be shared by many component instances, so that concurrent requests are
+ * coalesced with each other. A producer module that is passed to each component's builder can hold
+ * one, and return its futures from its {@code @Produces} methods: <pre><code>
+ *   {@literal @}ProducerModule
+ *   final class UserModule {
+ *     private final Batcher<UserId, User> users;
+ *
+ *     UserModule(Batcher<UserId, User> users) {
+ *       this.users = users;
+ *     }
+ *
+ *     {@literal @}Produces ListenableFuture<User> user(UserId id) {
+ *       return users.get(id);
+ *     }
+ *   }
+ * </code></pre>
+ *
+ * <p>A batch that fills up is loaded on the thread that requested its last key, and a batch whose
+ * window elapses is loaded on the scheduler's thread, so {@link BatchLoader#load} should return
+ * quickly and do its work asynchronously.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 2.0
+ */
+public final class Batcher<K, V> {
+  private final BatchLoader<K, V> loader;
+  private final int maxBatchSize;
+  private final long windowNanos;
+  private final ScheduledExecutorService scheduler;
+
+  // guarded by this
+  private Batch pending;
+
+  private Batcher(BatchLoader<K, V> loader, int maxBatchSize, long windowNanos,
+      ScheduledExecutorService scheduler) {
+    this.loader = loader;
+    this.maxBatchSize = maxBatchSize;
+    this.windowNanos = windowNanos;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Creates a batcher whose batches hold at most {@code maxBatchSize} keys, and are dispatched at
+   * most {@code window} after their first key was requested, using {@code scheduler} to wait out
+   * the window.
+   */
+  public static <K, V> Batcher<K, V> create(BatchLoader<K, V> loader, int maxBatchSize,
+      long window, TimeUnit unit, ScheduledExecutorService scheduler) {
+    checkArgument(maxBatchSize > 0, "maxBatchSize must be positive: %s", maxBatchSize);
+    checkArgument(window >= 0, "window must not be negative: %s", window);
+    return new Batcher<K, V>(checkNotNull(loader), maxBatchSize, unit.toNanos(window),
+        checkNotNull(scheduler));
+  }
+
+  /**
+   * Returns a future for the value of {@code key}, which completes once the batch that contains it
+   * has been loaded.
+   */
+  public ListenableFuture<V> get(K key) {
+    checkNotNull(key);
+    Batch full = null;
+    SettableFuture<V> future;
+    synchronized (this) {
+      if (pending == null) {
+        pending = new Batch();
+        pending.schedule();
+      }
+      future = pending.futures.get(key);
+      if (future == null) {
+        future = SettableFuture.create();
+        pending.futures.put(key, future);
+        if (pending.futures.size() >= maxBatchSize) {
+          full = pending;
+          pending = null;
+        }
+      }
+    }
+    if (full != null) {
+      full.dispatch();
+    }
+    return Futures.nonCancellationPropagating(future);
+  }
+
+  /** Dispatches the pending batch now, if there is one, without waiting for its window. */
+  public void flush() {
+    Batch batch;
+    synchronized (this) {
+      batch = pending;
+      pending = null;
+    }
+    if (batch != null) {
+      batch.dispatch();
+    }
+  }
+
+  /** The keys of one batch and the futures waiting for their values. */
+  private final class Batch implements Runnable {
+    // only modified while holding the batcher's lock, and read after it's no longer pending
+    final Map<K, SettableFuture<V>> futures = new LinkedHashMap<K, SettableFuture<V>>();
+    // set while holding the batcher's lock, so run() can't see it unset
+    ScheduledFuture<?> timer;
+
+    void schedule() {
+      timer = scheduler.schedule(this, windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Called by the scheduler when the window elapses. */
+    @Override public void run() {
+      synchronized (Batcher.this) {
+        if (pending != this) {
+          return;  // already dispatched because it filled up or was flushed
+        }
+        pending = null;
+      }
+      dispatch();
+    }
+
+    void dispatch() {
+      timer.cancel(false);
+      ListenableFuture<Map<K, V>> values;
+      try {
+        values = loader.load(ImmutableSet.copyOf(futures.keySet()));
+      } catch (Throwable t) {
+        values = Futures.immediateFailedFuture(t);
+      }
+      if (values == null) {
+        values = Futures.immediateFailedFuture(
+            new NullPointerException("BatchLoader.load returned null"));
+      }
+      Futures.addCallback(values, new FutureCallback<Map<K, V>>() {
+        @Override public void onSuccess(Map<K, V> result) {
+          for (Map.Entry<K, SettableFuture<V>> entry : futures.entrySet()) {
+            if (result.containsKey(entry.getKey())) {
+              entry.getValue().set(result.get(entry.getKey()));
+            } else {
+              entry.getValue().setException(new IllegalStateException(
+                  "BatchLoader.load returned no value for " + entry.getKey()));
+            }
+          }
+        }
+
+        @Override public void onFailure(Throwable t) {
+          for (SettableFuture<V> future : futures.values()) {
+            future.setException(t);
+          }
+        }
+      }, directExecutor());
+    }
+  }
+}
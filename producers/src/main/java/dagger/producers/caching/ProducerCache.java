@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.caching;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.internal.Producers;
+import dagger.producers.monitoring.ProducerToken;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * Holds the values of {@link dagger.producers.Cached} producer methods across component instances.
+ * A single instance is meant to be shared by many components, for example by every request handled
+ * by a server, and is passed to each component's builder: <pre>   {@code
+ *
+ *   MyComponent component = Dagger_MyComponent.builder()
+ *       .executor(executor)
+ *       .producerCache(cache)
+ *       .build();}</pre>
+ *
+ * <p>The cache holds at most a maximum number of values, across all methods, and evicts the least
+ * recently used ones first. A value is also dropped once its time to live has passed. Requests for
+ * a value that is still being computed share its future, so concurrent components compute it only
+ * once; cancelling such a future only releases the requester, and the value is still cached.
+ *
+ * @since 2.0
+ */
+public final class ProducerCache {
+  private static final ProducerCache DISABLED = new ProducerCache(null, Ticker.systemTicker());
+
+  /** Null if this cache is disabled. */
+  private final ConcurrentMap<List<Object>, Entry> entries;
+  private final Ticker ticker;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Returns a cache that holds at most {@code maximumSize} values. A cache with a maximum size of
+   * zero caches nothing, like a component that wasn't given a cache.
+   */
+  public static ProducerCache create(long maximumSize) {
+    return create(maximumSize, Ticker.systemTicker());
+  }
+
+  /** Returns a cache that holds at most {@code maximumSize} values, and reads time from ticker. */
+  public static ProducerCache create(long maximumSize, Ticker ticker) {
+    checkArgument(maximumSize >= 0, "maximumSize must not be negative: %s", maximumSize);
+    checkNotNull(ticker);
+    return maximumSize == 0 ? DISABLED : new ProducerCache(maximumSize, ticker);
+  }
+
+  private ProducerCache(Long maximumSize, Ticker ticker) {
+    this.ticker = ticker;
+    if (maximumSize == null) {
+      this.entries = null;
+    } else {
+      Cache<List<Object>, Entry> cache = CacheBuilder.newBuilder()
+          .maximumSize(maximumSize)
+          .removalListener(new RemovalListener<List<Object>, Entry>() {
+            @Override
+            public void onRemoval(RemovalNotification<List<Object>, Entry> notification) {
+              if (notification.wasEvicted()) {
+                evictions.incrementAndGet();
+              }
+            }
+          })
+          .build();
+      this.entries = cache.asMap();
+    }
+  }
+
+  /**
+   * Returns the value of the given producer for the given inputs, calling {@code loader} to
+   * compute it if it isn't cached or has expired. Once the loader's future completes, its value is
+   * kept for {@code ttl}, or its failure for {@code failureTtl}; a failure isn't kept at all if
+   * {@code failureTtl} is zero.
+   */
+  public <T> ListenableFuture<T> get(ProducerToken token, long ttl, long failureTtl, TimeUnit unit,
+      Callable<? extends ListenableFuture<T>> loader, Object... inputs) {
+    checkNotNull(token);
+    checkArgument(ttl > 0, "ttl must be positive: %s", ttl);
+    checkArgument(failureTtl >= 0, "failureTtl must not be negative: %s", failureTtl);
+    checkNotNull(loader);
+    if (entries == null) {
+      return load(loader);
+    }
+    List<Object> key = Producers.callKey(token, inputs);
+    while (true) {
+      Entry cached = entries.get(key);
+      if (cached != null) {
+        if (!cached.isExpired()) {
+          hits.incrementAndGet();
+          return cached.<T>future();
+        }
+        if (entries.remove(key, cached)) {
+          evictions.incrementAndGet();
+        }
+        continue;
+      }
+      Entry entry = new Entry();
+      if (entries.putIfAbsent(key, entry) == null) {
+        misses.incrementAndGet();
+        entry.complete(key, load(loader), unit.toNanos(ttl), unit.toNanos(failureTtl));
+        return entry.<T>future();
+      }
+    }
+  }
+
+  private static <T> ListenableFuture<T> load(Callable<? extends ListenableFuture<T>> loader) {
+    try {
+      ListenableFuture<T> future = loader.call();
+      return future == null
+          ? Futures.<T>immediateFailedFuture(new NullPointerException("loader returned null"))
+          : future;
+    } catch (Throwable t) {
+      return Futures.immediateFailedFuture(t);
+    }
+  }
+
+  /** Drops every cached value. Values that are still being computed aren't cached once done. */
+  public void invalidateAll() {
+    if (entries != null) {
+      entries.clear();
+    }
+  }
+
+  /** Returns the number of requests that found a value, or a value being computed, in the cache. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of requests that computed their value. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Returns the number of values dropped because the cache was full or they had expired. */
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "hits=%d misses=%d evictions=%d", hitCount(), missCount(), evictionCount());
+  }
+
+  private final class Entry {
+    final SettableFuture<Object> future = SettableFuture.create();
+    /** Set, before the future completes, to the time at which the entry expires. */
+    volatile long expiresAtNanos;
+
+    boolean isExpired() {
+      return future.isDone() && ticker.read() - expiresAtNanos >= 0;
+    }
+
+    @SuppressWarnings("unchecked")  // the token in the key determines the type of the value
+    <T> ListenableFuture<T> future() {
+      return (ListenableFuture<T>) Futures.nonCancellationPropagating(future);
+    }
+
+    <T> void complete(final List<Object> key, ListenableFuture<T> loaded, final long ttlNanos,
+        final long failureTtlNanos) {
+      Futures.addCallback(loaded, new FutureCallback<T>() {
+        @Override public void onSuccess(T value) {
+          expiresAtNanos = ticker.read() + ttlNanos;
+          future.set(value);
+        }
+
+        @Override public void onFailure(Throwable t) {
+          if (failureTtlNanos == 0 || t instanceof CancellationException) {
+            entries.remove(key, Entry.this);
+          } else {
+            expiresAtNanos = ticker.read() + failureTtlNanos;
+          }
+          future.setException(t);
+        }
+      }, directExecutor());
+    }
+  }
+}
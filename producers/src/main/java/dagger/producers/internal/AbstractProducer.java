@@ -15,36 +15,155 @@
  */
 package dagger.producers.internal;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
 /**
- * An abstract {@link Producer} implementation that memoizes the result of its compute method.
+ * An abstract {@link Producer} implementation that memoizes the result of its compute method, and
+ * reports its computation to a {@link ProductionComponentMonitor}.
+ *
+ * <p>Memoization never blocks: the first requester installs a placeholder future with a
+ * compare-and-set and then computes, while concurrent requesters return the placeholder, which
+ * completes with the computed future. A request from the computing thread itself can only come
+ * from a dependency cycle, and fails instead of recursing.
+ *
+ * <p>Until the computed future completes, each call to {@link #get} returns a separate future for
+ * that consumer. Cancelling it only releases that consumer; the computed future is cancelled once
+ * every consumer has cancelled, so a node that is still needed elsewhere in the graph keeps
+ * running. A consumer that arrives after that gets a cancelled future.
  *
  * @author Jesse Beder
  * @since 2.0
  */
 public abstract class AbstractProducer<T> implements Producer<T> {
+  @SuppressWarnings("rawtypes")  // class literals can't be parameterized
+  private static final AtomicReferenceFieldUpdater<AbstractProducer, ListenableFuture> INSTANCE =
+      AtomicReferenceFieldUpdater.newUpdater(
+          AbstractProducer.class, ListenableFuture.class, "instance");
+
+  private final ProductionComponentMonitor componentMonitor;
+  private final ProducerToken token;
   private volatile ListenableFuture<T> instance = null;
+  /** The thread running {@link #compute}, or null if it isn't running. */
+  private volatile Thread computingThread = null;
+  /** The consumers that hold a future from {@link #get} and haven't cancelled it. */
+  private final ConsumerFuture.Consumers consumers = new ConsumerFuture.Consumers() {
+    @Override void abandoned(boolean mayInterruptIfRunning) {
+      // the placeholder and the computed future cancel each other
+      instance.cancel(mayInterruptIfRunning);
+    }
+  };
+
+  /** Creates a producer that is not monitored. */
+  protected AbstractProducer() {
+    this(Producers.noOpProductionComponentMonitor(), null);
+  }
 
-  /** Computes this producer's future, which is then cached in {@link #get}. */
-  protected abstract ListenableFuture<T> compute();
+  /**
+   * Creates a producer that reports to the monitor returned by {@code componentMonitor} for
+   * {@code token}.
+   */
+  protected AbstractProducer(ProductionComponentMonitor componentMonitor, ProducerToken token) {
+    this.componentMonitor = checkNotNull(componentMonitor);
+    this.token = token;
+  }
+
+  /**
+   * Computes this producer's future, which is then cached in {@link #get}. Implementations call
+   * the monitor's {@link ProducerMonitor#methodStarting} and {@link ProducerMonitor#methodFinished}
+   * around their own logic; {@link #get} reports the request and the outcome.
+   */
+  protected abstract ListenableFuture<T> compute(ProducerMonitor monitor);
 
   @Override
   public final ListenableFuture<T> get() {
-    // double-check idiom from EJ2: Item 71
     ListenableFuture<T> result = instance;
-    if (result == null) {
-      synchronized (this) {
-        result = instance;
-        if (result == null) {
-          instance = result = compute();
-          if (result == null) {
-            throw new NullPointerException("compute returned null");
-          }
-        }
+    if (result != null) {
+      return computingThread == Thread.currentThread() ? this.<T>cycle() : consume(result);
+    }
+    SettableFuture<T> placeholder = SettableFuture.create();
+    if (!INSTANCE.compareAndSet(this, null, placeholder)) {
+      // another thread won the race; it is either computing or done
+      result = instance;
+      return computingThread == Thread.currentThread() ? this.<T>cycle() : consume(result);
+    }
+    // count this requester before computing, so that concurrent consumers that cancel while it
+    // computes can't cancel the node out from under it
+    consumers.join();
+    computingThread = Thread.currentThread();
+    try {
+      ProducerMonitor monitor = componentMonitor.producerMonitorFor(token);
+      monitor.requested();
+      result = compute(monitor);
+      if (result == null) {
+        throw new NullPointerException("compute returned null");
       }
+      monitor.addCallbackTo(result);
+    } catch (RuntimeException e) {
+      placeholder.setException(e);
+      throw e;
+    } catch (Error e) {
+      placeholder.setException(e);
+      throw e;
+    } finally {
+      computingThread = null;
+    }
+    // later requesters get the computed future itself; earlier ones wait on the placeholder
+    instance = result;
+    forward(result, placeholder);
+    if (result.isDone()) {
+      return result;
     }
-    return result;
+    return new ConsumerFuture<T>(result, consumers);
+  }
+
+  /** Returns a future for a new consumer of {@code shared}. */
+  private ListenableFuture<T> consume(ListenableFuture<T> shared) {
+    if (shared.isDone()) {
+      return shared;
+    }
+    if (!consumers.join()) {
+      return Futures.immediateCancelledFuture();
+    }
+    return new ConsumerFuture<T>(shared, consumers);
+  }
+
+  private <U> ListenableFuture<U> cycle() {
+    return Futures.immediateFailedFuture(new IllegalStateException(
+        "Dependency cycle detected: " + (token == null ? this : token) + " requested itself"));
+  }
+
+  /** Completes {@code to} like {@code from}, and cancels {@code from} when {@code to} is. */
+  private static <T> void forward(final ListenableFuture<T> from, final SettableFuture<T> to) {
+    Futures.addCallback(from, new FutureCallback<T>() {
+      @Override public void onSuccess(T value) {
+        to.set(value);
+      }
+
+      @Override public void onFailure(Throwable t) {
+        if (from.isCancelled()) {
+          to.cancel(false);
+        } else {
+          to.setException(t);
+        }
+      }
+    }, directExecutor());
+    to.addListener(new Runnable() {
+      @Override public void run() {
+        if (to.isCancelled()) {
+          from.cancel(false);
+        }
+      }
+    }, directExecutor());
   }
 }
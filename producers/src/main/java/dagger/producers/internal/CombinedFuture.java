@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * A future that, once all of its inputs have succeeded, runs a combiner on an executor and
+ * completes with the future that the combiner returns. The combiner reads the inputs' values
+ * directly with {@link Producers#getDone}, so no intermediate list of values is built. The future
+ * fails as soon as any input fails, and is cancelled if any input is cancelled.
+ *
+ * <p>Cancelling this future cancels its inputs and the combiner's future, like
+ * {@link com.google.common.util.concurrent.Futures#allAsList}, and removes the combiner's task from
+ * the executor's queue if it hasn't started. The remaining inputs are also cancelled when an input
+ * fails, since they are no longer needed; inputs from {@link AbstractProducer} are shared only when
+ * every consumer cancels them.
+ */
+final class CombinedFuture<T> extends AbstractFuture<T> implements Runnable {
+  private final Callable<? extends ListenableFuture<T>> combiner;
+  private final Executor executor;
+  private final ListenableFuture<?>[] inputs;
+  private final AtomicInteger remaining;
+  private volatile Runnable task;
+  private volatile ListenableFuture<T> output;
+
+  static <T> ListenableFuture<T> create(Callable<? extends ListenableFuture<T>> combiner,
+      Executor executor, ListenableFuture<?>[] inputs) {
+    CombinedFuture<T> future = new CombinedFuture<T>(combiner, executor, inputs);
+    for (ListenableFuture<?> input : inputs) {
+      input.addListener(future, directExecutor());
+    }
+    return future;
+  }
+
+  private CombinedFuture(Callable<? extends ListenableFuture<T>> combiner, Executor executor,
+      ListenableFuture<?>[] inputs) {
+    this.combiner = combiner;
+    this.executor = executor;
+    this.inputs = inputs;
+    this.remaining = new AtomicInteger(inputs.length);
+  }
+
+  /** Called each time an input completes. */
+  @Override public void run() {
+    if (isDone()) {
+      return;
+    }
+    // fail fast: inputs are few, so rescanning the completed ones is cheaper than tracking them
+    for (ListenableFuture<?> input : inputs) {
+      if (input.isDone() && !succeeded(input)) {
+        return;
+      }
+    }
+    if (remaining.decrementAndGet() == 0) {
+      task = new Runnable() {
+        @Override public void run() {
+          combine();
+        }
+      };
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        setException(e);
+      }
+    }
+  }
+
+  private boolean succeeded(ListenableFuture<?> input) {
+    try {
+      Uninterruptibles.getUninterruptibly(input);
+      return true;
+    } catch (ExecutionException e) {
+      if (setException(e.getCause())) {
+        cancelInputs(false);
+      }
+    } catch (CancellationException e) {
+      cancel(false);
+    }
+    return false;
+  }
+
+  private void combine() {
+    if (isDone()) {
+      return;
+    }
+    final ListenableFuture<T> result;
+    try {
+      result = combiner.call();
+    } catch (Throwable t) {
+      setException(t);
+      return;
+    }
+    if (result == null) {
+      setException(new NullPointerException("combiner returned null"));
+      return;
+    }
+    output = result;
+    if (result.isDone()) {
+      complete(result);
+    } else {
+      result.addListener(new Runnable() {
+        @Override public void run() {
+          complete(result);
+        }
+      }, directExecutor());
+    }
+    if (isCancelled()) {
+      result.cancel(wasInterrupted());
+    }
+  }
+
+  private void complete(ListenableFuture<T> result) {
+    try {
+      set(Uninterruptibles.getUninterruptibly(result));
+    } catch (ExecutionException e) {
+      setException(e.getCause());
+    } catch (CancellationException e) {
+      cancel(false);
+    }
+  }
+
+  @Override public boolean cancel(boolean mayInterruptIfRunning) {
+    if (!super.cancel(mayInterruptIfRunning)) {
+      return false;
+    }
+    cancelInputs(mayInterruptIfRunning);
+    Runnable queued = task;
+    if (queued != null) {
+      Producers.removeIfQueued(executor, queued);
+    }
+    ListenableFuture<T> result = output;
+    if (result != null) {
+      result.cancel(mayInterruptIfRunning);
+    }
+    return true;
+  }
+
+  private void cancelInputs(boolean mayInterruptIfRunning) {
+    for (ListenableFuture<?> input : inputs) {
+      input.cancel(mayInterruptIfRunning);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * The future of one consumer of a future that is shared by several, such as a node of a production
+ * graph or a {@link dagger.producers.SingleFlight} call. It completes like the shared future.
+ * Cancelling it only releases that consumer from the {@link Consumers} it joined; the shared work
+ * is abandoned once every consumer has released it.
+ */
+final class ConsumerFuture<T> extends MirroringFuture<T> implements Runnable {
+  private final ListenableFuture<T> shared;
+  private final Consumers consumers;
+
+  /** Creates the future of a consumer that has already {@linkplain Consumers#join joined}. */
+  ConsumerFuture(ListenableFuture<T> shared, Consumers consumers) {
+    this.shared = shared;
+    this.consumers = consumers;
+    shared.addListener(this, directExecutor());
+  }
+
+  /** Called when the shared future completes. */
+  @Override public void run() {
+    completeLike(shared);
+  }
+
+  @Override protected void cancelled(boolean mayInterruptIfRunning) {
+    consumers.release(mayInterruptIfRunning);
+  }
+
+  /** Counts the consumers of shared work that haven't cancelled. */
+  abstract static class Consumers {
+    /** The number of consumers; -1 once the work has been abandoned. */
+    private final AtomicInteger count = new AtomicInteger();
+
+    /** Adds a consumer; returns false if every consumer has already released the work. */
+    final boolean join() {
+      int consumers;
+      do {
+        consumers = count.get();
+        if (consumers < 0) {
+          return false;
+        }
+      } while (!count.compareAndSet(consumers, consumers + 1));
+      return true;
+    }
+
+    /** Releases a consumer, abandoning the work if no other consumer has joined meanwhile. */
+    final void release(boolean mayInterruptIfRunning) {
+      if (count.decrementAndGet() == 0 && count.compareAndSet(0, -1)) {
+        abandoned(mayInterruptIfRunning);
+      }
+    }
+
+    /** Called once, when the last consumer releases the work. */
+    abstract void abandoned(boolean mayInterruptIfRunning);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import dagger.producers.monitoring.ProducerMonitor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * A future that calls an attempt, and calls it a second time on an executor if the first attempt
+ * hasn't completed when a timer fires. It succeeds with whichever attempt succeeds first, and
+ * cancels the other. It fails if the first attempt fails before the timer fires, or once both
+ * attempts have failed. Cancelling this future cancels both attempts and the timer.
+ *
+ * <p>The timer runs on the {@link SharedTimer} thread, but only hands the second attempt to the
+ * executor, so an attempt that does blocking work before returning its future never delays other
+ * timers.
+ */
+final class HedgedFuture<T> extends MirroringFuture<T> implements Runnable {
+  private final Callable<? extends ListenableFuture<T>> attempt;
+  private final Executor executor;
+  private final ProducerMonitor monitor;
+  /** The attempts that have been started and haven't failed; zero once this future has failed. */
+  private final AtomicInteger running = new AtomicInteger(1);
+  private final AtomicBoolean settled = new AtomicBoolean();
+  private final Runnable hedgeTask = new Runnable() {
+    @Override public void run() {
+      hedge();
+    }
+  };
+  private volatile ScheduledFuture<?> timer;
+  private volatile ListenableFuture<T> firstAttempt;
+  private volatile ListenableFuture<T> secondAttempt;
+
+  static <T> ListenableFuture<T> create(Callable<? extends ListenableFuture<T>> attempt,
+      long delayNanos, Executor executor, ProducerMonitor monitor) {
+    HedgedFuture<T> future = new HedgedFuture<T>(attempt, executor, monitor);
+    ListenableFuture<T> first = future.start(false);
+    future.firstAttempt = first;
+    if (future.isDone()) {
+      first.cancel(true);
+    } else {
+      future.timer = SharedTimer.schedule(future, delayNanos);
+    }
+    return future;
+  }
+
+  private HedgedFuture(Callable<? extends ListenableFuture<T>> attempt, Executor executor,
+      ProducerMonitor monitor) {
+    this.attempt = attempt;
+    this.executor = executor;
+    this.monitor = monitor;
+  }
+
+  /** Called when the timer fires. */
+  @Override public void run() {
+    if (isDone()) {
+      return;
+    }
+    try {
+      executor.execute(hedgeTask);
+    } catch (RejectedExecutionException e) {
+      // the first attempt carries on alone
+    }
+  }
+
+  private void hedge() {
+    int attempts;
+    do {
+      attempts = running.get();
+      if (attempts == 0) {
+        return;
+      }
+    } while (!running.compareAndSet(attempts, attempts + 1));
+    if (isDone()) {
+      return;
+    }
+    monitor.hedging();
+    ListenableFuture<T> second = start(true);
+    secondAttempt = second;
+    if (isDone()) {
+      second.cancel(true);
+    }
+  }
+
+  private ListenableFuture<T> start(final boolean isHedge) {
+    ListenableFuture<T> result;
+    try {
+      result = attempt.call();
+      if (result == null) {
+        result = Futures.immediateFailedFuture(
+            new NullPointerException("hedged attempt returned null"));
+      }
+    } catch (Throwable t) {
+      result = Futures.immediateFailedFuture(t);
+    }
+    final ListenableFuture<T> started = result;
+    started.addListener(new Runnable() {
+      @Override public void run() {
+        complete(started, isHedge);
+      }
+    }, directExecutor());
+    return started;
+  }
+
+  private void complete(ListenableFuture<T> completed, boolean isHedge) {
+    try {
+      T value = Uninterruptibles.getUninterruptibly(completed);
+      if (!isDone() && settled.compareAndSet(false, true)) {
+        cancelTimer();
+        if (isHedge) {
+          monitor.hedgeSucceeded();
+        }
+        // the loser is cancelled before this future succeeds, so no consumer sees it still running
+        cancelAttempts(true);
+        set(value);
+      }
+    } catch (ExecutionException e) {
+      if (running.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+        cancelTimer();
+        setException(e.getCause());
+      }
+    } catch (CancellationException e) {
+      // the loser, cancelled by this future, or an attempt cancelled by the method itself
+      if (running.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+        cancelTimer();
+        cancel(false);
+      }
+    }
+  }
+
+  @Override protected void cancelled(boolean mayInterruptIfRunning) {
+    cancelTimer();
+    Producers.removeIfQueued(executor, hedgeTask);
+    cancelAttempts(mayInterruptIfRunning);
+  }
+
+  private void cancelAttempts(boolean mayInterruptIfRunning) {
+    ListenableFuture<T> first = firstAttempt;
+    if (first != null) {
+      first.cancel(mayInterruptIfRunning);
+    }
+    ListenableFuture<T> second = secondAttempt;
+    if (second != null) {
+      second.cancel(mayInterruptIfRunning);
+    }
+  }
+
+  private void cancelTimer() {
+    // the timer is null only if the first attempt completed before it was scheduled; it then finds
+    // this future done and does nothing
+    ScheduledFuture<?> scheduled = timer;
+    if (scheduled != null) {
+      scheduled.cancel(false);
+    }
+  }
+}
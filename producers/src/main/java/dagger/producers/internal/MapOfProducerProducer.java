@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import java.util.Map;
+
+/**
+ * A {@link Producer} implementation used to implement {@link Map} bindings. This producer returns
+ * a future {@code Map<K, Producer<V>>}, which is always done: the values are produced only when
+ * the producers in the map are requested, as {@link MapProducer} does.
+ *
+ * @since 2.0
+ */
+public final class MapOfProducerProducer<K, V> implements Producer<Map<K, Producer<V>>> {
+  private final ListenableFuture<Map<K, Producer<V>>> contributingMap;
+
+  /** Returns a new {@link Builder}. */
+  public static <K, V> Builder<K, V> builder() {
+    return new Builder<K, V>();
+  }
+
+  private MapOfProducerProducer(ImmutableMap<K, Producer<V>> contributingMap) {
+    this.contributingMap = Futures.<Map<K, Producer<V>>>immediateFuture(contributingMap);
+  }
+
+  @Override public ListenableFuture<Map<K, Producer<V>>> get() {
+    return contributingMap;
+  }
+
+  /** A builder to help build the {@link MapOfProducerProducer}. */
+  public static final class Builder<K, V> {
+    private final ImmutableMap.Builder<K, Producer<V>> mapBuilder = ImmutableMap.builder();
+
+    private Builder() {}
+
+    /** Returns a new {@link MapOfProducerProducer}. */
+    public MapOfProducerProducer<K, V> build() {
+      return new MapOfProducerProducer<K, V>(mapBuilder.build());
+    }
+
+    /**
+     * Associates {@code key} with {@code producerOfValue}.
+     *
+     * @throws IllegalArgumentException from {@link #build} if {@code key} was already put
+     */
+    public Builder<K, V> put(K key, Producer<V> producerOfValue) {
+      if (key == null) {
+        throw new NullPointerException("The key is null");
+      }
+      if (producerOfValue == null) {
+        throw new NullPointerException("The producer of the value is null");
+      }
+      mapBuilder.put(key, producerOfValue);
+      return this;
+    }
+  }
+}
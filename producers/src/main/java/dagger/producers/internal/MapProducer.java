@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * A {@link Producer} implementation used to implement {@link Map} bindings. It produces a
+ * {@code Map<K, V>} from a {@code Map<K, Producer<V>>} by requesting every value at once, so they
+ * run concurrently, and fails as soon as any value fails.
+ *
+ * @since 2.0
+ */
+public final class MapProducer<K, V> extends AbstractProducer<Map<K, V>> {
+  /**
+   * Returns a producer of the values of the producers in the map produced by
+   * {@code mapProducerProducer}.
+   */
+  public static <K, V> Producer<Map<K, V>> create(
+      Producer<Map<K, Producer<V>>> mapProducerProducer) {
+    return new MapProducer<K, V>(checkNotNull(mapProducerProducer));
+  }
+
+  private final Producer<Map<K, Producer<V>>> mapProducerProducer;
+
+  private MapProducer(Producer<Map<K, Producer<V>>> mapProducerProducer) {
+    this.mapProducerProducer = mapProducerProducer;
+  }
+
+  @Override protected ListenableFuture<Map<K, V>> compute(ProducerMonitor unusedMonitor) {
+    final ListenableFuture<Map<K, Producer<V>>> mapFuture = mapProducerProducer.get();
+    if (mapFuture.isDone()) {
+      // the usual case: the map of producers is known when the component is built
+      return produceValues(Producers.getDone(mapFuture));
+    }
+    return Producers.combineAsync(new Callable<ListenableFuture<Map<K, V>>>() {
+      @Override public ListenableFuture<Map<K, V>> call() {
+        return produceValues(Producers.getDone(mapFuture));
+      }
+    }, directExecutor(), mapFuture);
+  }
+
+  private static <K, V> ListenableFuture<Map<K, V>> produceValues(
+      Map<K, Producer<V>> producers) {
+    if (producers.isEmpty()) {
+      return Futures.<Map<K, V>>immediateFuture(ImmutableMap.<K, V>of());
+    }
+    final List<K> keys = ImmutableList.copyOf(producers.keySet());
+    ImmutableList.Builder<ListenableFuture<V>> builder = ImmutableList.builder();
+    for (Producer<V> producer : producers.values()) {
+      builder.add(checkNotNull(producer.get(), "%s returned null", producer));
+    }
+    final List<ListenableFuture<V>> values = builder.build();
+    return Producers.combineAsync(new Callable<ListenableFuture<Map<K, V>>>() {
+      @Override public ListenableFuture<Map<K, V>> call() {
+        ImmutableMap.Builder<K, V> map = ImmutableMap.builder();
+        for (int i = 0; i < keys.size(); i++) {
+          map.put(keys.get(i), Producers.getDone(values.get(i)));
+        }
+        return Futures.<Map<K, V>>immediateFuture(map.build());
+      }
+    }, directExecutor(), values.toArray(new ListenableFuture<?>[values.size()]));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A future that completes like another future it depends on, and that passes its own cancellation
+ * on to the work it stands for. Subclasses call {@link #completeLike} once that future is done,
+ * and implement {@link #cancelled} to cancel, release or dequeue the work.
+ *
+ * @since 2.0
+ */
+public abstract class MirroringFuture<T> extends AbstractFuture<T> {
+  /**
+   * Completes this future with the value or failure of {@code source}, which must be done. If
+   * {@code source} was cancelled, this future is cancelled without calling {@link #cancelled}.
+   */
+  protected final void completeLike(Future<? extends T> source) {
+    try {
+      set(Uninterruptibles.getUninterruptibly(source));
+    } catch (ExecutionException e) {
+      setException(e.getCause());
+    } catch (CancellationException e) {
+      super.cancel(false);
+    }
+  }
+
+  @Override public final boolean cancel(boolean mayInterruptIfRunning) {
+    if (!super.cancel(mayInterruptIfRunning)) {
+      return false;
+    }
+    cancelled(mayInterruptIfRunning);
+    return true;
+  }
+
+  /**
+   * Called once when this future is cancelled by a call to {@link #cancel}, but not when it is
+   * cancelled by {@link #completeLike}.
+   */
+  protected abstract void cancelled(boolean mayInterruptIfRunning);
+}
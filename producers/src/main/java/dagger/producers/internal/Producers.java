@@ -16,21 +16,37 @@
 package dagger.producers.internal;
 
 import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.util.concurrent.FutureFallback;
+import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.Uninterruptibles;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import dagger.producers.scheduling.PriorityExecutor;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Provider;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
 /**
  * Utility methods for use in generated producer code.
@@ -48,38 +64,109 @@ public final class Producers {
    * <p>Cancelling the resulting future will propagate the cancellation to the input future; but
    * cancelling the input future will trigger the resulting future to succeed with a failing
    * {@code Produced}.
+   *
+   * <p>If the input future is already done, the result is an immediate future.
    */
   // TODO(user): Document what happens with an InterruptedException after you figure out how to
   // trigger one in a test.
   public static <T> ListenableFuture<Produced<T>> createFutureProduced(ListenableFuture<T> future) {
-    return Futures.withFallback(
-        Futures.transform(future, new Function<T, Produced<T>>() {
-          @Override public Produced<T> apply(final T value) {
-            return new Produced<T>() {
-              @Override public T get() {
-                return value;
-              }
-            };
-          }
-        }), Producers.<T>futureFallbackForProduced());
-
-  }
-
-  private static final FutureFallback<Produced<Object>> FUTURE_FALLBACK_FOR_PRODUCED =
-      new FutureFallback<Produced<Object>>() {
-    @Override public ListenableFuture<Produced<Object>> create(final Throwable t) {
-      Produced<Object> produced = new Produced<Object>() {
-        @Override public Object get() throws ExecutionException {
-          throw new ExecutionException(t);
-        }
-      };
-      return Futures.immediateFuture(produced);
+    if (future.isDone()) {
+      return Futures.immediateFuture(producedFromDone(future));
+    }
+    ProducedFuture<T> producedFuture = new ProducedFuture<T>(future);
+    future.addListener(producedFuture, directExecutor());
+    return producedFuture;
+  }
+
+  /** A future of the {@link Produced} of its input, completed by a listener on that input. */
+  private static final class ProducedFuture<T> extends AbstractFuture<Produced<T>>
+      implements Runnable {
+    private final ListenableFuture<T> input;
+
+    ProducedFuture(ListenableFuture<T> input) {
+      this.input = input;
+    }
+
+    @Override public void run() {
+      set(producedFromDone(input));
+    }
+
+    @Override public boolean cancel(boolean mayInterruptIfRunning) {
+      if (super.cancel(mayInterruptIfRunning)) {
+        input.cancel(mayInterruptIfRunning);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static <T> Produced<T> producedFromDone(Future<T> future) {
+    try {
+      return successfulProduced(Uninterruptibles.getUninterruptibly(future));
+    } catch (ExecutionException e) {
+      return failedProduced(e.getCause());
+    } catch (CancellationException e) {
+      return failedProduced(e);
+    }
+  }
+
+  /** Returns a {@link Produced} whose {@code get} returns {@code value}. */
+  public static <T> Produced<T> successfulProduced(T value) {
+    return new SuccessfulProduced<T>(value);
+  }
+
+  /** Returns a {@link Produced} whose {@code get} throws an exception caused by {@code cause}. */
+  public static <T> Produced<T> failedProduced(Throwable cause) {
+    return new FailedProduced<T>(checkNotNull(cause));
+  }
+
+  private static final class SuccessfulProduced<T> implements Produced<T> {
+    private final T value;
+
+    SuccessfulProduced(T value) {
+      this.value = value;
+    }
+
+    @Override public T get() {
+      return value;
+    }
+
+    @Override public boolean equals(Object o) {
+      return o instanceof SuccessfulProduced
+          && Objects.equal(value, ((SuccessfulProduced<?>) o).value);
+    }
+
+    @Override public int hashCode() {
+      return value == null ? 0 : value.hashCode();
+    }
+
+    @Override public String toString() {
+      return "Produced[" + value + "]";
+    }
+  }
+
+  private static final class FailedProduced<T> implements Produced<T> {
+    private final Throwable cause;
+
+    FailedProduced(Throwable cause) {
+      this.cause = cause;
     }
-  };
 
-  @SuppressWarnings({"unchecked", "rawtypes"})  // bivariant implementation
-  private static <T> FutureFallback<Produced<T>> futureFallbackForProduced() {
-    return (FutureFallback) FUTURE_FALLBACK_FOR_PRODUCED;
+    @Override public T get() throws ExecutionException {
+      throw new ExecutionException(cause);
+    }
+
+    @Override public boolean equals(Object o) {
+      return o instanceof FailedProduced && cause.equals(((FailedProduced<?>) o).cause);
+    }
+
+    @Override public int hashCode() {
+      return cause.hashCode();
+    }
+
+    @Override public String toString() {
+      return "Produced[failed with " + cause + "]";
+    }
   }
 
   /**
@@ -87,6 +174,14 @@ public final class Producers {
    * future.
    */
   public static <T> ListenableFuture<Set<T>> createFutureSingletonSet(ListenableFuture<T> future) {
+    if (future.isDone() && !future.isCancelled()) {
+      try {
+        return Futures.<Set<T>>immediateFuture(
+            ImmutableSet.of(Uninterruptibles.getUninterruptibly(future)));
+      } catch (ExecutionException e) {
+        // fall through, so the transform reports the failure
+      }
+    }
     return Futures.transform(future, new Function<T, Set<T>>() {
       @Override public Set<T> apply(T value) {
         return ImmutableSet.of(value);
@@ -97,28 +192,221 @@ public final class Producers {
   /**
    * Submits a callable to an executor, returning the future representing the task. This mirrors
    * {@link com.google.common.util.concurrent.ListeningExecutorService#submit}, but only requires an
-   * {@link Executor}.
+   * {@link Executor}. Cancelling the future before the task starts removes it from the
+   * executor's queue, if the executor is a {@link ThreadPoolExecutor}.
    *
    * @throws RejectedExecutionException if this task cannot be accepted for execution.
    */
-  public static <T> ListenableFuture<T> submitToExecutor(Callable<T> callable, Executor executor) {
-    ListenableFutureTask<T> future = ListenableFutureTask.create(callable);
+  public static <T> ListenableFuture<T> submitToExecutor(
+      Callable<T> callable, final Executor executor) {
+    final ListenableFutureTask<T> future = ListenableFutureTask.create(callable);
     executor.execute(future);
+    future.addListener(new Runnable() {
+      @Override public void run() {
+        if (future.isCancelled()) {
+          removeIfQueued(executor, future);
+        }
+      }
+    }, directExecutor());
     return future;
   }
 
+  /**
+   * Removes a task that hasn't started from the executor's queue, so that it doesn't occupy a
+   * thread only to find that it was cancelled. Only a {@link ThreadPoolExecutor} exposes its queue;
+   * other executors still run the task.
+   */
+  static void removeIfQueued(Executor executor, Runnable task) {
+    if (executor instanceof PrioritizedExecutor) {
+      executor = ((PrioritizedExecutor) executor).delegate;
+    }
+    if (executor instanceof ThreadPoolExecutor) {
+      ((ThreadPoolExecutor) executor).remove(task);
+    }
+  }
+
+  /**
+   * Returns an executor that submits tasks to {@code executor} with the given priority, if it is a
+   * {@link PriorityExecutor}; otherwise returns {@code executor} itself. Components pass each
+   * producer the length of the longest chain of producers that depends on it.
+   */
+  public static Executor prioritized(Executor executor, int priority) {
+    return executor instanceof PriorityExecutor
+        ? new PrioritizedExecutor((PriorityExecutor) executor, priority)
+        : executor;
+  }
+
+  private static final class PrioritizedExecutor implements Executor {
+    final PriorityExecutor delegate;
+    final int priority;
+
+    PrioritizedExecutor(PriorityExecutor delegate, int priority) {
+      this.delegate = delegate;
+      this.priority = priority;
+    }
+
+    @Override public void execute(Runnable task) {
+      delegate.execute(task, priority);
+    }
+  }
+
+  /**
+   * Returns a future that, once all of {@code inputs} have succeeded, calls {@code combiner} on
+   * {@code executor} and completes with the future it returns. The combiner reads the inputs with
+   * {@link #getDone}. The returned future fails as soon as any input fails.
+   *
+   * <p>This is {@link Futures#allAsList} followed by {@link Futures#transform}, without the list
+   * of values and the casts needed to read it.
+   */
+  public static <T> ListenableFuture<T> combineAsync(
+      Callable<? extends ListenableFuture<T>> combiner,
+      Executor executor,
+      ListenableFuture<?>... inputs) {
+    checkArgument(inputs.length > 0, "no inputs to combine");
+    return CombinedFuture.create(checkNotNull(combiner), checkNotNull(executor), inputs);
+  }
+
+  /**
+   * Returns the value of a future that has succeeded, such as an input of a
+   * {@linkplain #combineAsync combiner}.
+   *
+   * @throws IllegalStateException if the future isn't done or didn't succeed
+   */
+  public static <T> T getDone(Future<T> future) {
+    checkState(future.isDone(), "future isn't done: %s", future);
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("future failed", e.getCause());
+    } catch (CancellationException e) {
+      throw new IllegalStateException("future was cancelled", e);
+    }
+  }
+
+  /** The timeout of a production component that has no deadline. */
+  public static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+  /**
+   * Returns a future that completes like {@code future}, or fails with a
+   * {@link java.util.concurrent.TimeoutException} if {@code future} isn't done within the given
+   * time, in which case {@code future} is cancelled. Cancelling the returned future cancels
+   * {@code future}. A future that is already done is returned as is.
+   *
+   * <p>The returned future fails on {@code executor}, so that listeners that run directly, such as
+   * the producers that consume it, don't run on the timer thread that all timeouts share.
+   */
+  public static <T> ListenableFuture<T> withTimeout(
+      ListenableFuture<T> future, long timeout, TimeUnit unit, Executor executor) {
+    checkNotNull(future);
+    checkArgument(timeout > 0, "timeout must be positive: %s", timeout);
+    checkNotNull(executor);
+    if (future.isDone()) {
+      return future;
+    }
+    return TimeoutFuture.create(future, unit.toNanos(timeout), executor);
+  }
+
+  /**
+   * Returns a producer whose futures fail with a {@link java.util.concurrent.TimeoutException} if
+   * {@code producer}'s value isn't ready by {@code timeoutNanos} after {@code startNanos}, as
+   * measured by {@link System#nanoTime}. Returns {@code producer} itself if the timeout is
+   * {@link #NO_TIMEOUT}. Components use this to enforce their deadline at each entry point;
+   * cancellation then stops the work upstream. As with {@link #withTimeout}, the futures fail on
+   * {@code executor}.
+   */
+  public static <T> Producer<T> withDeadline(final Producer<T> producer, final long startNanos,
+      final long timeoutNanos, final Executor executor) {
+    checkNotNull(producer);
+    checkNotNull(executor);
+    if (timeoutNanos == NO_TIMEOUT) {
+      return producer;
+    }
+    return new Producer<T>() {
+      @Override public ListenableFuture<T> get() {
+        long remainingNanos = timeoutNanos - (System.nanoTime() - startNanos);
+        if (remainingNanos <= 0) {
+          return Futures.immediateFailedFuture(
+              new TimeoutException("the component's deadline has passed"));
+        }
+        return withTimeout(producer.get(), remainingNanos, TimeUnit.NANOSECONDS, executor);
+      }
+    };
+  }
+
+  /**
+   * Returns a future that completes like the future returned by {@code attempt}, unless that
+   * future isn't done within the given delay, in which case {@code attempt} is called a second
+   * time on {@code executor} and the first of the two futures to succeed wins; the other is
+   * cancelled. The returned future fails only if the first attempt fails before the delay, or if
+   * both attempts fail. {@code monitor} is told when the second attempt is made and when it wins.
+   *
+   * <p>{@code attempt} is called the first time on the calling thread.
+   */
+  public static <T> ListenableFuture<T> hedge(Callable<? extends ListenableFuture<T>> attempt,
+      long delay, TimeUnit unit, Executor executor, ProducerMonitor monitor) {
+    checkNotNull(attempt);
+    checkArgument(delay > 0, "delay must be positive: %s", delay);
+    return HedgedFuture.create(
+        attempt, unit.toNanos(delay), checkNotNull(executor), checkNotNull(monitor));
+  }
+
+  /**
+   * Returns a future for a call of the given producer with the given inputs: the future of a call
+   * with equal inputs that is already in flight anywhere in the process, or else of a new call of
+   * {@code call}, which is shared until it completes. See {@link dagger.producers.SingleFlight}.
+   */
+  public static <T> ListenableFuture<T> singleFlight(ProducerToken token,
+      Callable<? extends ListenableFuture<T>> call, Object... inputs) {
+    return SingleFlightCalls.call(checkNotNull(token), checkNotNull(call), inputs);
+  }
+
+  /**
+   * Returns the key of a call of the given producer with the given inputs, which is equal to the
+   * key of any other call of that producer with equal inputs. {@link dagger.producers.SingleFlight}
+   * calls and {@link dagger.producers.caching.ProducerCache} entries are keyed this way.
+   */
+  public static List<Object> callKey(ProducerToken token, Object... inputs) {
+    Object[] keyElements = new Object[inputs.length + 1];
+    keyElements[0] = checkNotNull(token);
+    System.arraycopy(inputs, 0, keyElements, 1, inputs.length);
+    return Arrays.asList(keyElements);
+  }
+
   /**
    * Returns a producer that immediately executes the binding logic for the given provider every
-   * time it is called.
+   * time it is called. A provider that throws fails the producer's future, as a producer would.
    */
   public static <T> Producer<T> producerFromProvider(final Provider<T> provider) {
     checkNotNull(provider);
     return new AbstractProducer<T>() {
-      @Override protected ListenableFuture<T> compute() {
-        return Futures.immediateFuture(provider.get());
+      @Override protected ListenableFuture<T> compute(ProducerMonitor unusedMonitor) {
+        try {
+          return Futures.immediateFuture(provider.get());
+        } catch (RuntimeException e) {
+          return Futures.immediateFailedFuture(e);
+        }
       }
     };
   }
 
+  private static final ProducerMonitor NO_OP_PRODUCER_MONITOR = new ProducerMonitor() {
+    @Override public <T> void addCallbackTo(ListenableFuture<T> future) {}
+  };
+
+  private static final ProductionComponentMonitor NO_OP_PRODUCTION_COMPONENT_MONITOR =
+      new ProductionComponentMonitor() {
+    @Override public ProducerMonitor producerMonitorFor(ProducerToken token) {
+      return NO_OP_PRODUCER_MONITOR;
+    }
+  };
+
+  /**
+   * Returns a monitor that ignores every event. This is the monitor of a production component
+   * whose builder was not given one.
+   */
+  public static ProductionComponentMonitor noOpProductionComponentMonitor() {
+    return NO_OP_PRODUCTION_COMPONENT_MONITOR;
+  }
+
   private Producers() {}
 }
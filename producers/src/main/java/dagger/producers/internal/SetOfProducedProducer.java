@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Produced;
+import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * A {@link Producer} implementation used to implement {@code Set<Produced<T>>} bindings. Like
+ * {@link SetProducer}, it runs every contribution to a {@code Set<T>} binding concurrently, but a
+ * contribution that fails adds a failed {@link Produced} to the set instead of failing it, so the
+ * produced set always succeeds once every contribution has completed.
+ *
+ * @since 2.0
+ */
+public final class SetOfProducedProducer<T> extends AbstractProducer<Set<Produced<T>>> {
+  /**
+   * Returns a new producer that creates a set of the elements of the given {@link Producer}
+   * instances, each wrapped in a {@link Produced}, with one failed {@link Produced} for each
+   * contribution that fails.
+   */
+  public static <T> Producer<Set<Produced<T>>> create(Producer<Set<T>> first,
+      @SuppressWarnings("unchecked") Producer<Set<T>>... rest) {
+    return new SetOfProducedProducer<T>(
+        ImmutableList.<Producer<Set<T>>>builder().add(first).add(rest).build());
+  }
+
+  private final ImmutableList<Producer<Set<T>>> contributingProducers;
+
+  private SetOfProducedProducer(ImmutableList<Producer<Set<T>>> contributingProducers) {
+    this.contributingProducers = contributingProducers;
+  }
+
+  @Override protected ListenableFuture<Set<Produced<T>>> compute(ProducerMonitor unusedMonitor) {
+    List<ListenableFuture<Set<T>>> futureSets =
+        SetProducer.startContributions(contributingProducers);
+    ImmutableList.Builder<ListenableFuture<Produced<Set<T>>>> builder = ImmutableList.builder();
+    for (ListenableFuture<Set<T>> futureSet : futureSets) {
+      builder.add(Producers.createFutureProduced(futureSet));
+    }
+    final List<ListenableFuture<Produced<Set<T>>>> producedSets = builder.build();
+    return Producers.combineAsync(new Callable<ListenableFuture<Set<Produced<T>>>>() {
+      @Override public ListenableFuture<Set<Produced<T>>> call() {
+        ImmutableSet.Builder<Produced<T>> builder = ImmutableSet.builder();
+        for (ListenableFuture<Produced<Set<T>>> producedSet : producedSets) {
+          try {
+            Set<T> set = Producers.getDone(producedSet).get();
+            if (set == null) {
+              throw new NullPointerException("a contribution produced a null set");
+            }
+            for (T value : set) {
+              builder.add(Producers.successfulProduced(value));
+            }
+          } catch (ExecutionException e) {
+            builder.add(Producers.<T>failedProduced(e.getCause()));
+          }
+        }
+        return Futures.<Set<Produced<T>>>immediateFuture(builder.build());
+      }
+    }, directExecutor(), producedSets.toArray(new ListenableFuture<?>[producedSets.size()]));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * A {@link Producer} implementation used to implement {@link Set} bindings. It requests every
+ * contribution at once, so they run concurrently, and combines their sets as soon as the last one
+ * completes. The produced set fails as soon as any contribution fails.
+ *
+ * @since 2.0
+ */
+public final class SetProducer<T> extends AbstractProducer<Set<T>> {
+  /**
+   * Returns a new producer that creates {@link Set} futures from the union of the given
+   * {@link Producer} instances.
+   */
+  public static <T> Producer<Set<T>> create(Producer<Set<T>> first,
+      @SuppressWarnings("unchecked") Producer<Set<T>>... rest) {
+    return new SetProducer<T>(
+        ImmutableList.<Producer<Set<T>>>builder().add(first).add(rest).build());
+  }
+
+  private final ImmutableList<Producer<Set<T>>> contributingProducers;
+
+  private SetProducer(ImmutableList<Producer<Set<T>>> contributingProducers) {
+    this.contributingProducers = contributingProducers;
+  }
+
+  @Override protected ListenableFuture<Set<T>> compute(ProducerMonitor unusedMonitor) {
+    final List<ListenableFuture<Set<T>>> futureSets =
+        startContributions(contributingProducers);
+    return Producers.combineAsync(new Callable<ListenableFuture<Set<T>>>() {
+      @Override public ListenableFuture<Set<T>> call() {
+        ImmutableSet.Builder<T> builder = ImmutableSet.builder();
+        for (ListenableFuture<Set<T>> futureSet : futureSets) {
+          Set<T> set = Producers.getDone(futureSet);
+          if (set == null) {
+            throw new NullPointerException("a contribution produced a null set");
+          }
+          builder.addAll(set);
+        }
+        return Futures.<Set<T>>immediateFuture(builder.build());
+      }
+    }, directExecutor(), futureSets.toArray(new ListenableFuture<?>[futureSets.size()]));
+  }
+
+  /** Requests every contribution before waiting for any of them. */
+  static <T> List<ListenableFuture<Set<T>>> startContributions(
+      List<Producer<Set<T>>> contributingProducers) {
+    ImmutableList.Builder<ListenableFuture<Set<T>>> futureSets = ImmutableList.builder();
+    for (Producer<Set<T>> producer : contributingProducers) {
+      futureSets.add(checkNotNull(producer.get(), "%s returned null", producer));
+    }
+    return futureSets.build();
+  }
+}
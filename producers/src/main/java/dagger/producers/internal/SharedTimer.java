@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The single daemon thread on which every producer timer in the process runs. Timer tasks only
+ * complete or cancel futures, or hand work to an executor, so the thread is never busy for long.
+ */
+final class SharedTimer {
+  private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+  private static ScheduledThreadPoolExecutor createTimer() {
+    ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("dagger-producers-timer")
+            .build());
+    // most timers are cancelled because their future finished in time; don't keep them queued
+    timer.setRemoveOnCancelPolicy(true);
+    return timer;
+  }
+
+  /** Runs {@code task} on the timer thread after the given delay. */
+  static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+    return TIMER.schedule(task, delayNanos, NANOSECONDS);
+  }
+
+  private SharedTimer() {}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.monitoring.ProducerToken;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * The calls of {@link dagger.producers.SingleFlight} methods that are in flight in the process,
+ * keyed on the producer's token and the call's arguments. A call is removed as soon as it
+ * completes, before its callers see its result, so the map only ever holds running calls.
+ *
+ * <p>Each caller gets its own {@link ConsumerFuture}. Cancelling it only releases that caller; the
+ * call is cancelled once every caller has cancelled, like a node in {@link AbstractProducer}, and a
+ * caller that arrives after that starts a new call.
+ */
+final class SingleFlightCalls {
+  private static final ConcurrentMap<List<Object>, Flight<?>> IN_FLIGHT = Maps.newConcurrentMap();
+
+  static <T> ListenableFuture<T> call(
+      ProducerToken token, Callable<? extends ListenableFuture<T>> call, Object[] inputs) {
+    List<Object> key = Producers.callKey(token, inputs);
+    while (true) {
+      @SuppressWarnings("unchecked")  // the token in the key determines the type of the value
+      Flight<T> flight = (Flight<T>) IN_FLIGHT.get(key);
+      if (flight != null) {
+        if (flight.callers.join()) {
+          return new ConsumerFuture<T>(flight, flight.callers);
+        }
+        // every caller cancelled; the flight is on its way out
+        IN_FLIGHT.remove(key, flight);
+        continue;
+      }
+      Flight<T> started = new Flight<T>(key);
+      started.callers.join();
+      if (IN_FLIGHT.putIfAbsent(key, started) == null) {
+        started.start(call);
+        return new ConsumerFuture<T>(started, started.callers);
+      }
+    }
+  }
+
+  /** The number of calls in flight, for tests. */
+  static int size() {
+    return IN_FLIGHT.size();
+  }
+
+  /** A call in flight, which completes like the future returned by the method. */
+  private static final class Flight<T> extends MirroringFuture<T> implements Runnable {
+    private final List<Object> key;
+    /** The callers that haven't cancelled. */
+    final ConsumerFuture.Consumers callers = new ConsumerFuture.Consumers() {
+      @Override void abandoned(boolean mayInterruptIfRunning) {
+        IN_FLIGHT.remove(key, Flight.this);
+        cancel(false);
+      }
+    };
+    private volatile ListenableFuture<T> call;
+
+    Flight(List<Object> key) {
+      this.key = key;
+    }
+
+    void start(Callable<? extends ListenableFuture<T>> callable) {
+      ListenableFuture<T> result;
+      try {
+        result = callable.call();
+        if (result == null) {
+          result = Futures.immediateFailedFuture(
+              new NullPointerException("single-flight call returned null"));
+        }
+      } catch (Throwable t) {
+        result = Futures.immediateFailedFuture(t);
+      }
+      call = result;
+      result.addListener(this, directExecutor());
+      if (isCancelled()) {
+        result.cancel(false);
+      }
+    }
+
+    /** Called when the call completes. */
+    @Override public void run() {
+      IN_FLIGHT.remove(key, this);
+      completeLike(call);
+    }
+
+    @Override protected void cancelled(boolean mayInterruptIfRunning) {
+      ListenableFuture<T> running = call;
+      if (running != null) {
+        running.cancel(mayInterruptIfRunning);
+      }
+    }
+  }
+
+  private SingleFlightCalls() {}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A node of a production component that is evaluated synchronously, on the thread that requests
+ * it. With {@code -Adagger.synchronousProducers}, components use these for {@code @Produces}
+ * methods that run immediately and whose producer inputs are all synchronous nodes too, so that
+ * requesting one evaluates its whole subgraph with plain method calls, in dependency order,
+ * instead of allocating a future, a combiner and callbacks for every node. Only {@link #get}
+ * wraps the outcome in a future, for the entry points and asynchronous producers that consume it.
+ *
+ * <p>Like {@link AbstractProducer}, a node memoizes its outcome, so its method runs at most once
+ * per component, and it reports to the component's monitor; {@link ProducerMonitor#succeeded} and
+ * {@link ProducerMonitor#failed} are called directly rather than through
+ * {@link ProducerMonitor#addCallbackTo}. If an input fails, the node fails with the same exception
+ * without invoking its method. Unlike {@code AbstractProducer}, a thread that requests a node
+ * while another thread is evaluating it waits for that evaluation, which is short because every
+ * method in the subgraph runs immediately.
+ *
+ * @since 2.0
+ */
+public abstract class SynchronousNode<T> implements Producer<T> {
+  private final ProductionComponentMonitor componentMonitor;
+  private final ProducerToken token;
+  private final ImmutableList<SynchronousNode<?>> inputs;
+  /** Set once the outcome is recorded, which publishes {@link #value} and {@link #failure}. */
+  private volatile boolean done;
+  private T value;
+  private Throwable failure;
+
+  /**
+   * Creates a node that reports to the monitor returned by {@code componentMonitor} for
+   * {@code token}, and that evaluates {@code inputs}, the nodes whose {@linkplain #value values}
+   * {@link #compute} reads, before computing its own value.
+   */
+  protected SynchronousNode(ProductionComponentMonitor componentMonitor, ProducerToken token,
+      SynchronousNode<?>... inputs) {
+    this.componentMonitor = checkNotNull(componentMonitor);
+    this.token = checkNotNull(token);
+    this.inputs = ImmutableList.copyOf(inputs);
+  }
+
+  /**
+   * Computes this node's value by invoking its method with the values of its inputs, which have
+   * all succeeded.
+   */
+  protected abstract T compute() throws Exception;
+
+  /** Evaluates this node if it hasn't been, and returns a future that is already done. */
+  @Override
+  public final ListenableFuture<T> get() {
+    evaluate();
+    return failure == null
+        ? Futures.immediateFuture(value)
+        : Futures.<T>immediateFailedFuture(failure);
+  }
+
+  /**
+   * Returns the value of this node, for the {@link #compute} method of a node that has it as an
+   * input.
+   *
+   * @throws IllegalStateException if the node hasn't been evaluated or has failed
+   */
+  public final T value() {
+    checkState(done && failure == null, "%s hasn't succeeded", token);
+    return value;
+  }
+
+  private void evaluate() {
+    if (done) {
+      return;
+    }
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      ProducerMonitor monitor = componentMonitor.producerMonitorFor(token);
+      monitor.requested();
+      for (SynchronousNode<?> input : inputs) {
+        input.evaluate();
+        if (input.failure != null) {
+          failure = input.failure;
+          break;
+        }
+      }
+      if (failure == null) {
+        monitor.methodStarting();
+        try {
+          value = compute();
+        } catch (Throwable t) {
+          failure = t;
+        } finally {
+          monitor.methodFinished();
+        }
+      }
+      done = true;
+      if (failure == null) {
+        monitor.succeeded(value);
+      } else {
+        monitor.failed(failure);
+      }
+    }
+  }
+
+  @Override public String toString() {
+    return "SynchronousNode(" + token + ")";
+  }
+}
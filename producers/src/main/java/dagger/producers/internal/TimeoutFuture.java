@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A future that completes like its input, unless a timer fires first, in which case it fails with
+ * a {@link TimeoutException} and cancels the input. Cancelling this future cancels the input and
+ * the timer.
+ *
+ * <p>The timer runs on the {@link SharedTimer} thread, but only hands the timeout to an executor,
+ * which fails this future. Listeners added with a direct executor, such as the consumers of a
+ * producer that runs immediately, then run on that executor and never delay other timers.
+ */
+final class TimeoutFuture<T> extends MirroringFuture<T> implements Runnable {
+  private final ListenableFuture<T> input;
+  private final long timeoutNanos;
+  private final Executor executor;
+  private final Runnable expireTask = new Runnable() {
+    @Override public void run() {
+      expire();
+    }
+  };
+  private volatile ScheduledFuture<?> timer;
+  private volatile TimeoutException timeout;
+
+  static <T> ListenableFuture<T> create(
+      ListenableFuture<T> input, long timeoutNanos, Executor executor) {
+    final TimeoutFuture<T> future = new TimeoutFuture<T>(input, timeoutNanos, executor);
+    future.timer = SharedTimer.schedule(future, timeoutNanos);
+    input.addListener(new Runnable() {
+      @Override public void run() {
+        future.complete();
+      }
+    }, directExecutor());
+    return future;
+  }
+
+  private TimeoutFuture(ListenableFuture<T> input, long timeoutNanos, Executor executor) {
+    this.input = input;
+    this.timeoutNanos = timeoutNanos;
+    this.executor = executor;
+  }
+
+  /** Called when the timer fires. */
+  @Override public void run() {
+    if (isDone()) {
+      return;
+    }
+    try {
+      executor.execute(expireTask);
+    } catch (RejectedExecutionException e) {
+      // a shut down executor can't fail the future, and it must still time out
+      expire();
+    }
+  }
+
+  private void expire() {
+    if (isDone()) {
+      return;
+    }
+    TimeoutException exception = new TimeoutException(
+        "not produced within " + NANOSECONDS.toMillis(timeoutNanos) + " ms");
+    timeout = exception;
+    // the input is cancelled before this future fails, so no consumer sees it still running
+    input.cancel(true);
+    setException(exception);
+  }
+
+  private void complete() {
+    TimeoutException exception = timeout;
+    if (input.isCancelled() && exception != null) {
+      setException(exception);
+    } else {
+      completeLike(input);
+    }
+    cancelTimer();
+  }
+
+  @Override protected void cancelled(boolean mayInterruptIfRunning) {
+    input.cancel(mayInterruptIfRunning);
+    cancelTimer();
+    Producers.removeIfQueued(executor, expireTask);
+  }
+
+  private void cancelTimer() {
+    // the timer is null only if the input completed before it was scheduled; it then finds this
+    // future done and does nothing
+    ScheduledFuture<?> scheduled = timer;
+    if (scheduled != null) {
+      scheduled.cancel(false);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A thread-safe histogram of durations in nanoseconds, with a fixed memory footprint. Durations are
+ * counted in buckets whose width is a quarter of the power of two below them, so that percentiles
+ * are accurate to within 25% regardless of scale.
+ *
+ * <p>Reads may observe a recording in progress, and are therefore approximate while other threads
+ * are recording.
+ *
+ * @since 2.0
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = bucketFor(Long.MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /** Records a duration. Negative durations, which a faulty ticker may produce, count as zero. */
+  public void record(long nanos) {
+    nanos = Math.max(nanos, 0);
+    counts.incrementAndGet(bucketFor(nanos));
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    long max;
+    do {
+      max = maxNanos.get();
+    } while (nanos > max && !maxNanos.compareAndSet(max, nanos));
+  }
+
+  /** Returns the number of recorded durations. */
+  public long count() {
+    return count.get();
+  }
+
+  /** Returns the sum of the recorded durations. */
+  public long totalNanos() {
+    return totalNanos.get();
+  }
+
+  /** Returns the longest recorded duration, or 0 if none has been recorded. */
+  public long maxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Returns an upper bound on the given percentile of the recorded durations, or 0 if none has been
+   * recorded.
+   *
+   * @param percent a number greater than 0 and at most 100
+   */
+  public long percentileNanos(double percent) {
+    checkArgument(percent > 0 && percent <= 100, "percent must be in (0, 100]: %s", percent);
+    long total = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      total += counts.get(bucket);
+    }
+    long rank = Math.max((long) Math.ceil(total * percent / 100), 1);
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += counts.get(bucket);
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(bucket), maxNanos());
+      }
+    }
+    return 0;
+  }
+
+  @Override
+  public String toString() {
+    long count = count();
+    return String.format("count=%d mean=%dns p50=%dns p99=%dns max=%dns",
+        count,
+        count == 0 ? 0 : totalNanos() / count,
+        percentileNanos(50),
+        percentileNanos(99),
+        maxNanos());
+  }
+
+  private static int bucketFor(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    long upperBound = lowerBound + (1L << shift) - 1;
+    return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+  }
+}
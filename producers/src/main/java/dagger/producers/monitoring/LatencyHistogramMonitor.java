@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link ProductionComponentMonitor} that aggregates, in memory, the latencies and outcomes of
+ * every node across all the components it monitors. A single instance is meant to be shared by many
+ * components, for example by every request handled by a server, and read periodically.
+ *
+ * <p>For each node, three latencies are recorded: the time it was queued, from being requested
+ * until its method started, which includes waiting for its dependencies and, for a method that
+ * runs on the executor, for a thread; the time its method ran; and the total time until its future
+ * completed. For a {@link dagger.producers.Hedged} node, it also counts how often a second attempt
+ * was made and how often that attempt won.
+ *
+ * @since 2.0
+ */
+public final class LatencyHistogramMonitor implements ProductionComponentMonitor {
+  private final Ticker ticker;
+  private final ConcurrentMap<ProducerToken, NodeStatistics> statistics =
+      Maps.newConcurrentMap();
+
+  public LatencyHistogramMonitor() {
+    this(Ticker.systemTicker());
+  }
+
+  public LatencyHistogramMonitor(Ticker ticker) {
+    this.ticker = checkNotNull(ticker);
+  }
+
+  @Override
+  public ProducerMonitor producerMonitorFor(ProducerToken token) {
+    return new TimingProducerMonitor(statisticsFor(token));
+  }
+
+  /** Returns the statistics of the node identified by {@code token}. */
+  public NodeStatistics statisticsFor(ProducerToken token) {
+    checkNotNull(token);
+    NodeStatistics nodeStatistics = statistics.get(token);
+    if (nodeStatistics == null) {
+      NodeStatistics newStatistics = new NodeStatistics();
+      nodeStatistics = statistics.putIfAbsent(token, newStatistics);
+      if (nodeStatistics == null) {
+        nodeStatistics = newStatistics;
+      }
+    }
+    return nodeStatistics;
+  }
+
+  /** Returns the statistics of every node that has been requested so far. */
+  public ImmutableMap<ProducerToken, NodeStatistics> statistics() {
+    return ImmutableMap.copyOf(statistics);
+  }
+
+  /** The latencies and outcomes of a single node. */
+  public static final class NodeStatistics {
+    private final LatencyHistogram queued = new LatencyHistogram();
+    private final LatencyHistogram running = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    NodeStatistics() {}
+
+    /** Times from being requested until the method started, including waiting on dependencies. */
+    public LatencyHistogram queued() {
+      return queued;
+    }
+
+    /** Times spent running the method itself. */
+    public LatencyHistogram running() {
+      return running;
+    }
+
+    /** Times from being requested until the node's future completed. */
+    public LatencyHistogram total() {
+      return total;
+    }
+
+    /** Returns the number of times the node's future succeeded. */
+    public long successes() {
+      return successes.get();
+    }
+
+    /** Returns the number of times the node's future failed. */
+    public long failures() {
+      return failures.get();
+    }
+
+    /** Returns the number of times a second attempt of the node's hedged method was made. */
+    public long hedges() {
+      return hedges.get();
+    }
+
+    /** Returns the number of times the second attempt of the node's hedged method won. */
+    public long hedgeWins() {
+      return hedgeWins.get();
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "successes=%d failures=%d hedges=%d hedgeWins=%d%n  queued: %s%n  running: %s%n"
+              + "  total: %s",
+          successes(), failures(), hedges(), hedgeWins(), queued, running, total);
+    }
+  }
+
+  private final class TimingProducerMonitor extends ProducerMonitor {
+    private final NodeStatistics nodeStatistics;
+    private volatile long requestedNanos;
+    private volatile long startingNanos;
+
+    TimingProducerMonitor(NodeStatistics nodeStatistics) {
+      this.nodeStatistics = nodeStatistics;
+    }
+
+    @Override public void requested() {
+      requestedNanos = ticker.read();
+    }
+
+    @Override public void methodStarting() {
+      startingNanos = ticker.read();
+      nodeStatistics.queued.record(startingNanos - requestedNanos);
+    }
+
+    @Override public void methodFinished() {
+      nodeStatistics.running.record(ticker.read() - startingNanos);
+    }
+
+    @Override public void hedging() {
+      nodeStatistics.hedges.incrementAndGet();
+    }
+
+    @Override public void hedgeSucceeded() {
+      nodeStatistics.hedgeWins.incrementAndGet();
+    }
+
+    @Override public void succeeded(Object o) {
+      nodeStatistics.total.record(ticker.read() - requestedNanos);
+      nodeStatistics.successes.incrementAndGet();
+    }
+
+    @Override public void failed(Throwable t) {
+      nodeStatistics.total.record(ticker.read() - requestedNanos);
+      nodeStatistics.failures.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * Receives the events of a single node of a production graph, within a single component instance.
+ * A node is computed at most once per component, so each of these methods is called at most once,
+ * in this order:
+ *
+ * <ol>
+ * <li>{@link #requested} when the node's value is first requested, either by an entry point or by
+ *     another node;
+ * <li>{@link #methodStarting} when the {@code @Produces} method is about to be invoked, once all
+ *     of its asynchronous dependencies have completed;
+ * <li>{@link #methodFinished} when the method returns or throws;
+ * <li>{@link #succeeded} or {@link #failed} when the node's future completes.
+ * </ol>
+ *
+ * <p>The time between {@link #requested} and {@link #methodStarting} is spent waiting for the
+ * node's dependencies and, if the method runs on the executor, for a thread; the time between
+ * {@link #methodStarting} and {@link #methodFinished} is spent running the method itself. If a
+ * dependency fails, the method is never invoked, and only {@link #failed} follows
+ * {@link #requested}.
+ *
+ * <p>For a {@link dagger.producers.Hedged} method, {@link #hedging} is called between
+ * {@link #methodFinished} and the completion event if a second attempt is made, and
+ * {@link #hedgeSucceeded} just before {@link #succeeded} if that attempt won.
+ *
+ * <p>A method that returns a future, or that is annotated {@link dagger.producers.OnExecutor},
+ * {@link dagger.producers.Timeout} or {@link dagger.producers.ConcurrencyLimit}, is invoked on the
+ * executor, and {@link #methodStarting} and {@link #methodFinished} are called there. A method that
+ * returns a plain value otherwise runs immediately: on the requesting thread if it has no
+ * asynchronous dependencies or if the component evaluates it synchronously
+ * ({@code -Adagger.synchronousProducers}), and else on whichever thread completed its last input.
+ * Its monitor is called on that same thread.
+ *
+ * <p>Methods are called on whichever thread triggered the event, so implementations must be
+ * thread-safe and should return quickly. Exceptions thrown by a monitor are not caught.
+ *
+ * <p>Every method has an empty default implementation, so subclasses need only override the
+ * events they are interested in.
+ *
+ * @since 2.0
+ */
+public abstract class ProducerMonitor {
+  /** Called when the node's value is first requested. */
+  public void requested() {}
+
+  /**
+   * Called on the thread that invokes the node's {@code @Produces} method, just before it is
+   * invoked.
+   */
+  public void methodStarting() {}
+
+  /**
+   * Called on the thread that invoked the node's {@code @Produces} method, just after it returns
+   * or throws.
+   */
+  public void methodFinished() {}
+
+  /**
+   * Called on the executor, just before a {@link dagger.producers.Hedged} method is invoked a
+   * second time because its first attempt hadn't completed within the hedging delay.
+   */
+  public void hedging() {}
+
+  /** Called when the second attempt of a {@link dagger.producers.Hedged} method won. */
+  public void hedgeSucceeded() {}
+
+  /** Called when the node's future succeeds with {@code o}. */
+  public void succeeded(Object o) {}
+
+  /** Called when the node's future fails with {@code t}. */
+  public void failed(Throwable t) {}
+
+  /** Arranges for {@link #succeeded} or {@link #failed} to be called when the future completes. */
+  public <T> void addCallbackTo(ListenableFuture<T> future) {
+    Futures.addCallback(future, new FutureCallback<T>() {
+      @Override public void onSuccess(T value) {
+        succeeded(value);
+      }
+
+      @Override public void onFailure(Throwable t) {
+        failed(t);
+      }
+    }, directExecutor());
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Identifies a node of a production graph to a {@link ProductionComponentMonitor}. Every producer
+ * generated for a {@link dagger.producers.Produces @Produces} method has a single token, which is
+ * equal across all components that use that method.
+ *
+ * @since 2.0
+ */
+public final class ProducerToken {
+  private final Class<?> classToken;
+
+  /** Returns a token for the producer implemented by the given class. */
+  public static ProducerToken create(Class<?> classToken) {
+    return new ProducerToken(checkNotNull(classToken));
+  }
+
+  private ProducerToken(Class<?> classToken) {
+    this.classToken = classToken;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this
+        || (o instanceof ProducerToken && ((ProducerToken) o).classToken.equals(classToken));
+  }
+
+  @Override
+  public int hashCode() {
+    return classToken.hashCode();
+  }
+
+  /** Returns the name of the producer's class, such as {@code test.MyModule$$FooFactory}. */
+  @Override
+  public String toString() {
+    return classToken.getCanonicalName();
+  }
+}
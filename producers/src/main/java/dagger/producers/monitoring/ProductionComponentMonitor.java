@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+/**
+ * A hook for monitoring the execution of a {@link dagger.producers.ProductionComponent}. A monitor
+ * is passed to the builder of a production component with its {@code productionComponentMonitor}
+ * method; if none is set, the component is not monitored.
+ *
+ * @since 2.0
+ */
+public interface ProductionComponentMonitor {
+  /**
+   * Returns the monitor for the node identified by {@code token}. This is called once per node per
+   * component instance, when the node is first requested, and must not return null.
+   */
+  ProducerMonitor producerMonitorFor(ProducerToken token);
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.scheduling;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.internal.MirroringFuture;
+import dagger.producers.monitoring.LatencyHistogram;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+/**
+ * A named limit on the number of calls that run at once, shared by every component in the process.
+ * Production components use one for each {@link dagger.producers.ConcurrencyLimit} (or group of
+ * them), so that a producer method in front of a scarce resource is called at most
+ * {@link #maxConcurrency} times at once, however many threads the component's executor has.
+ *
+ * <p>A call {@linkplain #submit submitted} while the limit is reached waits in a queue, without
+ * occupying a thread, and is handed to its executor in submission order once a running call
+ * completes. A call counts against the limit until the future it returns completes. The
+ * limiter reports how many calls are {@linkplain #running running} and
+ * {@linkplain #queueDepth waiting}, and how long calls have waited for their turn, e.g.:
+ * <pre>   {@code
+ *
+ *   for (ConcurrencyLimiter limiter : ConcurrencyLimiter.limiters().values()) {
+ *     log(limiter);
+ *   }}</pre>
+ *
+ * @since 2.0
+ */
+public final class ConcurrencyLimiter {
+  private static final ConcurrentMap<String, ConcurrencyLimiter> LIMITERS =
+      Maps.newConcurrentMap();
+
+  private final String name;
+  private final int maxConcurrency;
+  private final LatencyHistogram waitTimes = new LatencyHistogram();
+  /** The calls waiting for a permit; guarded by {@code this}, like {@link #running}. */
+  private final Queue<Call<?>> waiting = new ArrayDeque<Call<?>>();
+  private int running;
+
+  private ConcurrencyLimiter(String name, int maxConcurrency) {
+    this.name = name;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Returns the limiter with the given name, creating it with the given limit if there isn't one
+   * yet.
+   *
+   * @throws IllegalArgumentException if {@code maxConcurrency} isn't positive, or the limiter
+   *     already exists with a different limit
+   */
+  public static ConcurrencyLimiter named(String name, int maxConcurrency) {
+    checkNotNull(name);
+    checkArgument(maxConcurrency > 0, "maxConcurrency must be positive: %s", maxConcurrency);
+    ConcurrencyLimiter limiter = LIMITERS.get(name);
+    if (limiter == null) {
+      ConcurrencyLimiter created = new ConcurrencyLimiter(name, maxConcurrency);
+      limiter = LIMITERS.putIfAbsent(name, created);
+      if (limiter == null) {
+        return created;
+      }
+    }
+    checkArgument(limiter.maxConcurrency == maxConcurrency,
+        "the concurrency limit %s is declared as both %s and %s",
+        name, limiter.maxConcurrency, maxConcurrency);
+    return limiter;
+  }
+
+  /** Returns every limiter created so far, by name. */
+  public static ImmutableMap<String, ConcurrencyLimiter> limiters() {
+    return ImmutableMap.copyOf(LIMITERS);
+  }
+
+  /** Returns the name of this limiter. */
+  public String name() {
+    return name;
+  }
+
+  /** Returns the maximum number of calls that run at once. */
+  public int maxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /** Returns the number of calls that are running, whose futures haven't completed yet. */
+  public synchronized int running() {
+    return running;
+  }
+
+  /** Returns the number of calls waiting for a running call to complete. */
+  public synchronized int queueDepth() {
+    return waiting.size();
+  }
+
+  /**
+   * Returns the time calls have waited between being submitted and being started; calls that
+   * started right away count as having waited for no time.
+   */
+  public LatencyHistogram waitTimes() {
+    return waitTimes;
+  }
+
+  /**
+   * Calls {@code call} right away on the current thread if fewer than {@link #maxConcurrency}
+   * calls are running, and otherwise once a running call completes, on {@code executor}. Returns a
+   * future that completes like the one {@code call} returns. Cancelling the future before the call
+   * has started removes it from the queue; afterwards, the cancellation is passed on to the
+   * future the call returned.
+   */
+  public <T> ListenableFuture<T> submit(
+      Callable<? extends ListenableFuture<T>> call, Executor executor) {
+    Call<T> submitted = new Call<T>(checkNotNull(call), checkNotNull(executor));
+    boolean start;
+    synchronized (this) {
+      start = running < maxConcurrency;
+      if (start) {
+        running++;
+      } else {
+        waiting.add(submitted);
+      }
+    }
+    if (start) {
+      submitted.run();
+    }
+    return submitted;
+  }
+
+  /** Removes a call that was cancelled while waiting; returns false if it had left the queue. */
+  private synchronized boolean dequeue(Call<?> call) {
+    return waiting.remove(call);
+  }
+
+  /** Releases the permit of a completed call, handing it to the next waiting call if any. */
+  private void release() {
+    Call<?> next;
+    synchronized (this) {
+      next = waiting.poll();
+      if (next == null) {
+        running--;
+        return;
+      }
+    }
+    next.dispatch();
+  }
+
+  @Override public String toString() {
+    return String.format("%s: %s running of %s, %s waiting, waited %s",
+        name, running(), maxConcurrency, queueDepth(), waitTimes);
+  }
+
+  /** A submitted call, which completes like the future that it returns. */
+  private final class Call<T> extends MirroringFuture<T> implements Runnable {
+    private final Callable<? extends ListenableFuture<T>> callable;
+    private final Executor executor;
+    private final long submittedNanos = System.nanoTime();
+    private volatile ListenableFuture<T> result;
+
+    Call(Callable<? extends ListenableFuture<T>> callable, Executor executor) {
+      this.callable = callable;
+      this.executor = executor;
+    }
+
+    /** Starts the call on its executor, once it has been handed a permit. */
+    void dispatch() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        setException(e);
+        release();
+      }
+    }
+
+    /** Starts the call, which holds a permit. */
+    @Override public void run() {
+      waitTimes.record(System.nanoTime() - submittedNanos);
+      if (isCancelled()) {
+        release();
+        return;
+      }
+      ListenableFuture<T> future;
+      try {
+        future = callable.call();
+        if (future == null) {
+          future = Futures.immediateFailedFuture(
+              new NullPointerException("concurrency-limited call returned null"));
+        }
+      } catch (Throwable t) {
+        future = Futures.immediateFailedFuture(t);
+      }
+      result = future;
+      future.addListener(new Runnable() {
+        @Override public void run() {
+          release();
+          completeLike(result);
+        }
+      }, directExecutor());
+      if (isCancelled()) {
+        future.cancel(false);
+      }
+    }
+
+    @Override protected void cancelled(boolean mayInterruptIfRunning) {
+      if (!dequeue(this)) {
+        ListenableFuture<T> started = result;
+        if (started != null) {
+          started.cancel(mayInterruptIfRunning);
+        }
+      }
+    }
+  }
+}
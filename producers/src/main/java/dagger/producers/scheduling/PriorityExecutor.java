@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.scheduling;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A fixed-size thread pool that runs queued tasks in order of priority, highest first, and in the
+ * order they were submitted among tasks of equal priority. Tasks submitted with {@link #execute}
+ * without a priority have priority {@code 0}.
+ *
+ * <p>When a production component is given a {@code PriorityExecutor}, each producer submits its
+ * work with the length of the longest chain of producers that depends on it, as computed by the
+ * annotation processor. Nodes on the critical path of the graph then run before nodes that have
+ * slack, such as leaves whose consumers are still waiting on longer chains: <pre>   {@code
+ *
+ *   MyComponent component = Dagger_MyComponent.builder()
+ *       .executor(PriorityExecutor.create(threads))
+ *       .build();}</pre>
+ *
+ * <p>The executor must be {@linkplain #shutdown shut down} once it is no longer needed.
+ *
+ * @since 2.0
+ */
+public final class PriorityExecutor extends ThreadPoolExecutor {
+  private final AtomicLong sequence = new AtomicLong();
+
+  private PriorityExecutor(int threads, ThreadFactory threadFactory) {
+    super(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(),
+        threadFactory);
+  }
+
+  /** Creates an executor with {@code threads} threads. */
+  public static PriorityExecutor create(int threads) {
+    return create(threads, Executors.defaultThreadFactory());
+  }
+
+  /** Creates an executor with {@code threads} threads, created by {@code threadFactory}. */
+  public static PriorityExecutor create(int threads, ThreadFactory threadFactory) {
+    checkArgument(threads > 0, "threads must be positive: %s", threads);
+    return new PriorityExecutor(threads, checkNotNull(threadFactory));
+  }
+
+  /** Runs {@code task} with priority {@code 0}. */
+  @Override public void execute(Runnable task) {
+    execute(task, 0);
+  }
+
+  /** Runs {@code task} once every queued task with a higher priority has started. */
+  public void execute(Runnable task, int priority) {
+    super.execute(new PrioritizedTask(checkNotNull(task), priority, sequence.getAndIncrement()));
+  }
+
+  /** Removes {@code task} from the queue if it hasn't started. */
+  @Override public boolean remove(Runnable task) {
+    for (Runnable queued : getQueue()) {
+      if (queued instanceof PrioritizedTask && ((PrioritizedTask) queued).task == task) {
+        return super.remove(queued);
+      }
+    }
+    return super.remove(task);
+  }
+
+  private static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+    final Runnable task;
+    final int priority;
+    final long sequence;
+
+    PrioritizedTask(Runnable task, int priority, long sequence) {
+      this.task = task;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override public void run() {
+      task.run();
+    }
+
+    @Override public int compareTo(PrioritizedTask that) {
+      if (this.priority != that.priority) {
+        return this.priority > that.priority ? -1 : 1;
+      }
+      return this.sequence < that.sequence ? -1 : (this.sequence == that.sequence ? 0 : 1);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.batching;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link Batcher}.
+ */
+@RunWith(JUnit4.class)
+public class BatcherTest {
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final FakeBackend backend = new FakeBackend();
+
+  @After public void shutDownScheduler() {
+    scheduler.shutdownNow();
+  }
+
+  @Test public void get_coalescesUpToMaxBatchSize() throws Exception {
+    Batcher<String, Integer> batcher = Batcher.create(backend, 3, 1, TimeUnit.HOURS, scheduler);
+    ListenableFuture<Integer> a = batcher.get("a");
+    ListenableFuture<Integer> bb = batcher.get("bb");
+    ListenableFuture<Integer> a2 = batcher.get("a");
+    assertThat(a.isDone()).isFalse();
+    ListenableFuture<Integer> ccc = batcher.get("ccc");
+    ListenableFuture<Integer> dddd = batcher.get("dddd");
+    assertThat(a.get()).isEqualTo(1);
+    assertThat(a2.get()).isEqualTo(1);
+    assertThat(bb.get()).isEqualTo(2);
+    assertThat(ccc.get()).isEqualTo(3);
+    assertThat(dddd.isDone()).isFalse();
+    assertThat(backend.batches)
+        .isEqualTo(ImmutableList.<Set<String>>of(ImmutableSet.of("a", "bb", "ccc")));
+  }
+
+  @Test public void get_cancellingOneRequestLeavesTheOthers() throws Exception {
+    Batcher<String, Integer> batcher = Batcher.create(backend, 100, 1, TimeUnit.HOURS, scheduler);
+    ListenableFuture<Integer> cancelled = batcher.get("a");
+    ListenableFuture<Integer> waiting = batcher.get("a");
+    assertThat(cancelled.cancel(true)).isTrue();
+    assertThat(waiting.isDone()).isFalse();
+    batcher.flush();
+    assertThat(waiting.get()).isEqualTo(1);
+    assertThat(backend.batches).isEqualTo(ImmutableList.<Set<String>>of(ImmutableSet.of("a")));
+  }
+
+  @Test public void get_dispatchesWhenWindowElapses() throws Exception {
+    Batcher<String, Integer> batcher =
+        Batcher.create(backend, 100, 10, TimeUnit.MILLISECONDS, scheduler);
+    ListenableFuture<Integer> a = batcher.get("a");
+    ListenableFuture<Integer> bb = batcher.get("bb");
+    assertThat(a.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(bb.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+    assertThat(backend.batches)
+        .isEqualTo(ImmutableList.<Set<String>>of(ImmutableSet.of("a", "bb")));
+  }
+
+  @Test public void flush_dispatchesPendingBatch() throws Exception {
+    Batcher<String, Integer> batcher = Batcher.create(backend, 100, 1, TimeUnit.HOURS, scheduler);
+    ListenableFuture<Integer> a = batcher.get("a");
+    batcher.flush();
+    assertThat(a.get()).isEqualTo(1);
+    batcher.flush();
+    assertThat(backend.batches.size()).isEqualTo(1);
+  }
+
+  @Test public void get_missingValueFails() throws Exception {
+    Batcher<String, Integer> batcher = Batcher.create(new BatchLoader<String, Integer>() {
+      @Override public ListenableFuture<Map<String, Integer>> load(Set<String> keys) {
+        return Futures.immediateFuture(ImmutableMap.<String, Integer>of());
+      }
+    }, 1, 1, TimeUnit.HOURS, scheduler);
+    try {
+      batcher.get("a").get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof IllegalStateException).isTrue();
+    }
+  }
+
+  @Test public void get_loaderFailureFailsEveryKey() throws Exception {
+    Batcher<String, Integer> batcher = Batcher.create(new BatchLoader<String, Integer>() {
+      @Override public ListenableFuture<Map<String, Integer>> load(Set<String> keys) {
+        throw new RuntimeException("monkey");
+      }
+    }, 2, 1, TimeUnit.HOURS, scheduler);
+    ListenableFuture<Integer> a = batcher.get("a");
+    ListenableFuture<Integer> bb = batcher.get("bb");
+    for (ListenableFuture<Integer> future : ImmutableList.of(a, bb)) {
+      try {
+        future.get();
+        fail();
+      } catch (ExecutionException e) {
+        assertThat(e.getCause()).hasMessage("monkey");
+      }
+    }
+  }
+
+  /** A backend that maps each key to its length, and records the batches it's asked to load. */
+  private static final class FakeBackend implements BatchLoader<String, Integer> {
+    final List<Set<String>> batches = new CopyOnWriteArrayList<Set<String>>();
+
+    @Override public ListenableFuture<Map<String, Integer>> load(Set<String> keys) {
+      batches.add(keys);
+      ImmutableMap.Builder<String, Integer> values = ImmutableMap.builder();
+      for (String key : keys) {
+        values.put(key, key.length());
+      }
+      return Futures.immediateFuture((Map<String, Integer>) values.build());
+    }
+  }
+}
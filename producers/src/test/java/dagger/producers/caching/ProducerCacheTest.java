@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.caching;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.monitoring.ProducerToken;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ProducerCache}.
+ */
+@RunWith(JUnit4.class)
+public class ProducerCacheTest {
+  private static final ProducerToken TOKEN = ProducerToken.create(ProducerCacheTest.class);
+
+  private static final class FakeTicker extends Ticker {
+    long nanos;
+
+    @Override public long read() {
+      return nanos;
+    }
+  }
+
+  /** Returns the next of its futures, or a new value, each time it's called. */
+  private static final class CountingLoader implements Callable<ListenableFuture<String>> {
+    int calls;
+    ListenableFuture<String> next;
+
+    @Override public ListenableFuture<String> call() {
+      calls++;
+      if (next != null) {
+        return next;
+      }
+      return Futures.immediateFuture("value" + calls);
+    }
+  }
+
+  private final FakeTicker ticker = new FakeTicker();
+
+  @Test public void reusesValueForSameInputs() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "a").get()).isEqualTo("value1");
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "a").get()).isEqualTo("value1");
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "b").get()).isEqualTo("value2");
+    assertThat(loader.calls).isEqualTo(2);
+    assertThat(cache.hitCount()).isEqualTo(1L);
+    assertThat(cache.missCount()).isEqualTo(2L);
+  }
+
+  @Test public void tokensSeparateValues() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "a");
+    cache.get(ProducerToken.create(String.class), 1, 0, TimeUnit.SECONDS, loader, "a");
+    assertThat(loader.calls).isEqualTo(2);
+  }
+
+  @Test public void expiresAfterTtl() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader);
+    ticker.nanos += TimeUnit.MILLISECONDS.toNanos(999);
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).get()).isEqualTo("value1");
+    ticker.nanos += TimeUnit.MILLISECONDS.toNanos(1);
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).get()).isEqualTo("value2");
+    assertThat(cache.evictionCount()).isEqualTo(1L);
+  }
+
+  @Test public void ttlCountsFromCompletion() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    SettableFuture<String> pending = SettableFuture.create();
+    loader.next = pending;
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader);
+    ticker.nanos += TimeUnit.SECONDS.toNanos(5);
+    ListenableFuture<String> shared = cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader);
+    pending.set("slow");
+    assertThat(shared.get()).isEqualTo("slow");
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).get()).isEqualTo("slow");
+    assertThat(loader.calls).isEqualTo(1);
+  }
+
+  @Test public void failureIsNotCachedByDefault() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    loader.next = Futures.immediateFailedFuture(new RuntimeException("monkey"));
+    assertFailed(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader));
+    loader.next = null;
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).get()).isEqualTo("value2");
+  }
+
+  @Test public void failureIsCachedForFailureTtl() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    loader.next = Futures.immediateFailedFuture(new RuntimeException("monkey"));
+    assertFailed(cache.get(TOKEN, 60, 1, TimeUnit.SECONDS, loader));
+    loader.next = null;
+    assertFailed(cache.get(TOKEN, 60, 1, TimeUnit.SECONDS, loader));
+    ticker.nanos += TimeUnit.SECONDS.toNanos(1);
+    assertThat(cache.get(TOKEN, 60, 1, TimeUnit.SECONDS, loader).get()).isEqualTo("value2");
+  }
+
+  @Test public void loaderExceptionIsAFailure() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    assertFailed(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS,
+        new Callable<ListenableFuture<String>>() {
+          @Override public ListenableFuture<String> call() {
+            throw new RuntimeException("monkey");
+          }
+        }));
+  }
+
+  @Test public void cancellingSharedFutureKeepsValue() throws Exception {
+    ProducerCache cache = ProducerCache.create(10, ticker);
+    CountingLoader loader = new CountingLoader();
+    SettableFuture<String> pending = SettableFuture.create();
+    loader.next = pending;
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).cancel(true);
+    assertThat(pending.isCancelled()).isFalse();
+    pending.set("kept");
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).get()).isEqualTo("kept");
+  }
+
+  @Test public void evictsWhenFull() throws Exception {
+    ProducerCache cache = ProducerCache.create(1, ticker);
+    CountingLoader loader = new CountingLoader();
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "a");
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "b");
+    assertThat(cache.evictionCount()).isEqualTo(1L);
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader, "a").get()).isEqualTo("value3");
+  }
+
+  @Test public void zeroSizeCachesNothing() throws Exception {
+    ProducerCache cache = ProducerCache.create(0);
+    CountingLoader loader = new CountingLoader();
+    cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader);
+    assertThat(cache.get(TOKEN, 1, 0, TimeUnit.SECONDS, loader).get()).isEqualTo("value2");
+  }
+
+  private static void assertFailed(ListenableFuture<?> future) throws InterruptedException {
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertThat(expected.getCause()).hasMessage("monkey");
+    }
+  }
+}
@@ -15,9 +15,19 @@
  */
 package dagger.producers.internal;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -32,7 +42,7 @@ import static org.junit.Assert.fail;
 public class AbstractProducerTest {
   @Test public void get_nullPointerException() {
     Producer<Object> producer = new AbstractProducer<Object>() {
-      @Override public ListenableFuture<Object> compute() {
+      @Override public ListenableFuture<Object> compute(ProducerMonitor unusedMonitor) {
         return null;
       }
     };
@@ -47,7 +57,7 @@ public class AbstractProducerTest {
     Producer<Integer> producer = new AbstractProducer<Integer>() {
       int i = 0;
 
-      @Override public ListenableFuture<Integer> compute() {
+      @Override public ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
         return Futures.immediateFuture(i++);
       }
     };
@@ -55,4 +65,126 @@ public class AbstractProducerTest {
     assertThat(producer.get().get()).is(0);
     assertThat(producer.get().get()).is(0);
   }
+
+  @Test public void get_reportsToMonitor() throws Exception {
+    final List<String> events = new CopyOnWriteArrayList<String>();
+    final ProducerToken token = ProducerToken.create(AbstractProducerTest.class);
+    ProductionComponentMonitor componentMonitor = new ProductionComponentMonitor() {
+      @Override public ProducerMonitor producerMonitorFor(ProducerToken requestedToken) {
+        assertThat(requestedToken).isEqualTo(token);
+        return new ProducerMonitor() {
+          @Override public void requested() {
+            events.add("requested");
+          }
+
+          @Override public void methodStarting() {
+            events.add("methodStarting");
+          }
+
+          @Override public void methodFinished() {
+            events.add("methodFinished");
+          }
+
+          @Override public void succeeded(Object o) {
+            events.add("succeeded " + o);
+          }
+
+          @Override public void failed(Throwable t) {
+            events.add("failed");
+          }
+        };
+      }
+    };
+    final SettableFuture<Integer> future = SettableFuture.create();
+    Producer<Integer> producer = new AbstractProducer<Integer>(componentMonitor, token) {
+      @Override public ListenableFuture<Integer> compute(ProducerMonitor monitor) {
+        monitor.methodStarting();
+        monitor.methodFinished();
+        return future;
+      }
+    };
+    producer.get();
+    producer.get();
+    assertThat(events).isEqualTo(
+        ImmutableList.of("requested", "methodStarting", "methodFinished"));
+    future.set(42);
+    assertThat(events).isEqualTo(
+        ImmutableList.of("requested", "methodStarting", "methodFinished", "succeeded 42"));
+  }
+
+  @Test public void get_concurrentRequesterDoesNotBlock() throws Exception {
+    final CountDownLatch computing = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Producer<Integer> producer = new AbstractProducer<Integer>() {
+      @Override public ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+        computing.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+        return Futures.immediateFuture(42);
+      }
+    };
+    Thread computingThread = new Thread() {
+      @Override public void run() {
+        producer.get();
+      }
+    };
+    computingThread.start();
+    computing.await();
+    // returns immediately, even though compute is still running on the other thread
+    ListenableFuture<Integer> pending = producer.get();
+    assertThat(pending.isDone()).isFalse();
+    release.countDown();
+    computingThread.join();
+    assertThat(pending.get()).isEqualTo(42);
+    assertThat(producer.get().get()).isEqualTo(42);
+  }
+
+  @Test public void get_cycleFails() throws Exception {
+    final AtomicReference<Producer<Integer>> self = new AtomicReference<Producer<Integer>>();
+    Producer<Integer> producer = new AbstractProducer<Integer>() {
+      @Override public ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+        return self.get().get();
+      }
+    };
+    self.set(producer);
+    try {
+      producer.get().get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertThat(expected.getCause() instanceof IllegalStateException).isTrue();
+    }
+  }
+
+  @Test public void cancel_nodeSurvivesWhileAnotherConsumerNeedsIt() throws Exception {
+    final SettableFuture<Integer> future = SettableFuture.create();
+    Producer<Integer> producer = new AbstractProducer<Integer>() {
+      @Override public ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+        return future;
+      }
+    };
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    assertThat(first.cancel(false)).isTrue();
+    assertThat(future.isCancelled()).isFalse();
+    future.set(42);
+    assertThat(second.get()).isEqualTo(42);
+  }
+
+  @Test public void cancel_lastConsumerCancelsNode() throws Exception {
+    final SettableFuture<Integer> future = SettableFuture.create();
+    Producer<Integer> producer = new AbstractProducer<Integer>() {
+      @Override public ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+        return future;
+      }
+    };
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    first.cancel(false);
+    second.cancel(false);
+    assertThat(future.isCancelled()).isTrue();
+    assertThat(producer.get().isCancelled()).isTrue();
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Producer;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static dagger.producers.internal.SetProducerTest.immediateProducer;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link MapProducer} and {@link MapOfProducerProducer}.
+ */
+@RunWith(JUnit4.class)
+public class MapProducerTest {
+  @Test public void success() throws Exception {
+    Producer<Map<String, Producer<Integer>>> mapOfProducerProducer =
+        MapOfProducerProducer.<String, Integer>builder()
+            .put("one", immediateProducer(1))
+            .put("two", immediateProducer(2))
+            .build();
+    assertThat(mapOfProducerProducer.get().isDone()).isTrue();
+    Map<String, Integer> map = MapProducer.create(mapOfProducerProducer).get().get();
+    assertThat(map.get("one")).isEqualTo(1);
+    assertThat(map.get("two")).isEqualTo(2);
+    assertThat(map.size()).isEqualTo(2);
+  }
+
+  @Test public void valuesAreProducedConcurrently() throws Exception {
+    SettableFuture<Integer> one = SettableFuture.create();
+    SettableFuture<Integer> two = SettableFuture.create();
+    SetProducerTest.CountingProducer<Integer> oneProducer =
+        new SetProducerTest.CountingProducer<Integer>(one);
+    SetProducerTest.CountingProducer<Integer> twoProducer =
+        new SetProducerTest.CountingProducer<Integer>(two);
+    ListenableFuture<Map<String, Integer>> future = MapProducer.create(
+        MapOfProducerProducer.<String, Integer>builder()
+            .put("one", oneProducer)
+            .put("two", twoProducer)
+            .build())
+        .get();
+    assertThat(oneProducer.requests).isEqualTo(1);
+    assertThat(twoProducer.requests).isEqualTo(1);
+
+    two.set(2);
+    assertThat(future.isDone()).isFalse();
+    one.set(1);
+    assertThat(future.get().get("one")).isEqualTo(1);
+  }
+
+  @Test public void failedValueFailsTheMap() throws Exception {
+    ListenableFuture<Map<String, Integer>> future = MapProducer.create(
+        MapOfProducerProducer.<String, Integer>builder()
+            .put("one", immediateProducer(1))
+            .put("two", new SetProducerTest.CountingProducer<Integer>(
+                Futures.<Integer>immediateFailedFuture(new RuntimeException("monkey"))))
+            .build())
+        .get();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).hasMessage("monkey");
+    }
+  }
+
+  @Test public void builderRejectsNulls() {
+    try {
+      MapOfProducerProducer.<String, Integer>builder().put(null, immediateProducer(1));
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      MapOfProducerProducer.<String, Integer>builder().put("one", null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+}
@@ -19,12 +19,24 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Provider;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -98,6 +110,86 @@ public class ProducersTest {
     }
   }
 
+  @Test public void successfulProduced() throws Exception {
+    Produced<String> produced = Producers.successfulProduced("monkey");
+    assertThat(produced.get()).isEqualTo("monkey");
+    assertThat(produced).isEqualTo(Producers.successfulProduced("monkey"));
+  }
+
+  @Test public void failedProduced() throws Exception {
+    Produced<String> produced = Producers.failedProduced(new RuntimeException("monkey"));
+    assertThat(getProducedException(produced).getCause()).hasMessage("monkey");
+  }
+
+  @Test public void combineAsync_runsCombinerOnceAllInputsAreDone() throws Exception {
+    final SettableFuture<String> a = SettableFuture.create();
+    final SettableFuture<Integer> b = SettableFuture.create();
+    ListenableFuture<String> combined = Producers.combineAsync(
+        new Callable<ListenableFuture<String>>() {
+          @Override public ListenableFuture<String> call() {
+            return Futures.immediateFuture(Producers.getDone(a) + Producers.getDone(b));
+          }
+        }, MoreExecutors.directExecutor(), a, b);
+    a.set("monkey");
+    assertThat(combined.isDone()).isFalse();
+    b.set(42);
+    assertThat(combined.isDone()).isTrue();
+    assertThat(combined.get()).isEqualTo("monkey42");
+  }
+
+  @Test public void combineAsync_failsFastWithoutRunningCombiner() throws Exception {
+    SettableFuture<String> a = SettableFuture.create();
+    SettableFuture<Integer> b = SettableFuture.create();
+    ListenableFuture<String> combined = Producers.combineAsync(
+        new Callable<ListenableFuture<String>>() {
+          @Override public ListenableFuture<String> call() {
+            throw new AssertionError("combiner should not run");
+          }
+        }, MoreExecutors.directExecutor(), a, b);
+    b.setException(new RuntimeException("monkey"));
+    assertThat(combined.isDone()).isTrue();
+    try {
+      combined.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).hasMessage("monkey");
+    }
+  }
+
+  @Test public void combineAsync_cancelPropagatesBackwards() throws Exception {
+    SettableFuture<String> a = SettableFuture.create();
+    SettableFuture<Integer> b = SettableFuture.create();
+    ListenableFuture<String> combined = Producers.combineAsync(
+        new Callable<ListenableFuture<String>>() {
+          @Override public ListenableFuture<String> call() {
+            throw new AssertionError("combiner should not run");
+          }
+        }, MoreExecutors.directExecutor(), a, b);
+    combined.cancel(false);
+    assertThat(a.isCancelled()).isTrue();
+    assertThat(b.isCancelled()).isTrue();
+  }
+
+  @Test public void combineAsync_inputFailureCancelsOtherInputs() throws Exception {
+    SettableFuture<String> a = SettableFuture.create();
+    SettableFuture<Integer> b = SettableFuture.create();
+    Producers.combineAsync(
+        new Callable<ListenableFuture<String>>() {
+          @Override public ListenableFuture<String> call() {
+            throw new AssertionError("combiner should not run");
+          }
+        }, MoreExecutors.directExecutor(), a, b);
+    b.setException(new RuntimeException("monkey"));
+    assertThat(a.isCancelled()).isTrue();
+  }
+
+  @Test public void getDone_notDone() throws Exception {
+    try {
+      Producers.getDone(SettableFuture.<String>create());
+      fail();
+    } catch (IllegalStateException expected) {}
+  }
+
   @Test public void submitToExecutor() throws Exception {
     ListenableFuture<Integer> future = Producers.submitToExecutor(new Callable<Integer>() {
       @Override public Integer call() {
@@ -108,6 +200,262 @@ public class ProducersTest {
     assertThat(future.get()).isEqualTo(42);
   }
 
+  @Test public void submitToExecutor_cancelRemovesQueuedTask() throws Exception {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    final CountDownLatch release = new CountDownLatch(1);
+    try {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          Uninterruptibles.awaitUninterruptibly(release);
+        }
+      });
+      ListenableFuture<Integer> future = Producers.submitToExecutor(new Callable<Integer>() {
+        @Override public Integer call() {
+          throw new AssertionError("cancelled task should not run");
+        }
+      }, executor);
+      assertThat(executor.getQueue().size()).isEqualTo(1);
+      future.cancel(false);
+      assertThat(executor.getQueue().isEmpty()).isTrue();
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test public void withTimeout_completesLikeInput() throws Exception {
+    SettableFuture<String> input = SettableFuture.create();
+    ListenableFuture<String> future = Producers.withTimeout(input, 1, TimeUnit.MINUTES,
+        MoreExecutors.directExecutor());
+    assertThat(future.isDone()).isFalse();
+    input.set("monkey");
+    assertThat(future.get()).isEqualTo("monkey");
+  }
+
+  @Test public void withTimeout_failsAndCancelsInputWhenTimeExpires() throws Exception {
+    SettableFuture<String> input = SettableFuture.create();
+    ListenableFuture<String> future = Producers.withTimeout(
+        input, 10, TimeUnit.MILLISECONDS, MoreExecutors.directExecutor());
+    try {
+      future.get(1, TimeUnit.MINUTES);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof TimeoutException).isTrue();
+    }
+    assertThat(input.isCancelled()).isTrue();
+  }
+
+  @Test public void withTimeout_failsOnExecutor() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Thread executorThread = executor.submit(new Callable<Thread>() {
+        @Override public Thread call() {
+          return Thread.currentThread();
+        }
+      }).get();
+      final SettableFuture<Thread> consumerThread = SettableFuture.create();
+      ListenableFuture<String> future = Producers.withTimeout(
+          SettableFuture.<String>create(), 10, TimeUnit.MILLISECONDS, executor);
+      future.addListener(new Runnable() {
+        @Override public void run() {
+          consumerThread.set(Thread.currentThread());
+        }
+      }, MoreExecutors.directExecutor());
+      assertThat(consumerThread.get(1, TimeUnit.MINUTES)).isSameAs(executorThread);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test public void withTimeout_cancelPropagatesToInput() throws Exception {
+    SettableFuture<String> input = SettableFuture.create();
+    Producers.withTimeout(input, 1, TimeUnit.MINUTES, MoreExecutors.directExecutor())
+        .cancel(false);
+    assertThat(input.isCancelled()).isTrue();
+  }
+
+  @Test public void withDeadline_noTimeout() throws Exception {
+    Producer<Integer> producer = Producers.producerFromProvider(new Provider<Integer>() {
+      @Override public Integer get() {
+        return 1;
+      }
+    });
+    assertThat(Producers.withDeadline(
+        producer, System.nanoTime(), Producers.NO_TIMEOUT, MoreExecutors.directExecutor()))
+        .isEqualTo(producer);
+  }
+
+  @Test public void withDeadline_expiredDeadlineFailsWithoutRequesting() throws Exception {
+    Producer<String> producer = new Producer<String>() {
+      @Override public ListenableFuture<String> get() {
+        throw new AssertionError("a producer past its deadline should not be requested");
+      }
+    };
+    ListenableFuture<String> future = Producers.withDeadline(
+        producer, System.nanoTime() - TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(1),
+        MoreExecutors.directExecutor())
+        .get();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof TimeoutException).isTrue();
+    }
+  }
+
+  /** Returns the futures of {@link #attempts}, in order, and counts down each time it's called. */
+  private static final class Attempts implements Callable<ListenableFuture<String>> {
+    final List<SettableFuture<String>> attempts =
+        new CopyOnWriteArrayList<SettableFuture<String>>();
+    final CountDownLatch secondAttempt = new CountDownLatch(2);
+
+    Attempts() {
+      attempts.add(SettableFuture.<String>create());
+      attempts.add(SettableFuture.<String>create());
+    }
+
+    @Override public ListenableFuture<String> call() {
+      int attempt = 2 - (int) secondAttempt.getCount();
+      secondAttempt.countDown();
+      return attempts.get(attempt);
+    }
+  }
+
+  private static final class HedgeMonitor extends ProducerMonitor {
+    volatile int hedges;
+    volatile int hedgeWins;
+
+    @Override public void hedging() {
+      hedges++;
+    }
+
+    @Override public void hedgeSucceeded() {
+      hedgeWins++;
+    }
+  }
+
+  @Test public void hedge_firstAttemptWithinDelayIsNotHedged() throws Exception {
+    Attempts attempts = new Attempts();
+    HedgeMonitor monitor = new HedgeMonitor();
+    ListenableFuture<String> future = Producers.hedge(
+        attempts, 1, TimeUnit.MINUTES, MoreExecutors.directExecutor(), monitor);
+    attempts.attempts.get(0).set("first");
+    assertThat(future.get()).isEqualTo("first");
+    assertThat(attempts.secondAttempt.getCount()).isEqualTo(1L);
+    assertThat(monitor.hedges).isEqualTo(0);
+  }
+
+  @Test public void hedge_secondAttemptWinsAndCancelsFirst() throws Exception {
+    Attempts attempts = new Attempts();
+    HedgeMonitor monitor = new HedgeMonitor();
+    ListenableFuture<String> future = Producers.hedge(
+        attempts, 10, TimeUnit.MILLISECONDS, MoreExecutors.directExecutor(), monitor);
+    assertThat(attempts.secondAttempt.await(1, TimeUnit.MINUTES)).isTrue();
+    assertThat(future.isDone()).isFalse();
+    attempts.attempts.get(1).set("second");
+    assertThat(future.get()).isEqualTo("second");
+    assertThat(attempts.attempts.get(0).isCancelled()).isTrue();
+    assertThat(monitor.hedges).isEqualTo(1);
+    assertThat(monitor.hedgeWins).isEqualTo(1);
+  }
+
+  @Test public void hedge_failureWithinDelayIsNotHedged() throws Exception {
+    Attempts attempts = new Attempts();
+    ListenableFuture<String> future = Producers.hedge(
+        attempts, 1, TimeUnit.MINUTES, MoreExecutors.directExecutor(), new HedgeMonitor());
+    RuntimeException failure = new RuntimeException("monkey");
+    attempts.attempts.get(0).setException(failure);
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isEqualTo(failure);
+    }
+    assertThat(attempts.secondAttempt.getCount()).isEqualTo(1L);
+  }
+
+  @Test public void hedge_failsOnceBothAttemptsFail() throws Exception {
+    Attempts attempts = new Attempts();
+    HedgeMonitor monitor = new HedgeMonitor();
+    ListenableFuture<String> future = Producers.hedge(
+        attempts, 10, TimeUnit.MILLISECONDS, MoreExecutors.directExecutor(), monitor);
+    assertThat(attempts.secondAttempt.await(1, TimeUnit.MINUTES)).isTrue();
+    attempts.attempts.get(0).setException(new RuntimeException("first"));
+    assertThat(future.isDone()).isFalse();
+    RuntimeException failure = new RuntimeException("second");
+    attempts.attempts.get(1).setException(failure);
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isEqualTo(failure);
+    }
+    assertThat(monitor.hedgeWins).isEqualTo(0);
+  }
+
+  @Test public void hedge_cancelPropagatesToAttempts() throws Exception {
+    Attempts attempts = new Attempts();
+    Producers.hedge(
+        attempts, 1, TimeUnit.MINUTES, MoreExecutors.directExecutor(), new HedgeMonitor())
+        .cancel(false);
+    assertThat(attempts.attempts.get(0).isCancelled()).isTrue();
+  }
+
+  /** Counts its calls, and returns the same future each time. */
+  private static final class CountingCall implements Callable<ListenableFuture<String>> {
+    final SettableFuture<String> future = SettableFuture.create();
+    int calls;
+
+    @Override public ListenableFuture<String> call() {
+      calls++;
+      return future;
+    }
+  }
+
+  private static final ProducerToken TOKEN = ProducerToken.create(ProducersTest.class);
+
+  @Test public void singleFlight_sharesCallInFlight() throws Exception {
+    CountingCall call = new CountingCall();
+    ListenableFuture<String> first = Producers.singleFlight(TOKEN, call, "shared");
+    ListenableFuture<String> second = Producers.singleFlight(TOKEN, call, "shared");
+    assertThat(call.calls).isEqualTo(1);
+    call.future.set("monkey");
+    assertThat(first.get()).isEqualTo("monkey");
+    assertThat(second.get()).isEqualTo("monkey");
+    assertThat(SingleFlightCalls.size()).isEqualTo(0);
+    Producers.singleFlight(TOKEN, call, "shared");
+    assertThat(call.calls).isEqualTo(2);
+  }
+
+  @Test public void singleFlight_differentInputsCallSeparately() throws Exception {
+    CountingCall call = new CountingCall();
+    Producers.singleFlight(TOKEN, call, "a");
+    Producers.singleFlight(TOKEN, call, "b");
+    assertThat(call.calls).isEqualTo(2);
+    call.future.set("done");
+  }
+
+  @Test public void singleFlight_cancelsCallOnceEveryCallerCancels() throws Exception {
+    CountingCall call = new CountingCall();
+    ListenableFuture<String> first = Producers.singleFlight(TOKEN, call, "cancelled");
+    ListenableFuture<String> second = Producers.singleFlight(TOKEN, call, "cancelled");
+    first.cancel(false);
+    assertThat(call.future.isCancelled()).isFalse();
+    assertThat(second.isDone()).isFalse();
+    second.cancel(false);
+    assertThat(call.future.isCancelled()).isTrue();
+    Producers.singleFlight(TOKEN, call, "cancelled");
+    assertThat(call.calls).isEqualTo(2);
+  }
+
+  @Test public void callKey() {
+    assertThat(Producers.callKey(TOKEN, "a", 1)).isEqualTo(Producers.callKey(TOKEN, "a", 1));
+    assertThat(Producers.callKey(TOKEN, "a", 1)).isNotEqualTo(Producers.callKey(TOKEN, "a", 2));
+    assertThat(Producers.callKey(TOKEN, "a", 1))
+        .isNotEqualTo(Producers.callKey(ProducerToken.create(String.class), "a", 1));
+  }
+
   @Test public void producerFromProvider() throws Exception {
     Producer<Integer> producer = Producers.producerFromProvider(new Provider<Integer>() {
       int i = 0;
@@ -120,4 +468,20 @@ public class ProducersTest {
     assertThat(producer.get().get()).isEqualTo(0);
     assertThat(producer.get().get()).isEqualTo(0);
   }
+
+  @Test public void producerFromProvider_failingProviderFailsFuture() throws Exception {
+    final IllegalStateException t = new IllegalStateException("provision failed");
+    Producer<Integer> producer = Producers.producerFromProvider(new Provider<Integer>() {
+      @Override public Integer get() {
+        throw t;
+      }
+    });
+    ListenableFuture<Integer> future = producer.get();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(t);
+    }
+  }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Produced;
+import dagger.producers.Producer;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static dagger.producers.internal.SetProducerTest.immediateProducer;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link SetOfProducedProducer}.
+ */
+@RunWith(JUnit4.class)
+public class SetOfProducedProducerTest {
+  @Test public void success() throws Exception {
+    Producer<Set<Produced<Integer>>> producer = SetOfProducedProducer.create(
+        immediateProducer(ImmutableSet.of(1, 2)),
+        immediateProducer(ImmutableSet.of(5, 7)));
+    assertThat(producer.get().get()).containsExactly(
+        Producers.successfulProduced(1),
+        Producers.successfulProduced(2),
+        Producers.successfulProduced(5),
+        Producers.successfulProduced(7));
+  }
+
+  @Test public void failedContributionIsReportedInTheSet() throws Exception {
+    RuntimeException monkey = new RuntimeException("monkey");
+    SettableFuture<Set<Integer>> slow = SettableFuture.create();
+    ListenableFuture<Set<Produced<Integer>>> future = SetOfProducedProducer.create(
+        new SetProducerTest.CountingProducer<Set<Integer>>(slow),
+        new SetProducerTest.CountingProducer<Set<Integer>>(
+            Futures.<Set<Integer>>immediateFailedFuture(monkey))).get();
+    assertThat(future.isDone()).isFalse();
+    assertThat(slow.isCancelled()).isFalse();
+
+    slow.set(ImmutableSet.of(1));
+    Set<Produced<Integer>> produced = future.get();
+    assertThat(produced.size()).isEqualTo(2);
+    assertThat(produced).contains(Producers.successfulProduced(1));
+    for (Produced<Integer> element : produced) {
+      if (!element.equals(Producers.successfulProduced(1))) {
+        try {
+          element.get();
+          fail();
+        } catch (ExecutionException e) {
+          assertThat(e.getCause()).isEqualTo(monkey);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Producer;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link SetProducer}.
+ */
+@RunWith(JUnit4.class)
+public class SetProducerTest {
+  @Test public void success() throws Exception {
+    Producer<Set<Integer>> producer = SetProducer.create(
+        immediateProducer(ImmutableSet.of(1, 2)),
+        immediateProducer(ImmutableSet.of(5, 7)));
+    assertThat(producer.get().get()).containsExactly(1, 2, 5, 7);
+  }
+
+  @Test public void delegateSetNpe() throws Exception {
+    Producer<Set<Integer>> producer = SetProducer.create(
+        immediateProducer(ImmutableSet.of(1)),
+        immediateProducer((Set<Integer>) null));
+    try {
+      producer.get().get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause() instanceof NullPointerException).isTrue();
+    }
+  }
+
+  @Test public void requestsEveryContributionBeforeAnyCompletes() throws Exception {
+    SettableFuture<Set<Integer>> first = SettableFuture.create();
+    SettableFuture<Set<Integer>> second = SettableFuture.create();
+    CountingProducer<Set<Integer>> firstProducer = new CountingProducer<Set<Integer>>(first);
+    CountingProducer<Set<Integer>> secondProducer = new CountingProducer<Set<Integer>>(second);
+    ListenableFuture<Set<Integer>> future =
+        SetProducer.create(firstProducer, secondProducer).get();
+    assertThat(firstProducer.requests).isEqualTo(1);
+    assertThat(secondProducer.requests).isEqualTo(1);
+
+    second.set(ImmutableSet.of(2));
+    assertThat(future.isDone()).isFalse();
+    first.set(ImmutableSet.of(1));
+    assertThat(future.get()).containsExactly(1, 2);
+  }
+
+  @Test public void oneFailureFailsTheSetWithoutWaiting() throws Exception {
+    SettableFuture<Set<Integer>> slow = SettableFuture.create();
+    ListenableFuture<Set<Integer>> future = SetProducer.create(
+        new CountingProducer<Set<Integer>>(slow),
+        new CountingProducer<Set<Integer>>(
+            Futures.<Set<Integer>>immediateFailedFuture(new RuntimeException("monkey")))).get();
+    assertThat(future.isDone()).isTrue();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).hasMessage("monkey");
+    }
+    assertThat(slow.isCancelled()).isTrue();
+  }
+
+  static <T> Producer<T> immediateProducer(final T value) {
+    return new Producer<T>() {
+      @Override public ListenableFuture<T> get() {
+        return Futures.immediateFuture(value);
+      }
+    };
+  }
+
+  static final class CountingProducer<T> implements Producer<T> {
+    private final ListenableFuture<T> future;
+    int requests;
+
+    CountingProducer(ListenableFuture<T> future) {
+      this.future = future;
+    }
+
+    @Override public ListenableFuture<T> get() {
+      requests++;
+      return future;
+    }
+  }
+}
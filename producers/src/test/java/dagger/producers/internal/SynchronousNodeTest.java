@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.monitoring.ProducerMonitor;
+import dagger.producers.monitoring.ProducerToken;
+import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link SynchronousNode}.
+ */
+@RunWith(JUnit4.class)
+public class SynchronousNodeTest {
+  private static final ProducerToken ID = ProducerToken.create(Integer.class);
+  private static final ProducerToken NAME = ProducerToken.create(String.class);
+
+  private final List<String> events = new CopyOnWriteArrayList<String>();
+  private final ProductionComponentMonitor componentMonitor = new ProductionComponentMonitor() {
+    @Override public ProducerMonitor producerMonitorFor(final ProducerToken token) {
+      final String node = token == ID ? "id" : "name";
+      return new ProducerMonitor() {
+        @Override public void requested() {
+          events.add(node + " requested");
+        }
+
+        @Override public void methodStarting() {
+          events.add(node + " starting");
+        }
+
+        @Override public void methodFinished() {
+          events.add(node + " finished");
+        }
+
+        @Override public void succeeded(Object o) {
+          events.add(node + " succeeded " + o);
+        }
+
+        @Override public void failed(Throwable t) {
+          events.add(node + " failed " + t.getMessage());
+        }
+      };
+    }
+  };
+
+  @Test public void get_evaluatesInputsFirstAndOnlyOnce() throws Exception {
+    final SynchronousNode<Integer> id = new SynchronousNode<Integer>(componentMonitor, ID) {
+      @Override protected Integer compute() {
+        events.add("id computed");
+        return 42;
+      }
+    };
+    SynchronousNode<String> name = new SynchronousNode<String>(componentMonitor, NAME, id) {
+      @Override protected String compute() {
+        return "user " + id.value();
+      }
+    };
+    ListenableFuture<String> future = name.get();
+    assertThat(future.isDone()).isTrue();
+    assertThat(future.get()).isEqualTo("user 42");
+    assertThat(name.get().get()).isEqualTo("user 42");
+    assertThat(id.get().get()).isEqualTo(42);
+    assertThat(events).isEqualTo(ImmutableList.of(
+        "name requested",
+        "id requested",
+        "id starting",
+        "id computed",
+        "id finished",
+        "id succeeded 42",
+        "name starting",
+        "name finished",
+        "name succeeded user 42"));
+  }
+
+  @Test public void get_inputFailureSkipsMethod() throws Exception {
+    final IOException failure = new IOException("monkey");
+    final SynchronousNode<Integer> id = new SynchronousNode<Integer>(componentMonitor, ID) {
+      @Override protected Integer compute() throws IOException {
+        throw failure;
+      }
+    };
+    SynchronousNode<String> name = new SynchronousNode<String>(componentMonitor, NAME, id) {
+      @Override protected String compute() {
+        events.add("name computed");
+        return "user " + id.value();
+      }
+    };
+    try {
+      name.get().get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(failure);
+    }
+    assertThat(events).isEqualTo(ImmutableList.of(
+        "name requested",
+        "id requested",
+        "id starting",
+        "id finished",
+        "id failed monkey",
+        "name failed monkey"));
+  }
+
+  @Test public void value_beforeEvaluation() {
+    SynchronousNode<Integer> id = new SynchronousNode<Integer>(componentMonitor, ID) {
+      @Override protected Integer compute() {
+        return 42;
+      }
+    };
+    try {
+      id.value();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    id.get();
+    assertThat(id.value()).isEqualTo(42);
+  }
+}
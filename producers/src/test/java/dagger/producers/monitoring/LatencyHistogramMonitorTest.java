@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import com.google.common.base.Ticker;
+import dagger.producers.monitoring.LatencyHistogramMonitor.NodeStatistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests {@link LatencyHistogramMonitor} and {@link LatencyHistogram}.
+ */
+@RunWith(JUnit4.class)
+public class LatencyHistogramMonitorTest {
+  private static final class FakeTicker extends Ticker {
+    long nanos;
+
+    @Override public long read() {
+      return nanos;
+    }
+  }
+
+  @Test public void recordsLatenciesAndOutcomes() {
+    FakeTicker ticker = new FakeTicker();
+    LatencyHistogramMonitor componentMonitor = new LatencyHistogramMonitor(ticker);
+    ProducerToken token = ProducerToken.create(LatencyHistogramMonitorTest.class);
+
+    ProducerMonitor monitor = componentMonitor.producerMonitorFor(token);
+    monitor.requested();
+    ticker.nanos += 100;
+    monitor.methodStarting();
+    ticker.nanos += 20;
+    monitor.methodFinished();
+    ticker.nanos += 5;
+    monitor.succeeded("value");
+
+    monitor = componentMonitor.producerMonitorFor(token);
+    monitor.requested();
+    ticker.nanos += 7;
+    monitor.failed(new RuntimeException());
+
+    NodeStatistics statistics = componentMonitor.statisticsFor(token);
+    assertThat(componentMonitor.statistics().keySet()).containsExactly(token);
+    assertThat(statistics.successes()).isEqualTo(1L);
+    assertThat(statistics.failures()).isEqualTo(1L);
+    assertThat(statistics.queued().count()).isEqualTo(1L);
+    assertThat(statistics.queued().maxNanos()).isEqualTo(100L);
+    assertThat(statistics.running().totalNanos()).isEqualTo(20L);
+    assertThat(statistics.total().count()).isEqualTo(2L);
+    assertThat(statistics.total().maxNanos()).isEqualTo(125L);
+  }
+
+  @Test public void countsHedges() {
+    LatencyHistogramMonitor componentMonitor = new LatencyHistogramMonitor();
+    ProducerToken token = ProducerToken.create(LatencyHistogramMonitorTest.class);
+
+    ProducerMonitor monitor = componentMonitor.producerMonitorFor(token);
+    monitor.hedging();
+    monitor.hedgeSucceeded();
+    monitor.succeeded("value");
+
+    monitor = componentMonitor.producerMonitorFor(token);
+    monitor.hedging();
+    monitor.succeeded("value");
+
+    componentMonitor.producerMonitorFor(token).succeeded("value");
+
+    NodeStatistics statistics = componentMonitor.statisticsFor(token);
+    assertThat(statistics.successes()).isEqualTo(3L);
+    assertThat(statistics.hedges()).isEqualTo(2L);
+    assertThat(statistics.hedgeWins()).isEqualTo(1L);
+  }
+
+  @Test public void histogram_emptyPercentile() {
+    assertThat(new LatencyHistogram().percentileNanos(50)).isEqualTo(0L);
+  }
+
+  @Test public void histogram_percentilesWithinAQuarter() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long nanos = 1; nanos <= 1000; nanos++) {
+      histogram.record(nanos * 1000);
+    }
+    assertThat(histogram.count()).isEqualTo(1000L);
+    assertThat(histogram.maxNanos()).isEqualTo(1000000L);
+    assertThat(histogram.percentileNanos(100)).isEqualTo(1000000L);
+    long median = histogram.percentileNanos(50);
+    assertThat(median >= 500000 && median <= 500000 * 5 / 4).isTrue();
+    long p99 = histogram.percentileNanos(99);
+    assertThat(p99 >= 990000 && p99 <= 1000000).isTrue();
+  }
+
+  @Test public void histogram_negativeDurationsCountAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    assertThat(histogram.maxNanos()).isEqualTo(0L);
+    assertThat(histogram.percentileNanos(100)).isEqualTo(0L);
+  }
+}
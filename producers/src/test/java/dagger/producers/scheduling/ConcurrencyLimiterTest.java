@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.scheduling;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ConcurrencyLimiter}.
+ */
+@RunWith(JUnit4.class)
+public class ConcurrencyLimiterTest {
+  private final List<String> calls = new CopyOnWriteArrayList<String>();
+
+  @Test public void submit_queuesCallsBeyondLimit() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.named("queuesCallsBeyondLimit", 2);
+    SettableFuture<String> a = SettableFuture.create();
+    SettableFuture<String> b = SettableFuture.create();
+    SettableFuture<String> c = SettableFuture.create();
+    ListenableFuture<String> aFuture = limiter.submit(call("a", a), directExecutor());
+    ListenableFuture<String> bFuture = limiter.submit(call("b", b), directExecutor());
+    ListenableFuture<String> cFuture = limiter.submit(call("c", c), directExecutor());
+    assertThat(calls).containsExactly("a", "b");
+    assertThat(limiter.running()).isEqualTo(2);
+    assertThat(limiter.queueDepth()).isEqualTo(1);
+
+    b.set("b value");
+    assertThat(bFuture.get()).isEqualTo("b value");
+    assertThat(calls).containsExactly("a", "b", "c");
+    assertThat(limiter.running()).isEqualTo(2);
+    assertThat(limiter.queueDepth()).isEqualTo(0);
+
+    a.set("a value");
+    c.set("c value");
+    assertThat(aFuture.get()).isEqualTo("a value");
+    assertThat(cFuture.get()).isEqualTo("c value");
+    assertThat(limiter.running()).isEqualTo(0);
+    assertThat(limiter.waitTimes().count()).isEqualTo(3L);
+  }
+
+  @Test public void submit_releasesPermitOnFailure() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.named("releasesPermitOnFailure", 1);
+    final RuntimeException failure = new RuntimeException("monkey");
+    ListenableFuture<String> failed = limiter.submit(new Callable<ListenableFuture<String>>() {
+      @Override public ListenableFuture<String> call() {
+        throw failure;
+      }
+    }, directExecutor());
+    try {
+      failed.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(failure);
+    }
+    assertThat(limiter.running()).isEqualTo(0);
+    SettableFuture<String> next = SettableFuture.create();
+    limiter.submit(call("next", next), directExecutor());
+    assertThat(calls).containsExactly("next");
+  }
+
+  @Test public void cancel_removesWaitingCall() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.named("removesWaitingCall", 1);
+    SettableFuture<String> a = SettableFuture.create();
+    limiter.submit(call("a", a), directExecutor());
+    ListenableFuture<String> bFuture =
+        limiter.submit(call("b", SettableFuture.<String>create()), directExecutor());
+    assertThat(bFuture.cancel(true)).isTrue();
+    assertThat(limiter.queueDepth()).isEqualTo(0);
+
+    a.set("a value");
+    assertThat(calls).containsExactly("a");
+    assertThat(limiter.running()).isEqualTo(0);
+  }
+
+  @Test public void cancel_cancelsRunningCallAndReleasesPermit() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.named("cancelsRunningCall", 1);
+    SettableFuture<String> a = SettableFuture.create();
+    ListenableFuture<String> aFuture = limiter.submit(call("a", a), directExecutor());
+    limiter.submit(call("b", SettableFuture.<String>create()), directExecutor());
+    assertThat(aFuture.cancel(true)).isTrue();
+    assertThat(a.isCancelled()).isTrue();
+    assertThat(calls).containsExactly("a", "b");
+    assertThat(limiter.running()).isEqualTo(1);
+  }
+
+  @Test public void named_returnsSameLimiter() {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.named("returnsSameLimiter", 3);
+    assertThat(ConcurrencyLimiter.named("returnsSameLimiter", 3)).isSameAs(limiter);
+    assertThat(ConcurrencyLimiter.limiters().get("returnsSameLimiter")).isSameAs(limiter);
+    assertThat(limiter.maxConcurrency()).isEqualTo(3);
+  }
+
+  @Test public void named_rejectsDifferentLimit() {
+    ConcurrencyLimiter.named("rejectsDifferentLimit", 3);
+    try {
+      ConcurrencyLimiter.named("rejectsDifferentLimit", 4);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @Test public void named_rejectsNonPositiveLimit() {
+    try {
+      ConcurrencyLimiter.named("rejectsNonPositiveLimit", 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    assertThat(ConcurrencyLimiter.limiters().containsKey("rejectsNonPositiveLimit")).isFalse();
+  }
+
+  private Callable<ListenableFuture<String>> call(
+      final String name, final ListenableFuture<String> result) {
+    return new Callable<ListenableFuture<String>>() {
+      @Override public ListenableFuture<String> call() {
+        calls.add(name);
+        return result;
+      }
+    };
+  }
+}
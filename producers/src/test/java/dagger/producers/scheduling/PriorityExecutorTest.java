@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.scheduling;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests {@link PriorityExecutor}.
+ */
+@RunWith(JUnit4.class)
+public class PriorityExecutorTest {
+  private final PriorityExecutor executor = PriorityExecutor.create(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final List<String> runs = new CopyOnWriteArrayList<String>();
+
+  @After public void shutDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test public void execute_runsHighestPriorityFirst() throws Exception {
+    blockThread();
+    executor.execute(record("low"), 1);
+    executor.execute(record("high"), 3);
+    executor.execute(record("default"));
+    executor.execute(record("middle"), 2);
+    executor.execute(record("high again"), 3);
+    release.countDown();
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(runs).isEqualTo(
+        ImmutableList.of("high", "high again", "middle", "low", "default"));
+  }
+
+  @Test public void remove_removesQueuedTask() throws Exception {
+    blockThread();
+    Runnable task = record("removed");
+    executor.execute(task, 1);
+    assertThat(executor.remove(task)).isTrue();
+    assertThat(executor.getQueue().isEmpty()).isTrue();
+  }
+
+  /** Occupies the executor's only thread until {@link #release} is counted down. */
+  private void blockThread() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    executor.execute(new Runnable() {
+      @Override public void run() {
+        started.countDown();
+        Uninterruptibles.awaitUninterruptibly(release);
+      }
+    });
+    started.await();
+  }
+
+  private Runnable record(final String name) {
+    return new Runnable() {
+      @Override public void run() {
+        runs.add(name);
+      }
+    };
+  }
+}